@@ -16,10 +16,16 @@ android {
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
     }
 
+    buildFeatures {
+        buildConfig = true
+    }
+
     buildTypes {
         release {
             isMinifyEnabled = true
             isShrinkResources = true
+            // DreamLog.d/v compile to nothing; proguard-rules.pro strips the calls
+            buildConfigField("int", "LOG_LEVEL", "android.util.Log.INFO")
             proguardFiles(
                 getDefaultProguardFile("proguard-android-optimize.txt"),
                 "proguard-rules.pro"
@@ -29,12 +35,20 @@ android {
         debug {
             applicationIdSuffix = ".debug"
             isDebuggable = true
+            buildConfigField("int", "LOG_LEVEL", "android.util.Log.DEBUG")
         }
     }
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_1_8
         targetCompatibility = JavaVersion.VERSION_1_8
     }
+
+    testOptions {
+        unitTests {
+            // The Robolectric cost budget test inflates the dream's layout
+            isIncludeAndroidResources = true
+        }
+    }
     
     bundle {
         language {
@@ -51,6 +65,8 @@ android {
 
 dependencies {
 
+    implementation(project(":core"))
+
     implementation("androidx.core:core-ktx:1.12.0")
     implementation("androidx.appcompat:appcompat:1.6.1")
     implementation("com.google.android.material:material:1.11.0")
@@ -58,10 +74,43 @@ dependencies {
     implementation("androidx.leanback:leanback:1.0.0")
     implementation("androidx.annotation:annotation:1.7.1")
     testImplementation("junit:junit:4.13.2")
+    testImplementation("org.robolectric:robolectric:4.11.1")
     androidTestImplementation("androidx.test.ext:junit:1.1.5")
     androidTestImplementation("androidx.test.espresso:espresso-core:3.5.1")
     
     // Add androidx.lifecycle components for better lifecycle management
     implementation("androidx.lifecycle:lifecycle-runtime:2.6.2")
     implementation("androidx.lifecycle:lifecycle-common-java8:2.6.2")
-}
\ No newline at end of file
+}
+
+// Fails if the minified release APK still calls Log.d or Log.v, e.g. after a rule in
+// proguard-rules.pro stops matching. Part of ./gradlew check, or run it alone with
+// ./gradlew :app:verifyReleaseLogStripping
+val dexdump = android.sdkDirectory.resolve("build-tools/${android.buildToolsVersion}/dexdump")
+val releaseApkDir = layout.buildDirectory.dir("outputs/apk/release")
+tasks.register("verifyReleaseLogStripping") {
+    group = "verification"
+    description = "Checks that R8 removed every Log.d and Log.v call from the release APK."
+    dependsOn("assembleRelease")
+    doLast {
+        val apks = releaseApkDir.get().asFile.listFiles { file -> file.name.endsWith(".apk") }.orEmpty()
+        check(apks.isNotEmpty()) { "No release APK in ${releaseApkDir.get()}" }
+        for (apk in apks) {
+            val process = ProcessBuilder(dexdump.path, "-d", apk.path).redirectErrorStream(true).start()
+            val calls = process.inputStream.bufferedReader().useLines { lines ->
+                lines.filter { it.contains("Landroid/util/Log;.d:") || it.contains("Landroid/util/Log;.v:") }
+                    .map { it.trim() }
+                    .toList()
+            }
+            check(process.waitFor() == 0) { "dexdump failed on ${apk.name}" }
+            check(calls.isEmpty()) {
+                "${apk.name} still has ${calls.size} Log.d/Log.v calls:\n" + calls.take(20).joinToString("\n")
+            }
+            logger.lifecycle("${apk.name}: no Log.d/Log.v calls")
+        }
+    }
+}
+
+tasks.named("check") {
+    dependsOn("verifyReleaseLogStripping")
+}
@@ -18,4 +18,15 @@
 
 # If you keep the line number information, uncomment this to
 # hide the original source file name.
-#-renamesourcefileattribute SourceFile
\ No newline at end of file
+#-renamesourcefileattribute SourceFile
+
+# Strip debug and verbose logging from release builds, together with the argument
+# expressions that only fed it. Checked by the :app:verifyReleaseLogStripping task.
+-assumenosideeffects class android.util.Log {
+    public static int v(...);
+    public static int d(...);
+}
+-assumenosideeffects class com.bytesmith.daydream.DreamLog {
+    static void v(...);
+    static void d(...);
+}
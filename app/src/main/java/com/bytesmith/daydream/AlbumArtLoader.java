@@ -0,0 +1,285 @@
+package com.bytesmith.daydream;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.media.MediaMetadata;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.text.TextUtils;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.Nullable;
+
+import com.bytesmith.daydream.core.DecodeSizes;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Memory-bounded album art pipeline for the now-playing banner.
+ * <p>
+ * Artwork is decoded on a background thread, downsampled to the target view size into RGB_565
+ * bitmaps taken from a small {@link BitmapPool}, and cached in a per-track LRU keyed by a hash of
+ * the track metadata, so each artwork is decoded once. Requests that are superseded while waiting
+ * (rapid skipping) are dropped before decoding. Peak memory is bounded by the LRU and pool budgets
+ * plus one in-flight decode.
+ * <p>
+ * HARDWARE bitmaps are not used: they cannot be decoded into with {@code inBitmap} or returned to
+ * the pool.
+ */
+class AlbumArtLoader {
+
+    private static final String TAG = "AlbumArtLoader";
+    private static final Bitmap.Config CONFIG = Bitmap.Config.RGB_565;
+    private static final int MAX_CACHED_TRACKS = 4;
+    private static final int MAX_POOLED_BITMAPS = 2;
+
+    interface Callback {
+        /** Called on the main thread with the artwork for the latest request, or null. */
+        void onAlbumArt(@Nullable Bitmap art);
+    }
+
+    private final ContentResolver contentResolver;
+    private final int targetSize;
+    private final Callback callback;
+    private final HandlerThread decodeThread;
+    private final Handler decodeHandler;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final BitmapPool bitmapPool;
+    private final LruCache<Long, Bitmap> artCache;
+    private final Paint scalePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect destRect = new Rect();
+
+    // Bumped on every request; decodes for older generations are skipped
+    private volatile int generation = 0;
+    private volatile long currentKey = 0;
+    // Bitmaps that may still be on screen must never go back to the pool
+    private volatile Bitmap shownBitmap = null;
+    private volatile Bitmap previousShownBitmap = null;
+
+    private long peakBytes = 0;
+
+    /**
+     * @param targetSize Edge length in pixels the artwork is downsampled to.
+     */
+    AlbumArtLoader(Context context, int targetSize, Callback callback) {
+        this.contentResolver = context.getContentResolver();
+        this.targetSize = Math.max(1, targetSize);
+        this.callback = callback;
+
+        final int bitmapBytes = this.targetSize * this.targetSize * BitmapPool.bytesPerPixel(CONFIG);
+        bitmapPool = new BitmapPool((long) bitmapBytes * MAX_POOLED_BITMAPS);
+        artCache = new LruCache<Long, Bitmap>(bitmapBytes * MAX_CACHED_TRACKS) {
+            @Override
+            protected int sizeOf(Long key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, Long key, Bitmap oldValue, Bitmap newValue) {
+                if (oldValue != shownBitmap && oldValue != previousShownBitmap) {
+                    bitmapPool.put(oldValue);
+                }
+            }
+        };
+
+        decodeThread = new HandlerThread("AlbumArtDecode", android.os.Process.THREAD_PRIORITY_BACKGROUND);
+        decodeThread.start();
+        decodeHandler = new Handler(decodeThread.getLooper());
+    }
+
+    /**
+     * Requests the artwork for the given track. Cached artwork is delivered immediately, anything
+     * else is decoded in the background. Must be called on the main thread.
+     */
+    void load(@Nullable MediaMetadata metadata) {
+        if (metadata == null) {
+            generation++;
+            currentKey = 0;
+            deliver(null);
+            return;
+        }
+
+        final long key = metadataKey(metadata);
+        Bitmap cached = artCache.get(key);
+        if (cached != null) {
+            generation++;
+            currentKey = key;
+            deliver(cached);
+            return;
+        }
+        if (key == currentKey && shownBitmap != null) {
+            return; // Same track already showing, nothing new to decode
+        }
+
+        final int requestGeneration = ++generation;
+        currentKey = key;
+        final Bitmap embedded = getEmbeddedArt(metadata);
+        final String artUri = getArtUri(metadata);
+        if (embedded == null && artUri == null) {
+            deliver(null);
+            return;
+        }
+
+        decodeHandler.post(() -> {
+            if (requestGeneration != generation) {
+                return; // Superseded by a newer track before we got to it
+            }
+            Bitmap art = embedded != null ? downsample(embedded) : decodeUri(artUri);
+            if (art == null) {
+                return;
+            }
+            artCache.put(key, art);
+            trackPeak();
+            if (requestGeneration == generation) {
+                mainHandler.post(() -> {
+                    if (requestGeneration == generation) {
+                        deliver(art);
+                    }
+                });
+            }
+        });
+    }
+
+    private void deliver(@Nullable Bitmap art) {
+        if (art != shownBitmap) {
+            previousShownBitmap = shownBitmap;
+            shownBitmap = art;
+        }
+        callback.onAlbumArt(art);
+    }
+
+    @Nullable
+    private static Bitmap getEmbeddedArt(MediaMetadata metadata) {
+        Bitmap art = metadata.getBitmap(MediaMetadata.METADATA_KEY_ALBUM_ART);
+        if (art == null) {
+            art = metadata.getBitmap(MediaMetadata.METADATA_KEY_ART);
+        }
+        return art;
+    }
+
+    @Nullable
+    private static String getArtUri(MediaMetadata metadata) {
+        String uri = metadata.getString(MediaMetadata.METADATA_KEY_ALBUM_ART_URI);
+        if (TextUtils.isEmpty(uri)) {
+            uri = metadata.getString(MediaMetadata.METADATA_KEY_ART_URI);
+        }
+        return TextUtils.isEmpty(uri) ? null : uri;
+    }
+
+    /** 64-bit hash of the fields that identify a track's artwork. */
+    private static long metadataKey(MediaMetadata metadata) {
+        long hash = 1125899906842597L;
+        hash = 31 * hash + hashOf(metadata.getString(MediaMetadata.METADATA_KEY_TITLE));
+        hash = 31 * hash + hashOf(metadata.getString(MediaMetadata.METADATA_KEY_ARTIST));
+        hash = 31 * hash + hashOf(metadata.getString(MediaMetadata.METADATA_KEY_ALBUM));
+        hash = 31 * hash + hashOf(getArtUri(metadata));
+        return hash;
+    }
+
+    private static int hashOf(@Nullable String value) {
+        return value == null ? 0 : value.hashCode();
+    }
+
+    // Scales a decoded bitmap into a pooled RGB_565 bitmap. The metadata's own bitmap is always
+    // copied, since it isn't ours to pool or recycle.
+    private Bitmap downsample(Bitmap source) {
+        float scale = DecodeSizes.fitScale(source.getWidth(), source.getHeight(), targetSize);
+        int width = DecodeSizes.scaledEdge(source.getWidth(), scale);
+        int height = DecodeSizes.scaledEdge(source.getHeight(), scale);
+
+        Bitmap target = bitmapPool.get(width, height, CONFIG);
+        if (target == null) {
+            target = Bitmap.createBitmap(width, height, CONFIG);
+        }
+        destRect.set(0, 0, width, height);
+        new Canvas(target).drawBitmap(source, null, destRect, scalePaint);
+        return target;
+    }
+
+    @Nullable
+    private Bitmap decodeUri(String artUri) {
+        Uri uri = Uri.parse(artUri);
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        decodeBitmap(uri, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        options.inSampleSize = DecodeSizes.fitSampleSize(options.outWidth, options.outHeight, targetSize);
+        options.inJustDecodeBounds = false;
+        options.inPreferredConfig = CONFIG;
+        options.inMutable = true;
+        int width = DecodeSizes.sampledEdge(options.outWidth, options.inSampleSize);
+        int height = DecodeSizes.sampledEdge(options.outHeight, options.inSampleSize);
+        options.inBitmap = bitmapPool.get(width, height, CONFIG);
+
+        Bitmap decoded = decodeBitmap(uri, options);
+        if (decoded == null && options.inBitmap != null) {
+            // Reuse can fail on some formats; retry with a fresh allocation
+            bitmapPool.put(options.inBitmap);
+            options.inBitmap = null;
+            decoded = decodeBitmap(uri, options);
+        }
+        if (decoded == null) {
+            return null;
+        }
+        if (decoded.getWidth() > targetSize || decoded.getHeight() > targetSize) {
+            Bitmap scaled = downsample(decoded);
+            bitmapPool.put(decoded);
+            return scaled;
+        }
+        return decoded;
+    }
+
+    @Nullable
+    private Bitmap decodeBitmap(Uri uri, BitmapFactory.Options options) {
+        try (InputStream in = contentResolver.openInputStream(uri)) {
+            if (in == null) return null;
+            return BitmapFactory.decodeStream(in, null, options);
+        } catch (IOException | SecurityException | IllegalArgumentException e) {
+            Log.w(TAG, "Failed to decode album art from " + uri, e);
+            return null;
+        }
+    }
+
+    private synchronized void trackPeak() {
+        long bytes = artCache.size() + bitmapPool.getPooledBytes();
+        if (bytes > peakBytes) {
+            peakBytes = bytes;
+        }
+    }
+
+    /** Highest observed cache + pool footprint in bytes. */
+    synchronized long getPeakBytes() {
+        return peakBytes;
+    }
+
+    /**
+     * Upper bound for cache + pool memory, excluding the one in-flight decode, which is at most
+     * {@code 2 * targetSize} on either edge (see {@link DecodeSizes#fitSampleSize}).
+     */
+    long getMemoryBudgetBytes() {
+        return artCache.maxSize()
+                + DecodeSizes.bytes(targetSize, targetSize, BitmapPool.bytesPerPixel(CONFIG)) * MAX_POOLED_BITMAPS;
+    }
+
+    void release() {
+        generation++;
+        decodeHandler.removeCallbacksAndMessages(null);
+        decodeThread.quitSafely();
+        shownBitmap = null;
+        previousShownBitmap = null;
+        artCache.evictAll();
+        bitmapPool.clear();
+    }
+}
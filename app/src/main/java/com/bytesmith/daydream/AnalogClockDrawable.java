@@ -0,0 +1,118 @@
+package com.bytesmith.daydream;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+
+import androidx.annotation.Nullable;
+
+import com.bytesmith.daydream.core.ClockFaceGeometry;
+
+/**
+ * Analog dial with hour and minute hands. Dial, ticks and numerals are cached; only the two hands
+ * are drawn per update.
+ */
+class AnalogClockDrawable extends ClockFaceDrawable {
+
+    private final int size;
+    private final Paint dialPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint tickPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint numeralPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint hourHandPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint minuteHandPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint hubPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    // Layout scratch: tick or numeral points for the static layer, the two hands per draw
+    private final float[] points = new float[ClockFaceGeometry.TICKS * 4];
+    private final float[] hands = new float[8];
+
+    /** @param size Diameter in pixels. */
+    AnalogClockDrawable(int color, int size) {
+        this.size = size;
+        float stroke = Math.max(1f, size / 100f);
+
+        dialPaint.setColor(color);
+        dialPaint.setStyle(Paint.Style.STROKE);
+        dialPaint.setStrokeWidth(stroke);
+
+        tickPaint.setColor(color);
+        tickPaint.setStrokeCap(Paint.Cap.ROUND);
+
+        numeralPaint.setColor(color);
+        numeralPaint.setTextAlign(Paint.Align.CENTER);
+        numeralPaint.setTextSize(size / 10f);
+
+        hourHandPaint.setColor(color);
+        hourHandPaint.setStrokeCap(Paint.Cap.ROUND);
+        hourHandPaint.setStrokeWidth(stroke * 4);
+
+        minuteHandPaint.setColor(color);
+        minuteHandPaint.setStrokeCap(Paint.Cap.ROUND);
+        minuteHandPaint.setStrokeWidth(stroke * 2.5f);
+
+        hubPaint.setColor(color);
+    }
+
+    @Override
+    protected void drawStaticLayer(Canvas canvas, int width, int height) {
+        float cx = width / 2f;
+        float cy = height / 2f;
+        float radius = Math.min(width, height) / 2f - dialPaint.getStrokeWidth();
+        canvas.drawCircle(cx, cy, radius, dialPaint);
+
+        float stroke = dialPaint.getStrokeWidth();
+        ClockFaceGeometry.ticks(cx, cy, radius, points);
+        for (int i = 0; i < ClockFaceGeometry.TICKS; i++) {
+            tickPaint.setStrokeWidth(ClockFaceGeometry.isHourTick(i) ? stroke * 2 : stroke);
+            canvas.drawLine(points[i * 4], points[i * 4 + 1], points[i * 4 + 2], points[i * 4 + 3], tickPaint);
+        }
+
+        float baselineOffset = -(numeralPaint.ascent() + numeralPaint.descent()) / 2f;
+        ClockFaceGeometry.numeralCenters(cx, cy, radius, points);
+        for (int hour = 1; hour <= ClockFaceGeometry.NUMERALS; hour++) {
+            canvas.drawText(Integer.toString(hour), points[(hour - 1) * 2],
+                    points[(hour - 1) * 2 + 1] + baselineOffset, numeralPaint);
+        }
+    }
+
+    @Override
+    protected void drawDynamic(Canvas canvas, int width, int height) {
+        if (hourOfDay < 0) return;
+        float cx = width / 2f;
+        float cy = height / 2f;
+        float radius = Math.min(width, height) / 2f;
+
+        ClockFaceGeometry.hand(cx, cy, ClockFaceGeometry.hourHandDegrees(hourOfDay, minute),
+                radius * ClockFaceGeometry.HOUR_HAND_LENGTH, hands, 0);
+        ClockFaceGeometry.hand(cx, cy, ClockFaceGeometry.minuteHandDegrees(minute),
+                radius * ClockFaceGeometry.MINUTE_HAND_LENGTH, hands, 4);
+        canvas.drawLine(hands[0], hands[1], hands[2], hands[3], hourHandPaint);
+        canvas.drawLine(hands[4], hands[5], hands[6], hands[7], minuteHandPaint);
+        canvas.drawCircle(cx, cy, hourHandPaint.getStrokeWidth(), hubPaint);
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        super.setColorFilter(colorFilter);
+        hourHandPaint.setColorFilter(colorFilter);
+        minuteHandPaint.setColorFilter(colorFilter);
+        hubPaint.setColorFilter(colorFilter);
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        super.setAlpha(alpha);
+        hourHandPaint.setAlpha(alpha);
+        minuteHandPaint.setAlpha(alpha);
+        hubPaint.setAlpha(alpha);
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+        return size;
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return size;
+    }
+}
@@ -0,0 +1,95 @@
+package com.bytesmith.daydream;
+
+import android.annotation.SuppressLint;
+import android.content.Intent;
+import android.os.BatteryManager;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import com.bytesmith.daydream.core.BatteryLevels;
+
+/**
+ * Battery percentage and icon, fed from {@code ACTION_BATTERY_CHANGED} broadcasts. The broadcast
+ * fires for voltage and temperature changes too; those don't change the level and are skipped.
+ */
+class BatteryWidget implements DreamWidget {
+
+    // One drawable per BatteryLevels bucket, highest first
+    private static final int[] ICON_RES_IDS = {
+            R.drawable.battery_charging_100,
+            R.drawable.battery_charging_95,
+            R.drawable.battery_charging_90,
+            R.drawable.battery_charging_85,
+            R.drawable.battery_charging_80,
+            R.drawable.battery_charging_75,
+            R.drawable.battery_charging_70,
+            R.drawable.battery_charging_65,
+            R.drawable.battery_charging_60,
+            R.drawable.battery_charging_55,
+            R.drawable.battery_charging_50,
+            R.drawable.battery_charging_45,
+            R.drawable.battery_charging_40,
+            R.drawable.battery_charging_35,
+            R.drawable.battery_charging_30,
+            R.drawable.battery_charging_25,
+            R.drawable.battery_charging_20,
+            R.drawable.battery_charging_15,
+            R.drawable.battery_charging_10,
+            R.drawable.battery_charging_5,
+            R.drawable.battery_charging_1
+    };
+
+    private final TextView levelTextView;
+    private final ImageView iconImageView;
+    private int batteryLevel = 0;
+
+    BatteryWidget(TextView levelTextView, ImageView iconImageView) {
+        this.levelTextView = levelTextView;
+        this.iconImageView = iconImageView;
+    }
+
+    /** Reads the level from a (possibly sticky) battery broadcast; null keeps the current level. */
+    void setBatteryStatus(Intent batteryStatus) {
+        if (batteryStatus == null) return;
+        int level = batteryStatus.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+        int scale = batteryStatus.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+        batteryLevel = BatteryLevels.percent(level, scale);
+    }
+
+    @Override
+    public String getName() {
+        return "battery";
+    }
+
+    @Override
+    public int getSources() {
+        return SOURCE_BATTERY;
+    }
+
+    @Override
+    public int getTrigger() {
+        return TRIGGER_EVENT;
+    }
+
+    @Override
+    public int getRenderCost() {
+        return COST_LOW;
+    }
+
+    @Override
+    public long getInputVersion(long nowMillis) {
+        return batteryLevel;
+    }
+
+    @SuppressLint("SetTextI18n")
+    @Override
+    public void render(long nowMillis) {
+        levelTextView.setText(batteryLevel + "%");
+        DreamMetrics.SET_TEXT.increment();
+        iconImageView.setImageResource(getBatteryIconResId(batteryLevel));
+    }
+
+    static int getBatteryIconResId(int batteryLevel) {
+        return ICON_RES_IDS[BatteryLevels.bucket(batteryLevel)];
+    }
+}
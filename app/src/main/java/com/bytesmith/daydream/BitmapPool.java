@@ -0,0 +1,76 @@
+package com.bytesmith.daydream;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Small bounded pool of mutable bitmaps for {@code BitmapFactory.Options.inBitmap} reuse.
+ * <p>
+ * Bitmaps are handed out when their allocation is large enough for the requested size and
+ * config, and reconfigured to the exact dimensions. Bitmaps that would push the
+ * pool over its byte budget are recycled instead of kept. Thread-safe.
+ */
+class BitmapPool {
+
+    private final long maxBytes;
+    private final List<Bitmap> bitmaps = new ArrayList<>();
+    private long pooledBytes = 0;
+
+    BitmapPool(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns a pooled bitmap reconfigured to the given size and config, or null if none fits.
+     * The caller owns the bitmap until it is {@link #put} back.
+     */
+    @Nullable
+    synchronized Bitmap get(int width, int height, Bitmap.Config config) {
+        long needed = (long) width * height * bytesPerPixel(config);
+        for (int i = 0; i < bitmaps.size(); i++) {
+            Bitmap candidate = bitmaps.get(i);
+            if (candidate.getAllocationByteCount() >= needed) {
+                bitmaps.remove(i);
+                pooledBytes -= candidate.getAllocationByteCount();
+                candidate.reconfigure(width, height, config);
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a bitmap to the pool, or recycles it if it can't be reused or doesn't fit the budget.
+     */
+    synchronized void put(@Nullable Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled()) return;
+        if (!bitmap.isMutable() || pooledBytes + bitmap.getAllocationByteCount() > maxBytes) {
+            bitmap.recycle();
+            return;
+        }
+        bitmaps.add(bitmap);
+        pooledBytes += bitmap.getAllocationByteCount();
+    }
+
+    synchronized long getPooledBytes() {
+        return pooledBytes;
+    }
+
+    synchronized void clear() {
+        for (Bitmap bitmap : bitmaps) {
+            bitmap.recycle();
+        }
+        bitmaps.clear();
+        pooledBytes = 0;
+    }
+
+    static int bytesPerPixel(Bitmap.Config config) {
+        if (config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444) return 2;
+        if (config == Bitmap.Config.ALPHA_8) return 1;
+        return 4;
+    }
+}
@@ -4,6 +4,9 @@ import android.content.Context;
 import android.os.Build;
 import android.provider.Settings;
 import android.util.Log;
+
+import com.bytesmith.daydream.core.FlightRecorder;
+
 import java.lang.ref.WeakReference;
 
 public class BrightnessService {
@@ -28,6 +31,7 @@ public class BrightnessService {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
             if (!Settings.System.canWrite(context)) {
                 Log.e(TAG, "WRITE_SETTINGS permission not granted");
+                DreamFlightRecorder.record(FlightRecorder.BRIGHTNESS_DENIED);
                 return;
             }
         }
@@ -42,18 +46,15 @@ public class BrightnessService {
             // Save the original brightness only once
             if (originalBrightness == -1) {
                 originalBrightness = getCurrentBrightness(context);
-                Log.d(TAG, "Original brightness saved: " + originalBrightness);
+                DreamLog.d(TAG, "Original brightness saved: {}", originalBrightness);
             }
 
             // Only change brightness if the desired brightness differs from current
             int currentBrightness = getCurrentBrightness(context);
             if (currentBrightness != brightness) {
-                Settings.System.putInt(
-                        context.getContentResolver(),
-                        Settings.System.SCREEN_BRIGHTNESS,
-                        brightness
-                );
-                Log.d(TAG, "Changed brightness from " + currentBrightness + " to " + brightness);
+                putBrightness(context, brightness);
+                DreamFlightRecorder.record(FlightRecorder.BRIGHTNESS_CHANGED, currentBrightness, brightness);
+                DreamLog.d(TAG, "Changed brightness from {} to {}", currentBrightness, brightness);
             }
         } catch (Exception e) {
             Log.e(TAG, "Failed to change brightness", e);
@@ -84,6 +85,7 @@ public class BrightnessService {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
             if (!Settings.System.canWrite(appContext)) {
                 Log.e(TAG, "WRITE_SETTINGS permission not granted, cannot restore");
+                DreamFlightRecorder.record(FlightRecorder.BRIGHTNESS_DENIED);
                 // Clear context reference even if permission denied
                 if (contextRef != null) {
                     contextRef.clear();
@@ -95,16 +97,13 @@ public class BrightnessService {
         try {
             if (originalBrightness != -1) {
                 int restoredBrightness = (int) originalBrightness; // Keep cast here as original was stored as float
-                Settings.System.putInt(
-                        appContext.getContentResolver(),
-                        Settings.System.SCREEN_BRIGHTNESS,
-                        restoredBrightness
-                );
-                Log.d(TAG, "Restored brightness to " + restoredBrightness);
+                putBrightness(appContext, restoredBrightness);
+                DreamFlightRecorder.record(FlightRecorder.BRIGHTNESS_RESTORED, restoredBrightness);
+                DreamLog.d(TAG, "Restored brightness to {}", restoredBrightness);
                 // Reset originalBrightness to indicate that it's been restored.
                 originalBrightness = -1;
             } else {
-                Log.d(TAG, "Original brightness not saved; nothing to restore.");
+                DreamLog.d(TAG, "Original brightness not saved; nothing to restore.");
             }
         } catch (Exception e) {
             Log.e(TAG, "Failed to restore original brightness", e);
@@ -123,6 +122,7 @@ public class BrightnessService {
      * @return The current brightness value (0-255).
      */
     private static int getCurrentBrightness(Context context) {
+        long start = System.nanoTime();
         try {
             return Settings.System.getInt(
                     context.getContentResolver(),
@@ -131,6 +131,20 @@ public class BrightnessService {
         } catch (Settings.SettingNotFoundException e) {
             Log.e(TAG, "Failed to get current brightness", e);
             return 128; // Default to mid-brightness if setting not found
+        } finally {
+            DreamMetrics.BRIGHTNESS_IPC.increment();
+            DreamMetrics.BRIGHTNESS_US.recordSince(start);
+        }
+    }
+
+    // Settings writes are a binder call into the settings provider, counted for dumpsys
+    private static void putBrightness(Context context, int brightness) {
+        long start = System.nanoTime();
+        try {
+            Settings.System.putInt(context.getContentResolver(), Settings.System.SCREEN_BRIGHTNESS, brightness);
+        } finally {
+            DreamMetrics.BRIGHTNESS_IPC.increment();
+            DreamMetrics.BRIGHTNESS_US.recordSince(start);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.bytesmith.daydream;
+
+import android.content.ContentResolver;
+import android.content.ContentUris;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.CalendarContract;
+import android.util.Log;
+
+import com.bytesmith.daydream.core.CalendarSource;
+
+/** {@link CalendarSource} backed by {@code CalendarContract.Instances}. */
+class CalendarProviderSource implements CalendarSource {
+
+    private static final String TAG = "CalendarProviderSource";
+    private static final String[] PROJECTION = {
+            CalendarContract.Instances.BEGIN,
+            CalendarContract.Instances.END,
+            CalendarContract.Instances.TITLE
+    };
+    private static final String SELECTION = CalendarContract.Instances.ALL_DAY + " = 0 AND "
+            + CalendarContract.Instances.BEGIN + " >= ?";
+
+    private final ContentResolver contentResolver;
+
+    CalendarProviderSource(ContentResolver contentResolver) {
+        this.contentResolver = contentResolver;
+    }
+
+    @Override
+    public void query(long beginMillis, long endMillis, Collector out) {
+        Uri.Builder builder = CalendarContract.Instances.CONTENT_URI.buildUpon();
+        ContentUris.appendId(builder, beginMillis);
+        ContentUris.appendId(builder, endMillis);
+        // The Instances URI returns everything overlapping the window; keep the ones starting in it
+        try (Cursor cursor = contentResolver.query(builder.build(), PROJECTION, SELECTION,
+                new String[]{Long.toString(beginMillis)}, CalendarContract.Instances.BEGIN + " ASC")) {
+            if (cursor == null) return;
+            while (cursor.moveToNext()) {
+                out.add(cursor.getLong(0), cursor.getLong(1), cursor.getString(2));
+            }
+        } catch (SecurityException e) {
+            Log.w(TAG, "No permission to read the calendar", e);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.bytesmith.daydream;
+
+import android.content.Context;
+import android.database.ContentObserver;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.provider.CalendarContract;
+import android.text.TextUtils;
+import android.text.format.DateUtils;
+import android.view.View;
+import android.widget.TextView;
+
+import com.bytesmith.daydream.core.CalendarEventCache;
+import com.bytesmith.daydream.core.UpcomingEvents;
+
+import java.text.DateFormat;
+import java.util.Date;
+
+/**
+ * "Next: 14:30 Standup" under the date line.
+ * <p>
+ * Events come from a {@link CalendarEventCache}: one windowed query, refreshed on a background
+ * thread only when the calendar provider reports a change or the window runs out. Each minute the
+ * next event is found by binary search in the cached snapshot.
+ */
+class CalendarWidget implements DreamWidget {
+
+    private final Context context;
+    private final TextView textView;
+    private final CalendarEventCache cache;
+    private final Runnable onEventsChanged;
+    private final HandlerThread queryThread;
+    private final Handler queryHandler;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final StringBuilder textBuilder = new StringBuilder(64);
+    private final Date date = new Date();
+    private DateFormat timeFormat;
+    private int localeGeneration = 0;
+    private boolean refreshPending = false;
+
+    private final ContentObserver calendarObserver;
+
+    /**
+     * @param onEventsChanged Run on the main thread after a refresh produced new events.
+     */
+    CalendarWidget(Context context, TextView textView, Runnable onEventsChanged) {
+        this.context = context;
+        this.textView = textView;
+        this.onEventsChanged = onEventsChanged;
+        this.cache = new CalendarEventCache(new CalendarProviderSource(context.getContentResolver()),
+                CalendarEventCache.DEFAULT_WINDOW_MS);
+        this.timeFormat = android.text.format.DateFormat.getTimeFormat(context);
+
+        queryThread = new HandlerThread("CalendarQuery", android.os.Process.THREAD_PRIORITY_BACKGROUND);
+        queryThread.start();
+        queryHandler = new Handler(queryThread.getLooper());
+
+        calendarObserver = new ContentObserver(mainHandler) {
+            @Override
+            public void onChange(boolean selfChange) {
+                cache.invalidate();
+                requestRefresh();
+            }
+        };
+        context.getContentResolver().registerContentObserver(CalendarContract.CONTENT_URI, true, calendarObserver);
+    }
+
+    /** Picks up a new locale or 12/24-hour setting. */
+    void reset() {
+        timeFormat = android.text.format.DateFormat.getTimeFormat(context);
+        localeGeneration++;
+    }
+
+    void release() {
+        context.getContentResolver().unregisterContentObserver(calendarObserver);
+        queryHandler.removeCallbacksAndMessages(null);
+        queryThread.quitSafely();
+    }
+
+    private void requestRefresh() {
+        if (refreshPending) return;
+        refreshPending = true;
+        queryHandler.post(() -> {
+            cache.refresh(System.currentTimeMillis());
+            mainHandler.post(() -> {
+                refreshPending = false;
+                onEventsChanged.run();
+            });
+        });
+    }
+
+    @Override
+    public String getName() {
+        return "calendar";
+    }
+
+    @Override
+    public int getSources() {
+        return SOURCE_CLOCK | SOURCE_LOCALE | SOURCE_CALENDAR;
+    }
+
+    @Override
+    public int getTrigger() {
+        return TRIGGER_MINUTE;
+    }
+
+    @Override
+    public int getRenderCost() {
+        return COST_LOW;
+    }
+
+    @Override
+    public long getInputVersion(long nowMillis) {
+        if (cache.needsRefresh(nowMillis)) {
+            requestRefresh(); // Keep showing the current snapshot until the query lands
+        }
+        UpcomingEvents events = cache.getEvents();
+        int next = events.indexOfNext(nowMillis);
+        return (events.getVersion() << 32) ^ ((long) localeGeneration << 16) ^ (next + 1);
+    }
+
+    @Override
+    public void render(long nowMillis) {
+        UpcomingEvents events = cache.getEvents();
+        int next = events.indexOfNext(nowMillis);
+        if (next < 0) {
+            textView.setVisibility(View.GONE);
+            return;
+        }
+
+        long begin = events.beginAt(next);
+        date.setTime(begin);
+        textBuilder.setLength(0);
+        textBuilder.append("Next: ");
+        if (!DateUtils.isToday(begin)) {
+            textBuilder.append("Tomorrow ");
+        }
+        textBuilder.append(timeFormat.format(date));
+        String title = events.titleAt(next);
+        if (!TextUtils.isEmpty(title)) {
+            textBuilder.append(' ').append(title);
+        }
+        textView.setText(textBuilder.toString());
+        DreamMetrics.SET_TEXT.increment();
+        textView.setVisibility(View.VISIBLE);
+    }
+}
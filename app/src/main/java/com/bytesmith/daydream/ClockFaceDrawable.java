@@ -0,0 +1,154 @@
+package com.bytesmith.daydream;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Locale;
+
+/**
+ * Base for the graphical clock faces.
+ * <p>
+ * Everything that doesn't move (dial, ticks, numerals, unlit segments) is drawn once into a
+ * bitmap sized to the bounds and blitted on every draw; only the parts that depend on the time
+ * are drawn on top ({@link #drawDynamic}) or patched into the cached bitmap when the time changes
+ * ({@link #updateLayer}). The layer is rebuilt only when the bounds change. A bitmap is used
+ * rather than a RenderNode since RenderNode needs API 29.
+ */
+abstract class ClockFaceDrawable extends Drawable {
+
+    private final Paint layerPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private Bitmap layer = null;
+    private Canvas layerCanvas = null;
+
+    // Time to show, and the time the cached layer currently reflects
+    protected int hourOfDay = -1;
+    protected int minute = -1;
+    private int layerHour = -1;
+    private int layerMinute = -1;
+
+    // Cost accounting
+    private long drawCount = 0;
+    private long drawNanos = 0;
+    private long maxDrawNanos = 0;
+    private long layerBuilds = 0;
+    private long layerUpdates = 0;
+
+    /** Sets the time to show; invalidates only if it differs from the current one. */
+    void setTime(int hourOfDay, int minute) {
+        if (hourOfDay == this.hourOfDay && minute == this.minute) return;
+        this.hourOfDay = hourOfDay;
+        this.minute = minute;
+        invalidateSelf();
+    }
+
+    /** Draws the parts that never change, at the origin. The time fields are already set. */
+    protected abstract void drawStaticLayer(Canvas canvas, int width, int height);
+
+    /** Draws the time-dependent parts over the cached layer on every draw. */
+    protected void drawDynamic(Canvas canvas, int width, int height) {
+    }
+
+    /**
+     * Patches the cached layer after the time changed from {@code oldHour:oldMinute}. Faces that
+     * keep the time in the layer redraw only what changed here.
+     */
+    protected void updateLayer(Canvas canvas, int width, int height, int oldHour, int oldMinute) {
+    }
+
+    /** Forces the cached layer to be rebuilt, e.g. after a format change. */
+    protected void invalidateLayer() {
+        layerHour = layerMinute = -1;
+        if (layer != null) {
+            layer.recycle();
+            layer = null;
+            layerCanvas = null;
+        }
+        invalidateSelf();
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        Rect bounds = getBounds();
+        int width = bounds.width();
+        int height = bounds.height();
+        if (width <= 0 || height <= 0) return;
+
+        long start = SystemClock.elapsedRealtimeNanos();
+        if (layer == null) {
+            layer = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            layerCanvas = new Canvas(layer);
+            drawStaticLayer(layerCanvas, width, height);
+            layerHour = hourOfDay;
+            layerMinute = minute;
+            layerBuilds++;
+        } else if (layerHour != hourOfDay || layerMinute != minute) {
+            updateLayer(layerCanvas, width, height, layerHour, layerMinute);
+            layerHour = hourOfDay;
+            layerMinute = minute;
+            layerUpdates++;
+        }
+
+        canvas.drawBitmap(layer, bounds.left, bounds.top, layerPaint);
+        int saveCount = canvas.save();
+        canvas.translate(bounds.left, bounds.top);
+        drawDynamic(canvas, width, height);
+        canvas.restoreToCount(saveCount);
+
+        long nanos = SystemClock.elapsedRealtimeNanos() - start;
+        drawCount++;
+        drawNanos += nanos;
+        maxDrawNanos = Math.max(maxDrawNanos, nanos);
+    }
+
+    @Override
+    protected void onBoundsChange(@NonNull Rect bounds) {
+        super.onBoundsChange(bounds);
+        if (layer != null && (layer.getWidth() != bounds.width() || layer.getHeight() != bounds.height())) {
+            invalidateLayer();
+        }
+    }
+
+    /** Frees the cached layer. */
+    void release() {
+        if (layer != null) {
+            layer.recycle();
+            layer = null;
+            layerCanvas = null;
+        }
+    }
+
+    /** Draw count and time, and how often the cached layer was built or patched. */
+    String getCostReport() {
+        return "draws=" + drawCount
+                + ", avgUs=" + String.format(Locale.US, "%.1f", drawCount > 0 ? drawNanos / 1000d / drawCount : 0d)
+                + ", maxUs=" + maxDrawNanos / 1000
+                + ", layerBuilds=" + layerBuilds
+                + ", layerUpdates=" + layerUpdates;
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        layerPaint.setAlpha(alpha);
+        invalidateSelf();
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        layerPaint.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+}
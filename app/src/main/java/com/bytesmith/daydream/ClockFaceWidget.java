@@ -0,0 +1,75 @@
+package com.bytesmith.daydream;
+
+import android.widget.ImageView;
+
+import java.util.Calendar;
+
+/** Drives a graphical {@link ClockFaceDrawable} in place of the time in words. */
+class ClockFaceWidget implements DreamWidget {
+
+    static final String FACE_WORDS = "words";
+    static final String FACE_ANALOG = "analog";
+    static final String FACE_DIGITAL = "digital";
+
+    private final ImageView imageView;
+    private final ClockFaceDrawable drawable;
+    private Calendar calendar = Calendar.getInstance();
+    private int resetGeneration = 0;
+
+    ClockFaceWidget(ImageView imageView, ClockFaceDrawable drawable) {
+        this.imageView = imageView;
+        this.drawable = drawable;
+        imageView.setImageDrawable(drawable);
+    }
+
+    /** Picks up a new time zone. */
+    void reset() {
+        calendar = Calendar.getInstance();
+        resetGeneration++;
+    }
+
+    ClockFaceDrawable getDrawable() {
+        return drawable;
+    }
+
+    @Override
+    public String getName() {
+        return "clockFace";
+    }
+
+    @Override
+    public int getSources() {
+        return SOURCE_CLOCK | SOURCE_LOCALE;
+    }
+
+    @Override
+    public int getTrigger() {
+        return TRIGGER_MINUTE;
+    }
+
+    @Override
+    public int getRenderCost() {
+        return COST_LOW; // Draw happens later, in the view's draw pass
+    }
+
+    @Override
+    public long getInputVersion(long nowMillis) {
+        return ((long) resetGeneration << 32) | minuteOfDay(nowMillis);
+    }
+
+    @Override
+    public void render(long nowMillis) {
+        int minuteOfDay = minuteOfDay(nowMillis);
+        drawable.setTime(minuteOfDay / 60, minuteOfDay % 60);
+    }
+
+    void release() {
+        imageView.setImageDrawable(null);
+        drawable.release();
+    }
+
+    private int minuteOfDay(long nowMillis) {
+        calendar.setTimeInMillis(nowMillis);
+        return calendar.get(Calendar.HOUR_OF_DAY) * 60 + calendar.get(Calendar.MINUTE);
+    }
+}
@@ -0,0 +1,58 @@
+package com.bytesmith.daydream;
+
+import android.widget.TextView;
+
+import com.bytesmith.daydream.core.DayDateProvider;
+
+import java.util.Locale;
+import java.util.TimeZone;
+
+/** The "Monday, Jan 1" line under the time. */
+class DayDateWidget implements DreamWidget {
+
+    private final TextView textView;
+    private final DayDateProvider provider;
+    private int resetGeneration = 0;
+
+    DayDateWidget(TextView textView, Locale locale, TimeZone timeZone) {
+        this.textView = textView;
+        this.provider = new DayDateProvider(locale, timeZone);
+    }
+
+    void reset(Locale locale, TimeZone timeZone) {
+        provider.reset(locale, timeZone);
+        resetGeneration++;
+    }
+
+    @Override
+    public String getName() {
+        return "dayDate";
+    }
+
+    @Override
+    public int getSources() {
+        return SOURCE_CLOCK | SOURCE_LOCALE;
+    }
+
+    @Override
+    public int getTrigger() {
+        return TRIGGER_DAY;
+    }
+
+    @Override
+    public int getRenderCost() {
+        return COST_LOW;
+    }
+
+    @Override
+    public long getInputVersion(long nowMillis) {
+        provider.getDayDate(nowMillis); // Rolls the cached day over if needed
+        return provider.getNextMidnightMillis() * 31 + resetGeneration;
+    }
+
+    @Override
+    public void render(long nowMillis) {
+        textView.setText(provider.getDayDate(nowMillis));
+        DreamMetrics.SET_TEXT.increment();
+    }
+}
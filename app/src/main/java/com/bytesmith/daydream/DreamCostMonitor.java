@@ -0,0 +1,127 @@
+package com.bytesmith.daydream;
+
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import com.bytesmith.daydream.core.CostBudget;
+import com.bytesmith.daydream.core.FlightRecorder;
+
+/**
+ * Counts what the dream costs per hour on a device and checks it against a {@link CostBudget}:
+ * widget renders (clock updates separately), layout passes, broadcasts and idle notification icon
+ * rebuilds. Overruns are logged as errors once an hour and when the dream stops.
+ * <p>
+ * The budget itself is enforced by {@code DreamCostBudgetTest}, which also counts main thread
+ * messages and allocated bytes by running a simulated hour through a paused looper; this is only
+ * the on-device extra, off unless the "costMonitor" preference is set. Per-hour limits can be
+ * overridden with "costBudget." + counter name. Main thread only, except {@link #record}.
+ */
+class DreamCostMonitor {
+
+    private static final String TAG = "DreamCostMonitor";
+    private static final long CHECK_INTERVAL_MS = 60 * 60 * 1000L;
+
+    private final CostBudget budget = CostBudget.withDefaults();
+    private final Handler handler;
+    private final View root;
+    private long startMs = -1;
+    private long stoppedElapsedMs = 0;
+    private int reportedOverruns = 0;
+
+    private final ViewTreeObserver.OnGlobalLayoutListener layoutListener = new ViewTreeObserver.OnGlobalLayoutListener() {
+        @Override
+        public void onGlobalLayout() {
+            budget.add(CostBudget.LAYOUT_PASSES, 1);
+        }
+    };
+
+    private final Runnable checkRunnable = new Runnable() {
+        @Override
+        public void run() {
+            check();
+            handler.postDelayed(this, CHECK_INTERVAL_MS);
+        }
+    };
+
+    DreamCostMonitor(Handler handler, View root, SharedPreferences preferences) {
+        this.handler = handler;
+        this.root = root;
+        for (int i = 0; i < CostBudget.COUNTER_COUNT; i++) {
+            budget.setLimit(i, preferences.getLong("costBudget." + CostBudget.nameOf(i), budget.getLimit(i)));
+        }
+    }
+
+    void start() {
+        if (startMs >= 0) return;
+        budget.reset();
+        reportedOverruns = 0;
+        startMs = SystemClock.elapsedRealtime();
+        root.getViewTreeObserver().addOnGlobalLayoutListener(layoutListener);
+        handler.postDelayed(checkRunnable, CHECK_INTERVAL_MS);
+    }
+
+    /** Stops counting and logs the final check. */
+    void stop() {
+        if (startMs < 0) return;
+        check();
+        handler.removeCallbacks(checkRunnable);
+        ViewTreeObserver observer = root.getViewTreeObserver();
+        if (observer.isAlive()) {
+            observer.removeOnGlobalLayoutListener(layoutListener);
+        }
+        stoppedElapsedMs = SystemClock.elapsedRealtime() - startMs;
+        startMs = -1;
+    }
+
+    /** Counts one occurrence of a {@link CostBudget} counter. Any thread. */
+    void record(int counter) {
+        budget.add(counter, 1);
+    }
+
+    /** Current count of a {@link CostBudget} counter since {@link #start}. */
+    long getCount(int counter) {
+        return budget.get(counter);
+    }
+
+    /** Called by the coordinator after each widget render. */
+    void onRender(DreamWidget widget) {
+        budget.add(CostBudget.VIEW_UPDATES, 1);
+        if (widget.getTrigger() == DreamWidget.TRIGGER_MINUTE && (widget.getSources() & DreamWidget.SOURCE_CLOCK) != 0) {
+            budget.add(CostBudget.CLOCK_UPDATES, 1);
+        }
+    }
+
+    /** Bit {@code 1 << counter} is set for every counter over its allowance so far. */
+    int getOverruns() {
+        return budget.overruns(getElapsedMs());
+    }
+
+    String getReport() {
+        return budget.describe(getElapsedMs());
+    }
+
+    private long getElapsedMs() {
+        return startMs < 0 ? stoppedElapsedMs : SystemClock.elapsedRealtime() - startMs;
+    }
+
+    // Logs counters that have gone over budget since the last check
+    private void check() {
+        long elapsedMs = SystemClock.elapsedRealtime() - startMs;
+        int overruns = budget.overruns(elapsedMs);
+        int newOverruns = overruns & ~reportedOverruns;
+        if (newOverruns != 0) {
+            Log.e(TAG, "Over budget: " + budget.describe(elapsedMs));
+            for (int counter = 0; counter < CostBudget.COUNTER_COUNT; counter++) {
+                if ((newOverruns & (1 << counter)) != 0) {
+                    DreamFlightRecorder.record(FlightRecorder.COST_OVERRUN, counter,
+                            (int) Math.min(Integer.MAX_VALUE, budget.get(counter)));
+                }
+            }
+        }
+        reportedOverruns |= overruns;
+    }
+}
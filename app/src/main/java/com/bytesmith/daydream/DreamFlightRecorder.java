@@ -0,0 +1,125 @@
+package com.bytesmith.daydream;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.bytesmith.daydream.core.FlightRecorder;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Process-wide flight recorder shared by the dream, the notification listener and the brightness
+ * helper: the last {@value #EVENTS_KEPT} events. That is a count, not a time span: a quiet night
+ * fits hours in it, a burst of notifications can cycle through it in minutes. Always on; recording
+ * is a few atomic stores.
+ * <p>
+ * Read it with {@code adb shell dumpsys activity service com.bytesmith.daydream/.DreamService
+ * --flight}, or add {@code --flight-file} to save it under {@code files/flight} for
+ * {@code :core:decodeFlightRecord}. Debug builds also save it on the
+ * {@value #ACTION_DUMP} broadcast.
+ */
+final class DreamFlightRecorder {
+
+    static final String ACTION_DUMP = "com.bytesmith.daydream.DUMP_FLIGHT_RECORD";
+
+    private static final String TAG = "DreamFlightRecorder";
+    private static final int EVENTS_KEPT = 4096;
+    private static final String RECORD_DIR = "flight";
+    private static final String RECORD_SUFFIX = ".ddfr";
+    private static final int MAX_RECORDS = 3;
+
+    private static final FlightRecorder RECORDER = new FlightRecorder(EVENTS_KEPT);
+
+    private DreamFlightRecorder() {
+    }
+
+    static void record(int event) {
+        RECORDER.record(SystemClock.elapsedRealtime(), event, 0, 0);
+    }
+
+    static void record(int event, int a) {
+        RECORDER.record(SystemClock.elapsedRealtime(), event, a, 0);
+    }
+
+    static void record(int event, int a, int b) {
+        RECORDER.record(SystemClock.elapsedRealtime(), event, a, b);
+    }
+
+    /** Payload for a package or song name; the record keeps hashes, not strings. */
+    static int idOf(@Nullable String name) {
+        return name != null ? name.hashCode() : 0;
+    }
+
+    /**
+     * Handles the flight recorder's dump arguments.
+     *
+     * @return Whether {@code args} asked for the flight record, in which case nothing else should
+     * be dumped.
+     */
+    static boolean dump(Context context, PrintWriter writer, String[] args) {
+        boolean text = false;
+        boolean file = false;
+        if (args != null) {
+            for (String arg : args) {
+                if ("--flight".equals(arg)) text = true;
+                if ("--flight-file".equals(arg)) file = true;
+            }
+        }
+        if (file) {
+            File saved = save(context);
+            writer.println(saved != null ? "Flight record saved to " + saved : "Flight record not saved");
+        }
+        if (text) {
+            writer.println("Flight record: " + RECORDER.getRecordedCount() + " events recorded, last "
+                    + RECORDER.getCapacity() + " kept");
+            FlightRecorder.dumpText(writer, RECORDER.snapshot(), SystemClock.elapsedRealtime());
+        }
+        return text || file;
+    }
+
+    /** Writes the current record to app-private storage, keeping the newest few. */
+    @Nullable
+    static File save(Context context) {
+        File dir = new File(context.getFilesDir(), RECORD_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.w(TAG, "Cannot create " + dir);
+            return null;
+        }
+        pruneOldRecords(dir);
+        String name = "flight-" + new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date()) + RECORD_SUFFIX;
+        File file = new File(dir, name);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            RECORDER.writeTo(out, System.currentTimeMillis(), SystemClock.elapsedRealtime());
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot write " + file, e);
+            return null;
+        }
+        DreamLog.d(TAG, "Flight record saved to {}", file);
+        return file;
+    }
+
+    // Keeps the newest records, leaving room for the one about to be written
+    private static void pruneOldRecords(File dir) {
+        File[] records = dir.listFiles((d, name) -> name.endsWith(RECORD_SUFFIX));
+        if (records == null || records.length < MAX_RECORDS) return;
+        // Names sort by time
+        Arrays.sort(records);
+        for (int i = 0; i <= records.length - MAX_RECORDS; i++) {
+            if (!records[i].delete()) {
+                Log.w(TAG, "Cannot delete old flight record " + records[i]);
+            }
+        }
+    }
+}
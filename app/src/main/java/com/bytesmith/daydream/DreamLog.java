@@ -0,0 +1,85 @@
+package com.bytesmith.daydream;
+
+import android.util.Log;
+
+/**
+ * Debug and verbose logging that costs nothing in release builds.
+ * <p>
+ * The level comes from {@code BuildConfig.LOG_LEVEL}, a compile-time constant, so in release the
+ * method bodies are empty and R8 removes the calls altogether (see {@code proguard-rules.pro}).
+ * Messages are templates with {@code {}} placeholders filled in only when the message is logged,
+ * and the one- and two-argument overloads take integral primitives unboxed, so a disabled call
+ * allocates nothing:
+ * <pre>
+ * DreamLog.d(TAG, "updateSongCount called with: {}", count);
+ * </pre>
+ * Every mix of integral and reference arguments resolves without boxing. Pairing an integral with
+ * a {@code boolean}, {@code float} or {@code double} is ambiguous and won't compile, so pass one of
+ * those as a reference (e.g. {@code flag ? "on" : "off"}). Three arguments are always boxed; wrap
+ * such calls with primitives in {@code if (DreamLog.DEBUG)}, and likewise any call whose arguments
+ * do work of their own, such as building a report: R8 removes the call but still evaluates them.
+ * Warnings and errors keep going straight to {@link Log}.
+ */
+final class DreamLog {
+
+    static final boolean VERBOSE = BuildConfig.LOG_LEVEL <= Log.VERBOSE;
+    static final boolean DEBUG = BuildConfig.LOG_LEVEL <= Log.DEBUG;
+
+    private DreamLog() {
+    }
+
+    static void v(String tag, String message) {
+        if (VERBOSE) Log.v(tag, message);
+    }
+
+    static void v(String tag, String template, Object arg) {
+        if (VERBOSE) Log.v(tag, format(template, arg, null, null));
+    }
+
+    static void d(String tag, String message) {
+        if (DEBUG) Log.d(tag, message);
+    }
+
+    static void d(String tag, String template, long arg) {
+        if (DEBUG) Log.d(tag, format(template, arg, null, null));
+    }
+
+    static void d(String tag, String template, long arg, long arg2) {
+        if (DEBUG) Log.d(tag, format(template, arg, arg2, null));
+    }
+
+    static void d(String tag, String template, Object arg) {
+        if (DEBUG) Log.d(tag, format(template, arg, null, null));
+    }
+
+    static void d(String tag, String template, Object arg, long arg2) {
+        if (DEBUG) Log.d(tag, format(template, arg, arg2, null));
+    }
+
+    static void d(String tag, String template, long arg, Object arg2) {
+        if (DEBUG) Log.d(tag, format(template, arg, arg2, null));
+    }
+
+    static void d(String tag, String template, Object arg, Object arg2) {
+        if (DEBUG) Log.d(tag, format(template, arg, arg2, null));
+    }
+
+    static void d(String tag, String template, Object arg, Object arg2, Object arg3) {
+        if (DEBUG) Log.d(tag, format(template, arg, arg2, arg3));
+    }
+
+    // Fills the placeholders in order; spare placeholders are left as they are
+    static String format(String template, Object arg, Object arg2, Object arg3) {
+        StringBuilder sb = new StringBuilder(template.length() + 32);
+        int argIndex = 0;
+        int start = 0;
+        int placeholder;
+        while (argIndex < 3 && (placeholder = template.indexOf("{}", start)) >= 0) {
+            sb.append(template, start, placeholder);
+            sb.append(argIndex == 0 ? arg : argIndex == 1 ? arg2 : arg3);
+            argIndex++;
+            start = placeholder + 2;
+        }
+        return sb.append(template, start, template.length()).toString();
+    }
+}
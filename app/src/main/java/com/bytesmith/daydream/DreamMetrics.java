@@ -0,0 +1,113 @@
+package com.bytesmith.daydream;
+
+import android.os.SystemClock;
+
+import com.bytesmith.daydream.core.MetricsRegistry;
+
+import java.io.PrintWriter;
+
+/**
+ * Process-wide runtime metrics for the dream and the notification listener, shown by
+ * {@code adb shell dumpsys activity service com.bytesmith.daydream/.DreamService} (or
+ * {@code .NotificationService}); add {@code --json} for machine-readable output. Both services
+ * run in the same process and dump the same registry.
+ */
+final class DreamMetrics {
+
+    private static final MetricsRegistry REGISTRY = new MetricsRegistry();
+    // Counters start with the process, close enough to this class being loaded
+    private static final long START_MS = SystemClock.elapsedRealtime();
+
+    // Dream
+    static final MetricsRegistry.Counter TICKS = REGISTRY.counter("dream.ticks");
+    static final MetricsRegistry.Counter FRAMES = REGISTRY.counter("dream.frames");
+    static final MetricsRegistry.Counter RENDERS = REGISTRY.counter("dream.renders");
+    static final MetricsRegistry.Counter SET_TEXT = REGISTRY.counter("dream.setText");
+    static final MetricsRegistry.Counter ICON_REBUILDS = REGISTRY.counter("dream.iconRebuilds");
+    static final MetricsRegistry.Histogram RENDER_US = REGISTRY.histogram("dream.renderUs",
+            50, 100, 250, 500, 1000, 2000, 4000, 8000, 16000);
+
+    // Broadcasts between the listener and the dream
+    static final MetricsRegistry.Counter BROADCASTS_SENT = REGISTRY.counter("broadcasts.sent");
+    static final MetricsRegistry.Counter BROADCASTS_RECEIVED = REGISTRY.counter("broadcasts.received");
+
+    // Listener
+    static final MetricsRegistry.Counter NOTIFICATIONS_POSTED = REGISTRY.counter("listener.posted");
+    static final MetricsRegistry.Counter NOTIFICATIONS_REMOVED = REGISTRY.counter("listener.removed");
+    static final MetricsRegistry.Counter CLASSIFIER_HITS = REGISTRY.counter("listener.classifierHits");
+    static final MetricsRegistry.Counter CLASSIFIER_MISSES = REGISTRY.counter("listener.classifierMisses");
+    static final MetricsRegistry.Counter ACTIVE_SESSION_QUERIES = REGISTRY.counter("listener.getActiveSessions");
+    static final MetricsRegistry.Histogram ACTIVE_SESSIONS_US = REGISTRY.histogram("listener.getActiveSessionsUs",
+            100, 250, 500, 1000, 2000, 5000, 10000, 25000, 50000);
+
+    // Storage and system settings
+    static final MetricsRegistry.Counter PREFS_WRITES = REGISTRY.counter("prefs.writes");
+    static final MetricsRegistry.Counter INLINE_WORK = REGISTRY.counter("maintenance.inline");
+    static final MetricsRegistry.Counter BRIGHTNESS_IPC = REGISTRY.counter("brightness.ipc");
+    static final MetricsRegistry.Histogram BRIGHTNESS_US = REGISTRY.histogram("brightness.ipcUs",
+            100, 250, 500, 1000, 2000, 5000, 10000, 25000, 50000);
+
+    /** The counters the diagnostics screen shows, read at one moment. */
+    static final class Snapshot {
+        final long uptimeMs;
+        final long ticks;
+        final long frames;
+        final long broadcastsSent;
+        final long broadcastsReceived;
+        final long notificationsPosted;
+        final long sessionLookups;
+        final long sessionLookupP50Micros;
+        final long classifierHits;
+        final long classifierMisses;
+        final long iconCacheHits;
+        final long iconCacheMisses;
+
+        private Snapshot() {
+            uptimeMs = SystemClock.elapsedRealtime() - START_MS;
+            ticks = TICKS.get();
+            frames = FRAMES.get();
+            broadcastsSent = BROADCASTS_SENT.get();
+            broadcastsReceived = BROADCASTS_RECEIVED.get();
+            notificationsPosted = NOTIFICATIONS_POSTED.get();
+            sessionLookups = ACTIVE_SESSION_QUERIES.get();
+            sessionLookupP50Micros = ACTIVE_SESSIONS_US.getPercentileMicros(50);
+            classifierHits = CLASSIFIER_HITS.get();
+            classifierMisses = CLASSIFIER_MISSES.get();
+            iconCacheHits = DreamWarmCache.getIconCacheHits();
+            iconCacheMisses = DreamWarmCache.getIconCacheMisses();
+        }
+
+        /** Times per hour the process was woken for dream ticks or broadcasts. */
+        long getWakeupsPerHour() {
+            return uptimeMs > 0 ? (ticks + broadcastsReceived) * 3600000L / uptimeMs : 0;
+        }
+    }
+
+    private DreamMetrics() {
+    }
+
+    /** Reads the counters; a handful of atomic loads, cheap enough to poll every second. */
+    static Snapshot snapshot() {
+        return new Snapshot();
+    }
+
+    /** Whether the dump arguments ask for JSON, in which case nothing else should be written. */
+    static boolean wantsJson(String[] args) {
+        if (args != null) {
+            for (String arg : args) {
+                if ("--json".equals(arg)) return true;
+            }
+        }
+        return false;
+    }
+
+    /** Writes every metric, as JSON if {@code args} contains "--json". */
+    static void dump(PrintWriter writer, String[] args) {
+        if (wantsJson(args)) {
+            REGISTRY.dumpJson(writer);
+            return;
+        }
+        writer.println("Daydream metrics:");
+        REGISTRY.dumpText(writer);
+    }
+}
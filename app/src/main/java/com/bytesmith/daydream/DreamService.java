@@ -1,5 +1,6 @@
 package com.bytesmith.daydream;
 
+import android.Manifest;
 import android.annotation.SuppressLint;
 import android.content.BroadcastReceiver;
 import android.content.Context;
@@ -7,16 +8,17 @@ import android.content.Intent;
 import android.content.IntentFilter;
 import android.content.SharedPreferences;
 import android.content.pm.PackageManager;
-import android.graphics.Bitmap;
-import android.graphics.drawable.BitmapDrawable;
-import android.graphics.drawable.Drawable;
 import android.os.BatteryManager;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.text.Html;
 import android.text.Spanned;
+import android.text.TextUtils;
+import android.util.DisplayMetrics;
 import android.util.Log;
 import android.view.View;
+import android.view.ViewTreeObserver;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.RelativeLayout;
@@ -27,38 +29,45 @@ import android.graphics.Color;
 import android.os.Build;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
 import android.view.KeyEvent;
 import android.media.AudioManager;
+import android.media.MediaMetadata;
+
+import com.bytesmith.daydream.core.CostBudget;
+import com.bytesmith.daydream.core.FlightRecorder;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.HashMap;
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
 import java.util.Locale;
-import java.util.Map;
-import java.util.Set;
+import java.util.TimeZone;
 import java.lang.ref.WeakReference;
 
 public class DreamService extends android.service.dreams.DreamService {
 
     private static final String TAG = "DreamService";
-    private static final long UPDATE_INTERVAL = 1000; // 1 second for time and date updates
-    private static final long BATTERY_UPDATE_INTERVAL = 60000; // 1 minute for battery updates
-    private static final long SHIFT_DURATION = 10000; // 10 seconds for text shifting
-    private static final int SHIFT_AMOUNT = 100; // Pixel shift amount
-    private static final int MAX_SHIFTS = 5;
+    static final long SHIFT_DURATION = 10000; // 10 seconds for text shifting
+    static final int SHIFT_AMOUNT = 100; // Pixel shift amount
+    static final int MAX_SHIFTS = 5;
 
+    // The inflated dream layout, normally the window's decor view
+    private View contentView;
     private TextView timeInWordsTextView;
+    private ImageView clockFaceImageView;
+    // The view currently showing the time: the words, or a graphical clock face
+    private View timeView;
     private TextView dayDateTextView;
     private TextView batteryInfoTextView;
     private TextView songCountTextView;
     private TextView songNameTextView;
+    private ImageView songProgressImageView;
+    private PlaybackProgressDrawable playbackProgressDrawable;
+    private ImageView albumArtImageView;
+    private AlbumArtLoader albumArtLoader;
+    private PhotoSlideshow photoSlideshow;
     private ImageView batteryIconImageView;
     private LinearLayout notificationIconContainer;
-    private File iconCacheDir;
-    private final Map<String, Drawable> iconCache = new HashMap<>();
     private final Handler handler = new Handler(Looper.getMainLooper());
     private static WeakReference<DreamService> instanceRef;
     private int shiftCount = 0;
@@ -67,49 +76,30 @@ public class DreamService extends android.service.dreams.DreamService {
     private GestureDetector gestureDetector;
     private AudioManager audioManager;
 
-    // Reusable formatters
-    private static final SimpleDateFormat TIME_WORDS_FORMAT = new SimpleDateFormat("hh_mm_a", Locale.getDefault());
-    private static final SimpleDateFormat DAY_DATE_FORMAT = new SimpleDateFormat("EEEE, MMM d", Locale.getDefault());
+    // All dream elements render through the coordinator, from a single boundary wakeup
+    private final DreamWidgetCoordinator widgetCoordinator = new DreamWidgetCoordinator(handler);
+    private TimeWordsWidget timeWordsWidget;
+    private DayDateWidget dayDateWidget;
+    private BatteryWidget batteryWidget;
+    private SongCountWidget songCountWidget;
+    private SongNameWidget songNameWidget;
+    private NotificationIconsWidget notificationIconsWidget;
+    private CalendarWidget calendarWidget;
+    private LyricsWidget lyricsWidget;
+    private ClockFaceWidget clockFaceWidget;
+    // Hourly cost counters, only when enabled in preferences
+    private DreamCostMonitor costMonitor;
+    // Per-session power and resource accounting, logged when dreaming stops
+    private DreamSessionMonitor sessionMonitor;
 
     @Override
     public void onCreate() {
         super.onCreate();
         instanceRef = new WeakReference<>(this);
         audioManager = (AudioManager) getSystemService(Context.AUDIO_SERVICE);
+        sessionMonitor = new DreamSessionMonitor(this, handler);
     }
 
-    private final Runnable updateTimeRunnable = new Runnable() {
-        @Override
-        public void run() {
-            updateTimeInWords();
-            handler.postDelayed(this, UPDATE_INTERVAL);
-        }
-    };
-
-    private final Runnable updateDateRunnable = new Runnable() {
-        @Override
-        public void run() {
-            updateDayDateTextView();
-            handler.postDelayed(this, UPDATE_INTERVAL);
-        }
-    };
-
-    private final Runnable updateSongCountRunnable = new Runnable() {
-        @Override
-        public void run() {
-            updateSongCount(songCount);
-            handler.postDelayed(this, UPDATE_INTERVAL);
-        }
-    };
-
-    private final Runnable updateBatteryRunnable = new Runnable() {
-        @Override
-        public void run() {
-            updateBatteryInfo();
-            handler.postDelayed(this, BATTERY_UPDATE_INTERVAL);
-        }
-    };
-
     private final Runnable shiftTextViewsRunnable = new Runnable() {
         @Override
         public void run() {
@@ -122,15 +112,32 @@ public class DreamService extends android.service.dreams.DreamService {
     @Override
     public void onAttachedToWindow() {
         super.onAttachedToWindow();
+        final long attachStartMs = SystemClock.elapsedRealtime();
+        final boolean warm = DreamWarmCache.isWarm();
+        DreamFlightRecorder.record(FlightRecorder.DREAM_ATTACHED, warm ? 1 : 0);
         instanceRef = new WeakReference<>(this);
-        registerReceiver(songNameReceiver, new IntentFilter("com.bytesmith.daydream.SONG_NAME_UPDATED"));
         initializeDreamService();
 
+        // Attach-to-first-frame time, split by whether the caches were prewarmed
+        final ViewTreeObserver observer = getWindow().getDecorView().getViewTreeObserver();
+        observer.addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                if (observer.isAlive()) {
+                    observer.removeOnPreDrawListener(this);
+                }
+                long elapsed = SystemClock.elapsedRealtime() - attachStartMs;
+                DreamWarmCache.recordFirstFrame(warm, elapsed);
+                DreamLog.d(TAG, "First frame {} ms after attach ({})", elapsed, warm ? "warm" : "cold");
+                return true;
+            }
+        });
+
         // Initialize GestureDetector
         gestureDetector = new GestureDetector(this, new GestureDetector.SimpleOnGestureListener() {
             @Override
             public boolean onDoubleTap(MotionEvent e) {
-                Log.d(TAG, "Double tap detected, finishing DreamService.");
+                DreamLog.d(TAG, "Double tap detected, finishing DreamService.");
                 finish(); // Finish the dream on double tap
                 return true; // Consume the event
             }
@@ -153,22 +160,68 @@ public class DreamService extends android.service.dreams.DreamService {
         adjustBrightness(10);
         setSystemUiVisibility();
         startNotificationService();
+        attachDreamViews(getWindow().getDecorView());
+
+        // Request media notification info immediately to display current playing songs
+        Intent intent = new Intent("com.bytesmith.daydream.REQUEST_MEDIA_INFO");
+        sendBroadcast(intent);
+        DreamMetrics.BROADCASTS_SENT.increment();
+        recordCost(CostBudget.BROADCASTS);
+
+        // Cache cleanup waits for the next charging-and-idle window
+        MaintenanceScheduler.schedule(this);
+    }
+
+    /**
+     * Wires the widgets, coordinator, burn-in shift position, cost monitor and the dream's
+     * receivers to the inflated layout and starts rendering. Everything that needs the dream's
+     * own window stays in {@link #initializeDreamService}, so {@code DreamCostBudgetTest} can
+     * host the layout in an activity; a dream gets no window under Robolectric.
+     */
+    void attachDreamViews(View content) {
+        contentView = content;
+        registerReceiver(songNameReceiver, new IntentFilter("com.bytesmith.daydream.SONG_NAME_UPDATED"));
+        IntentFilter clockFilter = new IntentFilter(Intent.ACTION_LOCALE_CHANGED);
+        clockFilter.addAction(Intent.ACTION_TIMEZONE_CHANGED);
+        clockFilter.addAction(Intent.ACTION_TIME_CHANGED);
+        registerReceiver(clockConfigReceiver, clockFilter);
+        initializeCostMonitor();
         initializeViews();
         initializeLayoutParams();
         loadShiftCountFromPreferences();
         incrementShiftCount();
         applyShiftPosition();
-        updateBatteryInfo();
-        updateTimeInWords();
         updateBatteryIconSize();
-        updateDayDateTextView();
-        
+
         // Check for active media notifications right away
-        updateNotificationIcons(NotificationService.getNotificationPackages());
-        
-        // Request media notification info immediately to display current playing songs
-        Intent intent = new Intent("com.bytesmith.daydream.REQUEST_MEDIA_INFO");
-        sendBroadcast(intent);
+        refreshNotificationIcons();
+        widgetCoordinator.start();
+        registerReceiver(notificationsReceiver, new IntentFilter(NotificationService.UPDATE_NOTIFICATIONS_ACTION));
+        // Delivers the sticky status right away, then only on changes
+        registerReceiver(batteryReceiver, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+    }
+
+    @Nullable
+    DreamCostMonitor getCostMonitor() {
+        return costMonitor;
+    }
+
+    private void initializeCostMonitor() {
+        SharedPreferences preferences = getSharedPreferences("DreamServicePrefs", Context.MODE_PRIVATE);
+        if (!preferences.getBoolean("costMonitor", false)) {
+            return;
+        }
+        costMonitor = new DreamCostMonitor(handler, contentView.getRootView(), preferences);
+        costMonitor.start();
+        widgetCoordinator.setCostMonitor(costMonitor);
+    }
+
+    /** Counts one occurrence of a {@link CostBudget} counter if the cost monitor is on. Any thread. */
+    static void recordCost(int counter) {
+        DreamService instance = instanceRef == null ? null : instanceRef.get();
+        if (instance != null && instance.costMonitor != null) {
+            instance.costMonitor.record(counter);
+        }
     }
 
     private void setSystemUiVisibility() {
@@ -187,42 +240,179 @@ public class DreamService extends android.service.dreams.DreamService {
     }
 
     private void adjustBrightness(int brightnessLevel) {
+        boolean traced = DreamTrace.begin(DreamTrace.BRIGHTNESS);
         try {
-            Log.d(TAG, "Attempting to change brightness to " + brightnessLevel + "%");
+            DreamLog.d(TAG, "Attempting to change brightness to {}%", brightnessLevel);
             BrightnessService.changeBrightness(this, brightnessLevel);
         } catch (Exception e) {
             Log.e(TAG, "Failed to change brightness", e);
+        } finally {
+            DreamTrace.end(traced);
         }
     }
 
     private void initializeViews() {
-        timeInWordsTextView = findViewById(R.id.time_in_words);
-        dayDateTextView = findViewById(R.id.day_date);
-        batteryInfoTextView = findViewById(R.id.battery_info);
-        batteryIconImageView = findViewById(R.id.battery_icon);
-        songCountTextView = findViewById(R.id.song_count);
-        songNameTextView = findViewById(R.id.song_name);
-        notificationIconContainer = findViewById(R.id.notification_icon_container);
+        timeInWordsTextView = contentView.findViewById(R.id.time_in_words);
+        clockFaceImageView = contentView.findViewById(R.id.clock_face);
+        timeView = timeInWordsTextView;
+        dayDateTextView = contentView.findViewById(R.id.day_date);
+        batteryInfoTextView = contentView.findViewById(R.id.battery_info);
+        batteryIconImageView = contentView.findViewById(R.id.battery_icon);
+        songCountTextView = contentView.findViewById(R.id.song_count);
+        songNameTextView = contentView.findViewById(R.id.song_name);
+        notificationIconContainer = contentView.findViewById(R.id.notification_icon_container);
+        songProgressImageView = contentView.findViewById(R.id.song_progress);
+        albumArtImageView = contentView.findViewById(R.id.album_art);
+
+        // Album art is decoded off the main thread, downsampled to the view size
+        if (albumArtImageView != null) {
+            albumArtLoader = new AlbumArtLoader(this,
+                    getResources().getDimensionPixelSize(R.dimen.album_art_size),
+                    art -> {
+                        albumArtImageView.setImageBitmap(art);
+                        albumArtImageView.setVisibility(art != null ? View.VISIBLE : View.GONE);
+                    });
+        }
+
+        initializeSlideshow();
+
+        // Progress bar is extrapolated locally and redrawn at a low cadence, never polled
+        if (songProgressImageView != null) {
+            playbackProgressDrawable = new PlaybackProgressDrawable(
+                    Color.WHITE,
+                    getResources().getDimension(R.dimen.song_progress_text_size),
+                    getResources().getDimension(R.dimen.song_progress_bar_height));
+            playbackProgressDrawable.setRedrawIntervalMs(getSharedPreferences("DreamServicePrefs", Context.MODE_PRIVATE)
+                    .getLong("progressRedrawIntervalMs", PlaybackProgressDrawable.DEFAULT_REDRAW_INTERVAL_MS));
+            songProgressImageView.setImageDrawable(playbackProgressDrawable);
+            songProgressImageView.setVisibility(View.GONE);
+        }
         
         // Initialize song name TextView as gone
         if (songNameTextView != null) {
             songNameTextView.setVisibility(View.GONE);
-            Log.d(TAG, "Song name TextView initialized (GONE)");
+            DreamLog.d(TAG, "Song name TextView initialized (GONE)");
         } else {
             Log.e(TAG, "Song name TextView is null");
         }
         
-        // Make song count visible and set initial value
-        if (songCountTextView != null) {
-            // Set initial text and visibility based on current count
-            if (songCount > 0) {
-                songCountTextView.setText("Songs: " + songCount);
-                songCountTextView.setVisibility(View.VISIBLE);
-            } else {
-                songCountTextView.setVisibility(View.GONE); 
-            }
-            Log.d(TAG, "Song count TextView initialized (Visibility: " + (songCountTextView.getVisibility() == View.VISIBLE ? "VISIBLE" : "GONE") + ")");
+        initializeWidgets();
+    }
+
+    // Optional photo background, off unless enabled in preferences and image access is granted
+    private void initializeSlideshow() {
+        SharedPreferences preferences = getSharedPreferences("DreamServicePrefs", Context.MODE_PRIVATE);
+        if (!preferences.getBoolean("slideshowEnabled", false)) {
+            return;
+        }
+        String permission = Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                ? Manifest.permission.READ_MEDIA_IMAGES
+                : Manifest.permission.READ_EXTERNAL_STORAGE;
+        if (ContextCompat.checkSelfPermission(this, permission) != PackageManager.PERMISSION_GRANTED) {
+            Log.w(TAG, "Slideshow enabled but " + permission + " is not granted");
+            return;
+        }
+
+        ImageView photoA = contentView.findViewById(R.id.slideshow_photo_a);
+        ImageView photoB = contentView.findViewById(R.id.slideshow_photo_b);
+        if (photoA == null || photoB == null) {
+            return;
+        }
+        // Empty folder setting means all MediaStore images
+        String folder = preferences.getString("slideshowFolder", "");
+        PhotoSource source = folder == null || folder.isEmpty()
+                ? new MediaStorePhotoSource(getContentResolver())
+                : new FolderPhotoSource(new File(folder));
+        DisplayMetrics metrics = new DisplayMetrics();
+        getWindowManager().getDefaultDisplay().getRealMetrics(metrics);
+        photoSlideshow = new PhotoSlideshow(getContentResolver(), source, new ImageView[]{photoA, photoB},
+                metrics.widthPixels, metrics.heightPixels,
+                preferences.getLong("slideshowIntervalMs", PhotoSlideshow.DEFAULT_INTERVAL_MS));
+        photoSlideshow.start();
+    }
+
+    private void initializeWidgets() {
+        Locale locale = Locale.getDefault();
+        timeWordsWidget = new TimeWordsWidget(timeInWordsTextView, locale);
+        dayDateWidget = new DayDateWidget(dayDateTextView, locale, TimeZone.getDefault());
+        batteryWidget = new BatteryWidget(batteryInfoTextView, batteryIconImageView);
+        songCountWidget = new SongCountWidget(songCountTextView, songCount);
+        songNameWidget = new SongNameWidget(songNameTextView);
+        // Last known song from the warm cache, so it is there on the first frame
+        songNameWidget.setSongName(DreamWarmCache.getSongName());
+        notificationIconsWidget = new NotificationIconsWidget(this, notificationIconContainer);
+
+        if (!initializeClockFaceWidget()) {
+            widgetCoordinator.add(timeWordsWidget);
+        }
+        widgetCoordinator.add(dayDateWidget);
+        widgetCoordinator.add(batteryWidget);
+        widgetCoordinator.add(songCountWidget);
+        widgetCoordinator.add(songNameWidget);
+        widgetCoordinator.add(notificationIconsWidget);
+        initializeCalendarWidget();
+        initializeLyricsWidget();
+    }
+
+    // Analog or seven-segment face in place of the time in words, when selected in preferences
+    private boolean initializeClockFaceWidget() {
+        String face = getSharedPreferences("DreamServicePrefs", Context.MODE_PRIVATE)
+                .getString("clockFace", ClockFaceWidget.FACE_WORDS);
+        if (clockFaceImageView == null || ClockFaceWidget.FACE_WORDS.equals(face)) {
+            return false;
+        }
+        ClockFaceDrawable drawable;
+        if (ClockFaceWidget.FACE_ANALOG.equals(face)) {
+            drawable = new AnalogClockDrawable(Color.WHITE,
+                    getResources().getDimensionPixelSize(R.dimen.clock_face_analog_size));
+        } else if (ClockFaceWidget.FACE_DIGITAL.equals(face)) {
+            SegmentClockDrawable segmentDrawable = new SegmentClockDrawable(Color.WHITE,
+                    getResources().getDimensionPixelSize(R.dimen.clock_face_digital_height));
+            segmentDrawable.set24HourFormat(android.text.format.DateFormat.is24HourFormat(this));
+            drawable = segmentDrawable;
+        } else {
+            Log.w(TAG, "Unknown clock face: " + face);
+            return false;
         }
+        clockFaceWidget = new ClockFaceWidget(clockFaceImageView, drawable);
+        timeInWordsTextView.setVisibility(View.GONE);
+        clockFaceImageView.setVisibility(View.VISIBLE);
+        timeView = clockFaceImageView;
+        widgetCoordinator.add(clockFaceWidget);
+        return true;
+    }
+
+    // Next calendar event under the date, shown when enabled and calendar access is granted
+    private void initializeCalendarWidget() {
+        TextView nextEventTextView = contentView.findViewById(R.id.next_event);
+        if (nextEventTextView == null) return;
+        SharedPreferences preferences = getSharedPreferences("DreamServicePrefs", Context.MODE_PRIVATE);
+        if (!preferences.getBoolean("showNextEvent", true)) {
+            return;
+        }
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.READ_CALENDAR) != PackageManager.PERMISSION_GRANTED) {
+            DreamLog.d(TAG, "Calendar permission not granted, next event hidden");
+            return;
+        }
+        calendarWidget = new CalendarWidget(this, nextEventTextView,
+                () -> widgetCoordinator.invalidate(DreamWidget.SOURCE_CALENDAR));
+        widgetCoordinator.add(calendarWidget);
+    }
+
+    // Synced lyrics from local .lrc files, off unless enabled in preferences
+    private void initializeLyricsWidget() {
+        TextView lyricsTextView = contentView.findViewById(R.id.lyrics_line);
+        if (lyricsTextView == null) return;
+        SharedPreferences preferences = getSharedPreferences("DreamServicePrefs", Context.MODE_PRIVATE);
+        if (!preferences.getBoolean("showLyrics", false)) {
+            return;
+        }
+        String folder = preferences.getString("lyricsFolder", "");
+        LyricsLocator locator = new LyricsLocator(getContentResolver(),
+                folder == null || folder.isEmpty() ? null : new File(folder));
+        lyricsWidget = new LyricsWidget(lyricsTextView, locator,
+                () -> widgetCoordinator.invalidate(DreamWidget.SOURCE_LYRICS));
+        widgetCoordinator.add(lyricsWidget);
     }
 
     private void initializeLayoutParams() {
@@ -235,7 +425,7 @@ public class DreamService extends android.service.dreams.DreamService {
 
         // Set layout for day/date view below the time view
         RelativeLayout.LayoutParams dateLayoutParams = (RelativeLayout.LayoutParams) dayDateTextView.getLayoutParams();
-        dateLayoutParams.addRule(RelativeLayout.BELOW, R.id.time_in_words);
+        dateLayoutParams.addRule(RelativeLayout.BELOW, R.id.clock_face);
         dateLayoutParams.setMargins(
                 getResources().getDimensionPixelSize(R.dimen.margin_start_time_in_words),
                 getResources().getDimensionPixelSize(R.dimen.margin_top_day_date),
@@ -246,7 +436,7 @@ public class DreamService extends android.service.dreams.DreamService {
 
         // Set layout for battery icon view below the day/date view
         RelativeLayout.LayoutParams batteryIconLayoutParams = (RelativeLayout.LayoutParams) batteryIconImageView.getLayoutParams();
-        batteryIconLayoutParams.addRule(RelativeLayout.BELOW, R.id.day_date);
+        batteryIconLayoutParams.addRule(RelativeLayout.BELOW, R.id.next_event);
         batteryIconLayoutParams.addRule(RelativeLayout.ALIGN_PARENT_LEFT);
         batteryIconLayoutParams.setMargins(
                 getResources().getDimensionPixelSize(R.dimen.margin_start_battery_icon),
@@ -258,7 +448,7 @@ public class DreamService extends android.service.dreams.DreamService {
 
         // Set layout for battery info view to the right of battery icon
         RelativeLayout.LayoutParams batteryInfoLayoutParams = (RelativeLayout.LayoutParams) batteryInfoTextView.getLayoutParams();
-        batteryInfoLayoutParams.addRule(RelativeLayout.BELOW, R.id.day_date);
+        batteryInfoLayoutParams.addRule(RelativeLayout.BELOW, R.id.next_event);
         batteryInfoLayoutParams.addRule(RelativeLayout.END_OF, R.id.battery_icon);
         batteryInfoLayoutParams.addRule(RelativeLayout.ALIGN_TOP, R.id.battery_icon);
         batteryInfoLayoutParams.addRule(RelativeLayout.ALIGN_BOTTOM, R.id.battery_icon);
@@ -315,60 +505,132 @@ public class DreamService extends android.service.dreams.DreamService {
         SharedPreferences.Editor editor = preferences.edit();
         editor.putInt("shiftCount", shiftCount);
         editor.apply();
+        DreamMetrics.PREFS_WRITES.increment();
     }
 
     private void startPeriodicUpdates() {
         if (isUpdating) return;
         
         isUpdating = true;
-        handler.post(updateTimeRunnable);
-        handler.post(updateDateRunnable);
-        handler.post(updateSongCountRunnable);
-        handler.post(updateBatteryRunnable);
+        widgetCoordinator.start();
         handler.post(shiftTextViewsRunnable);
     }
 
     @Override
     public void onDreamingStarted() {
         super.onDreamingStarted();
+        DreamFlightRecorder.record(FlightRecorder.DREAM_STARTED);
         startPeriodicUpdates();
+        sessionMonitor.start();
     }
 
     @Override
     public void onDreamingStopped() {
         super.onDreamingStopped();
+        DreamFlightRecorder.record(FlightRecorder.DREAM_STOPPED);
+        sessionMonitor.stop();
         isUpdating = false;
+        widgetCoordinator.stop();
         handler.removeCallbacksAndMessages(null);
         stopNotificationService();
         saveShiftCountToPreferences();
+        if (costMonitor != null) {
+            costMonitor.stop();
+        }
+        if (playbackProgressDrawable != null) {
+            playbackProgressDrawable.setVisible(false, false);
+        }
+        // R8 drops the calls but not their arguments, and each report builds a string
+        if (DreamLog.DEBUG) {
+            DreamLog.d(TAG, "Widget render times: {}", widgetCoordinator.getReport());
+            DreamLog.d(TAG, "Maintenance work: {}", MaintenanceScheduler.getReport(this));
+            DreamLog.d(TAG, "Dream start times: {}", DreamWarmCache.getReport());
+            if (costMonitor != null) {
+                DreamLog.d(TAG, "Cost budget: {}", costMonitor.getReport());
+            }
+            if (playbackProgressDrawable != null) {
+                DreamLog.d(TAG, "Playback progress cost: {}", playbackProgressDrawable.getCostReport());
+            }
+        }
     }
 
     @Override
     public void onDetachedFromWindow() {
+        DreamFlightRecorder.record(FlightRecorder.DREAM_DETACHED);
+        sessionMonitor.stop();
         isUpdating = false;
+        widgetCoordinator.stop();
         handler.removeCallbacksAndMessages(null);
         stopNotificationService();
         restoreBrightness();
         unregisterReceiver(songNameReceiver);
+        unregisterReceiver(clockConfigReceiver);
+        unregisterReceiver(batteryReceiver);
+        unregisterReceiver(notificationsReceiver);
+        if (albumArtLoader != null) {
+            DreamLog.d(TAG, "Album art peak memory: {} of {} bytes budget", albumArtLoader.getPeakBytes(),
+                    albumArtLoader.getMemoryBudgetBytes());
+            // Detach the bitmap before the loader recycles its cache and pool
+            albumArtImageView.setImageDrawable(null);
+            albumArtLoader.release();
+            albumArtLoader = null;
+        }
+        if (photoSlideshow != null) {
+            DreamLog.d(TAG, "Slideshow peak memory: {} of {} bytes budget", photoSlideshow.getPeakBytes(),
+                    photoSlideshow.getMemoryBudgetBytes());
+            photoSlideshow.release();
+            photoSlideshow = null;
+        }
+        if (calendarWidget != null) {
+            calendarWidget.release();
+            calendarWidget = null;
+        }
+        if (lyricsWidget != null) {
+            lyricsWidget.release();
+            lyricsWidget = null;
+        }
+        if (costMonitor != null) {
+            costMonitor.stop();
+            widgetCoordinator.setCostMonitor(null);
+            costMonitor = null;
+        }
+        if (clockFaceWidget != null) {
+            if (DreamLog.DEBUG) {
+                DreamLog.d(TAG, "Clock face cost: {}", clockFaceWidget.getDrawable().getCostReport());
+            }
+            clockFaceWidget.release();
+            clockFaceWidget = null;
+        }
         super.onDetachedFromWindow();
         // Clean up listener to prevent memory leaks
         getWindow().getDecorView().setOnTouchListener(null);
     }
 
+    @Override
+    protected void dump(FileDescriptor fd, PrintWriter writer, String[] args) {
+        if (DreamFlightRecorder.dump(this, writer, args)) {
+            return;
+        }
+        if (!DreamMetrics.wantsJson(args)) {
+            super.dump(fd, writer, args);
+            writer.println("Last session: " + DreamSessionMonitor.getLastSession());
+        }
+        DreamMetrics.dump(writer, args);
+    }
+
     private void stopNotificationService() {
         Intent intent = new Intent(this, NotificationService.class);
         stopService(intent);
     }
 
     private void restoreBrightness() {
-        Log.d(TAG, "Attempting to restore original brightness");
-        BrightnessService.restoreOriginalBrightness(this);
-    }
-
-    // Update methods
-    private void updateTimeInWords() {
-        String timeInWords = getTimeInWords();
-        timeInWordsTextView.setText(fromHtml(timeInWords));
+        DreamLog.d(TAG, "Attempting to restore original brightness");
+        boolean traced = DreamTrace.begin(DreamTrace.BRIGHTNESS);
+        try {
+            BrightnessService.restoreOriginalBrightness(this);
+        } finally {
+            DreamTrace.end(traced);
+        }
     }
 
     @SuppressWarnings("deprecation")
@@ -380,149 +642,6 @@ public class DreamService extends android.service.dreams.DreamService {
         }
     }
 
-    private String getTimeInWords() {
-        Calendar calendar = Calendar.getInstance();
-        // Reuse the static formatter
-        String timeKey = "time_" + TIME_WORDS_FORMAT.format(calendar.getTime()).replace(":", "_").toUpperCase();
-        int resId = getResources().getIdentifier(timeKey, "string", getPackageName());
-        return resId == 0 ? getString(R.string.default_time_string) : getString(resId);
-    }
-
-    private void updateDayDateTextView() {
-        String dayDate = getDayDate();
-        dayDateTextView.setText(dayDate);
-    }
-
-    private String getDayDate() {
-        Calendar calendar = Calendar.getInstance();
-        // Reuse the static formatter
-        return DAY_DATE_FORMAT.format(calendar.getTime());
-    }
-
-    private void updateBatteryInfo() {
-        int batteryLevel = getBatteryLevel();
-        batteryInfoTextView.setText(batteryLevel + "%");
-        int batteryIconResId = getBatteryIconResId(batteryLevel);
-        batteryIconImageView.setImageResource(batteryIconResId);
-    }
-
-    private int getBatteryLevel() {
-        IntentFilter ifilter = new IntentFilter(Intent.ACTION_BATTERY_CHANGED);
-        Intent batteryStatus = registerReceiver(null, ifilter);
-        int level = batteryStatus != null ? batteryStatus.getIntExtra(BatteryManager.EXTRA_LEVEL, -1) : -1;
-        int scale = batteryStatus != null ? batteryStatus.getIntExtra(BatteryManager.EXTRA_SCALE, -1) : -1;
-        return level == -1 || scale == -1 ? 0 : (int) ((level / (float) scale) * 100);
-    }
-
-    private int getBatteryIconResId(int batteryLevel) {
-        int[] thresholds = {100, 95, 90, 85, 80, 75, 70, 65, 60, 55, 50, 45, 40, 35, 30, 25, 20, 15, 10, 5};
-        int[] resIds = {
-                R.drawable.battery_charging_100,
-                R.drawable.battery_charging_95,
-                R.drawable.battery_charging_90,
-                R.drawable.battery_charging_85,
-                R.drawable.battery_charging_80,
-                R.drawable.battery_charging_75,
-                R.drawable.battery_charging_70,
-                R.drawable.battery_charging_65,
-                R.drawable.battery_charging_60,
-                R.drawable.battery_charging_55,
-                R.drawable.battery_charging_50,
-                R.drawable.battery_charging_45,
-                R.drawable.battery_charging_40,
-                R.drawable.battery_charging_35,
-                R.drawable.battery_charging_30,
-                R.drawable.battery_charging_25,
-                R.drawable.battery_charging_20,
-                R.drawable.battery_charging_15,
-                R.drawable.battery_charging_10,
-                R.drawable.battery_charging_5
-        };
-
-        for (int i = 0; i < thresholds.length; i++) {
-            if (batteryLevel >= thresholds[i]) {
-                return resIds[i];
-            }
-        }
-        return R.drawable.battery_charging_1;
-    }
-
-    private void updateNotificationIcons(Set<String> notificationPackages) {
-        if (notificationIconContainer == null) {
-            Log.e(TAG, "notificationIconContainer is null, cannot update icons.");
-            return;
-        }
-        
-        // Get the package currently playing media (if any)
-        String playingPackage = NotificationService.getCurrentlyPlayingMediaPackage();
-        Log.d(TAG, "Currently playing media package: " + (playingPackage != null ? playingPackage : "None"));
-
-        notificationIconContainer.post(() -> {
-            notificationIconContainer.removeAllViews();
-            if (notificationPackages == null || notificationPackages.isEmpty()) {
-                return;
-            }
-
-            Log.d(TAG, "Updating icons. Total packages: " + notificationPackages.size() + ". Excluding: " + playingPackage);
-            for (String packageName : notificationPackages) {
-                // *** Skip icon if it's the currently playing media app ***
-                if (packageName.equals(playingPackage)) {
-                    Log.d(TAG, "Skipping icon for currently playing package: " + packageName);
-                    continue; // Skip this package
-                }
-                
-                Drawable icon = fetchAndCacheNotificationIcon(packageName);
-                if (icon != null) {
-                    ImageView iconView = new ImageView(DreamService.this);
-                    iconView.setImageDrawable(icon);
-                    LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
-                            getResources().getDimensionPixelSize(R.dimen.notification_icon_size),
-                            getResources().getDimensionPixelSize(R.dimen.notification_icon_size)
-                    );
-                    params.setMargins(0, 0, 
-                            getResources().getDimensionPixelSize(R.dimen.notification_icon_margin), 0);
-                    iconView.setLayoutParams(params);
-                    notificationIconContainer.addView(iconView);
-                } else {
-                    Log.w(TAG, "Could not fetch icon for package: " + packageName);
-                }
-            }
-        });
-    }
-
-    private Drawable fetchAndCacheNotificationIcon(String packageName) {
-        try {
-            Drawable icon = getPackageManager().getApplicationIcon(packageName);
-            cacheIcon(packageName, icon);
-            return icon;
-        } catch (PackageManager.NameNotFoundException e) {
-            Log.e(TAG, "Failed to get icon for package: " + packageName, e);
-            return null;
-        }
-    }
-
-    private void cacheIcon(String packageName, Drawable icon) {
-        if (iconCacheDir == null) {
-            iconCacheDir = new File(getCacheDir(), "icon_cache");
-            if (!iconCacheDir.exists() && !iconCacheDir.mkdirs()) {
-                Log.e(TAG, "Failed to create icon cache directory");
-                return;
-            }
-        }
-        File iconFile = new File(iconCacheDir, packageName + ".png");
-        if (iconFile.exists()) {
-            return;
-        }
-        if (icon instanceof BitmapDrawable) {
-            Bitmap bitmap = ((BitmapDrawable) icon).getBitmap();
-            try (FileOutputStream fos = new FileOutputStream(iconFile)) {
-                bitmap.compress(Bitmap.CompressFormat.PNG, 100, fos);
-            } catch (IOException e) {
-                Log.e(TAG, "Failed to cache icon for package: " + packageName, e);
-            }
-        }
-    }
-
     private void shiftTextViews() {
         incrementShiftCount();
         applyShiftPosition();
@@ -534,13 +653,13 @@ public class DreamService extends android.service.dreams.DreamService {
 
     private void applyShiftPosition() {
         int shiftAmount = shiftCount * SHIFT_AMOUNT;
-        // Adjust only the top margin for the time TextView
-        RelativeLayout.LayoutParams timeLayoutParams = (RelativeLayout.LayoutParams) timeInWordsTextView.getLayoutParams();
+        // Adjust only the top margin for the time view
+        RelativeLayout.LayoutParams timeLayoutParams = (RelativeLayout.LayoutParams) timeView.getLayoutParams();
 
         // Check if layoutParams is null before accessing properties
         if (timeLayoutParams != null) {
              timeLayoutParams.topMargin = shiftAmount;
-             timeInWordsTextView.setLayoutParams(timeLayoutParams);
+             timeView.setLayoutParams(timeLayoutParams);
              // No need to reset margins for other views as their relative positions
              // defined by rules (BELOW, END_OF) should remain correct.
         } else {
@@ -548,14 +667,74 @@ public class DreamService extends android.service.dreams.DreamService {
         }
     }
 
+    // Rebuilds the cached time phrase and date line for the new locale, zone or wall clock
+    private final BroadcastReceiver clockConfigReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            DreamMetrics.BROADCASTS_RECEIVED.increment();
+            DreamFlightRecorder.record(FlightRecorder.BROADCAST_RECEIVED, FlightRecorder.BROADCAST_CLOCK_CONFIG);
+            DreamLog.d(TAG, "Clock configuration changed: {}", intent.getAction());
+            if (timeWordsWidget == null || dayDateWidget == null) return;
+            Locale locale = Locale.getDefault();
+            timeWordsWidget.reset(locale);
+            dayDateWidget.reset(locale, TimeZone.getDefault());
+            if (calendarWidget != null) {
+                calendarWidget.reset();
+            }
+            if (clockFaceWidget != null) {
+                clockFaceWidget.reset();
+                // TIME_CHANGED is also sent when the 12/24-hour setting changes
+                if (clockFaceWidget.getDrawable() instanceof SegmentClockDrawable) {
+                    ((SegmentClockDrawable) clockFaceWidget.getDrawable())
+                            .set24HourFormat(android.text.format.DateFormat.is24HourFormat(context));
+                }
+            }
+            widgetCoordinator.onClockChanged();
+        }
+    };
+
+    private final BroadcastReceiver batteryReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            DreamMetrics.BROADCASTS_RECEIVED.increment();
+            int level = intent.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+            int scale = intent.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+            DreamFlightRecorder.record(FlightRecorder.BATTERY, scale > 0 ? level * 100 / scale : -1,
+                    intent.getIntExtra(BatteryManager.EXTRA_PLUGGED, 0));
+            if (batteryWidget == null) return;
+            batteryWidget.setBatteryStatus(intent);
+            widgetCoordinator.invalidate(DreamWidget.SOURCE_BATTERY);
+        }
+    };
+
+    // The listener's package set or playing media app changed
+    private final BroadcastReceiver notificationsReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            DreamMetrics.BROADCASTS_RECEIVED.increment();
+            DreamFlightRecorder.record(FlightRecorder.BROADCAST_RECEIVED, FlightRecorder.BROADCAST_NOTIFICATIONS);
+            if (notificationIconsWidget == null) return;
+            refreshNotificationIcons();
+        }
+    };
+
+    // Re-reads the listener's packages; the icon row only re-renders if they or the playing app changed
+    private void refreshNotificationIcons() {
+        notificationIconsWidget.setPackages(NotificationService.getNotificationPackages(),
+                NotificationService.getCurrentlyPlayingMediaPackage());
+        widgetCoordinator.invalidate(DreamWidget.SOURCE_NOTIFICATIONS);
+    }
+
     private final BroadcastReceiver songNameReceiver = new BroadcastReceiver() {
         @Override
         public void onReceive(Context context, Intent intent) {
+            DreamMetrics.BROADCASTS_RECEIVED.increment();
+            DreamFlightRecorder.record(FlightRecorder.BROADCAST_RECEIVED, FlightRecorder.BROADCAST_SONG_NAME);
             if ("com.bytesmith.daydream.SONG_NAME_UPDATED".equals(intent.getAction())) {
                 String songName = intent.getStringExtra("songName");
-                Log.d(TAG, "Received broadcast with song name: " + (songName != null ? songName : "null"));
+                DreamLog.d(TAG, "Received broadcast with song name: {}", songName);
                 if (songName != null && !songName.isEmpty()) {
-                    Log.d(TAG, "Received song name via broadcast: " + songName);
+                    DreamLog.d(TAG, "Received song name via broadcast: {}", songName);
                     updateSongInfo(songName);
                 }
             }
@@ -569,6 +748,7 @@ public class DreamService extends android.service.dreams.DreamService {
      * @param songName The name of the song to display, or null if no song is playing
      */
     public static void updateSongInfo(@Nullable String songName) {
+        DreamFlightRecorder.record(FlightRecorder.SONG_CHANGED, DreamFlightRecorder.idOf(songName));
         DreamService instance = instanceRef == null ? null : instanceRef.get();
         if (instance == null || instance.handler == null) {
             Log.e(TAG, "DreamService instance or handler is null in updateSongInfo");
@@ -576,102 +756,110 @@ public class DreamService extends android.service.dreams.DreamService {
         }
         
         instance.handler.post(() -> {
-            TextView textView = instance.findViewById(R.id.song_name);
-            if (textView == null) {
-                Log.e(TAG, "Song name TextView is null in updateSongInfo runnable");
+            if (instance.songNameWidget == null) {
+                Log.e(TAG, "Song name widget is null in updateSongInfo runnable");
                 return;
             }
-            
-            Log.d(TAG, "updateSongInfo received: " + (songName != null ? songName : "null"));
 
-            // Update TextView
+            DreamLog.d(TAG, "updateSongInfo received: {}", songName);
+
             if (songName == null || songName.isEmpty()) {
-                textView.setVisibility(View.INVISIBLE);
-            } else {
-                // Format with HTML (optimized string building)
-                Spanned formattedText;
-                int newlineIndex = songName.indexOf('\n');
-                if (newlineIndex != -1) {
-                    String title = songName.substring(0, newlineIndex);
-                    String artist = songName.substring(newlineIndex + 1);
-
-                    // *** Capitalize Title and Artist ***
-                    String capitalizedTitle = capitalizeWords(title);
-                    String capitalizedArtist = capitalizeWords(artist);
-                    // **********************************
-
-                    String htmlString = new StringBuilder()
-                            .append("<font size=\"+4\"><b>")
-                            .append(capitalizedTitle) // Use capitalized version
-                            .append("</b></font><br>")
-                            .append(capitalizedArtist) // Use capitalized version
-                            .toString();
-                    formattedText = DreamService.fromHtml(htmlString);
-                } else {
-                    // Only one line exists, treat as title
-                    // *** Capitalize Song Name (Title) ***
-                    String capitalizedTitle = capitalizeWords(songName);
-                    // ***********************************
-
-                    String htmlString = new StringBuilder()
-                            .append("<font size=\"+4\"><b>")
-                            .append(capitalizedTitle) // Use capitalized version
-                            .append("</b></font>")
-                            .toString();
-                    formattedText = DreamService.fromHtml(htmlString);
+                if (instance.songProgressImageView != null) {
+                    instance.songProgressImageView.setVisibility(View.GONE);
+                }
+                if (instance.albumArtLoader != null) {
+                    instance.albumArtLoader.load(null);
+                }
+                if (instance.lyricsWidget != null) {
+                    instance.lyricsWidget.setTrack(null, null);
                 }
-                textView.setText(formattedText);
-                textView.setVisibility(View.VISIBLE);
-                
-                textView.setGravity(android.view.Gravity.CENTER_HORIZONTAL);
             }
+            instance.songNameWidget.setSongName(songName);
+            instance.widgetCoordinator.invalidate(DreamWidget.SOURCE_MEDIA);
         });
     }
 
-    // *** Add Helper function to capitalize words ***
-    private static String capitalizeWords(String str) {
-        if (str == null || str.isEmpty()) {
-            return str;
+    /**
+     * Resyncs the progress bar under the song name with a new playback state.
+     * Called from the media controller callback only; the bar extrapolates in between.
+     *
+     * @param position           Position in ms at {@code positionUpdateTime}.
+     * @param speed              Playback speed.
+     * @param positionUpdateTime {@code SystemClock.elapsedRealtime()} of the position.
+     * @param duration           Track duration in ms, 0 if unknown.
+     * @param playing            Whether playback is running.
+     */
+    public static void updatePlaybackProgress(final long position, final float speed, final long positionUpdateTime,
+                                              final long duration, final boolean playing) {
+        final DreamService instance = instanceRef == null ? null : instanceRef.get();
+        if (instance == null) {
+            return;
         }
-        String[] words = str.split("\\s+");
-        StringBuilder capitalizedString = new StringBuilder();
-        for (String word : words) {
-            if (word.length() > 0) {
-                capitalizedString.append(Character.toUpperCase(word.charAt(0)))
-                                 .append(word.substring(1).toLowerCase())
-                                 .append(" ");
+
+        instance.handler.post(() -> {
+            if (instance.lyricsWidget != null) {
+                instance.lyricsWidget.setPlaybackState(position, speed, positionUpdateTime, playing);
             }
+            if (instance.songProgressImageView == null || instance.playbackProgressDrawable == null) {
+                return;
+            }
+            instance.playbackProgressDrawable.setPlaybackState(position, speed, positionUpdateTime, duration, playing);
+            instance.songProgressImageView.setVisibility(duration > 0 || playing ? View.VISIBLE : View.GONE);
+        });
+    }
+
+    /**
+     * Shows the artwork of the given track next to the song name, or hides it for null.
+     * Decoding happens on the album art loader's background thread.
+     */
+    public static void updateAlbumArt(@Nullable final MediaMetadata metadata) {
+        final DreamService instance = instanceRef == null ? null : instanceRef.get();
+        if (instance == null) {
+            return;
         }
-        return capitalizedString.toString().trim(); // Trim trailing space
+
+        instance.handler.post(() -> {
+            if (instance.albumArtLoader != null) {
+                instance.albumArtLoader.load(metadata);
+            }
+        });
+    }
+
+    /**
+     * Loads the synced lyrics for the given track, or clears them for null.
+     * Finding and parsing the .lrc file happens on the lyrics widget's background thread.
+     */
+    public static void updateLyricsTrack(@Nullable final MediaMetadata metadata) {
+        final DreamService instance = instanceRef == null ? null : instanceRef.get();
+        if (instance == null) {
+            return;
+        }
+
+        final String title = metadata != null ? metadata.getString(MediaMetadata.METADATA_KEY_TITLE) : null;
+        final String artist = metadata != null ? metadata.getString(MediaMetadata.METADATA_KEY_ARTIST) : null;
+        instance.handler.post(() -> {
+            if (instance.lyricsWidget != null) {
+                instance.lyricsWidget.setTrack(TextUtils.isEmpty(title) ? null : title, artist);
+            }
+        });
     }
-    // ********************************************
 
-    @SuppressLint("SetTextI18n")
     public static void updateSongCount(final int count) {
-        Log.d(TAG, "updateSongCount called with: " + count);
+        DreamLog.d(TAG, "updateSongCount called with: {}", count);
+        DreamFlightRecorder.record(FlightRecorder.SONG_COUNT, count);
         songCount = count; // Update static variable
         final DreamService service = instanceRef != null ? instanceRef.get() : null;
         if (service == null) {
             Log.e(TAG, "Cannot update song count - service instance is null");
             return;
         }
-        if (service.songCountTextView == null) {
-             Log.e(TAG, "Cannot update song count - songCountTextView is null");
-             return;
-        }
-        
+
         service.handler.post(() -> {
-            if (service.songCountTextView != null) {
-                if (count > 0) {
-                    Log.d(TAG, "Setting song count text to: Songs: " + count);
-                    service.songCountTextView.setText("Songs: " + count);
-                    service.songCountTextView.setVisibility(View.VISIBLE);
-                } else {
-                    Log.d(TAG, "Setting song count visibility to GONE as count is 0");
-                    service.songCountTextView.setVisibility(View.GONE);
-                }
+            if (service.songCountWidget != null) {
+                service.songCountWidget.setCount(count);
+                service.widgetCoordinator.invalidate(DreamWidget.SOURCE_SONG_COUNT);
             } else {
-                Log.e(TAG, "songCountTextView became null during handler execution");
+                Log.e(TAG, "Cannot update song count - song count widget is null");
             }
         });
     }
@@ -691,7 +879,7 @@ public class DreamService extends android.service.dreams.DreamService {
         switch (keyCode) {
             case KeyEvent.KEYCODE_VOLUME_UP:
                 if (action == KeyEvent.ACTION_DOWN) {
-                    Log.d(TAG, "Volume Up Pressed - Adjusting volume manually");
+                    DreamLog.d(TAG, "Volume Up Pressed - Adjusting volume manually");
                     if (audioManager != null) {
                         audioManager.adjustStreamVolume(AudioManager.STREAM_MUSIC,
                                 AudioManager.ADJUST_RAISE,
@@ -701,7 +889,7 @@ public class DreamService extends android.service.dreams.DreamService {
                 return true; // Consume the event to prevent system UI
             case KeyEvent.KEYCODE_VOLUME_DOWN:
                 if (action == KeyEvent.ACTION_DOWN) {
-                    Log.d(TAG, "Volume Down Pressed - Adjusting volume manually");
+                    DreamLog.d(TAG, "Volume Down Pressed - Adjusting volume manually");
                     if (audioManager != null) {
                         audioManager.adjustStreamVolume(AudioManager.STREAM_MUSIC,
                                 AudioManager.ADJUST_LOWER,
@@ -0,0 +1,203 @@
+package com.bytesmith.daydream;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.BatteryManager;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import android.util.Printer;
+
+import androidx.annotation.Nullable;
+
+import com.bytesmith.daydream.core.ResourceSample;
+import com.bytesmith.daydream.core.SessionAccount;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Accounts for the power and resources each dream session uses, from samples taken when dreaming
+ * starts, every {@link #SAMPLE_INTERVAL_MS} and when it stops: battery charge counter and current,
+ * process CPU time, main thread messages and frames rendered. Finished sessions are appended, with
+ * per-hour rates, to {@code files/dream-sessions.log}, which keeps the newest {@link #MAX_SESSIONS}.
+ * <p>
+ * Main thread messages are counted with {@link Looper#setMessageLogging}, installed only for the
+ * session: the looper hands the printer a ">>>>> Dispatching" line before each message and a
+ * "<<<<< Finished" line after it. Building those lines costs two short strings per message,
+ * which at the dream's few hundred messages an hour is noise next to what they measure. Main
+ * thread only.
+ */
+class DreamSessionMonitor {
+
+    private static final String TAG = "DreamSessionMonitor";
+    private static final String LOG_FILE = "dream-sessions.log";
+    private static final long SAMPLE_INTERVAL_MS = 10 * 60 * 1000L;
+    private static final int MAX_SESSIONS = 200;
+
+    // Newest logged session, set on the main thread by stop() or once the log has been read
+    @Nullable
+    private static volatile String lastSession = null;
+    private static boolean lastSessionLoading = false;
+
+    private final Context context;
+    private final Handler handler;
+    @Nullable
+    private final BatteryManager batteryManager;
+    @Nullable
+    private SessionAccount account;
+    private long wallStartMs;
+    private long mainThreadMessages;
+
+    // Called by the main looper around every message it dispatches while a session runs
+    private final Printer messageCounter = new Printer() {
+        @Override
+        public void println(String x) {
+            if (x.charAt(0) == '>') {
+                mainThreadMessages++;
+            }
+        }
+    };
+
+    private final Runnable sampleRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (account == null) return;
+            account.sample(sample());
+            handler.postDelayed(this, SAMPLE_INTERVAL_MS);
+        }
+    };
+
+    DreamSessionMonitor(Context context, Handler handler) {
+        this.context = context.getApplicationContext();
+        this.handler = handler;
+        batteryManager = (BatteryManager) context.getSystemService(Context.BATTERY_SERVICE);
+    }
+
+    /** Starts a session; a no-op while one is running. */
+    void start() {
+        if (account != null) return;
+        wallStartMs = System.currentTimeMillis();
+        mainThreadMessages = 0;
+        Looper.getMainLooper().setMessageLogging(messageCounter);
+        account = new SessionAccount(sample());
+        handler.postDelayed(sampleRunnable, SAMPLE_INTERVAL_MS);
+    }
+
+    /** Takes the final sample and logs the session in the background. */
+    void stop() {
+        if (account == null) return;
+        handler.removeCallbacks(sampleRunnable);
+        account.sample(sample());
+        Looper.getMainLooper().setMessageLogging(null);
+        final String line = account.toLogLine(wallStartMs, Build.MODEL, Build.VERSION.SDK_INT);
+        account = null;
+        lastSession = line;
+        DreamLog.d(TAG, "Dream session: {}", line);
+
+        final File file = new File(context.getFilesDir(), LOG_FILE);
+        runInBackground(() -> append(file, line));
+    }
+
+    /**
+     * Reads the newest logged session in the background, once per process, for
+     * {@link #getLastSession}. Main thread.
+     */
+    static void loadLastSession(Context context) {
+        if (lastSession != null || lastSessionLoading) return;
+        lastSessionLoading = true;
+        final File file = new File(context.getFilesDir(), LOG_FILE);
+        final Handler mainHandler = new Handler(Looper.getMainLooper());
+        runInBackground(() -> {
+            final String line = readLines(file).peekLast();
+            mainHandler.post(() -> {
+                // A session that stopped meanwhile is newer than anything in the file
+                if (lastSession == null) {
+                    lastSession = line;
+                }
+            });
+        });
+    }
+
+    /**
+     * The newest logged session line, or null if there is none or {@link #loadLastSession} hasn't
+     * finished. Never touches the disk.
+     */
+    @Nullable
+    static String getLastSession() {
+        return lastSession;
+    }
+
+    private ResourceSample sample() {
+        long chargeUah = ResourceSample.UNAVAILABLE;
+        long currentUa = ResourceSample.UNAVAILABLE;
+        int percent = -1;
+        if (batteryManager != null) {
+            // Devices without a fuel gauge report MIN_VALUE, or 0
+            long charge = batteryManager.getLongProperty(BatteryManager.BATTERY_PROPERTY_CHARGE_COUNTER);
+            if (charge > 0) chargeUah = charge;
+            long current = batteryManager.getLongProperty(BatteryManager.BATTERY_PROPERTY_CURRENT_NOW);
+            if (current != 0 && current != Long.MIN_VALUE && current != Integer.MIN_VALUE) currentUa = current;
+            percent = batteryManager.getIntProperty(BatteryManager.BATTERY_PROPERTY_CAPACITY);
+        }
+        // Sticky broadcast; no receiver is registered
+        Intent battery = context.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        boolean plugged = battery != null && battery.getIntExtra(BatteryManager.EXTRA_PLUGGED, 0) != 0;
+        return new ResourceSample(SystemClock.elapsedRealtime(), chargeUah, currentUa, percent, plugged,
+                android.os.Process.getElapsedCpuTime(), mainThreadMessages, DreamMetrics.FRAMES.get());
+    }
+
+    private static void runInBackground(Runnable task) {
+        HandlerThread thread = new HandlerThread("DreamSessionLog", android.os.Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        new Handler(thread.getLooper()).post(task);
+        thread.quitSafely();
+    }
+
+    // Appends the line, rewriting the file with only the newest sessions once it's full
+    private static void append(File file, String line) {
+        Deque<String> lines = readLines(file);
+        boolean rewrite = lines.size() >= MAX_SESSIONS;
+        if (rewrite) {
+            while (lines.size() >= MAX_SESSIONS) {
+                lines.removeFirst();
+            }
+        }
+        try (Writer writer = new FileWriter(file, !rewrite)) {
+            if (rewrite) {
+                for (String old : lines) {
+                    writer.write(old);
+                    writer.write('\n');
+                }
+            }
+            writer.write(line);
+            writer.write('\n');
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot write " + file, e);
+        }
+    }
+
+    private static Deque<String> readLines(File file) {
+        Deque<String> lines = new ArrayDeque<>();
+        if (!file.exists()) return lines;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) lines.addLast(line);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot read " + file, e);
+        }
+        return lines;
+    }
+}
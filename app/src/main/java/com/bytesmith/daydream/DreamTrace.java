@@ -0,0 +1,85 @@
+package com.bytesmith.daydream;
+
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * {@link Trace} sections for the dream's hot paths, captured by the Perfetto config in
+ * {@code perfetto/daydream.pbtxt}.
+ * <p>
+ * Section names are constants, so nothing is built per call, and on Android 10+ the sections are
+ * skipped entirely unless a trace is being recorded. {@link #begin} reports whether it opened a
+ * section so the matching {@link #end} stays balanced even if tracing starts or stops in between:
+ * <pre>
+ * boolean traced = DreamTrace.begin(DreamTrace.CLASSIFY);
+ * try { ... } finally { DreamTrace.end(traced); }
+ * </pre>
+ */
+final class DreamTrace {
+
+    static final String FRAME = "Dream:frame";
+    static final String CLASSIFY = "Dream:classifyNotification";
+    static final String SESSION_LOOKUP = "Dream:getActiveSessions";
+    static final String BRIGHTNESS = "Dream:brightness";
+    // Async: from the listener handing a notification change to the dream until the dream has
+    // rendered it, or found nothing to redraw
+    static final String NOTIFICATION_TO_UI = "Dream:notificationToUi";
+
+    // Main thread only
+    private static int nextCookie = 0;
+    private static int openCookie = 0;
+    // Set by the running DreamWidgetCoordinator; with no dream up nothing would end the slice
+    private static boolean uiRunning = false;
+
+    private DreamTrace() {
+    }
+
+    static boolean isEnabled() {
+        return Build.VERSION.SDK_INT < Build.VERSION_CODES.Q || Trace.isEnabled();
+    }
+
+    /** Opens a section on the calling thread if tracing is on; pass the result to {@link #end}. */
+    static boolean begin(String section) {
+        if (!isEnabled()) return false;
+        Trace.beginSection(section);
+        return true;
+    }
+
+    static void end(boolean began) {
+        if (began) {
+            Trace.endSection();
+        }
+    }
+
+    /** Marks whether a dream is up to render, and so end, notification-to-UI slices. Main thread. */
+    static void setUiRunning(boolean running) {
+        uiRunning = running;
+        if (!running) {
+            endNotificationToUi();
+        }
+    }
+
+    /**
+     * Starts the notification-to-UI slice when the listener sends the dream an update, unless one
+     * is already waiting for a render or no dream is running. Android 10+ only; main thread.
+     */
+    static void beginNotificationToUi() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q || !uiRunning || openCookie != 0
+                || !Trace.isEnabled()) return;
+        nextCookie = nextCookie == Integer.MAX_VALUE ? 1 : nextCookie + 1;
+        openCookie = nextCookie;
+        Trace.beginAsyncSection(NOTIFICATION_TO_UI, openCookie);
+    }
+
+    /**
+     * Ends the notification-to-UI slice, if one is open: when a notification or media widget has
+     * rendered or skipped an unchanged update, or when the dream stops. Main thread.
+     */
+    static void endNotificationToUi() {
+        if (openCookie == 0) return;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection(NOTIFICATION_TO_UI, openCookie);
+        }
+        openCookie = 0;
+    }
+}
@@ -0,0 +1,215 @@
+package com.bytesmith.daydream;
+
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.text.Spanned;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.Nullable;
+
+import com.bytesmith.daydream.core.TimePhraseGenerator;
+import com.bytesmith.daydream.core.TimePhraseGrammar;
+
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Process-level caches filled ahead of the dream so its first frame shows complete content.
+ * <p>
+ * {@link #prewarm} runs on a background thread when power is connected or the screen turns off
+ * (the usual lead-up to docking and dreaming). It renders the notification icons into bitmaps at
+ * the size the dream shows them, and parses the time phrase for the current and next minute
+ * (on the main thread, since the grammars are shared with the dream).
+ * The media snapshot (song name) is kept up to date by {@link NotificationService} as it changes.
+ * Icon bitmaps are held in an LRU capped at {@link #ICON_CACHE_BYTES}.
+ * <p>
+ * The dream records its attach-to-first-frame time here, split by whether the caches were warm,
+ * so the two can be compared in {@link #getReport}. Thread-safe.
+ */
+final class DreamWarmCache {
+
+    private static final String TAG = "DreamWarmCache";
+    static final int ICON_CACHE_BYTES = 1024 * 1024;
+    // Older warmups are too likely to be stale to count the dream start as warm
+    private static final long WARM_MAX_AGE_MS = 30 * 60 * 1000L;
+
+    private static final Object lock = new Object();
+    private static final LruCache<String, Bitmap> icons = new LruCache<String, Bitmap>(ICON_CACHE_BYTES) {
+        @Override
+        protected int sizeOf(String key, Bitmap value) {
+            return value.getAllocationByteCount();
+        }
+    };
+    private static HandlerThread warmThread = null;
+    private static Handler warmHandler = null;
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Guarded by lock
+    private static String songName = null;
+    private static String phraseLanguage = null;
+    private static final int[] phraseMinutes = {-1, -1};
+    private static final Spanned[] phrases = new Spanned[2];
+    private static long warmedAtMs = 0;
+    private static long coldStarts = 0;
+    private static long coldTotalMs = 0;
+    private static long warmStarts = 0;
+    private static long warmTotalMs = 0;
+
+    private DreamWarmCache() {
+    }
+
+    /** Fills the caches, mostly on a background thread. Repeated calls while one is running are merged. */
+    static void prewarm(Context context, final Set<String> packages) {
+        final Context appContext = context.getApplicationContext();
+        synchronized (lock) {
+            if (warmThread == null) {
+                warmThread = new HandlerThread("DreamWarmup", android.os.Process.THREAD_PRIORITY_BACKGROUND);
+                warmThread.start();
+                warmHandler = new Handler(warmThread.getLooper());
+            }
+            warmHandler.removeCallbacksAndMessages(null);
+            final Set<String> snapshot = new HashSet<>(packages);
+            warmHandler.post(() -> warmIcons(appContext, snapshot));
+        }
+        mainHandler.post(DreamWarmCache::warmPhrases);
+    }
+
+    private static void warmIcons(Context context, Set<String> packages) {
+        long start = SystemClock.elapsedRealtime();
+        int iconSize = context.getResources().getDimensionPixelSize(R.dimen.notification_icon_size);
+        for (String packageName : packages) {
+            if (icons.get(packageName) == null) {
+                loadIcon(context, packageName, iconSize);
+            }
+        }
+        synchronized (lock) {
+            warmedAtMs = SystemClock.elapsedRealtime();
+        }
+        if (DreamLog.DEBUG) {
+            DreamLog.d(TAG, "Prewarmed {} icons in {} ms, icon cache {} bytes", packages.size(),
+                    SystemClock.elapsedRealtime() - start, icons.size());
+        }
+    }
+
+    // Main thread
+    private static void warmPhrases() {
+        Locale locale = Locale.getDefault();
+        TimePhraseGrammar grammar = TimePhraseGenerator.grammarFor(locale);
+        Calendar calendar = Calendar.getInstance();
+        int minuteOfDay = calendar.get(Calendar.HOUR_OF_DAY) * 60 + calendar.get(Calendar.MINUTE);
+        Spanned[] parsed = new Spanned[2];
+        int[] minutes = new int[2];
+        for (int i = 0; i < 2; i++) {
+            minutes[i] = (minuteOfDay + i) % TimePhraseGenerator.MINUTES_PER_DAY;
+            parsed[i] = DreamService.fromHtml(grammar.phrase(minutes[i] / 60, minutes[i] % 60));
+        }
+        synchronized (lock) {
+            phraseLanguage = locale.getLanguage();
+            System.arraycopy(minutes, 0, phraseMinutes, 0, 2);
+            System.arraycopy(parsed, 0, phrases, 0, 2);
+        }
+    }
+
+    /**
+     * The icon for {@code packageName} at {@code iconSize}, from the cache or rendered now (and
+     * cached). Null if the package is gone.
+     */
+    @Nullable
+    static Drawable getIcon(Context context, String packageName, int iconSize) {
+        Bitmap bitmap = icons.get(packageName);
+        if (bitmap == null || bitmap.getWidth() != iconSize) {
+            bitmap = loadIcon(context, packageName, iconSize);
+        }
+        return bitmap != null ? new BitmapDrawable(context.getResources(), bitmap) : null;
+    }
+
+    @Nullable
+    private static Bitmap loadIcon(Context context, String packageName, int iconSize) {
+        Drawable icon;
+        try {
+            icon = context.getPackageManager().getApplicationIcon(packageName);
+        } catch (PackageManager.NameNotFoundException e) {
+            Log.e(TAG, "Failed to get icon for package: " + packageName, e);
+            return null;
+        }
+        Bitmap bitmap = Bitmap.createBitmap(iconSize, iconSize, Bitmap.Config.ARGB_8888);
+        icon.setBounds(0, 0, iconSize, iconSize);
+        icon.draw(new Canvas(bitmap));
+        icons.put(packageName, bitmap);
+        return bitmap;
+    }
+
+    /** The parsed time phrase for the minute if it was prewarmed for this language, else null. */
+    @Nullable
+    static Spanned getPhrase(String language, int minuteOfDay) {
+        synchronized (lock) {
+            if (!language.equals(phraseLanguage)) return null;
+            for (int i = 0; i < phrases.length; i++) {
+                if (phraseMinutes[i] == minuteOfDay) return phrases[i];
+            }
+            return null;
+        }
+    }
+
+    static long getIconCacheHits() {
+        return icons.hitCount();
+    }
+
+    static long getIconCacheMisses() {
+        return icons.missCount();
+    }
+
+    static void setSongName(@Nullable String name) {
+        synchronized (lock) {
+            songName = name;
+        }
+    }
+
+    /** Last known song name, or null/empty when nothing is playing. */
+    @Nullable
+    static String getSongName() {
+        synchronized (lock) {
+            return songName;
+        }
+    }
+
+    /** Whether a prewarm finished recently enough for the next dream start to count as warm. */
+    static boolean isWarm() {
+        synchronized (lock) {
+            return warmedAtMs > 0 && SystemClock.elapsedRealtime() - warmedAtMs < WARM_MAX_AGE_MS;
+        }
+    }
+
+    /** Records a dream's attach-to-first-frame time. */
+    static void recordFirstFrame(boolean warm, long millis) {
+        synchronized (lock) {
+            if (warm) {
+                warmStarts++;
+                warmTotalMs += millis;
+            } else {
+                coldStarts++;
+                coldTotalMs += millis;
+            }
+        }
+    }
+
+    /** Cold and warm start counts with their average attach-to-first-frame time, and cache use. */
+    static String getReport() {
+        synchronized (lock) {
+            return "coldStarts=" + coldStarts + ", coldAvgMs=" + (coldStarts > 0 ? coldTotalMs / coldStarts : 0)
+                    + ", warmStarts=" + warmStarts + ", warmAvgMs=" + (warmStarts > 0 ? warmTotalMs / warmStarts : 0)
+                    + ", iconCacheBytes=" + icons.size() + "/" + icons.maxSize();
+        }
+    }
+}
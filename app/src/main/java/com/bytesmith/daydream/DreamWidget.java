@@ -0,0 +1,56 @@
+package com.bytesmith.daydream;
+
+/**
+ * One element of the dream UI (time, date, battery, ...), rendered by {@link DreamWidgetCoordinator}.
+ * <p>
+ * A widget declares what it reads ({@link #getSources()}), when it can change on its own
+ * ({@link #getTrigger()}) and roughly how expensive it is to render ({@link #getRenderCost()}).
+ * The coordinator calls {@link #render} only when the widget is due and its
+ * {@link #getInputVersion input version} differs from the one it last rendered. All calls happen
+ * on the main thread.
+ */
+interface DreamWidget {
+
+    // Update triggers: EVENT widgets only change when one of their sources is invalidated,
+    // the others are also due at every local minute, hour or day boundary
+    int TRIGGER_EVENT = 0;
+    int TRIGGER_MINUTE = 1;
+    int TRIGGER_HOUR = 2;
+    int TRIGGER_DAY = 3;
+
+    // Data sources, combined as a bit mask
+    int SOURCE_CLOCK = 1;
+    int SOURCE_LOCALE = 1 << 1;
+    int SOURCE_BATTERY = 1 << 2;
+    int SOURCE_MEDIA = 1 << 3;
+    int SOURCE_SONG_COUNT = 1 << 4;
+    int SOURCE_NOTIFICATIONS = 1 << 5;
+    int SOURCE_CALENDAR = 1 << 6;
+    int SOURCE_LYRICS = 1 << 7;
+
+    // Render cost classes; cheaper widgets are rendered first in a batch
+    int COST_LOW = 0;
+    int COST_MEDIUM = 1;
+    int COST_HIGH = 2;
+
+    /** Short name used in the render time report. */
+    String getName();
+
+    /** Bit mask of {@code SOURCE_*} constants this widget reads. */
+    int getSources();
+
+    /** One of the {@code TRIGGER_*} constants. */
+    int getTrigger();
+
+    /** One of the {@code COST_*} constants. */
+    int getRenderCost();
+
+    /**
+     * Returns a value that changes whenever {@link #render} would produce different output.
+     * Must be cheap; it is evaluated every time the widget is due.
+     */
+    long getInputVersion(long nowMillis);
+
+    /** Updates the widget's views for {@code nowMillis}. */
+    void render(long nowMillis);
+}
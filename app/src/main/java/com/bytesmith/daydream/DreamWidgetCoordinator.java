@@ -0,0 +1,272 @@
+package com.bytesmith.daydream;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Choreographer;
+
+import com.bytesmith.daydream.core.ClockPeriods;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * Drives every {@link DreamWidget} from a single wakeup.
+ * <p>
+ * One runnable is scheduled for the earliest local minute, hour or day boundary any widget cares
+ * about. When it fires, or when a data source is invalidated, the affected widgets are marked due
+ * and rendered together in the next frame, cheapest first. Widgets whose input version hasn't
+ * changed since their last render are skipped. If a batch runs over the frame budget, the
+ * remaining medium and high cost widgets are pushed to the following frame.
+ * <p>
+ * Render times are accumulated per widget and available from {@link #getReport()}. Main thread only.
+ */
+class DreamWidgetCoordinator implements Choreographer.FrameCallback {
+
+    private static final String TAG = "DreamWidgetCoordinator";
+    private static final long FRAME_BUDGET_NANOS = 8_000_000L;
+    // Uptime-based delays stall while the device sleeps, so never wait longer than this
+    private static final long MAX_TICK_DELAY_MS = 15 * 60 * 1000L;
+    private static final long TICK_SLACK_MS = 20;
+    private static final long[] COST_BUDGET_NANOS = {1_000_000L, 4_000_000L, 16_000_000L};
+
+    private static final class Entry {
+        final DreamWidget widget;
+        final String traceSection;
+        boolean dirty = true;
+        long periodKey = Long.MIN_VALUE;
+        boolean rendered = false;
+        long inputVersion;
+
+        // Stats
+        long renders;
+        long skips;
+        long overBudget;
+        long totalNanos;
+        long maxNanos;
+
+        Entry(DreamWidget widget) {
+            this.widget = widget;
+            traceSection = "Dream:" + widget.getName();
+        }
+    }
+
+    private final Handler handler;
+    private final List<Entry> entries = new ArrayList<>();
+    private Calendar calendar = Calendar.getInstance();
+    private boolean running = false;
+    private boolean frameRequested = false;
+    private long frames = 0;
+    private DreamCostMonitor costMonitor;
+
+    private final Runnable tickRunnable = new Runnable() {
+        @Override
+        public void run() {
+            DreamMetrics.TICKS.increment();
+            markDueWidgets(System.currentTimeMillis());
+            requestFrame();
+            scheduleTick();
+        }
+    };
+
+    DreamWidgetCoordinator(Handler handler) {
+        this.handler = handler;
+    }
+
+    /** Reports every render to the given monitor, or stops reporting for null. */
+    void setCostMonitor(DreamCostMonitor costMonitor) {
+        this.costMonitor = costMonitor;
+    }
+
+    /** Adds a widget, keeping the list ordered by declared render cost. */
+    void add(DreamWidget widget) {
+        int index = entries.size();
+        while (index > 0 && entries.get(index - 1).widget.getRenderCost() > widget.getRenderCost()) {
+            index--;
+        }
+        entries.add(index, new Entry(widget));
+        if (running) {
+            requestFrame();
+            scheduleTick();
+        }
+    }
+
+    /** Renders every widget once and starts the boundary wakeups. Calling it again is a no-op. */
+    void start() {
+        if (running) return;
+        running = true;
+        DreamTrace.setUiRunning(true);
+        for (Entry entry : entries) {
+            entry.dirty = true;
+        }
+        markDueWidgets(System.currentTimeMillis());
+        requestFrame();
+        scheduleTick();
+    }
+
+    void stop() {
+        running = false;
+        handler.removeCallbacks(tickRunnable);
+        if (frameRequested) {
+            Choreographer.getInstance().removeFrameCallback(this);
+            frameRequested = false;
+        }
+        DreamTrace.setUiRunning(false);
+    }
+
+    /** Marks the widgets reading any of the given sources as due. */
+    void invalidate(int sources) {
+        boolean any = false;
+        for (Entry entry : entries) {
+            if ((entry.widget.getSources() & sources) != 0) {
+                entry.dirty = true;
+                any = true;
+            }
+        }
+        if (any) {
+            requestFrame();
+        }
+    }
+
+    /** Picks up a new time zone or wall clock and re-aligns the boundary wakeup. */
+    void onClockChanged() {
+        calendar = Calendar.getInstance();
+        invalidate(DreamWidget.SOURCE_CLOCK | DreamWidget.SOURCE_LOCALE);
+        if (running) {
+            scheduleTick();
+        }
+    }
+
+    private void requestFrame() {
+        if (!running || frameRequested) return;
+        frameRequested = true;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameRequested = false;
+        if (!running) return;
+        frames++;
+        DreamMetrics.FRAMES.increment();
+        boolean traced = DreamTrace.begin(DreamTrace.FRAME);
+        try {
+            renderDueWidgets();
+        } finally {
+            DreamTrace.end(traced);
+        }
+    }
+
+    // Renders the dirty widgets, cheapest first, until the frame budget runs out
+    private void renderDueWidgets() {
+        long now = System.currentTimeMillis();
+        long batchStart = SystemClock.elapsedRealtimeNanos();
+        for (Entry entry : entries) {
+            if (!entry.dirty) continue;
+            if (entry.widget.getRenderCost() != DreamWidget.COST_LOW
+                    && SystemClock.elapsedRealtimeNanos() - batchStart > FRAME_BUDGET_NANOS) {
+                requestFrame(); // Out of budget, finish in the next frame
+                continue;
+            }
+            entry.dirty = false;
+
+            long version = entry.widget.getInputVersion(now);
+            if (entry.rendered && version == entry.inputVersion) {
+                entry.skips++;
+                endNotificationToUi(entry); // An unchanged result is still the end of the update
+                continue;
+            }
+
+            long renderStart = SystemClock.elapsedRealtimeNanos();
+            boolean traced = DreamTrace.begin(entry.traceSection);
+            try {
+                entry.widget.render(now);
+            } finally {
+                DreamTrace.end(traced);
+            }
+            long renderNanos = SystemClock.elapsedRealtimeNanos() - renderStart;
+            endNotificationToUi(entry);
+            DreamMetrics.RENDERS.increment();
+            DreamMetrics.RENDER_US.record(renderNanos / 1000);
+
+            if (costMonitor != null) {
+                costMonitor.onRender(entry.widget);
+            }
+            entry.rendered = true;
+            entry.inputVersion = version;
+            entry.renders++;
+            entry.totalNanos += renderNanos;
+            if (renderNanos > entry.maxNanos) {
+                entry.maxNanos = renderNanos;
+            }
+            if (renderNanos > COST_BUDGET_NANOS[entry.widget.getRenderCost()]) {
+                entry.overBudget++;
+                if (DreamLog.DEBUG) { // Counted in overBudget and the report either way
+                    Log.w(TAG, entry.widget.getName() + " render took " + renderNanos / 1000 + "us, over its declared cost");
+                }
+            }
+        }
+    }
+
+    // Closes the notification-to-UI slice once a widget fed by the notification listener is done
+    private static void endNotificationToUi(Entry entry) {
+        if ((entry.widget.getSources() & (DreamWidget.SOURCE_NOTIFICATIONS | DreamWidget.SOURCE_MEDIA)) != 0) {
+            DreamTrace.endNotificationToUi();
+        }
+    }
+
+    // Marks time-triggered widgets whose minute, hour or day has rolled over since they were last due
+    private void markDueWidgets(long nowMillis) {
+        for (Entry entry : entries) {
+            int field = periodField(entry.widget.getTrigger());
+            if (field < 0) continue;
+            long key = ClockPeriods.periodKey(calendar, nowMillis, field);
+            if (key != entry.periodKey) {
+                entry.periodKey = key;
+                entry.dirty = true;
+            }
+        }
+    }
+
+    private void scheduleTick() {
+        handler.removeCallbacks(tickRunnable);
+        long now = System.currentTimeMillis();
+        long next = Long.MAX_VALUE;
+        for (Entry entry : entries) {
+            int field = periodField(entry.widget.getTrigger());
+            if (field >= 0) {
+                next = Math.min(next, ClockPeriods.nextBoundary(calendar, now, field));
+            }
+        }
+        if (next == Long.MAX_VALUE) {
+            return; // Event-driven widgets only, nothing to wake up for
+        }
+        long delay = Math.min(Math.max(0, next - now) + TICK_SLACK_MS, MAX_TICK_DELAY_MS);
+        handler.postDelayed(tickRunnable, delay);
+    }
+
+    // Calendar field that ends the trigger's period, or -1 for event-driven widgets
+    private static int periodField(int trigger) {
+        switch (trigger) {
+            case DreamWidget.TRIGGER_MINUTE: return Calendar.MINUTE;
+            case DreamWidget.TRIGGER_HOUR: return Calendar.HOUR_OF_DAY;
+            case DreamWidget.TRIGGER_DAY: return Calendar.DAY_OF_MONTH;
+            default: return -1;
+        }
+    }
+
+    /** One line per widget: renders, skipped renders, average and worst render time. */
+    String getReport() {
+        StringBuilder sb = new StringBuilder("frames=").append(frames);
+        for (Entry entry : entries) {
+            sb.append('\n').append(entry.widget.getName())
+                    .append(": renders=").append(entry.renders)
+                    .append(", skipped=").append(entry.skips)
+                    .append(", avgUs=").append(entry.renders > 0 ? entry.totalNanos / entry.renders / 1000 : 0)
+                    .append(", maxUs=").append(entry.maxNanos / 1000)
+                    .append(", overBudget=").append(entry.overBudget);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package com.bytesmith.daydream;
+
+import android.net.Uri;
+import android.util.Log;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Locale;
+
+/** Image files directly inside a local folder, in file name order. */
+class FolderPhotoSource implements PhotoSource {
+
+    private static final String TAG = "FolderPhotoSource";
+    private static final String[] EXTENSIONS = {".jpg", ".jpeg", ".png", ".webp", ".bmp"};
+
+    private final File folder;
+    private File[] files = new File[0];
+
+    FolderPhotoSource(File folder) {
+        this.folder = folder;
+    }
+
+    @Override
+    public int load() {
+        File[] listed = folder.listFiles(file -> file.isFile() && isImage(file.getName()));
+        if (listed == null) {
+            Log.w(TAG, "Cannot list " + folder);
+            listed = new File[0];
+        }
+        Arrays.sort(listed);
+        files = listed;
+        return files.length;
+    }
+
+    private static boolean isImage(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        for (String extension : EXTENSIONS) {
+            if (lower.endsWith(extension)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return files.length;
+    }
+
+    @Override
+    public Uri uriAt(int index) {
+        return Uri.fromFile(files[index]);
+    }
+}
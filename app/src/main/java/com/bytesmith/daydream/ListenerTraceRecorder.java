@@ -0,0 +1,208 @@
+package com.bytesmith.daydream;
+
+import android.app.Notification;
+import android.content.Context;
+import android.media.MediaMetadata;
+import android.media.session.PlaybackState;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.service.notification.StatusBarNotification;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.bytesmith.daydream.core.ListenerEvent;
+import com.bytesmith.daydream.core.ListenerTraceWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Records the notification listener's inputs to a binary trace that {@code TraceReplay} can feed
+ * through the listener logic on a JVM: notifications that pass the filter as they are posted,
+ * removals, and the watched media session's playback state and metadata.
+ * <p>
+ * Off unless the "recordListenerTrace" preference is set. Events are captured on the listener's
+ * thread and written on a background thread to {@code files/traces}. A trace stops growing at
+ * {@link #MAX_TRACE_BYTES} and only the newest {@link #MAX_TRACES} are kept. The files hold
+ * notification titles and texts, so they stay in app-private storage.
+ */
+class ListenerTraceRecorder {
+
+    private static final String TAG = "ListenerTraceRecorder";
+    private static final String TRACE_DIR = "traces";
+    private static final String TRACE_SUFFIX = ".ddtrace";
+    private static final int MAX_TRACE_BYTES = 4 * 1024 * 1024;
+    private static final int MAX_TRACES = 3;
+
+    // Extras the listener reads that have no public constant
+    private static final String EXTRA_MEDIA_PLAYBACK_STATE = "android.mediaPlaybackState";
+    private static final String EXTRA_MEDIA_METADATA = "android.mediaMetadata";
+
+    private final File traceFile;
+    private final HandlerThread writeThread;
+    private final Handler writeHandler;
+    private ListenerTraceWriter writer;
+    private boolean full = false;
+    private int events = 0;
+
+    /** A recorder if tracing is enabled in preferences, otherwise null. */
+    @Nullable
+    static ListenerTraceRecorder createIfEnabled(Context context) {
+        if (!context.getSharedPreferences("DreamServicePrefs", Context.MODE_PRIVATE)
+                .getBoolean("recordListenerTrace", false)) {
+            return null;
+        }
+        File dir = new File(context.getFilesDir(), TRACE_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.w(TAG, "Cannot create " + dir);
+            return null;
+        }
+        String name = "listener-" + new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date()) + TRACE_SUFFIX;
+        return new ListenerTraceRecorder(new File(dir, name));
+    }
+
+    private ListenerTraceRecorder(File traceFile) {
+        this.traceFile = traceFile;
+        writeThread = new HandlerThread("ListenerTrace", android.os.Process.THREAD_PRIORITY_BACKGROUND);
+        writeThread.start();
+        writeHandler = new Handler(writeThread.getLooper());
+        final long wallTimeMs = System.currentTimeMillis();
+        final long startTimeMs = SystemClock.elapsedRealtime();
+        writeHandler.post(() -> {
+            pruneOldTraces(traceFile.getParentFile());
+            try {
+                writer = new ListenerTraceWriter(new BufferedOutputStream(new FileOutputStream(traceFile)),
+                        wallTimeMs, startTimeMs);
+                DreamLog.d(TAG, "Recording listener trace to {}", traceFile);
+            } catch (IOException e) {
+                Log.e(TAG, "Cannot open " + traceFile, e);
+            }
+        });
+    }
+
+    void onPosted(StatusBarNotification sbn) {
+        Notification notification = sbn.getNotification();
+        if (notification == null) return;
+        ListenerEvent event = new ListenerEvent();
+        event.reset(ListenerEvent.TYPE_POSTED, SystemClock.elapsedRealtime(), sbn.getPackageName());
+        event.key = sbn.getKey();
+        event.category = notification.category;
+        event.flags = notification.flags;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            event.channelId = notification.getChannelId();
+        }
+
+        Bundle extras = notification.extras;
+        if (extras != null) {
+            event.hasMediaSession = extras.containsKey(Notification.EXTRA_MEDIA_SESSION);
+            event.playbackStateExtra = extras.getInt(EXTRA_MEDIA_PLAYBACK_STATE, -1);
+            // Same title and text the listener builds the song name from
+            MediaMetadata metadata = extras.getParcelable(EXTRA_MEDIA_METADATA);
+            if (metadata != null) {
+                event.title = metadata.getString(MediaMetadata.METADATA_KEY_TITLE);
+                event.text = metadata.getString(MediaMetadata.METADATA_KEY_ARTIST);
+            } else {
+                event.title = toString(extras.getCharSequence(Notification.EXTRA_TITLE));
+                event.text = toString(extras.getCharSequence(Notification.EXTRA_TEXT));
+            }
+        }
+
+        Notification.Action[] actions = notification.actions;
+        if (actions != null && actions.length > 0) {
+            String[] titles = new String[actions.length];
+            for (int i = 0; i < actions.length; i++) {
+                titles[i] = actions[i] != null ? toString(actions[i].title) : null;
+            }
+            event.actionTitles = titles;
+        }
+        record(event);
+    }
+
+    void onRemoved(StatusBarNotification sbn) {
+        ListenerEvent event = new ListenerEvent();
+        event.reset(ListenerEvent.TYPE_REMOVED, SystemClock.elapsedRealtime(), sbn.getPackageName());
+        event.key = sbn.getKey();
+        record(event);
+    }
+
+    void onPlaybackState(String packageName, PlaybackState state) {
+        ListenerEvent event = new ListenerEvent();
+        event.reset(ListenerEvent.TYPE_PLAYBACK_STATE, SystemClock.elapsedRealtime(), packageName);
+        event.state = state.getState();
+        event.positionMs = state.getPosition();
+        event.speed = state.getPlaybackSpeed();
+        event.positionUpdateTimeMs = state.getLastPositionUpdateTime();
+        record(event);
+    }
+
+    void onMetadata(String packageName, MediaMetadata metadata) {
+        ListenerEvent event = new ListenerEvent();
+        event.reset(ListenerEvent.TYPE_METADATA, SystemClock.elapsedRealtime(), packageName);
+        event.title = metadata.getString(MediaMetadata.METADATA_KEY_TITLE);
+        event.text = metadata.getString(MediaMetadata.METADATA_KEY_ARTIST);
+        event.durationMs = metadata.getLong(MediaMetadata.METADATA_KEY_DURATION);
+        record(event);
+    }
+
+    /** Flushes and closes the trace. The recorder can't be used afterwards. */
+    void release() {
+        writeHandler.post(() -> {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    Log.e(TAG, "Error closing " + traceFile, e);
+                }
+                DreamLog.d(TAG, "Listener trace closed: {} events, {} bytes", events, traceFile.length());
+                writer = null;
+            }
+        });
+        writeThread.quitSafely();
+    }
+
+    private void record(final ListenerEvent event) {
+        writeHandler.post(() -> {
+            if (writer == null || full) return;
+            try {
+                writer.write(event);
+                events++;
+                if (writer.size() >= MAX_TRACE_BYTES) {
+                    full = true;
+                    writer.flush();
+                    Log.w(TAG, "Listener trace reached " + MAX_TRACE_BYTES + " bytes, recording stopped");
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Error writing " + traceFile + ", recording stopped", e);
+                full = true;
+            }
+        });
+    }
+
+    // Keeps the newest traces, leaving room for the one about to be written
+    private static void pruneOldTraces(@Nullable File dir) {
+        File[] traces = dir != null ? dir.listFiles((d, name) -> name.endsWith(TRACE_SUFFIX)) : null;
+        if (traces == null || traces.length < MAX_TRACES) return;
+        // Names sort by start time
+        Arrays.sort(traces);
+        for (int i = 0; i <= traces.length - MAX_TRACES; i++) {
+            if (!traces[i].delete()) {
+                Log.w(TAG, "Cannot delete old trace " + traces[i]);
+            }
+        }
+    }
+
+    @Nullable
+    private static String toString(@Nullable CharSequence value) {
+        return value != null ? value.toString() : null;
+    }
+}
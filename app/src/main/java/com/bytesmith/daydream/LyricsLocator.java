@@ -0,0 +1,96 @@
+package com.bytesmith.daydream;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.provider.MediaStore;
+import android.text.TextUtils;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.io.File;
+
+/**
+ * Finds the .lrc file for a track.
+ * <p>
+ * Looks next to the audio file first (same base name, found through MediaStore by title and
+ * artist), then in the configured lyrics folder as "Artist - Title.lrc" or "Title.lrc". Files are
+ * read directly, so on devices with scoped storage only locations the app can read are found.
+ */
+class LyricsLocator {
+
+    private static final String TAG = "LyricsLocator";
+    private static final String EXTENSION = ".lrc";
+
+    private final ContentResolver contentResolver;
+    @Nullable
+    private final File lyricsFolder;
+
+    /** @param lyricsFolder Extra folder to search, or null. */
+    LyricsLocator(ContentResolver contentResolver, @Nullable File lyricsFolder) {
+        this.contentResolver = contentResolver;
+        this.lyricsFolder = lyricsFolder;
+    }
+
+    /** The lyrics file for the track, or null if there is none. Does I/O; call off the main thread. */
+    @Nullable
+    File find(String title, @Nullable String artist) {
+        File file = findNextToAudio(title, artist);
+        if (file != null) {
+            return file;
+        }
+        if (lyricsFolder != null) {
+            if (!TextUtils.isEmpty(artist)) {
+                file = readable(new File(lyricsFolder, sanitize(artist + " - " + title) + EXTENSION));
+                if (file != null) return file;
+            }
+            return readable(new File(lyricsFolder, sanitize(title) + EXTENSION));
+        }
+        return null;
+    }
+
+    @Nullable
+    @SuppressWarnings("deprecation") // DATA is the only way to get at the sibling file
+    private File findNextToAudio(String title, @Nullable String artist) {
+        String[] projection = {MediaStore.Audio.Media.DATA};
+        String selection = MediaStore.Audio.Media.TITLE + " = ?";
+        String[] args;
+        if (TextUtils.isEmpty(artist)) {
+            args = new String[]{title};
+        } else {
+            selection += " AND " + MediaStore.Audio.Media.ARTIST + " = ?";
+            args = new String[]{title, artist};
+        }
+        try (Cursor cursor = contentResolver.query(MediaStore.Audio.Media.EXTERNAL_CONTENT_URI,
+                projection, selection, args, null)) {
+            if (cursor == null) return null;
+            while (cursor.moveToNext()) {
+                String path = cursor.getString(0);
+                if (path == null) continue;
+                int dot = path.lastIndexOf('.');
+                int slash = path.lastIndexOf('/');
+                String base = dot > slash ? path.substring(0, dot) : path;
+                File file = readable(new File(base + EXTENSION));
+                if (file != null) return file;
+            }
+        } catch (SecurityException e) {
+            Log.w(TAG, "No permission to read audio", e);
+        }
+        return null;
+    }
+
+    @Nullable
+    private static File readable(File file) {
+        return file.isFile() && file.canRead() ? file : null;
+    }
+
+    // Replaces characters that can't appear in file names
+    private static String sanitize(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            sb.append("/\\:*?\"<>|".indexOf(c) >= 0 ? '_' : c);
+        }
+        return sb.toString().trim();
+    }
+}
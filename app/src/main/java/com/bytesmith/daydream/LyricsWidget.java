@@ -0,0 +1,178 @@
+package com.bytesmith.daydream;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.text.TextUtils;
+import android.util.Log;
+import android.view.View;
+import android.widget.TextView;
+
+import androidx.annotation.Nullable;
+
+import com.bytesmith.daydream.core.LrcParser;
+import com.bytesmith.daydream.core.Lyrics;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The current line of the track's synced lyrics, from a local .lrc file.
+ * <p>
+ * The file is found and parsed once per track on a background thread. During playback the line is
+ * looked up by binary search on the position extrapolated from the last playback state, and a
+ * single wakeup is scheduled for the start of the next line; the view is only touched when the
+ * line index changes. Main thread only, apart from the loader.
+ */
+class LyricsWidget implements DreamWidget {
+
+    private static final String TAG = "LyricsWidget";
+
+    private final TextView textView;
+    private final LyricsLocator locator;
+    private final Runnable onLineChanged;
+    private final HandlerThread loadThread;
+    private final Handler loadHandler;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private String trackKey = null;
+    private Lyrics lyrics = Lyrics.EMPTY;
+    private int lyricsGeneration = 0;
+
+    // Last playback snapshot, on the SystemClock.elapsedRealtime() time base
+    private long positionMs = 0;
+    private float speed = 1f;
+    private long positionUpdateTimeMs = 0;
+    private boolean playing = false;
+
+    private final Runnable nextLineRunnable = new Runnable() {
+        @Override
+        public void run() {
+            onLineChanged.run();
+        }
+    };
+
+    /**
+     * @param onLineChanged Run on the main thread when the line (or the lyrics) may have changed.
+     */
+    LyricsWidget(TextView textView, LyricsLocator locator, Runnable onLineChanged) {
+        this.textView = textView;
+        this.locator = locator;
+        this.onLineChanged = onLineChanged;
+        loadThread = new HandlerThread("LyricsLoad", android.os.Process.THREAD_PRIORITY_BACKGROUND);
+        loadThread.start();
+        loadHandler = new Handler(loadThread.getLooper());
+    }
+
+    /** Loads the lyrics for a new track, or clears them for null. */
+    void setTrack(@Nullable final String title, @Nullable final String artist) {
+        final String key = title == null ? null : title + "\n" + (artist != null ? artist : "");
+        if (TextUtils.equals(key, trackKey)) return;
+        trackKey = key;
+        setLyrics(Lyrics.EMPTY);
+        if (key == null) return;
+
+        loadHandler.removeCallbacksAndMessages(null);
+        loadHandler.post(() -> {
+            Lyrics loaded = Lyrics.EMPTY;
+            File file = locator.find(title, artist);
+            if (file != null) {
+                long start = SystemClock.elapsedRealtimeNanos();
+                try {
+                    loaded = LrcParser.load(file);
+                } catch (IOException e) {
+                    Log.w(TAG, "Failed to read lyrics " + file, e);
+                }
+                if (DreamLog.DEBUG) {
+                    DreamLog.d(TAG, "Parsed {} lyric lines from {} bytes in {}us", loaded.size(),
+                            file.length(), (SystemClock.elapsedRealtimeNanos() - start) / 1000);
+                }
+            }
+            final Lyrics result = loaded;
+            mainHandler.post(() -> {
+                if (TextUtils.equals(key, trackKey)) {
+                    setLyrics(result);
+                }
+            });
+        });
+    }
+
+    /** Resyncs with a new playback snapshot; see {@code PlaybackProgressDrawable#setPlaybackState}. */
+    void setPlaybackState(long position, float playbackSpeed, long positionUpdateTime, boolean isPlaying) {
+        positionMs = Math.max(0, position);
+        speed = playbackSpeed;
+        positionUpdateTimeMs = positionUpdateTime > 0 ? positionUpdateTime : SystemClock.elapsedRealtime();
+        playing = isPlaying;
+        onLineChanged.run();
+    }
+
+    void release() {
+        mainHandler.removeCallbacks(nextLineRunnable);
+        loadHandler.removeCallbacksAndMessages(null);
+        loadThread.quitSafely();
+    }
+
+    private void setLyrics(Lyrics lyrics) {
+        this.lyrics = lyrics;
+        lyricsGeneration++;
+        onLineChanged.run();
+    }
+
+    private long extrapolatePosition(long nowMs) {
+        long position = positionMs;
+        if (playing && nowMs > positionUpdateTimeMs) {
+            position += (long) ((nowMs - positionUpdateTimeMs) * speed);
+        }
+        return position;
+    }
+
+    // One wakeup at the start of the next line, while playing forward
+    private void scheduleNextLine(int index, long position) {
+        mainHandler.removeCallbacks(nextLineRunnable);
+        if (!playing || speed <= 0 || index + 1 >= lyrics.size()) return;
+        long delay = (long) Math.ceil((lyrics.timeAt(index + 1) - position) / speed);
+        mainHandler.postDelayed(nextLineRunnable, Math.max(0, delay));
+    }
+
+    @Override
+    public String getName() {
+        return "lyrics";
+    }
+
+    @Override
+    public int getSources() {
+        return SOURCE_MEDIA | SOURCE_LYRICS;
+    }
+
+    @Override
+    public int getTrigger() {
+        return TRIGGER_EVENT;
+    }
+
+    @Override
+    public int getRenderCost() {
+        return COST_LOW;
+    }
+
+    @Override
+    public long getInputVersion(long nowMillis) {
+        long position = extrapolatePosition(SystemClock.elapsedRealtime());
+        int index = lyrics.indexAt(position);
+        scheduleNextLine(index, position);
+        return ((long) lyricsGeneration << 32) | (index + 1);
+    }
+
+    @Override
+    public void render(long nowMillis) {
+        int index = lyrics.indexAt(extrapolatePosition(SystemClock.elapsedRealtime()));
+        String line = index >= 0 ? lyrics.lineAt(index) : null;
+        if (TextUtils.isEmpty(line)) {
+            textView.setVisibility(View.GONE);
+            return;
+        }
+        textView.setText(line);
+        DreamMetrics.SET_TEXT.increment();
+        textView.setVisibility(View.VISIBLE);
+    }
+}
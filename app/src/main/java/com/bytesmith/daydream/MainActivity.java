@@ -1,17 +1,21 @@
 package com.bytesmith.daydream;
 
-import android.content.ComponentName;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.provider.Settings;
 import android.text.TextUtils;
 import android.view.View;
 import android.widget.Button;
+import android.widget.TextView;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.bytesmith.daydream.core.SessionAccount;
+
 public class MainActivity extends AppCompatActivity {
     
     private static final int WRITE_SETTINGS_REQUEST_CODE = 1000;
@@ -19,6 +23,22 @@ public class MainActivity extends AppCompatActivity {
     private Button notificationButton;
     private Button accessibilityButton;
     private Button writeSettingsButton;
+    private TextView diagnosticsTextView;
+    private PermissionState permissionState;
+
+    // Live counters from the services in this process, redrawn at most once a second
+    private static final long DIAGNOSTICS_REFRESH_MS = 1000;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final StringBuilder diagnosticsText = new StringBuilder();
+    private String lastSessionLine = null;
+    private String lastSessionSummary = "none";
+    private final Runnable diagnosticsRunnable = new Runnable() {
+        @Override
+        public void run() {
+            updateDiagnostics();
+            handler.postDelayed(this, DIAGNOSTICS_REFRESH_MS);
+        }
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -27,7 +47,15 @@ public class MainActivity extends AppCompatActivity {
         notificationButton = findViewById(R.id.NotificationButton);
         accessibilityButton = findViewById(R.id.AccessibilityButton);
         writeSettingsButton = findViewById(R.id.WriteSystemSettings);
+        diagnosticsTextView = findViewById(R.id.diagnosticsTextView);
+        // Observed for the activity's lifetime, so onResume only reads the cached values
+        permissionState = new PermissionState(this, () -> {
+            updateNotificationButtonStatus();
+            updateAccessibilityButtonStatus();
+        });
+        permissionState.register();
         initializeButtons();
+        DreamSessionMonitor.loadLastSession(this);
     }
     
     @Override
@@ -37,6 +65,13 @@ public class MainActivity extends AppCompatActivity {
         updateNotificationButtonStatus();
         updateAccessibilityButtonStatus();
         updateWriteSettingsButtonStatus();
+        handler.post(diagnosticsRunnable);
+    }
+
+    @Override
+    protected void onPause() {
+        handler.removeCallbacks(diagnosticsRunnable);
+        super.onPause();
     }
 
     private void initializeButtons() {
@@ -79,20 +114,7 @@ public class MainActivity extends AppCompatActivity {
     }
     
     private boolean isNotificationServiceEnabled() {
-        String pkgName = getPackageName();
-        final String flat = Settings.Secure.getString(getContentResolver(), "enabled_notification_listeners");
-        if (!TextUtils.isEmpty(flat)) {
-            final String[] names = flat.split(":");
-            for (String name : names) {
-                final ComponentName cn = ComponentName.unflattenFromString(name);
-                if (cn != null) {
-                    if (TextUtils.equals(pkgName, cn.getPackageName())) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        return permissionState.hasNotificationAccess();
     }
 
     // --- Accessibility Service Check --- 
@@ -109,40 +131,7 @@ public class MainActivity extends AppCompatActivity {
     }
     
     private boolean isAccessibilityServiceEnabled() {
-        ComponentName expectedComponentName = new ComponentName(this, BrightnessService.class);
-        String expectedFlattened = expectedComponentName.flattenToString();
-
-        String enabledServicesSetting = Settings.Secure.getString(getContentResolver(), Settings.Secure.ENABLED_ACCESSIBILITY_SERVICES);
-        if (enabledServicesSetting == null) {
-            return false;
-        }
-
-        // Simplified check: See if the flattened component name exists in the enabled services string
-        if (enabledServicesSetting.contains(expectedFlattened)) {
-            // Check specifically to avoid partial matches (e.g., com.example vs com.example.extra)
-            TextUtils.SimpleStringSplitter colonSplitter = new TextUtils.SimpleStringSplitter(':');
-            colonSplitter.setString(enabledServicesSetting);
-            while (colonSplitter.hasNext()) {
-                String componentNameString = colonSplitter.next();
-                if (expectedFlattened.equals(componentNameString)) {
-                    return true;
-                }
-            }
-        }
-
-        /* Original loop - kept for reference, but contains check is usually sufficient and cleaner
-        TextUtils.SimpleStringSplitter colonSplitter = new TextUtils.SimpleStringSplitter(':');
-        colonSplitter.setString(enabledServicesSetting);
-
-        while (colonSplitter.hasNext()) {
-            String componentNameString = colonSplitter.next();
-            ComponentName enabledService = ComponentName.unflattenFromString(componentNameString);
-            if (enabledService != null && enabledService.equals(expectedComponentName)) {
-                return true;
-            }
-        }
-        */
-        return false;
+        return permissionState.hasAccessibility();
     }
     
     // --- Write Settings Check --- 
@@ -166,6 +155,46 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    // --- Diagnostics ---
+    private void updateDiagnostics() {
+        if (diagnosticsTextView == null) return;
+
+        DreamMetrics.Snapshot metrics = DreamMetrics.snapshot();
+        StringBuilder sb = diagnosticsText;
+        sb.setLength(0);
+        sb.append("Up ").append(metrics.uptimeMs / 60000).append(" min, ")
+                .append(metrics.getWakeupsPerHour()).append(" wakeups/h\n");
+        sb.append("Broadcasts: ").append(metrics.broadcastsSent).append(" sent, ")
+                .append(metrics.broadcastsReceived).append(" received\n");
+        sb.append("Notifications: ").append(metrics.notificationsPosted).append(" posted\n");
+        sb.append("Session lookups: ").append(metrics.sessionLookups)
+                .append(" (p50 <= ").append(metrics.sessionLookupP50Micros).append(" us)\n");
+        sb.append("Classifier cache: ");
+        appendRatio(sb, metrics.classifierHits, metrics.classifierMisses);
+        sb.append("\nIcon cache: ");
+        appendRatio(sb, metrics.iconCacheHits, metrics.iconCacheMisses);
+        String lastSession = DreamSessionMonitor.getLastSession();
+        if (lastSession != null && !lastSession.equals(lastSessionLine)) {
+            lastSessionLine = lastSession;
+            lastSessionSummary = SessionAccount.summarize(lastSession);
+        }
+        sb.append("\nLast dream: ").append(lastSessionSummary);
+
+        // setText requests a layout, so skip it when nothing changed
+        if (!TextUtils.equals(diagnosticsTextView.getText(), sb)) {
+            diagnosticsTextView.setText(sb.toString());
+        }
+    }
+
+    private static void appendRatio(StringBuilder sb, long hits, long misses) {
+        long total = hits + misses;
+        if (total == 0) {
+            sb.append("unused");
+        } else {
+            sb.append(hits * 100 / total).append("% of ").append(total);
+        }
+    }
+
     private void setupButton(int buttonId, View.OnClickListener clickListener) {
         Button button = findViewById(buttonId);
         if (button != null) {
@@ -243,6 +272,8 @@ public class MainActivity extends AppCompatActivity {
     
     @Override
     protected void onDestroy() {
+        handler.removeCallbacks(diagnosticsRunnable);
+        permissionState.unregister();
         // Clear toast reference
         if (currentToast != null) {
             currentToast.cancel();
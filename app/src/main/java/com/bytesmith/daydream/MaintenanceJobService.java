@@ -0,0 +1,84 @@
+package com.bytesmith.daydream;
+
+import android.app.job.JobParameters;
+import android.app.job.JobService;
+
+import java.io.File;
+
+/**
+ * Cache housekeeping scheduled by {@link MaintenanceScheduler} for when the device is charging and
+ * idle: deletes the icon PNGs older versions left behind and stale cache files. Runs on its own
+ * thread and stops between items when the constraints no longer hold; the rest waits for the next
+ * run.
+ */
+public class MaintenanceJobService extends JobService {
+
+    private static final String TAG = "MaintenanceJobService";
+    private static final String LEGACY_ICON_CACHE_DIR = "icon_cache";
+    private static final long STALE_FILE_AGE_MS = 7L * 24 * 60 * 60 * 1000;
+
+    private volatile boolean stopped = false;
+
+    @Override
+    public boolean onStartJob(final JobParameters params) {
+        stopped = false;
+        Thread worker = new Thread(() -> {
+            int done = runMaintenance();
+            MaintenanceScheduler.onJobFinished(this, done, stopped);
+            if (!stopped) {
+                jobFinished(params, false);
+            }
+        }, "Maintenance");
+        worker.setPriority(Thread.MIN_PRIORITY);
+        worker.start();
+        return true;
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        stopped = true; // The worker stops between items; the next run picks up the rest
+        return true;
+    }
+
+    private int runMaintenance() {
+        long start = System.currentTimeMillis();
+        File iconCacheDir = new File(getCacheDir(), LEGACY_ICON_CACHE_DIR);
+        int done = deleteLegacyIconCache(iconCacheDir);
+        if (!stopped) {
+            done += deleteStaleFiles(getCacheDir(), iconCacheDir);
+        }
+        if (DreamLog.DEBUG) {
+            DreamLog.d(TAG, "Maintenance did {} items in {} ms{}", done,
+                    System.currentTimeMillis() - start, stopped ? ", stopped early" : "");
+        }
+        return done;
+    }
+
+    // Icon PNGs older versions wrote for each notifying app; nothing ever read them back
+    private int deleteLegacyIconCache(File iconCacheDir) {
+        File[] files = iconCacheDir.listFiles();
+        if (files == null) return 0;
+        int deleted = 0;
+        for (File file : files) {
+            if (stopped) return deleted;
+            if (file.delete()) deleted++;
+        }
+        if (iconCacheDir.delete()) deleted++;
+        return deleted;
+    }
+
+    // Top-level cache files nobody has touched in a week
+    private int deleteStaleFiles(File cacheDir, File iconCacheDir) {
+        File[] files = cacheDir.listFiles();
+        if (files == null) return 0;
+        int deleted = 0;
+        long now = System.currentTimeMillis();
+        for (File file : files) {
+            if (stopped) break;
+            if (file.isFile() && !file.equals(iconCacheDir) && now - file.lastModified() > STALE_FILE_AGE_MS) {
+                if (file.delete()) deleted++;
+            }
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,90 @@
+package com.bytesmith.daydream;
+
+import android.app.job.JobInfo;
+import android.app.job.JobScheduler;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.SharedPreferences;
+import android.os.BatteryManager;
+import android.util.Log;
+
+/**
+ * Schedules deferrable housekeeping for {@link MaintenanceJobService}, which runs it while the
+ * device is charging and idle. Work done in the job is counted in preferences, work still done
+ * inline in {@link DreamMetrics#INLINE_WORK}; {@link #getReport} shows both.
+ * <p>
+ * Cache warming ({@link DreamWarmCache#prewarm}) is not a job: its caches live in memory and are
+ * only useful for the dream about to start, while an idle job runs long after. It is held to the
+ * same charging constraint instead: it runs on power connected, or on screen off only while
+ * charging (see {@link #isCharging}).
+ */
+final class MaintenanceScheduler {
+
+    private static final String TAG = "MaintenanceScheduler";
+    static final String PREFS_NAME = "DreamMaintenancePrefs";
+    private static final String DONE_IN_JOB_KEY = "doneInJob";
+    private static final String JOB_RUNS_KEY = "jobRuns";
+    static final int JOB_ID = 0x0D4E;
+
+    private static final Object lock = new Object();
+    private static boolean scheduled = false;
+
+    private MaintenanceScheduler() {
+    }
+
+    /** Makes sure the maintenance job is pending. Called once per dream start. */
+    static void schedule(Context context) {
+        synchronized (lock) {
+            if (scheduled) return;
+            scheduled = true;
+        }
+        JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (scheduler == null) return;
+        JobInfo job = new JobInfo.Builder(JOB_ID, new ComponentName(context, MaintenanceJobService.class))
+                .setRequiresCharging(true)
+                .setRequiresDeviceIdle(true)
+                .build();
+        if (scheduler.schedule(job) != JobScheduler.RESULT_SUCCESS) {
+            Log.w(TAG, "Failed to schedule maintenance job");
+            synchronized (lock) {
+                scheduled = false;
+            }
+        }
+    }
+
+    /** Called by the job when it finishes or is stopped. */
+    static void onJobFinished(Context context, int itemsDone, boolean rescheduled) {
+        synchronized (lock) {
+            SharedPreferences prefs = prefs(context);
+            prefs.edit()
+                    .putLong(DONE_IN_JOB_KEY, prefs.getLong(DONE_IN_JOB_KEY, 0) + itemsDone)
+                    .putLong(JOB_RUNS_KEY, prefs.getLong(JOB_RUNS_KEY, 0) + 1)
+                    .apply();
+            DreamMetrics.PREFS_WRITES.increment();
+            // A stopped job is rescheduled by the system; a finished one has to be scheduled again
+            scheduled = rescheduled;
+        }
+    }
+
+    /** Work items done by the job and still done inline. */
+    static String getReport(Context context) {
+        synchronized (lock) {
+            SharedPreferences prefs = prefs(context);
+            return "doneInJob=" + prefs.getLong(DONE_IN_JOB_KEY, 0)
+                    + ", doneInline=" + DreamMetrics.INLINE_WORK.get()
+                    + ", jobRuns=" + prefs.getLong(JOB_RUNS_KEY, 0);
+        }
+    }
+
+    /** Whether the device is on external power, from the sticky battery broadcast. */
+    static boolean isCharging(Context context) {
+        Intent battery = context.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        return battery != null && battery.getIntExtra(BatteryManager.EXTRA_PLUGGED, 0) != 0;
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
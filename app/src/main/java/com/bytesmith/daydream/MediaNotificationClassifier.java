@@ -0,0 +1,139 @@
+package com.bytesmith.daydream;
+
+import android.app.Notification;
+import android.os.Bundle;
+import android.service.notification.StatusBarNotification;
+
+import androidx.annotation.Nullable;
+
+import com.bytesmith.daydream.core.MediaHeuristics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Decides whether a posted notification belongs to a media player.
+ * <p>
+ * The notification is inspected once: the category and extras are read a single time and
+ * every action title is lower-cased once and matched against all media keywords in the same
+ * loop. The resulting verdict is cached by notification key and post time, so the same
+ * notification delivered again (reconnects, active-notification rescans) is a map lookup.
+ */
+class MediaNotificationClassifier {
+
+    private static final String TAG = "MediaClassifier";
+
+    // Verdict bits
+    static final int FLAG_MEDIA = MediaHeuristics.FLAG_MEDIA;
+    static final int FLAG_TRANSPORT_CATEGORY = MediaHeuristics.FLAG_TRANSPORT_CATEGORY;
+    static final int FLAG_MEDIA_SESSION = MediaHeuristics.FLAG_MEDIA_SESSION;
+    static final int FLAG_MEDIA_ACTIONS = MediaHeuristics.FLAG_MEDIA_ACTIONS;
+    static final int FLAG_PLAYING = MediaHeuristics.FLAG_PLAYING;
+
+    private static final String EXTRA_MEDIA_PLAYBACK_STATE = "android.mediaPlaybackState";
+
+    private static final int MAX_CACHED_VERDICTS = 64;
+
+    private final Map<String, CachedVerdict> verdictCache =
+            new LinkedHashMap<String, CachedVerdict>(MAX_CACHED_VERDICTS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedVerdict> eldest) {
+                    return size() > MAX_CACHED_VERDICTS;
+                }
+            };
+
+    private long cacheHits = 0;
+    private long cacheMisses = 0;
+
+    private static final class CachedVerdict {
+        long postTime;
+        int flags;
+    }
+
+    /**
+     * Returns the verdict bits for the notification, using the cached verdict when the same
+     * key was already classified at the same post time.
+     */
+    synchronized int classify(@Nullable StatusBarNotification sbn) {
+        if (sbn == null) return 0;
+
+        String key = sbn.getKey();
+        long postTime = sbn.getPostTime();
+        CachedVerdict cached = verdictCache.get(key);
+        if (cached != null && cached.postTime == postTime) {
+            cacheHits++;
+            DreamMetrics.CLASSIFIER_HITS.increment();
+            return cached.flags;
+        }
+
+        cacheMisses++;
+        DreamMetrics.CLASSIFIER_MISSES.increment();
+        int flags;
+        boolean traced = DreamTrace.begin(DreamTrace.CLASSIFY);
+        try {
+            flags = inspect(sbn.getNotification());
+        } finally {
+            DreamTrace.end(traced);
+        }
+        if (cached == null) {
+            cached = new CachedVerdict();
+            verdictCache.put(key, cached);
+        }
+        cached.postTime = postTime;
+        cached.flags = flags;
+        DreamLog.d(TAG, "Classified {} -> flags {}", sbn.getPackageName(), flags);
+        return flags;
+    }
+
+    boolean isMediaNotification(@Nullable StatusBarNotification sbn) {
+        return (classify(sbn) & FLAG_MEDIA) != 0;
+    }
+
+    boolean isCurrentlyPlaying(@Nullable StatusBarNotification sbn) {
+        return (classify(sbn) & FLAG_PLAYING) != 0;
+    }
+
+    /**
+     * Drops the cached verdict for a removed notification.
+     */
+    synchronized void forget(@Nullable StatusBarNotification sbn) {
+        if (sbn != null) {
+            verdictCache.remove(sbn.getKey());
+        }
+    }
+
+    synchronized long getCacheHits() {
+        return cacheHits;
+    }
+
+    synchronized long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    // Reads the notification once and hands the values to the shared heuristics
+    private static int inspect(@Nullable Notification notification) {
+        if (notification == null) return 0;
+
+        boolean transport = Notification.CATEGORY_TRANSPORT.equals(notification.category);
+        boolean hasMediaSession = false;
+        int playbackState = -1;
+        Bundle extras = notification.extras;
+        if (extras != null) {
+            // Notification.EXTRA_MEDIA_SESSION is "android.mediaSession"
+            hasMediaSession = extras.containsKey(Notification.EXTRA_MEDIA_SESSION);
+            if (transport) {
+                playbackState = extras.getInt(EXTRA_MEDIA_PLAYBACK_STATE, -1);
+            }
+        }
+
+        CharSequence[] actionTitles = null;
+        Notification.Action[] actions = notification.actions;
+        if (actions != null && actions.length > 0) {
+            actionTitles = new CharSequence[actions.length];
+            for (int i = 0; i < actions.length; i++) {
+                actionTitles[i] = actions[i] != null ? actions[i].title : null;
+            }
+        }
+        return MediaHeuristics.inspect(transport, hasMediaSession, playbackState, actionTitles);
+    }
+}
@@ -0,0 +1,56 @@
+package com.bytesmith.daydream;
+
+import android.content.ContentResolver;
+import android.content.ContentUris;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.MediaStore;
+import android.util.Log;
+
+import java.util.Arrays;
+
+/** All images in MediaStore, newest first. Only the row ids are kept. */
+class MediaStorePhotoSource implements PhotoSource {
+
+    private static final String TAG = "MediaStorePhotoSource";
+
+    private final ContentResolver contentResolver;
+    private long[] ids = new long[0];
+
+    MediaStorePhotoSource(ContentResolver contentResolver) {
+        this.contentResolver = contentResolver;
+    }
+
+    @Override
+    public int load() {
+        String[] projection = {MediaStore.Images.Media._ID};
+        try (Cursor cursor = contentResolver.query(MediaStore.Images.Media.EXTERNAL_CONTENT_URI,
+                projection, null, null, MediaStore.Images.Media.DATE_ADDED + " DESC")) {
+            if (cursor == null) {
+                ids = new long[0];
+                return 0;
+            }
+            long[] loaded = new long[cursor.getCount()];
+            int idColumn = cursor.getColumnIndexOrThrow(MediaStore.Images.Media._ID);
+            int count = 0;
+            while (cursor.moveToNext() && count < loaded.length) {
+                loaded[count++] = cursor.getLong(idColumn);
+            }
+            ids = count == loaded.length ? loaded : Arrays.copyOf(loaded, count);
+        } catch (SecurityException e) {
+            Log.w(TAG, "No permission to read images", e);
+            ids = new long[0];
+        }
+        return ids.length;
+    }
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+
+    @Override
+    public Uri uriAt(int index) {
+        return ContentUris.withAppendedId(MediaStore.Images.Media.EXTERNAL_CONTENT_URI, ids[index]);
+    }
+}
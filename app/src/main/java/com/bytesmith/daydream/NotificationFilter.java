@@ -0,0 +1,121 @@
+package com.bytesmith.daydream;
+
+import android.app.Notification;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.service.notification.NotificationListenerService;
+import android.service.notification.StatusBarNotification;
+
+import androidx.annotation.Nullable;
+
+import com.bytesmith.daydream.core.NotificationFilterRules;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Hides notifications from the dream based on per-app, per-channel, per-category,
+ * flag and importance rules stored in SharedPreferences.
+ * <p>
+ * Rules are compiled into a {@link NotificationFilterRules} snapshot once when the
+ * preferences change; {@link #isFiltered} only runs O(1) lookups against that snapshot.
+ */
+class NotificationFilter {
+
+    private static final String TAG = "NotificationFilter";
+
+    static final String PREFS_NAME = "NotificationFilterPrefs";
+    static final String KEY_EXCLUDED_PACKAGES = "excludedPackages";
+    static final String KEY_EXCLUDED_CHANNELS = "excludedChannels";
+    static final String KEY_EXCLUDED_CATEGORIES = "excludedCategories";
+    static final String KEY_HIDE_ONGOING = "hideOngoing";
+    static final String KEY_HIDE_FOREGROUND_SERVICE = "hideForegroundService";
+    static final String KEY_MIN_IMPORTANCE = "minImportance";
+
+    // Packages hidden when nothing has been configured yet
+    private static final Set<String> DEFAULT_EXCLUDED_PACKAGES = Collections.singleton("com.miui.securitycore");
+
+    private final SharedPreferences prefs;
+    private final Runnable onRulesChanged;
+    private volatile NotificationFilterRules rules = NotificationFilterRules.EMPTY;
+
+    // Held as a field: SharedPreferences only keeps weak references to listeners
+    private final SharedPreferences.OnSharedPreferenceChangeListener prefsListener =
+            new SharedPreferences.OnSharedPreferenceChangeListener() {
+                @Override
+                public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
+                    DreamLog.d(TAG, "Filter preference changed: {}", key);
+                    compileRules();
+                    if (onRulesChanged != null) {
+                        onRulesChanged.run();
+                    }
+                }
+            };
+
+    /**
+     * @param onRulesChanged Invoked after the rules have been recompiled, may be null.
+     */
+    NotificationFilter(Context context, @Nullable Runnable onRulesChanged) {
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.onRulesChanged = onRulesChanged;
+        compileRules();
+        prefs.registerOnSharedPreferenceChangeListener(prefsListener);
+    }
+
+    void release() {
+        prefs.unregisterOnSharedPreferenceChangeListener(prefsListener);
+    }
+
+    private void compileRules() {
+        int flagMask = 0;
+        if (prefs.getBoolean(KEY_HIDE_ONGOING, false)) {
+            flagMask |= Notification.FLAG_ONGOING_EVENT;
+        }
+        if (prefs.getBoolean(KEY_HIDE_FOREGROUND_SERVICE, false)) {
+            flagMask |= Notification.FLAG_FOREGROUND_SERVICE;
+        }
+        rules = NotificationFilterRules.compile(
+                prefs.getStringSet(KEY_EXCLUDED_PACKAGES, DEFAULT_EXCLUDED_PACKAGES),
+                prefs.getStringSet(KEY_EXCLUDED_CHANNELS, null),
+                prefs.getStringSet(KEY_EXCLUDED_CATEGORIES, null),
+                flagMask,
+                prefs.getInt(KEY_MIN_IMPORTANCE, NotificationFilterRules.IMPORTANCE_ANY));
+        DreamLog.d(TAG, "Compiled {} notification filter rules", rules.size());
+    }
+
+    /**
+     * Returns true if the notification must not reach the package registry or the dream.
+     *
+     * @param rankingMap Current ranking, only consulted when an importance rule is set.
+     */
+    boolean isFiltered(StatusBarNotification sbn, @Nullable NotificationListenerService.RankingMap rankingMap) {
+        NotificationFilterRules current = rules;
+        String packageName = sbn.getPackageName();
+        if (current.excludesPackage(packageName)) {
+            return true;
+        }
+
+        Notification notification = sbn.getNotification();
+        if (notification == null) {
+            return false;
+        }
+
+        String channelId = null;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            channelId = notification.getChannelId();
+        }
+
+        // Unknown importance never trips the importance rule
+        int importance = Integer.MAX_VALUE;
+        if (current.needsImportance() && rankingMap != null
+                && Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            NotificationListenerService.Ranking ranking = new NotificationListenerService.Ranking();
+            if (rankingMap.getRanking(sbn.getKey(), ranking)) {
+                importance = ranking.getImportance();
+            }
+        }
+
+        return current.matches(packageName, channelId, notification.category, notification.flags, importance);
+    }
+}
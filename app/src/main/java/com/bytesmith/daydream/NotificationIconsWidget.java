@@ -0,0 +1,108 @@
+package com.bytesmith.daydream;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.text.TextUtils;
+import android.util.Log;
+import android.widget.ImageView;
+import android.widget.LinearLayout;
+
+import androidx.annotation.Nullable;
+
+import com.bytesmith.daydream.core.CostBudget;
+
+import java.util.Collections;
+import java.util.Set;
+
+/** Row of app icons for the packages with active notifications, minus the playing media app. */
+class NotificationIconsWidget implements DreamWidget {
+
+    private static final String TAG = "NotificationIconsWidget";
+
+    private final Context context;
+    private final LinearLayout container;
+
+    private Set<String> packages = Collections.emptySet();
+    private String playingPackage = null;
+    private long version = 0;
+    // Package set and playing package behind the icons currently shown
+    private Set<String> renderedPackages = null;
+    private String renderedPlayingPackage = null;
+
+    NotificationIconsWidget(Context context, LinearLayout container) {
+        this.context = context;
+        this.container = container;
+    }
+
+    void setPackages(@Nullable Set<String> packages, @Nullable String playingPackage) {
+        Set<String> newPackages = packages != null ? packages : Collections.<String>emptySet();
+        boolean playingChanged = playingPackage == null ? this.playingPackage != null : !playingPackage.equals(this.playingPackage);
+        if (playingChanged || !newPackages.equals(this.packages)) {
+            this.packages = newPackages;
+            this.playingPackage = playingPackage;
+            version++;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "notificationIcons";
+    }
+
+    @Override
+    public int getSources() {
+        return SOURCE_NOTIFICATIONS | SOURCE_MEDIA;
+    }
+
+    @Override
+    public int getTrigger() {
+        return TRIGGER_EVENT;
+    }
+
+    @Override
+    public int getRenderCost() {
+        return COST_HIGH; // View inflation, and PackageManager lookups on warm cache misses
+    }
+
+    @Override
+    public long getInputVersion(long nowMillis) {
+        return version;
+    }
+
+    @Override
+    public void render(long nowMillis) {
+        DreamMetrics.ICON_REBUILDS.increment();
+        if (packages.equals(renderedPackages) && TextUtils.equals(playingPackage, renderedPlayingPackage)) {
+            DreamService.recordCost(CostBudget.IDLE_ICON_REBUILDS); // Nothing changed, the rebuild was wasted
+        }
+        renderedPackages = packages;
+        renderedPlayingPackage = playingPackage;
+        container.removeAllViews();
+        if (packages.isEmpty()) {
+            return;
+        }
+
+        DreamLog.d(TAG, "Updating icons. Total packages: {}. Excluding: {}", packages.size(), playingPackage);
+        int iconSize = context.getResources().getDimensionPixelSize(R.dimen.notification_icon_size);
+        int iconMargin = context.getResources().getDimensionPixelSize(R.dimen.notification_icon_margin);
+        for (String packageName : packages) {
+            // Skip icon if it's the currently playing media app
+            if (packageName.equals(playingPackage)) {
+                continue;
+            }
+
+            // Rendered icon from the process-level warm cache; PackageManager is only hit on a miss
+            Drawable icon = DreamWarmCache.getIcon(context, packageName, iconSize);
+            if (icon != null) {
+                ImageView iconView = new ImageView(context);
+                iconView.setImageDrawable(icon);
+                LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(iconSize, iconSize);
+                params.setMargins(0, 0, iconMargin, 0);
+                iconView.setLayoutParams(params);
+                container.addView(iconView);
+            } else {
+                Log.w(TAG, "Could not fetch icon for package: " + packageName);
+            }
+        }
+    }
+}
@@ -17,6 +17,7 @@ import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.service.notification.NotificationListenerService;
 import android.service.notification.StatusBarNotification;
 import android.text.TextUtils;
@@ -25,46 +26,51 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import java.util.Calendar;
+import com.bytesmith.daydream.core.CostBudget;
+import com.bytesmith.daydream.core.DailySongCount;
+import com.bytesmith.daydream.core.FlightRecorder;
+import com.bytesmith.daydream.core.ListenerModel;
+import com.bytesmith.daydream.core.ListeningTimeTracker;
+import com.bytesmith.daydream.core.SongTitles;
+
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.TimeZone;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 import java.util.HashSet;
 
 public class NotificationService extends NotificationListenerService {
 
     private static final String TAG = "NotificationService";
-    private static final String UPDATE_NOTIFICATIONS_ACTION = "com.bytesmith.daydream.UPDATE_NOTIFICATIONS";
+    static final String UPDATE_NOTIFICATIONS_ACTION = "com.bytesmith.daydream.UPDATE_NOTIFICATIONS";
     private static final String PREFS_NAME = "MediaPlaybackPrefs";
     private static final String SONG_COUNT_KEY = "songCount";
     private static final String LAST_RESET_TIME_KEY = "lastResetTime";
-    private static final long MIN_PLAYBACK_DURATION = 60000; // 1 minute
-    private static final long MAX_PLAYBACK_DURATION = 600000; // 10 minutes
+    private static final String LISTENED_FRACTION_KEY = "listenedFraction";
+    private static final float DEFAULT_LISTENED_FRACTION = 0.5f; // Half of the track
+    private static final long MIN_PLAYBACK_DURATION = 60000; // 1 minute, used when the duration is unknown
     private static final String MEDIA_INFO_REQUEST_ACTION = "com.bytesmith.daydream.REQUEST_MEDIA_INFO";
     private static final String SONG_NAME_UPDATED_ACTION = "com.bytesmith.daydream.SONG_NAME_UPDATED";
     private static final long MEDIA_SESSION_CHECK_INTERVAL = 5000; // Check every 5 seconds
     // Define our own constant for EXTRA_MEDIA_METADATA
     private static final String EXTRA_MEDIA_METADATA = "android.mediaMetadata";
 
-    // Package to exclude from showing icons
-    private static final String EXCLUDED_PACKAGE = "com.miui.securitycore";
-
     // Thread-safe set to store notification package names
     private static final Set<String> notificationPackages = Collections.newSetFromMap(new ConcurrentHashMap<>());
 
-    // Song tracking
-    private String currentSongName = "";
-    private long songStartTime = 0;
+    // The listener's decisions (icons, playing package, song name, play time), made in :core so a
+    // recorded trace replays through the same rules; static for the dream's getters
+    private static volatile ListenerModel listenerModel = null;
+    private MediaController callbackController = null;
     
     // Handler for media session checks
     private final Handler handler = new Handler(Looper.getMainLooper());
     private boolean isRunning = false;
 
-    // Track the package currently playing media
-    private static volatile String currentlyPlayingMediaPackage = null;
-
     // Handler for delayed song information updates
     private Handler delayedHandler = new Handler(Looper.getMainLooper());
     private static final int SONG_INFO_DELAY = 500; // Half-second delay
@@ -74,164 +80,122 @@ public class NotificationService extends NotificationListenerService {
     private String lastTitle = null;
     private String lastArtist = null;
 
+    // Compiled per-app/channel/category/flag rules; filtered notifications are dropped on arrival
+    private NotificationFilter notificationFilter;
+
+    // Media/non-media verdicts, cached per notification key + post time
+    private final MediaNotificationClassifier mediaClassifier = new MediaNotificationClassifier();
+
+    // Opt-in recording of the listener's inputs for offline replay, null when off
+    @Nullable
+    private ListenerTraceRecorder traceRecorder;
+
     @Override
     public void onListenerConnected() {
         super.onListenerConnected();
-        Log.d(TAG, "NotificationListener connected");
+        DreamLog.d(TAG, "NotificationListener connected");
+        DreamFlightRecorder.record(FlightRecorder.LISTENER_CONNECTED);
 
         // Initialize with currently active notifications
         StatusBarNotification[] activeNotifications = getActiveNotifications();
+        List<String> activePackages = new ArrayList<>();
         if (activeNotifications != null) {
-            Log.d(TAG, "Found " + activeNotifications.length + " active notifications on connect");
+            DreamLog.d(TAG, "Found {} active notifications on connect", activeNotifications.length);
+            RankingMap rankingMap = getCurrentRanking();
             for (StatusBarNotification sbn : activeNotifications) {
-                String packageName = sbn.getPackageName();
-                if (!EXCLUDED_PACKAGE.equals(packageName)) {
-                    notificationPackages.add(packageName);
+                if (isFiltered(sbn, rankingMap)) {
+                    continue;
                 }
+                activePackages.add(sbn.getPackageName());
                 if (isMediaNotification(sbn)) {
                     String songName = extractSongName(sbn);
                     if (songName != null && !songName.isEmpty()) {
-                        Log.d(TAG, "Found active media notification on connect: " + songName + " from " + sbn.getPackageName());
+                        DreamLog.d(TAG, "Found active media notification on connect: {} from {}", songName, sbn.getPackageName());
                         sendSongNameBroadcast(songName); // Keep broadcast for other listeners
                     }
                 }
             }
         } else {
-            Log.d(TAG, "No active notifications found on connect");
+            DreamLog.d(TAG, "No active notifications found on connect");
         }
-        sendUpdateBroadcast();
-    }
-
-    private boolean isCurrentlyPlaying(StatusBarNotification sbn) {
-        if (sbn.getNotification() == null) return false;
-
-        // Check if the notification is a media playback notification
-        if (!Notification.CATEGORY_TRANSPORT.equals(sbn.getNotification().category)) return false;
-
-        // Try checking playback state
-        int state = sbn.getNotification().extras.getInt("android.mediaPlaybackState", -1);
-        if (state == 3) return true; // STATE_PLAYING
-
-        // Alternative: Check if media session actions exist
-        return sbn.getNotification().actions != null && sbn.getNotification().actions.length > 0;
+        listenerModel.onActiveNotifications(activePackages, false);
     }
 
     @Override
     public void onNotificationRemoved(StatusBarNotification sbn) {
         if (sbn == null) return;
 
+        DreamMetrics.NOTIFICATIONS_REMOVED.increment();
+        mediaClassifier.forget(sbn);
+        if (traceRecorder != null) {
+            traceRecorder.onRemoved(sbn);
+        }
         String packageName = sbn.getPackageName();
-        if (notificationPackages.remove(packageName)) { // Remove only if it existed
-            Log.d(TAG, "Notification removed: " + packageName);
-            sendUpdateBroadcast();
+        boolean removed = listenerModel.onRemoved(packageName);
+        DreamFlightRecorder.record(FlightRecorder.NOTIFICATION_REMOVED, DreamFlightRecorder.idOf(packageName),
+                removed ? 1 : 0);
+        if (removed) {
+            DreamLog.d(TAG, "Notification removed: {}", packageName);
         }
     }
 
     public static Set<String> getNotificationPackages() {
-        // Filter out the excluded package before returning
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
-            return notificationPackages.stream()
-                    .filter(pkg -> !EXCLUDED_PACKAGE.equals(pkg))
-                    .collect(Collectors.toSet());
-        } else {
-            // Manual filtering for older Android versions - Optimized: Use HashSet locally
-            Set<String> filteredSet = new HashSet<>();
-            for (String pkg : notificationPackages) {
-                if (!EXCLUDED_PACKAGE.equals(pkg)) {
-                    filteredSet.add(pkg);
+        // Filtered packages never enter the set, so a snapshot copy is all that's needed
+        return Collections.unmodifiableSet(new HashSet<>(notificationPackages));
+    }
+
+    private boolean isFiltered(StatusBarNotification sbn, @Nullable RankingMap rankingMap) {
+        return notificationFilter != null && notificationFilter.isFiltered(sbn, rankingMap);
+    }
+
+    /**
+     * Rebuilds the package set from the active notifications after the filter rules changed,
+     * so newly hidden packages disappear and newly allowed ones show up.
+     */
+    private void rebuildNotificationPackages() {
+        StatusBarNotification[] activeNotifications;
+        try {
+            activeNotifications = getActiveNotifications();
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading active notifications after filter change", e);
+            return;
+        }
+
+        List<String> activePackages = new ArrayList<>();
+        if (activeNotifications != null) {
+            RankingMap rankingMap = getCurrentRanking();
+            for (StatusBarNotification sbn : activeNotifications) {
+                if (!isFiltered(sbn, rankingMap)) {
+                    activePackages.add(sbn.getPackageName());
                 }
             }
-            return Collections.unmodifiableSet(filteredSet); // Return unmodifiable view
         }
+        listenerModel.onActiveNotifications(activePackages, true);
     }
 
     /**
      * Sends a broadcast only when there's an update to the *filtered* list.
      */
     private void sendUpdateBroadcast() {
+        DreamTrace.beginNotificationToUi(); // Ended when the dream renders, or skips, the icon row
         // Consider sending the filtered list if needed, or just signal an update
         Intent intent = new Intent(UPDATE_NOTIFICATIONS_ACTION);
         // Optionally add the filtered package list to the intent if DreamService needs it directly
         // intent.putExtra("packages", new ArrayList<>(getNotificationPackages()));
         sendBroadcast(intent);
-        Log.d(TAG, "Broadcast sent: " + UPDATE_NOTIFICATIONS_ACTION);
+        DreamMetrics.BROADCASTS_SENT.increment();
+        DreamService.recordCost(CostBudget.BROADCASTS);
+        DreamFlightRecorder.record(FlightRecorder.BROADCAST_SENT, FlightRecorder.BROADCAST_NOTIFICATIONS);
+        DreamLog.d(TAG, "Broadcast sent: {}", UPDATE_NOTIFICATIONS_ACTION);
     }
 
     private boolean isMediaNotification(StatusBarNotification sbn) {
-        if (sbn == null || sbn.getNotification() == null) {
-            Log.d(TAG, "Notification is null, not a media notification");
-            return false;
-        }
-        
-        // Debug the notification
-        Log.d(TAG, "Checking if notification is media: " + sbn.getPackageName() + ", Category: " + sbn.getNotification().category);
-        
-        // Check if it's explicitly a media transport notification
-        if (Notification.CATEGORY_TRANSPORT.equals(sbn.getNotification().category)) {
-            Log.d(TAG, "Is media notification based on CATEGORY_TRANSPORT");
-            return true;
-        }
-        
-        // Check media style
-        boolean hasMediaStyle = false;
-        if (sbn.getNotification().extras.containsKey("android.mediaSession")) {
-            hasMediaStyle = true;
-            Log.d(TAG, "Is media notification based on mediaSession extra");
-        }
-        
-        // Check for media metadata
-        if (sbn.getNotification().extras.containsKey(Notification.EXTRA_MEDIA_SESSION)) {
-            hasMediaStyle = true;
-            Log.d(TAG, "Is media notification based on EXTRA_MEDIA_SESSION");
-        }
-        
-        // REMOVED Check for known media player packages - Rely on standard indicators instead
-        /* 
-        String[] knownMediaPackages = { ... };
-        for (String pkg : knownMediaPackages) {
-            if (pkg.equals(sbn.getPackageName())) {
-                Log.d(TAG, "Is media notification based on known package: " + pkg);
-                return true;
-            }
-        }
-        */
-        
-        // Check for media session actions which might indicate a media notification
-        if (sbn.getNotification().actions != null && sbn.getNotification().actions.length > 0) {
-            Log.d(TAG, "Notification has " + sbn.getNotification().actions.length + " actions");
-            if (hasActionWithTitle(sbn.getNotification().actions, "Play") ||
-                hasActionWithTitle(sbn.getNotification().actions, "Pause") ||
-                hasActionWithTitle(sbn.getNotification().actions, "Stop") ||
-                hasActionWithTitle(sbn.getNotification().actions, "Previous") ||
-                hasActionWithTitle(sbn.getNotification().actions, "Next")) {
-                Log.d(TAG, "Is media notification based on action titles");
-                return true;
-            }
-        }
-        
-        return hasMediaStyle;
-    }
-    
-    private boolean hasActionWithTitle(@NonNull Notification.Action[] actions, @NonNull String title) {
-        // Optimized: Convert title to lower case once
-        String lowerCaseTitle = title.toLowerCase();
-        for (Notification.Action action : actions) {
-            if (action != null && action.title != null && 
-                action.title.toString().toLowerCase().contains(lowerCaseTitle)) {
-                return true;
-            }
-        }
-        return false;
+        // Single pass over category, extras and actions; cached per key + post time
+        return mediaClassifier.isMediaNotification(sbn);
     }
 
     private boolean shouldResetCount(long lastResetTime, long currentTime) {
-        Calendar lastResetCalendar = Calendar.getInstance();
-        lastResetCalendar.setTimeInMillis(lastResetTime);
-        Calendar currentCalendar = Calendar.getInstance();
-        currentCalendar.setTimeInMillis(currentTime);
-
-        return lastResetCalendar.get(Calendar.DAY_OF_YEAR) != currentCalendar.get(Calendar.DAY_OF_YEAR) ||
-                lastResetCalendar.get(Calendar.YEAR) != currentCalendar.get(Calendar.YEAR);
+        return DailySongCount.shouldReset(lastResetTime, currentTime, TimeZone.getDefault());
     }
 
     private void resetSongCount(SharedPreferences prefs) {
@@ -239,24 +203,29 @@ public class NotificationService extends NotificationListenerService {
         editor.putInt(SONG_COUNT_KEY, 0);
         editor.putLong(LAST_RESET_TIME_KEY, System.currentTimeMillis());
         editor.apply();
+        DreamMetrics.PREFS_WRITES.increment();
     }
 
     private void sendSongNameBroadcast(String songName) {
         Intent intent = new Intent(SONG_NAME_UPDATED_ACTION);
         intent.putExtra("songName", songName);
         sendBroadcast(intent);
-        Log.d(TAG, "Sent song name broadcast: " + songName);
+        DreamMetrics.BROADCASTS_SENT.increment();
+        DreamService.recordCost(CostBudget.BROADCASTS);
+        DreamFlightRecorder.record(FlightRecorder.BROADCAST_SENT, FlightRecorder.BROADCAST_SONG_NAME);
+        DreamWarmCache.setSongName(songName);
+        DreamLog.d(TAG, "Sent song name broadcast: {}", songName);
     }
 
     private String extractSongName(@Nullable StatusBarNotification sbn) {
         if (sbn == null || sbn.getNotification() == null || sbn.getNotification().extras == null) {
-            Log.d(TAG, "Notification or extras is null for SBN: " + (sbn != null ? sbn.getPackageName() : "null"));
+            DreamLog.d(TAG, "Notification or extras is null for SBN: {}", sbn != null ? sbn.getPackageName() : null);
             return null; // Return null if no data
         }
         
         Bundle extras = sbn.getNotification().extras;
         String packageName = sbn.getPackageName();
-        Log.d(TAG, "Extracting song name from notification: " + packageName);
+        DreamLog.d(TAG, "Extracting song name from notification: {}", packageName);
 
         // Prioritize MediaMetadata if available (often more reliable)
         // Requires API 21+
@@ -266,7 +235,7 @@ public class NotificationService extends NotificationListenerService {
             if (metadata != null) {
                 String title = metadata.getString(MediaMetadata.METADATA_KEY_TITLE);
                 String artist = metadata.getString(MediaMetadata.METADATA_KEY_ARTIST);
-                Log.d(TAG, "Extracted from MediaMetadata: title='" + title + "', artist='" + artist + "'");
+                DreamLog.d(TAG, "Extracted from MediaMetadata: title='{}', artist='{}'", title, artist);
                 return buildSongString(title, artist);
             }
         }
@@ -277,7 +246,7 @@ public class NotificationService extends NotificationListenerService {
 
         String title = (titleChars != null) ? titleChars.toString() : null;
         String artist = (artistChars != null) ? artistChars.toString() : null;
-        Log.d(TAG, "Extracted from Notification Extras: title='" + title + "', artist='" + artist + "'");
+        DreamLog.d(TAG, "Extracted from Notification Extras: title='{}', artist='{}'", title, artist);
 
         return buildSongString(title, artist);
     }
@@ -288,166 +257,206 @@ public class NotificationService extends NotificationListenerService {
             Log.w(TAG, "onNotificationPosted received null sbn");
             return;
         }
+        DreamMetrics.NOTIFICATIONS_POSTED.increment();
         String packageName = sbn.getPackageName();
-        Log.d(TAG, "Notification posted: " + packageName + " ID: " + sbn.getId());
-        
-        // Add package to the set (filtering happens when getNotificationPackages is called)
-        if (!EXCLUDED_PACKAGE.equals(packageName)) {
-             if (notificationPackages.add(packageName)) { // Add returns true if not already present
-                 Log.d(TAG, "Added package to set: " + packageName);
-                 sendUpdateBroadcast(); // Send update if the set changed
-            }
-        } else {
-             Log.d(TAG, "Ignoring excluded package: " + packageName);
+        DreamLog.d(TAG, "Notification posted: {} ID: {}", packageName, sbn.getId());
+
+        // Filtered notifications never reach the package set or the dream
+        if (isFiltered(sbn, getCurrentRanking())) {
+            DreamLog.d(TAG, "Ignoring filtered notification: {}", packageName);
+            DreamFlightRecorder.record(FlightRecorder.NOTIFICATION_FILTERED, DreamFlightRecorder.idOf(packageName));
+            return;
         }
-        
-        // Check if it's a media notification
-        if (isMediaNotification(sbn)) {
-            Log.d(TAG, "Notification identified as media: " + packageName);
-            currentlyPlayingMediaPackage = packageName; // Update the currently playing package
-
-            String songName = extractSongName(sbn);
-            // Get the token from the active session, not just the notification extra
-            MediaSession.Token activeToken = findActiveMediaSessionToken();
-
-            Log.d(TAG, "Extracted Song: " + songName + ", Active Token: " + (activeToken != null));
-
-            // --- Updated Logic --- 
-            if (activeToken != null && !TextUtils.isEmpty(songName)) {
-                 // We have a song name AND an active token
-                 Log.d(TAG, "onNotificationPosted: Updating DreamService with song and token.");
-                 processMediaPlayback(songName, System.currentTimeMillis());
-                 DreamService.updateSongInfo(songName);
-                 sendSongNameBroadcast(songName);
-            } else if (activeToken == null && currentlyPlayingMediaPackage != null && currentlyPlayingMediaPackage.equals(packageName)) {
-                // Media notification posted, but no active token found for the current media app - clear DreamService
-                 Log.w(TAG, "onNotificationPosted: Media notification for current pkg but no active token. Clearing DreamService.");
-                 DreamService.updateSongInfo(null);
-                 currentlyPlayingMediaPackage = null; // Assume it stopped
-                 sendUpdateBroadcast();
-            } else {
-                // Either song name is empty or token is null for a *different* package notification
-                Log.d(TAG, "onNotificationPosted: Song name empty or token null for non-current media package. Doing nothing specific.");
-                // We might still need to update icons if a non-media notification appeared
-                sendUpdateBroadcast(); 
-            }
-            // ---------------------
-            /* // Old logic
-            if (!TextUtils.isEmpty(songName)) {
-                Log.d(TAG, "Processing media playback for: " + songName);
-                processMediaPlayback(songName, System.currentTimeMillis());
-                // Update DreamService immediately with extracted info and ACTIVE token
-                DreamService.updateSongInfo(songName, activeToken);
-                // Also send broadcast for any other potential listeners
-                sendSongNameBroadcast(songName);
-            } else {
-                Log.d(TAG, "Media notification found, but song name is empty.");
-                // Optionally clear dream service info if song name becomes empty but token exists?
-                 // DreamService.updateSongInfo(null, token);
-            }
-            // Send update broadcast regardless to potentially update icon visibility in DreamService
-             sendUpdateBroadcast();
-            */
-        } else {
-             Log.d(TAG, "Notification is not media: " + packageName);
-             // If a non-media notification comes from the currently playing app, don't clear it
-             // Only clear if the notification causing removal is NOT media
-             if (packageName.equals(currentlyPlayingMediaPackage)) {
-                  // Maybe the media session ended, check active sessions?
-                  // Or maybe it's just a different notification from the same app.
-                  // For now, do nothing here, rely on checkMediaSessions or removal event.
-             }
+        if (traceRecorder != null) {
+            traceRecorder.onPosted(sbn);
+        }
+
+        boolean media = isMediaNotification(sbn);
+        DreamFlightRecorder.record(FlightRecorder.NOTIFICATION_POSTED, DreamFlightRecorder.idOf(packageName),
+                media ? 1 : 0);
+        String songName = null;
+        boolean playingSession = false;
+        if (media) {
+            DreamLog.d(TAG, "Notification identified as media: {}", packageName);
+            songName = extractSongName(sbn);
+            // Ask for the active session, not just the notification extra
+            playingSession = findActiveMediaSessionToken() != null;
+            DreamLog.d(TAG, "Extracted Song: {}, Active Token: {}", songName, playingSession ? "yes" : "no");
         }
+        listenerModel.onPosted(packageName, media, songName, playingSession);
     }
-    
-    // Removed handleSongCountUpdate as logic is now in processMediaPlayback
-    // private void handleSongCountUpdate(...) { ... }
-    
-    // Central method for processing playback state and updating count
-    private synchronized void processMediaPlayback(String songName, long currentTime) {
+
+    // Carries out the listener model's decisions
+    private final ListenerModel.Listener modelListener = new ListenerModel.Listener() {
+        @Override
+        public void onPackagesChanged() {
+            sendUpdateBroadcast();
+        }
+
+        @Override
+        public void onSongInfo(@Nullable String songName) {
+            if (songName != null) {
+                DreamTrace.beginNotificationToUi();
+            }
+            DreamService.updateSongInfo(songName);
+        }
+
+        @Override
+        public void onSongName(String songName) {
+            sendSongNameBroadcast(songName);
+        }
+
+        @Override
+        public void onTrackListened(String trackId, long listenedMs) {
+            NotificationService.this.onTrackListened(trackId, listenedMs);
+        }
+    };
+
+    // Called by the listening tracker once enough of a track has actually been played
+    private void onTrackListened(String trackId, long listenedMs) {
         SharedPreferences prefs = getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
 
         // Check if we need to reset the song count for a new day
+        long currentTime = System.currentTimeMillis();
         long lastResetTime = prefs.getLong(LAST_RESET_TIME_KEY, 0);
         if (shouldResetCount(lastResetTime, currentTime)) {
-            Log.d(TAG, "New day detected, resetting song count.");
+            DreamLog.d(TAG, "New day detected, resetting song count.");
             resetSongCount(prefs);
-            // Also reset tracking state for the new day
-            currentSongName = songName; // Start tracking the current song
-            songStartTime = currentTime;
-            Log.d(TAG, "Reset tracking for new day. Current song: " + currentSongName + ", Start time: " + songStartTime);
-             // Save initial start time for the new song/day
+        }
+
+        int songCount = prefs.getInt(SONG_COUNT_KEY, 0) + 1;
         SharedPreferences.Editor editor = prefs.edit();
-            editor.putLong("songStartTime", songStartTime); 
-            editor.apply();
-            return; // Don't process duration on reset
+        editor.putInt(SONG_COUNT_KEY, songCount);
+        editor.putString("lastSong", trackId);
+        editor.apply();
+        DreamMetrics.PREFS_WRITES.increment();
+        // The count is on screen right away, so this write stays inline
+        DreamMetrics.INLINE_WORK.increment();
+        DreamLog.d(TAG, "Track listened for {} ms, song count incremented to: {}", listenedMs, songCount);
+
+        DreamService.updateSongCount(songCount);
+    }
+
+    /**
+     * Registers the playback callback on the chosen controller so play time is accounted from
+     * state transitions instead of polling. Switching controllers moves the callback.
+     */
+    private void watchController(@NonNull MediaController controller) {
+        if (callbackController != null) {
+            if (callbackController.getSessionToken().equals(controller.getSessionToken())) {
+                return; // Already watching this session
+            }
+            callbackController.unregisterCallback(mediaCallback);
         }
-        
-        // Now call the existing duration/counting logic
-        handleSongUpdate(songName, currentTime, prefs);
+        callbackController = controller;
+        controller.registerCallback(mediaCallback, handler);
+        DreamLog.d(TAG, "Watching media session of {}", controller.getPackageName());
+
+        // Seed the tracker with the current track and state
+        trackMetadata(controller.getMetadata());
+        DreamService.updateAlbumArt(controller.getMetadata());
+        DreamService.updateLyricsTrack(controller.getMetadata());
+        trackPlaybackState(controller.getPlaybackState());
+        publishPlaybackProgress(controller.getPlaybackState(), controller.getMetadata());
     }
 
-    // handleSongUpdate remains mostly the same, handles duration check and count increment
-    private void handleSongUpdate(String songName, long currentTime, SharedPreferences prefs) {
-        Log.d(TAG, "Handling song update/duration check for: " + songName + ", Current Time: " + currentTime);
-        
-        long savedStartTime = prefs.getLong("songStartTime", 0);
-        Log.d(TAG, "  Current Tracked Song: " + currentSongName + ", Saved Start Time: " + savedStartTime);
-
-        // If song changed OR there is no valid start time stored in prefs, reset start time
-        if (!songName.equals(currentSongName) || savedStartTime == 0) {
-            currentSongName = songName; // Update tracked song name
-            songStartTime = currentTime; // Update local start time
-            SharedPreferences.Editor editor = prefs.edit();
-            editor.putLong("songStartTime", songStartTime); // Save new start time
-            editor.putString("lastSong", currentSongName); // Also save the current song name
-            editor.apply();
-            Log.d(TAG, "New song detected ('" + songName + "') or first detection. Setting start time to: " + songStartTime + " (saved in prefs)");
-            return; // Wait for the next update to calculate duration
-        }
-
-        // If song is the same and we have a valid start time, calculate duration
-        long playbackDuration = currentTime - savedStartTime;
-        Log.d(TAG, "Calculated playback duration for '" + songName + "': " + playbackDuration + " ms (using saved start time: "+ savedStartTime +")");
-
-        // Check if duration is within range to count the song
-        if (playbackDuration >= MIN_PLAYBACK_DURATION && playbackDuration <= MAX_PLAYBACK_DURATION) {
-            Log.d(TAG, "Playback duration within range. Attempting to increment count.");
-            
-            int songCount = prefs.getInt(SONG_COUNT_KEY, 0);
-            Log.d(TAG, "  Current count from prefs: " + songCount);
-            songCount++;
-            
-            // Save the updated count BUT RESET START TIME IN PREFS to prevent recounting
-            SharedPreferences.Editor editor = prefs.edit();
-            editor.putInt(SONG_COUNT_KEY, songCount);
-            editor.putLong("songStartTime", 0); // Reset start time in prefs immediately after counting
-            // editor.putString("lastSong", ""); // Clear last song maybe?
-            editor.apply();
-            Log.d(TAG, "  Saved new count: " + songCount + " and **RESET** songStartTime in prefs to prevent recount.");
-            
-            // Update UI
-            DreamService.updateSongCount(songCount);
-            Log.d(TAG, "Song count incremented to: " + songCount + " in UI");
-            
-            // Reset local state
-            songStartTime = 0; // Reset local start time as well
-            // currentSongName = ""; // Keep current song name until a *new* one is detected
-            Log.d(TAG, "Reset local songStartTime after counting.");
-            
-        } else {
-            Log.d(TAG, "Playback duration (" + playbackDuration + "ms) not within required range [" + MIN_PLAYBACK_DURATION + "-" + MAX_PLAYBACK_DURATION + "]ms. Not incrementing count.");
-            // Do NOT reset start time here, allow duration to accumulate further.
+    private void unwatchController() {
+        if (callbackController != null) {
+            callbackController.unregisterCallback(mediaCallback);
+            callbackController = null;
         }
     }
 
+    private final MediaController.Callback mediaCallback = new MediaController.Callback() {
+        @Override
+        public void onPlaybackStateChanged(PlaybackState state) {
+            if (state == null || callbackController == null) return;
+            DreamLog.d(TAG, "MediaController Callback: PlaybackState changed for {}: {}",
+                    callbackController.getPackageName(), state.getState());
+            trackPlaybackState(state);
+            publishPlaybackProgress(state, callbackController.getMetadata());
+            handlePlaybackStateChange(state, callbackController.getSessionToken(),
+                    callbackController.getPackageName(), callbackController.getMetadata());
+        }
+
+        @Override
+        public void onMetadataChanged(MediaMetadata metadata) {
+            if (metadata == null || callbackController == null) return;
+            DreamLog.d(TAG, "MediaController Callback: Metadata changed for {}", callbackController.getPackageName());
+            trackMetadata(metadata);
+            DreamService.updateAlbumArt(metadata);
+            DreamService.updateLyricsTrack(metadata);
+            listenerModel.onMetadata(metadata.getString(MediaMetadata.METADATA_KEY_TITLE),
+                    metadata.getString(MediaMetadata.METADATA_KEY_ARTIST));
+        }
+
+        @Override
+        public void onSessionDestroyed() {
+            DreamLog.d(TAG, "MediaController Callback: session destroyed");
+            // Credit whatever was played before the session went away
+            listenerModel.trackPlaybackState(false, ListeningTimeTracker.POSITION_UNKNOWN, 1f,
+                    SystemClock.elapsedRealtime());
+            unwatchController();
+        }
+    };
+
+    private void trackMetadata(@Nullable MediaMetadata metadata) {
+        if (metadata == null) return;
+        String title = metadata.getString(MediaMetadata.METADATA_KEY_TITLE);
+        if (TextUtils.isEmpty(title)) return;
+        String artist = metadata.getString(MediaMetadata.METADATA_KEY_ARTIST);
+        if (traceRecorder != null && callbackController != null) {
+            traceRecorder.onMetadata(callbackController.getPackageName(), metadata);
+        }
+        listenerModel.trackMetadata(title, artist, metadata.getLong(MediaMetadata.METADATA_KEY_DURATION),
+                SystemClock.elapsedRealtime());
+    }
+
+    // Hands the state snapshot to the dream's progress bar, which extrapolates it locally
+    private void publishPlaybackProgress(@Nullable PlaybackState state, @Nullable MediaMetadata metadata) {
+        if (state == null) return;
+        long duration = metadata != null ? metadata.getLong(MediaMetadata.METADATA_KEY_DURATION) : 0;
+        DreamService.updatePlaybackProgress(state.getPosition(), state.getPlaybackSpeed(),
+                state.getLastPositionUpdateTime(), duration, state.getState() == PlaybackState.STATE_PLAYING);
+    }
+
+    private void trackPlaybackState(@Nullable PlaybackState state) {
+        if (state == null) return;
+        if (traceRecorder != null && callbackController != null) {
+            traceRecorder.onPlaybackState(callbackController.getPackageName(), state);
+        }
+        long updateTime = state.getLastPositionUpdateTime();
+        if (updateTime <= 0) {
+            updateTime = SystemClock.elapsedRealtime();
+        }
+        listenerModel.trackPlaybackState(state.getState() == PlaybackState.STATE_PLAYING,
+                state.getPosition(), state.getPlaybackSpeed(), updateTime);
+    }
+
     @Override
     public void onCreate() {
         super.onCreate();
-        
+
+        notificationFilter = new NotificationFilter(this, this::rebuildNotificationPackages);
+
+        float listenedFraction = getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+                .getFloat(LISTENED_FRACTION_KEY, DEFAULT_LISTENED_FRACTION);
+        listenerModel = new ListenerModel(notificationPackages, listenedFraction, MIN_PLAYBACK_DURATION, modelListener);
+        traceRecorder = ListenerTraceRecorder.createIfEnabled(this);
+
         // Register for media info requests
         IntentFilter filter = new IntentFilter(MEDIA_INFO_REQUEST_ACTION);
         registerReceiver(mediaInfoRequestReceiver, filter);
+
+        // Docking and screen off usually come right before the dream starts
+        IntentFilter prewarmFilter = new IntentFilter(Intent.ACTION_POWER_CONNECTED);
+        prewarmFilter.addAction(Intent.ACTION_SCREEN_OFF);
+        registerReceiver(prewarmReceiver, prewarmFilter);
+
+        // adb shell am broadcast -a com.bytesmith.daydream.DUMP_FLIGHT_RECORD
+        if (BuildConfig.DEBUG) {
+            registerReceiver(flightDumpReceiver, new IntentFilter(DreamFlightRecorder.ACTION_DUMP));
+        }
         
         // Start periodic media session checks
         startMediaSessionChecks();
@@ -456,20 +465,58 @@ public class NotificationService extends NotificationListenerService {
     @Override
     public void onDestroy() {
         stopMediaSessionChecks();
-        
+        unwatchController();
+
+        if (notificationFilter != null) {
+            notificationFilter.release();
+            notificationFilter = null;
+        }
+        if (traceRecorder != null) {
+            traceRecorder.release();
+            traceRecorder = null;
+        }
+
         try {
             unregisterReceiver(mediaInfoRequestReceiver);
+            unregisterReceiver(prewarmReceiver);
+            if (BuildConfig.DEBUG) {
+                unregisterReceiver(flightDumpReceiver);
+            }
         } catch (Exception e) {
             Log.e(TAG, "Error unregistering receiver", e);
         }
         super.onDestroy();
     }
     
+    // Fills the dream's process-level caches and refreshes the media snapshot ahead of dreaming
+    private final BroadcastReceiver prewarmReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            DreamMetrics.BROADCASTS_RECEIVED.increment();
+            DreamFlightRecorder.record(FlightRecorder.BROADCAST_RECEIVED, FlightRecorder.BROADCAST_PREWARM);
+            // Dreams start on the charger, so a screen off on battery isn't worth warming for
+            if (Intent.ACTION_SCREEN_OFF.equals(intent.getAction()) && !MaintenanceScheduler.isCharging(context)) return;
+            DreamLog.d(TAG, "Prewarming dream caches on {}", intent.getAction());
+            DreamWarmCache.prewarm(context, notificationPackages);
+            checkExistingMediaNotifications();
+        }
+    };
+
+    // Debug builds only: saves the flight record for adb pull
+    private final BroadcastReceiver flightDumpReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            DreamFlightRecorder.save(context);
+        }
+    };
+
     private final BroadcastReceiver mediaInfoRequestReceiver = new BroadcastReceiver() {
         @Override
         public void onReceive(Context context, Intent intent) {
+            DreamMetrics.BROADCASTS_RECEIVED.increment();
+            DreamFlightRecorder.record(FlightRecorder.BROADCAST_RECEIVED, FlightRecorder.BROADCAST_MEDIA_INFO_REQUEST);
             if (MEDIA_INFO_REQUEST_ACTION.equals(intent.getAction())) {
-                Log.d(TAG, "Received request for media info");
+                DreamLog.d(TAG, "Received request for media info");
                 checkExistingMediaNotifications();
             }
         }
@@ -478,12 +525,14 @@ public class NotificationService extends NotificationListenerService {
     private void checkExistingMediaNotifications() {
         StatusBarNotification[] activeNotifications = getActiveNotifications();
         if (activeNotifications == null) return;
-        
+
+        RankingMap rankingMap = getCurrentRanking();
         for (StatusBarNotification sbn : activeNotifications) {
+            if (isFiltered(sbn, rankingMap)) continue;
             if (isMediaNotification(sbn)) {
                 String songName = extractSongName(sbn); // This will trigger the delayed update
                 if (songName != null && !songName.isEmpty()) {
-                    Log.d(TAG, "Found active media notification with song: " + songName);
+                    DreamLog.d(TAG, "Found active media notification with song: {}", songName);
                      // REMOVED: Immediate update bypassed delay/final filtering
                     // DreamService.updateSongName(songName);
                     sendSongNameBroadcast(songName); // Keep broadcast for other listeners
@@ -501,7 +550,7 @@ public class NotificationService extends NotificationListenerService {
     private void stopMediaSessionChecks() {
         isRunning = false;
         handler.removeCallbacks(mediaSessionCheckRunnable);
-        Log.d(TAG, "Stopped periodic media session checks.");
+        DreamLog.d(TAG, "Stopped periodic media session checks.");
     }
     
     private final Runnable mediaSessionCheckRunnable = new Runnable() {
@@ -539,23 +588,17 @@ public class NotificationService extends NotificationListenerService {
             }
 
             ComponentName componentName = new ComponentName(this, NotificationService.class);
-            List<MediaController> controllers = mediaSessionManager.getActiveSessions(componentName);
+            List<MediaController> controllers = getActiveSessions(mediaSessionManager, componentName);
             
             if (controllers == null || controllers.isEmpty()) {
-                Log.d(TAG, "No active media sessions found.");
-                 // If no sessions are active, potentially clear the currently playing info
-                 if (currentlyPlayingMediaPackage != null) {
-                     Log.d(TAG, "Clearing currently playing package as no sessions are active.");
-                     currentlyPlayingMediaPackage = null;
-                     DreamService.updateSongInfo(null);
-                     sendUpdateBroadcast(); // Update icons in DreamService
-                 }
+                DreamLog.d(TAG, "No active media sessions found.");
+                // Clears the playing package, if any
+                listenerModel.onSessionChecked(null, false);
                 scheduleNextMediaCheck();
                 return;
             }
 
-            Log.d(TAG, "Found " + controllers.size() + " active media session(s).");
-            boolean foundPlaying = false;
+            DreamLog.d(TAG, "Found {} active media session(s).", controllers.size());
 
             // Find the 'best' controller (e.g., the one actually playing)
             MediaController activeController = null;
@@ -564,8 +607,7 @@ public class NotificationService extends NotificationListenerService {
                 PlaybackState playbackState = controller.getPlaybackState();
                  if (playbackState != null && playbackState.getState() == PlaybackState.STATE_PLAYING) {
                      activeController = controller;
-                     Log.d(TAG, "Found actively playing session: " + controller.getPackageName());
-                     foundPlaying = true;
+                     DreamLog.d(TAG, "Found actively playing session: {}", controller.getPackageName());
                      break; // Found playing session, use this one
                  }
              }
@@ -573,7 +615,7 @@ public class NotificationService extends NotificationListenerService {
              // If no session is actively playing, pick the first one as a fallback (might be paused)
              if (activeController == null) {
                  activeController = controllers.get(0);
-                 Log.d(TAG, "No actively playing session found, using first controller: " + activeController.getPackageName());
+                 DreamLog.d(TAG, "No actively playing session found, using first controller: {}", activeController.getPackageName());
              }
 
             // Process the chosen controller
@@ -582,54 +624,16 @@ public class NotificationService extends NotificationListenerService {
             MediaMetadata metadata = finalActiveController.getMetadata();
             PlaybackState playbackState = finalActiveController.getPlaybackState();
 
-            // Update currently playing package
-             if (playbackState != null && playbackState.getState() == PlaybackState.STATE_PLAYING) {
-                 if (!controllerPackage.equals(currentlyPlayingMediaPackage)) {
-                     Log.d(TAG, "Updating currently playing package to: " + controllerPackage);
-                     currentlyPlayingMediaPackage = controllerPackage;
-                     sendUpdateBroadcast(); // Update icons
-                 }
-             } else if (controllerPackage.equals(currentlyPlayingMediaPackage) && !foundPlaying) {
-                 // The package we thought was playing is no longer playing, and no other session is playing.
-                 // Clear the currently playing status.
-                 Log.d(TAG, "Previously playing package ("+controllerPackage+") is no longer playing. Clearing status.");
-                 currentlyPlayingMediaPackage = null;
-                 DreamService.updateSongInfo(null);
-                 sendUpdateBroadcast();
-             }
-
-
-            final MediaController.Callback mediaCallback = new MediaController.Callback() {
-                @Override
-                public void onPlaybackStateChanged(/*@Nullable*/ PlaybackState state) { // Removed Nullable annotation
-                    if (state == null) return;
-                    Log.d(TAG, "MediaController Callback: PlaybackState changed for " +
-                          finalActiveController.getPackageName() + ": " + state.getState());
-                    // OPTIMIZED: Directly update UI/state, already on main thread
-                    handlePlaybackStateChange(state, finalActiveController.getSessionToken(), finalActiveController.getPackageName(), finalActiveController.getMetadata());
-                }
-
-                    @Override
-                public void onMetadataChanged(/*@Nullable*/ MediaMetadata metadata) { // Removed Nullable annotation
-                    if (metadata == null) return;
-                    Log.d(TAG, "MediaController Callback: Metadata changed for " +
-                          finalActiveController.getPackageName());
-                    // OPTIMIZED: Directly update UI/state, already on main thread
-                    handleMetadataChange(metadata, finalActiveController.getSessionToken());
-                }
-            };
+            // Update the currently playing package
+            listenerModel.onSessionChecked(controllerPackage,
+                    playbackState != null && playbackState.getState() == PlaybackState.STATE_PLAYING);
 
-            // Register callback to get updates
-            // Need to ensure we unregister this callback later if controller becomes invalid
-            // For simplicity of polling, maybe don't register callback here, just extract info?
-            // Let's stick to extracting info directly for now to avoid callback lifecycle management.
-            // finalActiveController.registerCallback(mediaCallback, handler);
+            // Play-time accounting and later state changes arrive through the controller callback
+            watchController(finalActiveController);
 
              // --- Direct Extraction Logic --- 
              handlePlaybackStateChange(playbackState, finalActiveController.getSessionToken(), controllerPackage, metadata);
              // --------------------------------
-
-            scheduleNextMediaCheck();
         } catch (SecurityException se) {
             Log.e(TAG, "Security exception checking media sessions", se);
         } catch (Exception e) {
@@ -644,52 +648,18 @@ public class NotificationService extends NotificationListenerService {
         if (state == null) return;
 
         int stateCode = state.getState();
-        Log.d(TAG, "Playback state changed to: " + stateCode + " for package: " + packageName);
-
-        // Handle state changes
-        switch (stateCode) {
-            case PlaybackState.STATE_PLAYING:
-                currentlyPlayingMediaPackage = packageName;
-                // When playback starts, ensure we get the latest metadata
-                if (metadata != null) {
-                    handleMetadataChange(metadata, token);
-                } else {
-                    // If we don't have metadata yet, try to get it from the controller
-                    MediaMetadata currentMetadata = getCurrentMetadataFromController(token);
-                    if (currentMetadata != null) {
-                        handleMetadataChange(currentMetadata, token);
-                    }
-                }
-                break;
-            case PlaybackState.STATE_PAUSED:
-            case PlaybackState.STATE_STOPPED:
-                if (packageName.equals(currentlyPlayingMediaPackage)) {
-                    currentlyPlayingMediaPackage = null;
-                    // Clear the song name when playback stops
-                    sendSongNameBroadcast("");
-                }
-                break;
-        }
-    }
-    
-    // Helper method to handle metadata changes (called directly now)
-    private void handleMetadataChange(@Nullable MediaMetadata metadata, @Nullable MediaSession.Token token) {
-        if (metadata == null) return;
+        DreamLog.d(TAG, "Playback state changed to: {} for package: {}", stateCode, packageName);
+        DreamFlightRecorder.record(FlightRecorder.PLAYBACK_STATE, DreamFlightRecorder.idOf(packageName), stateCode);
 
-        String title = metadata.getString(MediaMetadata.METADATA_KEY_TITLE);
-        String artist = metadata.getString(MediaMetadata.METADATA_KEY_ARTIST);
-        
-        // Only update if we have a title
-        if (title != null && !title.isEmpty()) {
-            String songName = buildSongString(title, artist);
-            if (!songName.equals(currentSongName)) {
-                currentSongName = songName;
-                sendSongNameBroadcast(songName);
-                Log.d(TAG, "Song name updated to: " + songName);
-            }
+        // When playback starts, make sure the model gets the latest metadata
+        if (stateCode == PlaybackState.STATE_PLAYING && metadata == null) {
+            metadata = getCurrentMetadataFromController(token);
         }
+        listenerModel.onPlaybackState(packageName, stateCode,
+                metadata != null ? metadata.getString(MediaMetadata.METADATA_KEY_TITLE) : null,
+                metadata != null ? metadata.getString(MediaMetadata.METADATA_KEY_ARTIST) : null);
     }
-    
+
     // Helper to get current metadata if needed
     @Nullable
     private MediaMetadata getCurrentMetadataFromController(@Nullable MediaSession.Token token) {
@@ -703,78 +673,44 @@ public class NotificationService extends NotificationListenerService {
          }
     }
 
-    public static synchronized String getCurrentlyPlayingMediaPackage() {
-        return currentlyPlayingMediaPackage;
+    @Override
+    protected void dump(FileDescriptor fd, PrintWriter writer, String[] args) {
+        if (DreamFlightRecorder.dump(this, writer, args)) {
+            return;
+        }
+        if (!DreamMetrics.wantsJson(args)) {
+            writer.println("Notification packages: " + notificationPackages.size()
+                    + ", playing: " + getCurrentlyPlayingMediaPackage());
+            writer.println("Media classifier cache: " + mediaClassifier.getCacheHits() + " hits, "
+                    + mediaClassifier.getCacheMisses() + " misses");
+        }
+        DreamMetrics.dump(writer, args);
     }
 
-    // Rewritten buildSongString based on user specification
-    private String buildSongString(@Nullable String rawTitle, @Nullable String rawArtist) {
-        String processedTitle = null;
-        if (!TextUtils.isEmpty(rawTitle)) {
-            processedTitle = rawTitle;
-            Log.d(TAG, "buildSongString START: title='" + processedTitle + "', artist='" + rawArtist + "'");
-
-            // 1. Find " - " and remove it and everything after
-            int dashIndex = processedTitle.indexOf(" - ");
-            if (dashIndex != -1) {
-                processedTitle = processedTitle.substring(0, dashIndex).trim();
-                Log.d(TAG, "buildSongString AFTER ' - ': '" + processedTitle + "'");
-            }
-
-            // 2. Find first "." and remove it and everything after
-            int dotIndex = processedTitle.indexOf('.');
-            if (dotIndex != -1) {
-                processedTitle = processedTitle.substring(0, dotIndex).trim();
-                 Log.d(TAG, "buildSongString AFTER '.': '" + processedTitle + "'");
-            }
-
-            // 3. Remove parentheses and their content
-            processedTitle = processedTitle.replaceAll("\\(.*?\\)", "").trim();
-            Log.d(TAG, "buildSongString AFTER '()': '" + processedTitle + "'");
-
-            // 4. Remove artist words (case-insensitive, whole words)
-            if (!TextUtils.isEmpty(rawArtist)) {
-                String[] artistWords = rawArtist.split("\\s+"); // Split artist name by whitespace
-                for (String word : artistWords) {
-                     if (!TextUtils.isEmpty(word)) {
-                         String regex = "(?i)\\b" + java.util.regex.Pattern.quote(word) + "\\b";
-                         String beforeReplace = processedTitle;
-                         processedTitle = processedTitle.replaceAll(regex, "").trim();
-                         if (!processedTitle.equals(beforeReplace)) {
-                              Log.d(TAG, "buildSongString Removed artist word '"+word+"': '" + processedTitle + "'");
-                         }
-                     }
-                }
-                // Clean up potential double spaces left after removal
-                processedTitle = processedTitle.replaceAll("\\s{2,}", " ").trim();
-            }
-            
-            // If title becomes empty after processing, set it back to null
-            if (TextUtils.isEmpty(processedTitle)) {
-                processedTitle = null;
-            }
-        }
+    @Nullable
+    public static String getCurrentlyPlayingMediaPackage() {
+        ListenerModel model = listenerModel;
+        return model != null ? model.getPlayingPackage() : null;
+    }
 
-        // Combine processed title and original artist
-        boolean hasTitle = !TextUtils.isEmpty(processedTitle);
-        boolean hasArtist = !TextUtils.isEmpty(rawArtist);
-        String finalString;
+    private String buildSongString(@Nullable String rawTitle, @Nullable String rawArtist) {
+        String songString = SongTitles.build(rawTitle, rawArtist);
+        DreamLog.d(TAG, "buildSongString: title='{}', artist='{}' -> '{}'", rawTitle, rawArtist, songString);
+        return songString;
+    }
 
-        if (hasTitle && hasArtist) {
-            finalString = processedTitle + "\n" + rawArtist;
-        } else if (hasTitle) {
-            finalString = processedTitle;
-        } else if (hasArtist) {
-            // Decide if we should return only artist if title is missing/empty
-            // Let's return artist if title processing resulted in null or was initially null
-            finalString = rawArtist;
-        } else {
-            finalString = null; // Both are null or empty
+    // Every active session query goes through here so its count and binder latency show in dumpsys
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private static List<MediaController> getActiveSessions(MediaSessionManager manager, ComponentName listener) {
+        long start = System.nanoTime();
+        boolean traced = DreamTrace.begin(DreamTrace.SESSION_LOOKUP);
+        try {
+            return manager.getActiveSessions(listener);
+        } finally {
+            DreamTrace.end(traced);
+            DreamMetrics.ACTIVE_SESSION_QUERIES.increment();
+            DreamMetrics.ACTIVE_SESSIONS_US.recordSince(start);
         }
-
-        Log.d(TAG, "buildSongString FINAL combined: '" + finalString + "'");
-
-        return finalString; // Return the combined string or null
     }
 
     // Helper method to find the currently active playing MediaSession token
@@ -787,27 +723,27 @@ public class NotificationService extends NotificationListenerService {
         
         try {
             ComponentName componentName = new ComponentName(this, this.getClass());
-            List<MediaController> controllers = mediaSessionManager.getActiveSessions(componentName);
+            List<MediaController> controllers = getActiveSessions(mediaSessionManager, componentName);
             
             if (controllers == null || controllers.isEmpty()) {
-                Log.d(TAG, "No active media sessions found.");
+                DreamLog.d(TAG, "No active media sessions found.");
                 return null;
             }
 
-            Log.d(TAG, "Found " + controllers.size() + " active media session(s).");
+            DreamLog.d(TAG, "Found {} active media session(s).", controllers.size());
 
             for (MediaController controller : controllers) {
                 if (controller == null) continue;
                 PlaybackState playbackState = controller.getPlaybackState();
                 if (playbackState != null) {
-                    Log.d(TAG, "Controller package: " + controller.getPackageName() + ", PlaybackState: " + playbackState.getState());
+                    DreamLog.d(TAG, "Controller package: {}, PlaybackState: {}", controller.getPackageName(), playbackState.getState());
                     if (playbackState.getState() == PlaybackState.STATE_PLAYING) {
                         // Found the active playing session
-                        Log.d(TAG, "Found active token for package: " + controller.getPackageName());
+                        DreamLog.d(TAG, "Found active token for package: {}", controller.getPackageName());
                         return controller.getSessionToken();
                     }
                 } else {
-                    Log.d(TAG, "PlaybackState is null for package: " + controller.getPackageName());
+                    DreamLog.d(TAG, "PlaybackState is null for package: {}", controller.getPackageName());
                 }
             }
         } catch (SecurityException e) {
@@ -815,7 +751,7 @@ public class NotificationService extends NotificationListenerService {
         } catch (Exception e) {
             Log.e(TAG, "Exception finding active media session token", e);
         }
-        Log.d(TAG, "No active playing media session token found.");
+        DreamLog.d(TAG, "No active playing media session token found.");
         return null;
     }
 }
\ No newline at end of file
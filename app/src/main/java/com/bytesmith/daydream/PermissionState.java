@@ -0,0 +1,106 @@
+package com.bytesmith.daydream;
+
+import android.content.ComponentName;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.ContentObserver;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.Settings;
+import android.text.TextUtils;
+
+/**
+ * Whether notification access and the accessibility service are enabled, kept current by
+ * observing the two secure settings instead of parsing them on every check. Each setting is
+ * parsed once on {@link #register} and again only when it changes. Main thread only.
+ */
+final class PermissionState {
+
+    private static final String ENABLED_NOTIFICATION_LISTENERS = "enabled_notification_listeners";
+
+    private final Context context;
+    private final ContentResolver resolver;
+    private final Runnable onChanged;
+    private boolean notificationAccess;
+    private boolean accessibility;
+    private boolean registered = false;
+
+    private final ContentObserver observer = new ContentObserver(new Handler(Looper.getMainLooper())) {
+        @Override
+        public void onChange(boolean selfChange) {
+            refresh();
+            onChanged.run();
+        }
+    };
+
+    /**
+     * @param onChanged Run on the main thread after either setting changes.
+     */
+    PermissionState(Context context, Runnable onChanged) {
+        this.context = context.getApplicationContext();
+        resolver = this.context.getContentResolver();
+        this.onChanged = onChanged;
+    }
+
+    void register() {
+        if (registered) return;
+        registered = true;
+        observe(Settings.Secure.getUriFor(ENABLED_NOTIFICATION_LISTENERS));
+        observe(Settings.Secure.getUriFor(Settings.Secure.ENABLED_ACCESSIBILITY_SERVICES));
+        refresh();
+    }
+
+    void unregister() {
+        if (!registered) return;
+        registered = false;
+        resolver.unregisterContentObserver(observer);
+    }
+
+    boolean hasNotificationAccess() {
+        return notificationAccess;
+    }
+
+    boolean hasAccessibility() {
+        return accessibility;
+    }
+
+    private void observe(Uri uri) {
+        resolver.registerContentObserver(uri, false, observer);
+    }
+
+    // Both settings are short colon-separated lists; re-reading both on either change is simplest
+    private void refresh() {
+        notificationAccess = containsPackage(
+                Settings.Secure.getString(resolver, ENABLED_NOTIFICATION_LISTENERS), context.getPackageName());
+        accessibility = containsComponent(
+                Settings.Secure.getString(resolver, Settings.Secure.ENABLED_ACCESSIBILITY_SERVICES),
+                new ComponentName(context, BrightnessService.class).flattenToString());
+    }
+
+    private static boolean containsPackage(String flat, String packageName) {
+        if (TextUtils.isEmpty(flat)) return false;
+        TextUtils.SimpleStringSplitter splitter = new TextUtils.SimpleStringSplitter(':');
+        splitter.setString(flat);
+        for (String name : splitter) {
+            ComponentName component = ComponentName.unflattenFromString(name);
+            if (component != null && packageName.equals(component.getPackageName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsComponent(String flat, String flattened) {
+        if (TextUtils.isEmpty(flat) || !flat.contains(flattened)) return false;
+        // Exact entries only, not a longer name that starts the same
+        TextUtils.SimpleStringSplitter splitter = new TextUtils.SimpleStringSplitter(':');
+        splitter.setString(flat);
+        for (String name : splitter) {
+            if (flattened.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
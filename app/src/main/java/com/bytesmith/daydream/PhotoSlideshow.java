@@ -0,0 +1,270 @@
+package com.bytesmith.daydream;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.util.Log;
+import android.view.View;
+import android.widget.ImageView;
+
+import androidx.annotation.Nullable;
+
+import com.bytesmith.daydream.core.DecodeSizes;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Photo slideshow behind the clock, crossfading between two image views.
+ * <p>
+ * Photos are streamed from the {@link PhotoSource} one ahead of the one on screen and decoded on a
+ * background thread, subsampled so that no decoded photo has more pixels than the (capped) screen.
+ * Every decode goes into a screen-sized RGB_565 bitmap taken from a {@link BitmapPool}, so at most
+ * three such bitmaps ever exist (shown, fading out, prefetched) no matter how large or how many
+ * the source photos are. Crossfades are view alpha animations on a hardware layer.
+ */
+class PhotoSlideshow {
+
+    private static final String TAG = "PhotoSlideshow";
+    static final long DEFAULT_INTERVAL_MS = 30000;
+    private static final long MIN_INTERVAL_MS = 5000;
+    private static final long CROSSFADE_MS = 1500;
+    private static final int MAX_TARGET_EDGE = 1920;
+    private static final int SLOTS = 3; // Shown, fading out, prefetched
+    private static final Bitmap.Config CONFIG = Bitmap.Config.RGB_565;
+    // Darkens the photos so the white text stays readable
+    private static final int DIM_COLOR = Color.argb(0x99, 0, 0, 0);
+
+    private final ContentResolver contentResolver;
+    private final PhotoSource source;
+    private final ImageView[] views;
+    private final int targetWidth;
+    private final int targetHeight;
+    private final long slotBytes;
+    private final long intervalMs;
+    private final BitmapPool bitmapPool;
+    private final HandlerThread decodeThread;
+    private final Handler decodeHandler;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Main thread state
+    private boolean running = false;
+    private int frontView = 0;
+    private Bitmap shownBitmap = null;
+    private Bitmap fadingBitmap = null;
+    private ImageView fadingView = null;
+    private Bitmap nextBitmap = null;
+    private boolean advanceWhenReady = false;
+
+    // Decode thread state
+    private int nextPhotoIndex = 0;
+
+    // Bumped on release; decodes for older generations hand their bitmap back
+    private volatile int generation = 0;
+    private long allocatedBytes = 0;
+    private long peakBytes = 0;
+
+    private final Runnable advanceRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (nextBitmap != null) {
+                showNext();
+            } else {
+                advanceWhenReady = true; // Decode is running late, switch as soon as it lands
+            }
+        }
+    };
+
+    /**
+     * @param views        Two stacked, full-screen image views to crossfade between.
+     * @param screenWidth  Display width in pixels.
+     * @param screenHeight Display height in pixels.
+     */
+    PhotoSlideshow(ContentResolver contentResolver, PhotoSource source, ImageView[] views,
+                   int screenWidth, int screenHeight, long intervalMs) {
+        this.contentResolver = contentResolver;
+        this.source = source;
+        this.views = views;
+        this.intervalMs = Math.max(MIN_INTERVAL_MS, intervalMs);
+
+        float scale = DecodeSizes.fitScale(Math.max(1, screenWidth), Math.max(1, screenHeight), MAX_TARGET_EDGE);
+        targetWidth = DecodeSizes.scaledEdge(screenWidth, scale);
+        targetHeight = DecodeSizes.scaledEdge(screenHeight, scale);
+        slotBytes = DecodeSizes.bytes(targetWidth, targetHeight, BitmapPool.bytesPerPixel(CONFIG));
+        bitmapPool = new BitmapPool(slotBytes * SLOTS);
+
+        for (ImageView view : views) {
+            view.setScaleType(ImageView.ScaleType.CENTER_CROP);
+            view.setColorFilter(DIM_COLOR, PorterDuff.Mode.SRC_ATOP);
+            view.setVisibility(View.GONE);
+        }
+
+        decodeThread = new HandlerThread("SlideshowDecode", android.os.Process.THREAD_PRIORITY_BACKGROUND);
+        decodeThread.start();
+        decodeHandler = new Handler(decodeThread.getLooper());
+    }
+
+    /** Scans the source and shows the first photo. Main thread. */
+    void start() {
+        if (running) return;
+        running = true;
+        final int requestGeneration = generation;
+        decodeHandler.post(() -> {
+            int count = source.load();
+            DreamLog.d(TAG, "Slideshow source has {} photos", count);
+            decodeNext(requestGeneration);
+        });
+    }
+
+    // Decode thread: decodes the next readable photo and hands it to the main thread
+    private void decodeNext(final int requestGeneration) {
+        int count = source.size();
+        for (int attempt = 0; attempt < count && requestGeneration == generation; attempt++) {
+            Uri uri = source.uriAt(nextPhotoIndex);
+            nextPhotoIndex = (nextPhotoIndex + 1) % count;
+            final Bitmap bitmap = decode(uri);
+            if (bitmap != null) {
+                mainHandler.post(() -> onDecoded(bitmap, requestGeneration));
+                return;
+            }
+        }
+    }
+
+    @Nullable
+    private Bitmap decode(Uri uri) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        decodeStream(uri, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        options.inSampleSize = DecodeSizes.capSampleSize(options.outWidth, options.outHeight,
+                (long) targetWidth * targetHeight);
+        options.inJustDecodeBounds = false;
+        options.inPreferredConfig = CONFIG;
+        options.inMutable = true;
+        options.inBitmap = obtainSlot();
+
+        Bitmap decoded = decodeStream(uri, options);
+        if (decoded == null) {
+            // Can't decode into a pooled slot (unsupported format); skip the photo rather than
+            // allocating outside the budget
+            bitmapPool.put(options.inBitmap);
+            Log.w(TAG, "Skipping photo that could not be decoded: " + uri);
+        }
+        return decoded;
+    }
+
+    @Nullable
+    private Bitmap decodeStream(Uri uri, BitmapFactory.Options options) {
+        try (InputStream in = contentResolver.openInputStream(uri)) {
+            if (in == null) return null;
+            return BitmapFactory.decodeStream(in, null, options);
+        } catch (IOException | SecurityException | IllegalArgumentException e) {
+            Log.w(TAG, "Failed to read " + uri, e);
+            return null;
+        }
+    }
+
+    // A screen-sized bitmap from the pool, or a new one while fewer than SLOTS exist
+    private Bitmap obtainSlot() {
+        Bitmap slot = bitmapPool.get(targetWidth, targetHeight, CONFIG);
+        if (slot == null) {
+            slot = Bitmap.createBitmap(targetWidth, targetHeight, CONFIG);
+            synchronized (this) {
+                allocatedBytes += slot.getAllocationByteCount();
+                peakBytes = Math.max(peakBytes, allocatedBytes);
+            }
+        }
+        return slot;
+    }
+
+    // Main thread
+    private void onDecoded(Bitmap bitmap, int requestGeneration) {
+        if (!running || requestGeneration != generation) {
+            bitmap.recycle(); // Released meanwhile, the pool is already cleared
+            return;
+        }
+        nextBitmap = bitmap;
+        if (shownBitmap == null || advanceWhenReady) {
+            showNext();
+        }
+    }
+
+    private void showNext() {
+        advanceWhenReady = false;
+        final ImageView outgoing = views[frontView];
+        frontView = (frontView + 1) % views.length;
+        final ImageView incoming = views[frontView];
+
+        if (fadingView != null) {
+            fadingView.animate().cancel(); // Previous crossfade still running; finish it now
+        }
+        releaseFading();
+        fadingBitmap = shownBitmap;
+        fadingView = shownBitmap != null ? outgoing : null;
+        shownBitmap = nextBitmap;
+        nextBitmap = null;
+
+        incoming.setImageBitmap(shownBitmap);
+        incoming.setAlpha(0f);
+        incoming.setVisibility(View.VISIBLE);
+        incoming.animate().alpha(1f).setDuration(CROSSFADE_MS).withLayer();
+        if (fadingBitmap != null) {
+            outgoing.animate().alpha(0f).setDuration(CROSSFADE_MS).withLayer().withEndAction(this::releaseFading);
+        }
+
+        // Prefetch the one after and schedule the switch to it
+        final int requestGeneration = generation;
+        decodeHandler.post(() -> decodeNext(requestGeneration));
+        mainHandler.removeCallbacks(advanceRunnable);
+        mainHandler.postDelayed(advanceRunnable, intervalMs);
+    }
+
+    // Detaches the faded-out photo from its view before its bitmap can be decoded into again
+    private void releaseFading() {
+        if (fadingBitmap == null) return;
+        fadingView.setImageDrawable(null);
+        fadingView.setVisibility(View.GONE);
+        bitmapPool.put(fadingBitmap);
+        fadingBitmap = null;
+        fadingView = null;
+    }
+
+    /** Stops the slideshow and frees every bitmap. Main thread. */
+    void release() {
+        running = false;
+        generation++;
+        mainHandler.removeCallbacks(advanceRunnable);
+        decodeHandler.removeCallbacksAndMessages(null);
+        decodeThread.quitSafely();
+        for (ImageView view : views) {
+            view.animate().cancel();
+            view.setImageDrawable(null);
+            view.setVisibility(View.GONE);
+        }
+        bitmapPool.put(shownBitmap);
+        bitmapPool.put(fadingBitmap);
+        bitmapPool.put(nextBitmap);
+        shownBitmap = fadingBitmap = nextBitmap = null;
+        fadingView = null;
+        bitmapPool.clear();
+    }
+
+    /** Highest number of bytes held in slideshow bitmaps at once. */
+    synchronized long getPeakBytes() {
+        return peakBytes;
+    }
+
+    /** Fixed upper bound for slideshow bitmap memory. */
+    long getMemoryBudgetBytes() {
+        return slotBytes * SLOTS;
+    }
+}
@@ -0,0 +1,18 @@
+package com.bytesmith.daydream;
+
+import android.net.Uri;
+
+/**
+ * Ordered list of images for the {@link PhotoSlideshow}. Only the list of locations is kept in
+ * memory; image data is streamed from disk when a photo is decoded.
+ */
+interface PhotoSource {
+
+    /** (Re)scans the source. Called on the slideshow's decode thread; returns the photo count. */
+    int load();
+
+    int size();
+
+    /** Location of the photo at {@code index}, readable through {@code ContentResolver.openInputStream}. */
+    Uri uriAt(int index);
+}
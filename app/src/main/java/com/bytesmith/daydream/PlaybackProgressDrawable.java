@@ -0,0 +1,226 @@
+package com.bytesmith.daydream;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.os.Debug;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Locale;
+
+/**
+ * Elapsed/remaining progress bar for the now-playing banner.
+ * <p>
+ * The drawable never polls the media session. It keeps the last {@code PlaybackState} snapshot
+ * (position, speed and the elapsed-realtime the position was captured at), extrapolates the
+ * current position locally when drawing, and schedules its own redraw at a low, configurable
+ * cadence while playback is running and the drawable is visible. New snapshots only arrive from
+ * {@code onPlaybackStateChanged}.
+ * <p>
+ * Drawing allocates nothing: time labels are formatted into reused char buffers.
+ */
+class PlaybackProgressDrawable extends Drawable {
+
+    static final long DEFAULT_REDRAW_INTERVAL_MS = 5000;
+
+    private final Paint trackPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint progressPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final float barHeight;
+
+    private final char[] elapsedChars = new char[9];
+    private final char[] remainingChars = new char[10];
+
+    // Last playback snapshot
+    private long positionMs = 0;
+    private float speed = 1f;
+    private long positionUpdateTimeMs = 0;
+    private long durationMs = 0;
+    private boolean playing = false;
+
+    private long redrawIntervalMs = DEFAULT_REDRAW_INTERVAL_MS;
+
+    // Cost accounting
+    private long drawCount = 0;
+    private long drawCpuNanos = 0;
+    private long playingSinceMs = 0;
+    private long playingTotalMs = 0;
+
+    private final Runnable redrawRunnable = new Runnable() {
+        @Override
+        public void run() {
+            invalidateSelf();
+        }
+    };
+
+    /**
+     * @param color     Color for the progress and labels.
+     * @param textSize  Label text size in pixels.
+     * @param barHeight Bar thickness in pixels.
+     */
+    PlaybackProgressDrawable(int color, float textSize, float barHeight) {
+        this.barHeight = barHeight;
+        progressPaint.setColor(color);
+        trackPaint.setColor(color);
+        trackPaint.setAlpha(0x50);
+        textPaint.setColor(color);
+        textPaint.setTextSize(textSize);
+    }
+
+    void setRedrawIntervalMs(long redrawIntervalMs) {
+        this.redrawIntervalMs = Math.max(250, redrawIntervalMs);
+    }
+
+    /**
+     * Resyncs the extrapolation with a new playback snapshot.
+     *
+     * @param position           Position in ms at {@code positionUpdateTime}.
+     * @param playbackSpeed      Playback speed, 1.0 for normal playback.
+     * @param positionUpdateTime {@code SystemClock.elapsedRealtime()} the position was captured at.
+     * @param duration           Track duration in ms, 0 if unknown.
+     * @param isPlaying          Whether the position is advancing.
+     */
+    void setPlaybackState(long position, float playbackSpeed, long positionUpdateTime, long duration, boolean isPlaying) {
+        long now = SystemClock.elapsedRealtime();
+        updatePlayingTime(isPlaying, now);
+
+        positionMs = Math.max(0, position);
+        speed = playbackSpeed;
+        positionUpdateTimeMs = positionUpdateTime > 0 ? positionUpdateTime : now;
+        durationMs = Math.max(0, duration);
+        playing = isPlaying;
+
+        unscheduleSelf(redrawRunnable);
+        invalidateSelf();
+    }
+
+    private void updatePlayingTime(boolean isPlaying, long now) {
+        if (playing && playingSinceMs > 0) {
+            playingTotalMs += now - playingSinceMs;
+        }
+        playingSinceMs = isPlaying ? now : 0;
+    }
+
+    /** Position extrapolated to {@code nowMs}, clamped to the track duration. */
+    long extrapolatePosition(long nowMs) {
+        long position = positionMs;
+        if (playing && nowMs > positionUpdateTimeMs) {
+            position += (long) ((nowMs - positionUpdateTimeMs) * speed);
+        }
+        if (durationMs > 0 && position > durationMs) {
+            position = durationMs;
+        }
+        return Math.max(0, position);
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        long cpuStart = Debug.threadCpuTimeNanos();
+        Rect bounds = getBounds();
+        long now = SystemClock.elapsedRealtime();
+        long position = extrapolatePosition(now);
+
+        float textBaseline = bounds.bottom - textPaint.descent();
+        float barTop = bounds.top + (bounds.height() - barHeight - textPaint.getTextSize()) / 2f;
+        float barBottom = barTop + barHeight;
+        canvas.drawRect(bounds.left, barTop, bounds.right, barBottom, trackPaint);
+
+        if (durationMs > 0) {
+            float fraction = position / (float) durationMs;
+            canvas.drawRect(bounds.left, barTop, bounds.left + bounds.width() * fraction, barBottom, progressPaint);
+
+            int remainingLength = formatTime(durationMs - position, remainingChars, true);
+            float remainingWidth = textPaint.measureText(remainingChars, 0, remainingLength);
+            canvas.drawText(remainingChars, 0, remainingLength, bounds.right - remainingWidth, textBaseline, textPaint);
+        }
+        int elapsedLength = formatTime(position, elapsedChars, false);
+        canvas.drawText(elapsedChars, 0, elapsedLength, bounds.left, textBaseline, textPaint);
+
+        if (playing && isVisible()) {
+            scheduleSelf(redrawRunnable, SystemClock.uptimeMillis() + redrawIntervalMs);
+        }
+
+        drawCount++;
+        long cpuEnd = Debug.threadCpuTimeNanos();
+        if (cpuStart >= 0 && cpuEnd >= cpuStart) {
+            drawCpuNanos += cpuEnd - cpuStart;
+        }
+    }
+
+    /**
+     * Writes {@code [-][h:]m:ss} into {@code out} and returns the number of chars written.
+     */
+    private static int formatTime(long timeMs, char[] out, boolean negative) {
+        long totalSeconds = Math.max(0, timeMs) / 1000;
+        int hours = (int) Math.min(99, totalSeconds / 3600);
+        int minutes = (int) (totalSeconds / 60 % 60);
+        int seconds = (int) (totalSeconds % 60);
+
+        int i = 0;
+        if (negative) out[i++] = '-';
+        if (hours > 0) {
+            if (hours >= 10) out[i++] = (char) ('0' + hours / 10);
+            out[i++] = (char) ('0' + hours % 10);
+            out[i++] = ':';
+            out[i++] = (char) ('0' + minutes / 10);
+        } else if (minutes >= 10) {
+            out[i++] = (char) ('0' + minutes / 10);
+        }
+        out[i++] = (char) ('0' + minutes % 10);
+        out[i++] = ':';
+        out[i++] = (char) ('0' + seconds / 10);
+        out[i++] = (char) ('0' + seconds % 10);
+        return i;
+    }
+
+    @Override
+    public boolean setVisible(boolean visible, boolean restart) {
+        boolean changed = super.setVisible(visible, restart);
+        if (!visible) {
+            unscheduleSelf(redrawRunnable);
+        } else if (changed) {
+            invalidateSelf();
+        }
+        return changed;
+    }
+
+    /** Number of draws, CPU time spent drawing and playback time covered since creation. */
+    String getCostReport() {
+        long playedMs = playingTotalMs;
+        if (playing && playingSinceMs > 0) {
+            playedMs += SystemClock.elapsedRealtime() - playingSinceMs;
+        }
+        double hours = playedMs / 3600000d;
+        double cpuMs = drawCpuNanos / 1e6;
+        return "draws=" + drawCount + ", cpuMs=" + String.format(Locale.US, "%.2f", cpuMs)
+                + ", playbackHours=" + String.format(Locale.US, "%.3f", hours)
+                + (hours > 0 ? ", cpuMsPerPlaybackHour=" + String.format(Locale.US, "%.2f", cpuMs / hours) : "");
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        progressPaint.setAlpha(alpha);
+        textPaint.setAlpha(alpha);
+        trackPaint.setAlpha(alpha * 0x50 / 0xFF);
+        invalidateSelf();
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        progressPaint.setColorFilter(colorFilter);
+        trackPaint.setColorFilter(colorFilter);
+        textPaint.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+}
@@ -0,0 +1,85 @@
+package com.bytesmith.daydream;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
+
+import com.bytesmith.daydream.core.ClockFaceGeometry;
+
+/**
+ * Large seven-segment "HH:MM" display. The time is kept in the cached layer: when it changes,
+ * only the digit cells that differ are cleared and repainted, so a typical minute touches one
+ * digit and drawing is a single bitmap blit.
+ */
+class SegmentClockDrawable extends ClockFaceDrawable {
+
+    private static final int UNLIT_ALPHA = 0x1A;
+
+    private final int height;
+    private final Paint litPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint unlitPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint clearPaint = new Paint();
+    private final int[] digits = new int[ClockFaceGeometry.DIGITS];
+    private final int[] newDigits = new int[ClockFaceGeometry.DIGITS];
+    private final float[] rects = new float[ClockFaceGeometry.SEGMENTS * 4];
+    private boolean use24Hour = true;
+
+    /** @param height Digit height in pixels. */
+    SegmentClockDrawable(int color, int height) {
+        this.height = height;
+        litPaint.setColor(color);
+        unlitPaint.setColor(color);
+        unlitPaint.setAlpha(UNLIT_ALPHA);
+        clearPaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.CLEAR));
+    }
+
+    void set24HourFormat(boolean use24Hour) {
+        if (this.use24Hour == use24Hour) return;
+        this.use24Hour = use24Hour;
+        invalidateLayer();
+    }
+
+    @Override
+    protected void drawStaticLayer(Canvas canvas, int width, int height) {
+        ClockFaceGeometry.digits(hourOfDay, minute, use24Hour, digits);
+        for (int i = 0; i < ClockFaceGeometry.DIGITS; i++) {
+            drawDigit(canvas, i, digits[i], height);
+        }
+        ClockFaceGeometry.colonRects(height, rects);
+        canvas.drawRect(rects[0], rects[1], rects[2], rects[3], litPaint);
+        canvas.drawRect(rects[4], rects[5], rects[6], rects[7], litPaint);
+    }
+
+    @Override
+    protected void updateLayer(Canvas canvas, int width, int height, int oldHour, int oldMinute) {
+        ClockFaceGeometry.digits(hourOfDay, minute, use24Hour, newDigits);
+        for (int i = 0; i < ClockFaceGeometry.DIGITS; i++) {
+            if (newDigits[i] == digits[i]) continue;
+            float left = ClockFaceGeometry.digitLeft(i, height);
+            canvas.drawRect(left, 0, left + ClockFaceGeometry.DIGIT_WIDTH * height, height, clearPaint);
+            drawDigit(canvas, i, newDigits[i], height);
+            digits[i] = newDigits[i];
+        }
+    }
+
+    // Every segment of the cell, lit or faintly unlit
+    private void drawDigit(Canvas canvas, int index, int digit, float unit) {
+        int lit = ClockFaceGeometry.segmentsOf(digit);
+        ClockFaceGeometry.segmentRects(index, unit, rects);
+        for (int bit = 0; bit < ClockFaceGeometry.SEGMENTS; bit++) {
+            canvas.drawRect(rects[bit * 4], rects[bit * 4 + 1], rects[bit * 4 + 2], rects[bit * 4 + 3],
+                    (lit & (1 << bit)) != 0 ? litPaint : unlitPaint);
+        }
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+        return (int) Math.ceil(ClockFaceGeometry.displayWidth(height));
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,64 @@
+package com.bytesmith.daydream;
+
+import android.graphics.Typeface;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.text.SpannedString;
+import android.text.style.RelativeSizeSpan;
+import android.text.style.StyleSpan;
+import android.util.LruCache;
+
+import com.bytesmith.daydream.core.SongTitles;
+
+/**
+ * Builds the styled song banner text (bold, enlarged title and an artist line) without going
+ * through HTML.
+ * <p>
+ * Text is assembled in a reused builder with preallocated spans, words are capitalized in a
+ * single pass, and the finished {@link Spanned} is memoized per song string, so the repeated
+ * updates that arrive for the same track are a cache hit. Main thread only.
+ */
+class SongBannerFormatter {
+
+    private static final float TITLE_RELATIVE_SIZE = 1.3f;
+    private static final int MAX_CACHED_BANNERS = 8;
+
+    // Span objects are stateless, so one instance can be attached to every cached banner
+    private final StyleSpan titleBoldSpan = new StyleSpan(Typeface.BOLD);
+    private final RelativeSizeSpan titleSizeSpan = new RelativeSizeSpan(TITLE_RELATIVE_SIZE);
+
+    private final SpannableStringBuilder spannableBuilder = new SpannableStringBuilder();
+    private final StringBuilder textBuilder = new StringBuilder(64);
+    private final LruCache<String, Spanned> bannerCache = new LruCache<>(MAX_CACHED_BANNERS);
+
+    /**
+     * Returns the banner for a song string of the form {@code "title"} or {@code "title\nartist"}.
+     */
+    Spanned format(String songName) {
+        Spanned cached = bannerCache.get(songName);
+        if (cached != null) {
+            return cached;
+        }
+
+        int newlineIndex = songName.indexOf('\n');
+        int titleEnd = newlineIndex != -1 ? newlineIndex : songName.length();
+
+        textBuilder.setLength(0);
+        SongTitles.appendCapitalized(songName, 0, titleEnd, textBuilder);
+        int titleLength = textBuilder.length();
+        if (newlineIndex != -1) {
+            textBuilder.append('\n');
+            SongTitles.appendCapitalized(songName, newlineIndex + 1, songName.length(), textBuilder);
+        }
+
+        spannableBuilder.clear();
+        spannableBuilder.clearSpans();
+        spannableBuilder.append(textBuilder);
+        spannableBuilder.setSpan(titleBoldSpan, 0, titleLength, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        spannableBuilder.setSpan(titleSizeSpan, 0, titleLength, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+
+        Spanned banner = new SpannedString(spannableBuilder);
+        bannerCache.put(songName, banner);
+        return banner;
+    }
+}
@@ -0,0 +1,58 @@
+package com.bytesmith.daydream;
+
+import android.annotation.SuppressLint;
+import android.view.View;
+import android.widget.TextView;
+
+/** "Songs: N" next to the battery level, hidden while the count is zero. */
+class SongCountWidget implements DreamWidget {
+
+    private final TextView textView;
+    private int count;
+
+    SongCountWidget(TextView textView, int count) {
+        this.textView = textView;
+        this.count = count;
+    }
+
+    void setCount(int count) {
+        this.count = count;
+    }
+
+    @Override
+    public String getName() {
+        return "songCount";
+    }
+
+    @Override
+    public int getSources() {
+        return SOURCE_SONG_COUNT;
+    }
+
+    @Override
+    public int getTrigger() {
+        return TRIGGER_EVENT;
+    }
+
+    @Override
+    public int getRenderCost() {
+        return COST_LOW;
+    }
+
+    @Override
+    public long getInputVersion(long nowMillis) {
+        return count;
+    }
+
+    @SuppressLint("SetTextI18n")
+    @Override
+    public void render(long nowMillis) {
+        if (count > 0) {
+            textView.setText("Songs: " + count);
+            DreamMetrics.SET_TEXT.increment();
+            textView.setVisibility(View.VISIBLE);
+        } else {
+            textView.setVisibility(View.GONE);
+        }
+    }
+}
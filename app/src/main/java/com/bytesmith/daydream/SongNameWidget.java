@@ -0,0 +1,72 @@
+package com.bytesmith.daydream;
+
+import android.text.Spanned;
+import android.view.Gravity;
+import android.view.View;
+import android.widget.TextView;
+
+/** The now-playing title and artist, hidden when nothing is playing. */
+class SongNameWidget implements DreamWidget {
+
+    private final TextView textView;
+    private final SongBannerFormatter formatter = new SongBannerFormatter();
+    private String songName = null;
+    private long version = 0;
+
+    SongNameWidget(TextView textView) {
+        this.textView = textView;
+    }
+
+    /** @param songName {@code "title"} or {@code "title\nartist"}, or null/empty to hide. */
+    void setSongName(String songName) {
+        if (songName != null && songName.isEmpty()) {
+            songName = null;
+        }
+        if (songName == null ? this.songName != null : !songName.equals(this.songName)) {
+            this.songName = songName;
+            version++;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "songName";
+    }
+
+    @Override
+    public int getSources() {
+        return SOURCE_MEDIA;
+    }
+
+    @Override
+    public int getTrigger() {
+        return TRIGGER_EVENT;
+    }
+
+    @Override
+    public int getRenderCost() {
+        return COST_LOW;
+    }
+
+    @Override
+    public long getInputVersion(long nowMillis) {
+        return version;
+    }
+
+    @Override
+    public void render(long nowMillis) {
+        if (songName == null) {
+            // Keep the initial GONE until a song has been shown, INVISIBLE after that
+            if (textView.getVisibility() == View.VISIBLE) {
+                textView.setVisibility(View.INVISIBLE);
+            }
+            return;
+        }
+        // Built from cached spans, no HTML parsing; repeated updates for a track hit the cache
+        Spanned banner = formatter.format(songName);
+        textView.setText(banner);
+        DreamMetrics.SET_TEXT.increment();
+        textView.setVisibility(View.VISIBLE);
+        textView.setGravity(Gravity.CENTER_HORIZONTAL);
+    }
+}
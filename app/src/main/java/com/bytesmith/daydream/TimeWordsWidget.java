@@ -0,0 +1,74 @@
+package com.bytesmith.daydream;
+
+import android.text.Spanned;
+import android.widget.TextView;
+
+import com.bytesmith.daydream.core.TimePhraseGenerator;
+
+import java.util.Calendar;
+import java.util.Locale;
+
+/** The spelled-out time, e.g. "It's Quarter past Ten, in the morning." */
+class TimeWordsWidget implements DreamWidget {
+
+    private final TextView textView;
+    private TimePhraseGenerator generator;
+    private String language;
+    private Calendar calendar = Calendar.getInstance();
+    private int localeGeneration = 0;
+
+    TimeWordsWidget(TextView textView, Locale locale) {
+        this.textView = textView;
+        this.generator = TimePhraseGenerator.forLocale(locale);
+        this.language = locale.getLanguage();
+    }
+
+    /** Switches grammar and time zone after a locale or zone change. */
+    void reset(Locale locale) {
+        generator = TimePhraseGenerator.forLocale(locale);
+        language = locale.getLanguage();
+        calendar = Calendar.getInstance();
+        localeGeneration++;
+    }
+
+    @Override
+    public String getName() {
+        return "timeWords";
+    }
+
+    @Override
+    public int getSources() {
+        return SOURCE_CLOCK | SOURCE_LOCALE;
+    }
+
+    @Override
+    public int getTrigger() {
+        return TRIGGER_MINUTE;
+    }
+
+    @Override
+    public int getRenderCost() {
+        return COST_MEDIUM; // HTML parsing
+    }
+
+    @Override
+    public long getInputVersion(long nowMillis) {
+        return ((long) localeGeneration << 32) | minuteOfDay(nowMillis);
+    }
+
+    @Override
+    public void render(long nowMillis) {
+        int minuteOfDay = minuteOfDay(nowMillis);
+        Spanned phrase = DreamWarmCache.getPhrase(language, minuteOfDay); // Parsed ahead of the dream
+        if (phrase == null) {
+            phrase = DreamService.fromHtml(generator.phrase(minuteOfDay / 60, minuteOfDay % 60));
+        }
+        textView.setText(phrase);
+        DreamMetrics.SET_TEXT.increment();
+    }
+
+    private int minuteOfDay(long nowMillis) {
+        calendar.setTimeInMillis(nowMillis);
+        return calendar.get(Calendar.HOUR_OF_DAY) * 60 + calendar.get(Calendar.MINUTE);
+    }
+}
@@ -0,0 +1,214 @@
+package com.bytesmith.daydream;
+
+import android.app.Activity;
+import android.app.Application;
+import android.app.Notification;
+import android.content.Context;
+import android.content.Intent;
+import android.media.MediaMetadata;
+import android.media.session.MediaController;
+import android.media.session.MediaSession;
+import android.media.session.MediaSessionManager;
+import android.media.session.PlaybackState;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.service.notification.StatusBarNotification;
+
+import com.bytesmith.daydream.core.CostBudget;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.android.controller.ServiceController;
+import org.robolectric.annotation.LooperMode;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.shadows.ShadowMediaController;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Runs the dream through a simulated hour on a paused looper and fails when it goes over any
+ * default {@link CostBudget} limit: main thread messages dispatched, broadcasts sent and bytes
+ * allocated on the main thread are measured here, the rest by the dream's own
+ * {@link DreamCostMonitor}.
+ * <p>
+ * The real DreamService and NotificationService run under Robolectric, fed scripted notifications
+ * and media session callbacks. A dream gets no window here, so its layout is hosted in an activity
+ * and handed to {@link DreamService#attachDreamViews}, which the service calls with its own window.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class DreamCostBudgetTest {
+
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+    private static final long SONG_MS = 210 * 1000L;
+    // Robolectric's shadows allocate far more than a device would, so this only catches growth
+    // on the order of a leak or a per-tick rebuild, not small churn
+    private static final long ALLOCATED_BYTES_PER_HOUR = 256L * 1024 * 1024;
+    private static final String CHAT_PACKAGE = "com.example.chat";
+    private static final String PLAYER_PACKAGE = "com.example.player";
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    // Counters measured by the test rather than the dream
+    private final CostBudget measured = CostBudget.withDefaults();
+    private Application application;
+    private ShadowLooper looper;
+    private ServiceController<NotificationService> listenerController;
+    private NotificationService listener;
+    private DreamService dream;
+    private DreamCostMonitor monitor;
+    private ShadowMediaController player;
+    private int songs = 0;
+
+    // A new track, as the player's session and notification report it
+    private final Runnable songRunnable = new Runnable() {
+        @Override
+        public void run() {
+            songs++;
+            MediaMetadata metadata = new MediaMetadata.Builder()
+                    .putString(MediaMetadata.METADATA_KEY_TITLE, "Song " + songs)
+                    .putString(MediaMetadata.METADATA_KEY_ARTIST, "Artist")
+                    .putLong(MediaMetadata.METADATA_KEY_DURATION, SONG_MS)
+                    .build();
+            PlaybackState state = new PlaybackState.Builder()
+                    .setState(PlaybackState.STATE_PLAYING, 0, 1f, SystemClock.elapsedRealtime())
+                    .build();
+            player.setMetadata(metadata);
+            player.setPlaybackState(state);
+            listener.onNotificationPosted(statusBarNotification(PLAYER_PACKAGE, 1,
+                    notification(Notification.CATEGORY_TRANSPORT, "Song " + songs, "Artist")));
+            player.executeOnMetadataChanged(metadata);
+            player.executeOnPlaybackStateChanged(state);
+            handler.postDelayed(this, SONG_MS);
+        }
+    };
+
+    @Before
+    public void setUp() {
+        application = RuntimeEnvironment.getApplication();
+        looper = shadowOf(Looper.getMainLooper());
+        measured.setLimit(CostBudget.ALLOCATIONS, ALLOCATED_BYTES_PER_HOUR);
+        application.getSharedPreferences("DreamServicePrefs", Context.MODE_PRIVATE).edit()
+                .putBoolean("costMonitor", true)
+                .commit();
+
+        listenerController = Robolectric.buildService(NotificationService.class).create();
+        listener = listenerController.get();
+        dream = Robolectric.buildService(DreamService.class).create().get();
+    }
+
+    @After
+    public void tearDown() {
+        dream.onDreamingStopped();
+        listenerController.destroy();
+        handler.removeCallbacksAndMessages(null);
+    }
+
+    @Test
+    public void idleHour_staysWithinBudget() {
+        startDream();
+        listener.onNotificationPosted(statusBarNotification(CHAT_PACKAGE, 1,
+                notification(Notification.CATEGORY_MESSAGE, "Someone", "Hello")));
+        runHour();
+        assertWithinBudget();
+    }
+
+    @Test
+    public void hourOfMusic_staysWithinBudget() {
+        MediaSessionManager sessionManager = (MediaSessionManager) application.getSystemService(
+                Context.MEDIA_SESSION_SERVICE);
+        MediaSession session = new MediaSession(application, "DreamCostBudgetTest");
+        MediaController controller = new MediaController(application, session.getSessionToken());
+        player = shadowOf(controller);
+        player.setPackageName(PLAYER_PACKAGE);
+        shadowOf(sessionManager).addController(controller);
+
+        startDream();
+        handler.post(songRunnable);
+        runHour();
+
+        assertTrue(songs > 0);
+        assertEquals(PLAYER_PACKAGE, NotificationService.getCurrentlyPlayingMediaPackage());
+        assertTrue("Song names never reached the dream", countBroadcasts("com.bytesmith.daydream.SONG_NAME_UPDATED") > 0);
+        assertWithinBudget();
+        session.release();
+    }
+
+    // Hosts the dream's layout and starts it as DreamService does when attached and dreaming
+    private void startDream() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        activity.setContentView(R.layout.activity_screensaver);
+        dream.attachDreamViews(activity.getWindow().getDecorView());
+        monitor = dream.getCostMonitor();
+        assertNotNull(monitor);
+        dream.onDreamingStarted();
+        looper.idle(); // Inflation, the first layout and the listener's first session check are dream start
+    }
+
+    // Dispatches every main thread message due within the next hour, advancing the clock to each
+    private void runHour() {
+        List<Intent> broadcasts = shadowOf(application).getBroadcastIntents();
+        int broadcastsBefore = broadcasts.size();
+        long allocatedBefore = allocatedBytes();
+        long end = SystemClock.uptimeMillis() + HOUR_MS;
+        while (true) {
+            long next = looper.getNextScheduledTaskTime().toMillis();
+            if (next == 0 || next >= end) break;
+            looper.runOneTask();
+            measured.add(CostBudget.MAIN_THREAD_MESSAGES, 1);
+        }
+        measured.add(CostBudget.ALLOCATIONS, allocatedBytes() - allocatedBefore);
+        measured.add(CostBudget.BROADCASTS, shadowOf(application).getBroadcastIntents().size() - broadcastsBefore);
+    }
+
+    private void assertWithinBudget() {
+        assertTrue(measured.get(CostBudget.MAIN_THREAD_MESSAGES) > 0);
+        assertTrue(monitor.getCount(CostBudget.CLOCK_UPDATES) > 0);
+        assertEquals("Over budget: " + measured.describe(HOUR_MS), 0, measured.overruns(HOUR_MS));
+        assertEquals("Over budget: " + monitor.getReport(), 0, monitor.getOverruns());
+    }
+
+    private int countBroadcasts(String action) {
+        int count = 0;
+        for (Intent intent : shadowOf(application).getBroadcastIntents()) {
+            if (action.equals(intent.getAction())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Bytes allocated so far by this thread, which runs every main thread message here
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @SuppressWarnings("deprecation")
+    private Notification notification(String category, String title, String text) {
+        return new Notification.Builder(application)
+                .setSmallIcon(android.R.drawable.ic_media_play)
+                .setCategory(category)
+                .setContentTitle(title)
+                .setContentText(text)
+                .build();
+    }
+
+    @SuppressWarnings("deprecation")
+    private static StatusBarNotification statusBarNotification(String packageName, int id, Notification notification) {
+        return new StatusBarNotification(packageName, packageName, id, null, Process.myUid(), Process.myPid(), 0,
+                notification, Process.myUserHandle(), System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,71 @@
+import groovy.json.JsonSlurper
+
+plugins {
+    id("java")
+    id("me.champeau.jmh")
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+dependencies {
+    jmh(project(":core"))
+}
+
+val currentResults = layout.buildDirectory.file("results/jmh/results.json")
+val baselineResults = layout.projectDirectory.file("baseline/results.json")
+
+jmh {
+    jmhVersion.set("1.37")
+    fork.set(1)
+    warmupIterations.set(3)
+    warmup.set("1s")
+    iterations.set(5)
+    timeOnIteration.set("1s")
+    benchmarkMode.add("avgt")
+    timeUnit.set("ns")
+    // Allocation rate per op sits next to the timings; the hot paths should stay near zero
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(currentResults)
+}
+
+// Prints each benchmark's score and gc.alloc.rate.norm next to the committed baseline.
+// Run ./gradlew :benchmarks:jmh first; copy build/results/jmh/results.json over
+// baseline/results.json to accept a new baseline.
+tasks.register("jmhCompare") {
+    group = "benchmark"
+    description = "Compares the last JMH run against baseline/results.json."
+    val current = currentResults.get().asFile
+    val baseline = baselineResults.asFile
+    doLast {
+        fun load(file: File): Map<String, Pair<Double, Double?>> {
+            @Suppress("UNCHECKED_CAST")
+            val runs = JsonSlurper().parse(file) as List<Map<String, Any?>>
+            return runs.associate { run ->
+                val primary = run["primaryMetric"] as Map<*, *>
+                val secondary = run["secondaryMetrics"] as Map<*, *>? ?: emptyMap<String, Any?>()
+                val alloc = secondary["gc.alloc.rate.norm"] as Map<*, *>?
+                (run["benchmark"] as String).substringAfterLast("benchmarks.") to
+                        Pair((primary["score"] as Number).toDouble(), (alloc?.get("score") as Number?)?.toDouble())
+            }
+        }
+        if (!current.isFile) {
+            throw GradleException("No results at $current; run :benchmarks:jmh first")
+        }
+        val now = load(current)
+        val before = if (baseline.isFile) load(baseline) else emptyMap()
+        println(String.format("%-48s %12s %12s %8s %10s %10s",
+                "benchmark", "base ns/op", "ns/op", "delta", "base B/op", "B/op"))
+        for ((name, score) in now.toSortedMap()) {
+            val base = before[name]
+            val delta = if (base == null) "new" else String.format("%+.1f%%", (score.first / base.first - 1) * 100)
+            println(String.format("%-48s %12s %12.1f %8s %10s %10s", name,
+                    base?.let { String.format("%.1f", it.first) } ?: "-", score.first, delta,
+                    base?.second?.let { String.format("%.1f", it) } ?: "-",
+                    score.second?.let { String.format("%.1f", it) } ?: "-"))
+        }
+    }
+}
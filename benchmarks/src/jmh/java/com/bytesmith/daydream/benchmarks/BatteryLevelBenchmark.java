@@ -0,0 +1,20 @@
+package com.bytesmith.daydream.benchmarks;
+
+import com.bytesmith.daydream.core.BatteryLevels;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/** Battery broadcast handling: percent from level/scale and the icon bucket. */
+@State(Scope.Thread)
+public class BatteryLevelBenchmark {
+
+    private int level = 0;
+
+    @Benchmark
+    public int bucket() {
+        level = (level + 7) % 101;
+        return BatteryLevels.bucket(BatteryLevels.percent(level, 100));
+    }
+}
@@ -0,0 +1,273 @@
+package com.bytesmith.daydream.benchmarks;
+
+import com.bytesmith.daydream.core.ClockFaceGeometry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * The graphical clock faces' cached static layer against redrawing the whole face every minute.
+ * <p>
+ * {@code layout*} is the per-update geometry from {@link ClockFaceGeometry}. {@code raster*}
+ * paints the same shapes with Java2D into an ARGB image as a stand-in for the Android Canvas,
+ * which can't run on the JVM: a full redraw paints the dial, ticks, numerals (as dots, no fonts
+ * here) and hands, or all four digits; the cached path blits the prebuilt layer and paints the
+ * hands, or clears and repaints the one digit that changed and blits.
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ClockFaceBenchmark {
+
+    // A dial and a digit height as a tablet dream shows them
+    private static final int DIAL_SIZE = 600;
+    private static final int DIGIT_HEIGHT = 300;
+    private static final float STROKE = DIAL_SIZE / 150f;
+
+    private final float[] points = new float[ClockFaceGeometry.TICKS * 4];
+    private final float[] hands = new float[8];
+    private final float[] rects = new float[ClockFaceGeometry.SEGMENTS * 4];
+    private final int[] digits = new int[ClockFaceGeometry.DIGITS];
+    private final int[] newDigits = new int[ClockFaceGeometry.DIGITS];
+    private final Line2D.Float line = new Line2D.Float();
+    private final Rectangle2D.Float rect = new Rectangle2D.Float();
+    private final Ellipse2D.Float ellipse = new Ellipse2D.Float();
+    private final Color lit = Color.WHITE;
+    private final Color unlit = new Color(255, 255, 255, 0x1A);
+    private final BasicStroke thinStroke = new BasicStroke(STROKE);
+    private final BasicStroke thickStroke = new BasicStroke(STROKE * 2);
+
+    private int minuteOfDay = 0;
+    private BufferedImage dialTarget;
+    private BufferedImage dialLayer;
+    private Graphics2D dial;
+    private BufferedImage segmentTarget;
+    private BufferedImage segmentLayer;
+    private Graphics2D segment;
+    private Graphics2D segmentLayerGraphics;
+
+    @Setup
+    public void setUp() {
+        dialTarget = image(DIAL_SIZE, DIAL_SIZE);
+        dialLayer = image(DIAL_SIZE, DIAL_SIZE);
+        dial = graphics(dialTarget);
+        Graphics2D layer = graphics(dialLayer);
+        drawDialStatic(layer);
+        layer.dispose();
+
+        int width = (int) Math.ceil(ClockFaceGeometry.displayWidth(DIGIT_HEIGHT));
+        segmentTarget = image(width, DIGIT_HEIGHT);
+        segmentLayer = image(width, DIGIT_HEIGHT);
+        segment = graphics(segmentTarget);
+        segmentLayerGraphics = graphics(segmentLayer);
+        ClockFaceGeometry.digits(0, 0, true, digits);
+        drawSegmentsStatic(segmentLayerGraphics, digits);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dial.dispose();
+        segment.dispose();
+        segmentLayerGraphics.dispose();
+    }
+
+    private static BufferedImage image(int width, int height) {
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+
+    private static Graphics2D graphics(BufferedImage image) {
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        return g;
+    }
+
+    private void nextMinute() {
+        minuteOfDay = (minuteOfDay + 1) % (24 * 60);
+    }
+
+    @Benchmark
+    public float layoutAnalogFull() {
+        nextMinute();
+        float c = DIAL_SIZE / 2f;
+        ClockFaceGeometry.ticks(c, c, c - STROKE, points);
+        ClockFaceGeometry.numeralCenters(c, c, c - STROKE, points);
+        layoutHands(c);
+        return points[0] + hands[2] + hands[6];
+    }
+
+    @Benchmark
+    public float layoutAnalogCached() {
+        nextMinute();
+        layoutHands(DIAL_SIZE / 2f);
+        return hands[2] + hands[6];
+    }
+
+    @Benchmark
+    public float layoutSegmentFull() {
+        nextMinute();
+        ClockFaceGeometry.digits(minuteOfDay / 60, minuteOfDay % 60, true, newDigits);
+        float sum = 0;
+        for (int i = 0; i < ClockFaceGeometry.DIGITS; i++) {
+            sum += ClockFaceGeometry.segmentsOf(newDigits[i]);
+            ClockFaceGeometry.segmentRects(i, DIGIT_HEIGHT, rects);
+            sum += rects[0];
+        }
+        ClockFaceGeometry.colonRects(DIGIT_HEIGHT, rects);
+        return sum + rects[0];
+    }
+
+    @Benchmark
+    public float layoutSegmentCached() {
+        nextMinute();
+        ClockFaceGeometry.digits(minuteOfDay / 60, minuteOfDay % 60, true, newDigits);
+        float sum = 0;
+        for (int i = 0; i < ClockFaceGeometry.DIGITS; i++) {
+            if (newDigits[i] == digits[i]) continue;
+            sum += ClockFaceGeometry.segmentsOf(newDigits[i]);
+            ClockFaceGeometry.segmentRects(i, DIGIT_HEIGHT, rects);
+            sum += rects[0];
+            digits[i] = newDigits[i];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public BufferedImage rasterAnalogFull() {
+        nextMinute();
+        clear(dial, DIAL_SIZE, DIAL_SIZE);
+        drawDialStatic(dial);
+        drawHands(dial);
+        return dialTarget;
+    }
+
+    @Benchmark
+    public BufferedImage rasterAnalogCached() {
+        nextMinute();
+        clear(dial, DIAL_SIZE, DIAL_SIZE);
+        dial.drawImage(dialLayer, 0, 0, null);
+        drawHands(dial);
+        return dialTarget;
+    }
+
+    @Benchmark
+    public BufferedImage rasterSegmentFull() {
+        nextMinute();
+        ClockFaceGeometry.digits(minuteOfDay / 60, minuteOfDay % 60, true, newDigits);
+        clear(segment, segmentTarget.getWidth(), DIGIT_HEIGHT);
+        drawSegmentsStatic(segment, newDigits);
+        return segmentTarget;
+    }
+
+    @Benchmark
+    public BufferedImage rasterSegmentCached() {
+        nextMinute();
+        ClockFaceGeometry.digits(minuteOfDay / 60, minuteOfDay % 60, true, newDigits);
+        for (int i = 0; i < ClockFaceGeometry.DIGITS; i++) {
+            if (newDigits[i] == digits[i]) continue;
+            float left = ClockFaceGeometry.digitLeft(i, DIGIT_HEIGHT);
+            rect.setRect(left, 0, ClockFaceGeometry.DIGIT_WIDTH * DIGIT_HEIGHT, DIGIT_HEIGHT);
+            Composite composite = segmentLayerGraphics.getComposite();
+            segmentLayerGraphics.setComposite(AlphaComposite.Clear);
+            segmentLayerGraphics.fill(rect);
+            segmentLayerGraphics.setComposite(composite);
+            drawDigit(segmentLayerGraphics, i, newDigits[i]);
+            digits[i] = newDigits[i];
+        }
+        clear(segment, segmentTarget.getWidth(), DIGIT_HEIGHT);
+        segment.drawImage(segmentLayer, 0, 0, null);
+        return segmentTarget;
+    }
+
+    private void layoutHands(float c) {
+        int hour = minuteOfDay / 60;
+        int minute = minuteOfDay % 60;
+        ClockFaceGeometry.hand(c, c, ClockFaceGeometry.hourHandDegrees(hour, minute),
+                c * ClockFaceGeometry.HOUR_HAND_LENGTH, hands, 0);
+        ClockFaceGeometry.hand(c, c, ClockFaceGeometry.minuteHandDegrees(minute),
+                c * ClockFaceGeometry.MINUTE_HAND_LENGTH, hands, 4);
+    }
+
+    private static void clear(Graphics2D g, int width, int height) {
+        Composite composite = g.getComposite();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, width, height);
+        g.setComposite(composite);
+    }
+
+    private void drawDialStatic(Graphics2D g) {
+        float c = DIAL_SIZE / 2f;
+        float radius = c - STROKE;
+        g.setColor(lit);
+        g.setStroke(thinStroke);
+        ellipse.setFrame(c - radius, c - radius, radius * 2, radius * 2);
+        g.draw(ellipse);
+
+        ClockFaceGeometry.ticks(c, c, radius, points);
+        for (int i = 0; i < ClockFaceGeometry.TICKS; i++) {
+            g.setStroke(ClockFaceGeometry.isHourTick(i) ? thickStroke : thinStroke);
+            line.setLine(points[i * 4], points[i * 4 + 1], points[i * 4 + 2], points[i * 4 + 3]);
+            g.draw(line);
+        }
+
+        float dot = radius * 0.08f;
+        ClockFaceGeometry.numeralCenters(c, c, radius, points);
+        for (int i = 0; i < ClockFaceGeometry.NUMERALS; i++) {
+            ellipse.setFrame(points[i * 2] - dot / 2, points[i * 2 + 1] - dot / 2, dot, dot);
+            g.fill(ellipse);
+        }
+    }
+
+    private void drawHands(Graphics2D g) {
+        float c = DIAL_SIZE / 2f;
+        layoutHands(c);
+        g.setColor(lit);
+        g.setStroke(thickStroke);
+        line.setLine(hands[0], hands[1], hands[2], hands[3]);
+        g.draw(line);
+        g.setStroke(thinStroke);
+        line.setLine(hands[4], hands[5], hands[6], hands[7]);
+        g.draw(line);
+        ellipse.setFrame(c - STROKE * 2, c - STROKE * 2, STROKE * 4, STROKE * 4);
+        g.fill(ellipse);
+    }
+
+    private void drawSegmentsStatic(Graphics2D g, int[] cells) {
+        for (int i = 0; i < ClockFaceGeometry.DIGITS; i++) {
+            drawDigit(g, i, cells[i]);
+        }
+        g.setColor(lit);
+        ClockFaceGeometry.colonRects(DIGIT_HEIGHT, rects);
+        for (int i = 0; i < 2; i++) {
+            fillRect(g, i);
+        }
+    }
+
+    private void drawDigit(Graphics2D g, int index, int digit) {
+        int segments = ClockFaceGeometry.segmentsOf(digit);
+        ClockFaceGeometry.segmentRects(index, DIGIT_HEIGHT, rects);
+        for (int bit = 0; bit < ClockFaceGeometry.SEGMENTS; bit++) {
+            g.setColor((segments & (1 << bit)) != 0 ? lit : unlit);
+            fillRect(g, bit);
+        }
+    }
+
+    private void fillRect(Graphics2D g, int index) {
+        rect.setRect(rects[index * 4], rects[index * 4 + 1],
+                rects[index * 4 + 2] - rects[index * 4], rects[index * 4 + 3] - rects[index * 4 + 1]);
+        g.fill(rect);
+    }
+}
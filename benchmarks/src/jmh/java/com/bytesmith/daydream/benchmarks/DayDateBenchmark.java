@@ -0,0 +1,45 @@
+package com.bytesmith.daydream.benchmarks;
+
+import com.bytesmith.daydream.core.DayDateProvider;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Locale;
+import java.util.TimeZone;
+
+/** Date line formatting: same-day lookups (the common case) and a reformat on every call. */
+@State(Scope.Thread)
+public class DayDateBenchmark {
+
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private static final long START_MS = 1_700_000_000_000L;
+
+    private DayDateProvider provider;
+    private long now;
+    private long day;
+
+    @Setup
+    public void setUp() {
+        provider = new DayDateProvider(Locale.US, TimeZone.getTimeZone("America/New_York"));
+        now = START_MS;
+        day = START_MS;
+    }
+
+    @Benchmark
+    public String sameDay() {
+        now += 1000;
+        if (now - START_MS > DAY_MS / 2) {
+            now = START_MS;
+        }
+        return provider.getDayDate(now);
+    }
+
+    @Benchmark
+    public String newDay() {
+        day += DAY_MS;
+        return provider.getDayDate(day);
+    }
+}
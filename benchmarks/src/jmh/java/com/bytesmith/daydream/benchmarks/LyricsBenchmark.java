@@ -0,0 +1,82 @@
+package com.bytesmith.daydream.benchmarks;
+
+import com.bytesmith.daydream.core.LrcParser;
+import com.bytesmith.daydream.core.Lyrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Locale;
+
+/**
+ * Synced lyrics: parsing a typical .lrc file once per track, and the line lookup the lyrics
+ * widget does on every playback update.
+ */
+@State(Scope.Thread)
+public class LyricsBenchmark {
+
+    // A four-minute song, a line every 3.5 seconds
+    private static final int LINES = 70;
+    private static final long LINE_MS = 3500;
+    private static final long SONG_MS = LINES * LINE_MS;
+
+    private String lrc;
+    private String repeatedTagsLrc;
+    private Lyrics lyrics;
+    private long positionMs = 0;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[ti:Benchmark Song]\n[ar:Benchmark Artist]\n[al:Benchmark Album]\n[offset:+120]\n");
+        for (int i = 0; i < LINES; i++) {
+            appendTag(sb, i * LINE_MS);
+            sb.append("Line number ").append(i).append(" of the lyrics, about this long\n");
+        }
+        lrc = sb.toString();
+
+        // Choruses written once with every time they're sung
+        sb.setLength(0);
+        for (int i = 0; i < LINES / 4; i++) {
+            for (int repeat = 0; repeat < 4; repeat++) {
+                appendTag(sb, (repeat * LINES / 4 + i) * LINE_MS);
+            }
+            sb.append("Chorus line ").append(i).append('\n');
+        }
+        repeatedTagsLrc = sb.toString();
+
+        lyrics = LrcParser.parse(lrc);
+    }
+
+    private static void appendTag(StringBuilder sb, long timeMs) {
+        sb.append(String.format(Locale.US, "[%02d:%02d.%02d]", timeMs / 60000, timeMs / 1000 % 60, timeMs % 1000 / 10));
+    }
+
+    @Benchmark
+    public Lyrics parse() {
+        return LrcParser.parse(lrc);
+    }
+
+    @Benchmark
+    public Lyrics parseRepeatedTags() {
+        return LrcParser.parse(repeatedTagsLrc);
+    }
+
+    @Benchmark
+    public int lineAtPlayback() {
+        positionMs += 250;
+        if (positionMs >= SONG_MS) {
+            positionMs = 0;
+        }
+        return lyrics.indexAt(positionMs);
+    }
+
+    @Benchmark
+    public int lineAtSeek() {
+        // Jumps around the song, as after a seek
+        positionMs = (positionMs + 97_331) % SONG_MS;
+        return lyrics.indexAt(positionMs);
+    }
+}
@@ -0,0 +1,68 @@
+package com.bytesmith.daydream.benchmarks;
+
+import com.bytesmith.daydream.core.MediaHeuristics;
+import com.bytesmith.daydream.core.NotificationFilterRules;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-notification work in the listener: the media verdict on a classifier cache miss, and the
+ * package registry update (filter rules check, then set insert or removal as the listener does).
+ */
+@State(Scope.Thread)
+public class MediaNotificationBenchmark {
+
+    private static final CharSequence[] PLAYER_ACTIONS = {"Previous", "Pause", "Next"};
+    private static final CharSequence[] MESSAGE_ACTIONS = {"Reply", "Mark as read"};
+    private static final String[] PACKAGES = {
+            "com.spotify.music", "com.google.android.gm", "com.whatsapp", "org.telegram.messenger",
+            "com.android.systemui", "com.google.android.youtube", "com.slack", "com.example.app"
+    };
+
+    private NotificationFilterRules rules;
+    private Set<String> registry;
+    private int index = 0;
+
+    @Setup
+    public void setUp() {
+        rules = NotificationFilterRules.compile(
+                Collections.singletonList("com.android.systemui"),
+                Arrays.asList("silent", "downloads"),
+                Collections.singletonList("sys"),
+                0x2 | 0x40,
+                NotificationFilterRules.IMPORTANCE_ANY);
+        registry = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    }
+
+    @Benchmark
+    public int classifyPlayer() {
+        return MediaHeuristics.inspect(true, true, MediaHeuristics.PLAYBACK_STATE_PLAYING, PLAYER_ACTIONS);
+    }
+
+    @Benchmark
+    public int classifyMessage() {
+        return MediaHeuristics.inspect(false, false, -1, MESSAGE_ACTIONS);
+    }
+
+    @Benchmark
+    public int registryUpdate() {
+        int i = index++;
+        String packageName = PACKAGES[i & 7];
+        if ((i & 8) == 0) {
+            if (!rules.matches(packageName, "default", "msg", 0, 3)) {
+                registry.add(packageName);
+            }
+        } else {
+            registry.remove(packageName);
+        }
+        return registry.size();
+    }
+}
@@ -0,0 +1,36 @@
+package com.bytesmith.daydream.benchmarks;
+
+import com.bytesmith.daydream.core.SongTitles;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/** Song title normalization and capitalization, run for every media notification and metadata change. */
+@State(Scope.Thread)
+public class SongTitleBenchmark {
+
+    private static final String[][] TRACKS = {
+            {"Bohemian Rhapsody (Remastered 2011) - Queen", "Queen"},
+            {"Blinding Lights", "The Weeknd"},
+            {"01. Intro (feat. Someone)", "Some Artist Name"},
+            {"Clair de Lune, L. 32", null},
+    };
+
+    private final StringBuilder builder = new StringBuilder(128);
+    private int index = 0;
+
+    @Benchmark
+    public String build() {
+        String[] track = TRACKS[index++ & 3];
+        return SongTitles.build(track[0], track[1]);
+    }
+
+    @Benchmark
+    public int capitalize() {
+        String title = TRACKS[index++ & 3][0];
+        builder.setLength(0);
+        SongTitles.appendCapitalized(title, 0, title.length(), builder);
+        return builder.length();
+    }
+}
@@ -0,0 +1,44 @@
+package com.bytesmith.daydream.benchmarks;
+
+import com.bytesmith.daydream.core.EnglishTimePhraseGrammar;
+import com.bytesmith.daydream.core.TimePhraseGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Locale;
+
+/**
+ * Time phrase resolution: the per-minute cost the time widget pays (a cache hit after the first
+ * day), and the grammar itself on a miss.
+ */
+@State(Scope.Thread)
+public class TimePhraseBenchmark {
+
+    private TimePhraseGenerator generator;
+    private EnglishTimePhraseGrammar grammar;
+    private int minuteOfDay = 0;
+
+    @Setup
+    public void setUp() {
+        generator = TimePhraseGenerator.forLocale(Locale.ENGLISH);
+        grammar = new EnglishTimePhraseGrammar();
+        for (int m = 0; m < TimePhraseGenerator.MINUTES_PER_DAY; m++) {
+            generator.phrase(m / 60, m % 60);
+        }
+    }
+
+    @Benchmark
+    public String cachedPhrase() {
+        minuteOfDay = (minuteOfDay + 1) % TimePhraseGenerator.MINUTES_PER_DAY;
+        return generator.phrase(minuteOfDay / 60, minuteOfDay % 60);
+    }
+
+    @Benchmark
+    public String grammarPhrase() {
+        minuteOfDay = (minuteOfDay + 1) % TimePhraseGenerator.MINUTES_PER_DAY;
+        return grammar.phrase(minuteOfDay / 60, minuteOfDay % 60);
+    }
+}
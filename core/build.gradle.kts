@@ -0,0 +1,38 @@
+plugins {
+    id("java-library")
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+dependencies {
+    testImplementation("junit:junit:4.13.2")
+}
+
+// Replays a listener trace pulled from a device (files/traces/*.ddtrace):
+// ./gradlew :core:replayTrace -Ptrace=listener.ddtrace [-Prepeat=100] [-Pstates]
+tasks.register<JavaExec>("replayTrace") {
+    group = "verification"
+    description = "Replays a recorded notification listener trace and reports throughput and latency."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.bytesmith.daydream.core.TraceReplay")
+    val replayArgs = mutableListOf<String>()
+    (findProperty("trace") as String?)?.let { replayArgs.add(file(it).absolutePath) }
+    (findProperty("repeat") as String?)?.let { replayArgs.add(it) }
+    if (hasProperty("states")) {
+        replayArgs.add("--states")
+    }
+    args(replayArgs)
+}
+
+// Decodes a flight record pulled from a device (files/flight/*.ddfr):
+// ./gradlew :core:decodeFlightRecord -Precord=flight.ddfr
+tasks.register<JavaExec>("decodeFlightRecord") {
+    group = "help"
+    description = "Prints the events in a flight record written by the dream."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.bytesmith.daydream.core.FlightRecordReader")
+    (findProperty("record") as String?)?.let { args(file(it).absolutePath) }
+}
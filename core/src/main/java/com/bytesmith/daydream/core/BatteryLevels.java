@@ -0,0 +1,31 @@
+package com.bytesmith.daydream.core;
+
+/**
+ * Battery percentage and the icon bucket it falls in. Icons exist for 100, 95, ... 5 percent,
+ * plus one below 5 percent; the app maps bucket indices to its drawables.
+ */
+public final class BatteryLevels {
+
+    private static final int[] THRESHOLDS = {100, 95, 90, 85, 80, 75, 70, 65, 60, 55, 50, 45, 40, 35, 30, 25, 20, 15, 10, 5};
+
+    /** Number of buckets; the last one is everything below the lowest threshold. */
+    public static final int BUCKET_COUNT = THRESHOLDS.length + 1;
+
+    private BatteryLevels() {
+    }
+
+    /** Level in percent from a battery broadcast's level and scale, or 0 if either is unknown. */
+    public static int percent(int level, int scale) {
+        return level == -1 || scale == -1 ? 0 : (int) ((level / (float) scale) * 100);
+    }
+
+    /** Index of the icon bucket for {@code percent}: 0 for 100%, {@code BUCKET_COUNT - 1} below 5%. */
+    public static int bucket(int percent) {
+        for (int i = 0; i < THRESHOLDS.length; i++) {
+            if (percent >= THRESHOLDS[i]) {
+                return i;
+            }
+        }
+        return THRESHOLDS.length;
+    }
+}
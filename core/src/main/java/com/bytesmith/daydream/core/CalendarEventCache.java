@@ -0,0 +1,77 @@
+package com.bytesmith.daydream.core;
+
+import java.util.Arrays;
+
+/**
+ * Windowed cache of upcoming calendar events.
+ * <p>
+ * One query covers {@code [now, now + window)}. The result is kept as an {@link UpcomingEvents}
+ * snapshot and only re-queried when {@link #invalidate()} is called (the provider reported a
+ * change) or when half the window has passed, so there is always at least half a window of
+ * lookahead. Between refreshes, finding the next event is a binary search. {@link #refresh} may run
+ * on a background thread; the snapshot is swapped atomically.
+ */
+public class CalendarEventCache {
+
+    public static final long DEFAULT_WINDOW_MS = 24 * 60 * 60 * 1000L;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final CalendarSource source;
+    private final long windowMs;
+    private volatile UpcomingEvents events = UpcomingEvents.EMPTY;
+    private volatile boolean stale = true;
+    private long refreshCount = 0;
+
+    public CalendarEventCache(CalendarSource source, long windowMs) {
+        this.source = source;
+        this.windowMs = windowMs;
+    }
+
+    /** Marks the cached window as out of date, e.g. from a {@code ContentObserver}. */
+    public void invalidate() {
+        stale = true;
+    }
+
+    public boolean needsRefresh(long nowMillis) {
+        UpcomingEvents current = events;
+        return stale
+                || nowMillis < current.getWindowStart()
+                || nowMillis >= current.getWindowStart() + windowMs / 2;
+    }
+
+    /** Runs the windowed query and swaps in the new snapshot. */
+    public synchronized void refresh(long nowMillis) {
+        stale = false; // Changes reported while querying mark it stale again
+        long windowEnd = nowMillis + windowMs;
+        EventCollector collector = new EventCollector();
+        source.query(nowMillis, windowEnd, collector);
+        refreshCount++;
+        events = UpcomingEvents.of(refreshCount, nowMillis, windowEnd,
+                collector.begins, collector.titles, collector.count);
+    }
+
+    public UpcomingEvents getEvents() {
+        return events;
+    }
+
+    public synchronized long getRefreshCount() {
+        return refreshCount;
+    }
+
+    private static final class EventCollector implements CalendarSource.Collector {
+        long[] begins = new long[INITIAL_CAPACITY];
+        String[] titles = new String[INITIAL_CAPACITY];
+        int count = 0;
+
+        @Override
+        public void add(long beginMillis, long endMillis, String title) {
+            if (count == begins.length) {
+                begins = Arrays.copyOf(begins, count * 2);
+                titles = Arrays.copyOf(titles, count * 2);
+            }
+            begins[count] = beginMillis;
+            titles[count] = title;
+            count++;
+        }
+    }
+}
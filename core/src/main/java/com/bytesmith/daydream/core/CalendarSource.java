@@ -0,0 +1,16 @@
+package com.bytesmith.daydream.core;
+
+/**
+ * Supplies calendar event instances for a time window. The Android implementation queries
+ * {@code CalendarContract.Instances}; anything else (e.g. a fixed list) works for running
+ * {@link CalendarEventCache} on the JVM.
+ */
+public interface CalendarSource {
+
+    interface Collector {
+        void add(long beginMillis, long endMillis, String title);
+    }
+
+    /** Reports every timed (not all-day) instance that starts in {@code [beginMillis, endMillis)}. */
+    void query(long beginMillis, long endMillis, Collector out);
+}
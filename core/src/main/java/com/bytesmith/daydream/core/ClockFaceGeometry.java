@@ -0,0 +1,150 @@
+package com.bytesmith.daydream.core;
+
+/**
+ * Layout of the graphical clock faces, independent of any canvas: where the analog dial's ticks,
+ * numerals and hands go, and the digit cells and segments of the seven-segment display.
+ * <p>
+ * Results are written into caller-owned arrays so a face can lay out its static parts once and
+ * its moving parts on every draw without allocating.
+ */
+public final class ClockFaceGeometry {
+
+    // Analog dial, as fractions of the radius
+    public static final int TICKS = 60;
+    public static final int NUMERALS = 12;
+    private static final float HOUR_TICK_INNER = 0.88f;
+    private static final float MINUTE_TICK_INNER = 0.93f;
+    private static final float TICK_OUTER = 0.97f;
+    private static final float NUMERAL_RADIUS = 0.74f;
+    public static final float HOUR_HAND_LENGTH = 0.5f;
+    public static final float MINUTE_HAND_LENGTH = 0.78f;
+
+    // Seven-segment display, as fractions of the digit height
+    public static final int DIGITS = 4;
+    public static final int SEGMENTS = 7;
+    public static final int BLANK = -1;
+    private static final int[] DIGIT_SEGMENTS = {0x3F, 0x06, 0x5B, 0x4F, 0x66, 0x6D, 0x7D, 0x07, 0x7F, 0x6F};
+    public static final float DIGIT_WIDTH = 0.55f;
+    private static final float DIGIT_GAP = 0.12f;
+    private static final float COLON_WIDTH = 0.22f;
+    private static final float THICKNESS = 0.11f;
+
+    private ClockFaceGeometry() {
+    }
+
+    /** Whether tick {@code index} (0 at twelve o'clock, clockwise) marks an hour. */
+    public static boolean isHourTick(int index) {
+        return index % 5 == 0;
+    }
+
+    /** Fills {@code out} with {@code x0, y0, x1, y1} for each of the {@link #TICKS} ticks. */
+    public static void ticks(float cx, float cy, float radius, float[] out) {
+        for (int i = 0; i < TICKS; i++) {
+            float inner = radius * (isHourTick(i) ? HOUR_TICK_INNER : MINUTE_TICK_INNER);
+            float outer = radius * TICK_OUTER;
+            double angle = Math.toRadians(i * 6);
+            float sin = (float) Math.sin(angle);
+            float cos = (float) Math.cos(angle);
+            out[i * 4] = cx + inner * sin;
+            out[i * 4 + 1] = cy - inner * cos;
+            out[i * 4 + 2] = cx + outer * sin;
+            out[i * 4 + 3] = cy - outer * cos;
+        }
+    }
+
+    /** Fills {@code out} with the centre {@code x, y} of the numerals 1 to 12. */
+    public static void numeralCenters(float cx, float cy, float radius, float[] out) {
+        float numeralRadius = radius * NUMERAL_RADIUS;
+        for (int hour = 1; hour <= NUMERALS; hour++) {
+            double angle = Math.toRadians(hour * 30);
+            out[(hour - 1) * 2] = cx + numeralRadius * (float) Math.sin(angle);
+            out[(hour - 1) * 2 + 1] = cy - numeralRadius * (float) Math.cos(angle);
+        }
+    }
+
+    public static float hourHandDegrees(int hourOfDay, int minute) {
+        return (hourOfDay % 12) * 30f + minute * 0.5f;
+    }
+
+    public static float minuteHandDegrees(int minute) {
+        return minute * 6f;
+    }
+
+    /** Writes the hand's {@code x0, y0, x1, y1}, from the centre, at {@code out[offset]}. */
+    public static void hand(float cx, float cy, float degrees, float length, float[] out, int offset) {
+        double angle = Math.toRadians(degrees);
+        out[offset] = cx;
+        out[offset + 1] = cy;
+        out[offset + 2] = cx + length * (float) Math.sin(angle);
+        out[offset + 3] = cy - length * (float) Math.cos(angle);
+    }
+
+    /**
+     * Fills {@code out} with the four digits of "HH:MM". In 12-hour format a leading zero is
+     * {@link #BLANK}; before the time is known all four are.
+     */
+    public static void digits(int hourOfDay, int minute, boolean use24Hour, int[] out) {
+        if (hourOfDay < 0) {
+            out[0] = out[1] = out[2] = out[3] = BLANK;
+            return;
+        }
+        int hour = hourOfDay;
+        if (!use24Hour) {
+            hour = hourOfDay % 12 == 0 ? 12 : hourOfDay % 12;
+        }
+        out[0] = hour >= 10 || use24Hour ? hour / 10 : BLANK;
+        out[1] = hour % 10;
+        out[2] = minute / 10;
+        out[3] = minute % 10;
+    }
+
+    /** Lit segment bits (a-g as bits 0-6) of a digit; none for {@link #BLANK}. */
+    public static int segmentsOf(int digit) {
+        return digit == BLANK ? 0 : DIGIT_SEGMENTS[digit];
+    }
+
+    public static float digitLeft(int index, float unit) {
+        float left = index * (DIGIT_WIDTH + DIGIT_GAP) * unit;
+        if (index >= 2) {
+            left += (COLON_WIDTH + DIGIT_GAP) * unit;
+        }
+        return left;
+    }
+
+    /** Width of the whole "HH:MM" display for digits {@code unit} high. */
+    public static float displayWidth(float unit) {
+        return digitLeft(DIGITS - 1, unit) + DIGIT_WIDTH * unit;
+    }
+
+    /** Fills {@code out} with {@code left, top, right, bottom} of segments a-g of a digit cell. */
+    public static void segmentRects(int index, float unit, float[] out) {
+        float x0 = digitLeft(index, unit);
+        float w = DIGIT_WIDTH * unit;
+        float t = THICKNESS * unit;
+        float inset = t * 0.15f;
+        float half = unit / 2f;
+        rect(out, 0, x0 + t + inset, 0, x0 + w - t - inset, t);                      // a
+        rect(out, 1, x0 + w - t, t + inset, x0 + w, half - inset);                    // b
+        rect(out, 2, x0 + w - t, half + inset, x0 + w, unit - t - inset);             // c
+        rect(out, 3, x0 + t + inset, unit - t, x0 + w - t - inset, unit);             // d
+        rect(out, 4, x0, half + inset, x0 + t, unit - t - inset);                     // e
+        rect(out, 5, x0, t + inset, x0 + t, half - inset);                            // f
+        rect(out, 6, x0 + t + inset, half - t / 2, x0 + w - t - inset, half + t / 2); // g
+    }
+
+    /** Fills {@code out} with the two colon dots' {@code left, top, right, bottom}. */
+    public static void colonRects(float unit, float[] out) {
+        float colonLeft = digitLeft(2, unit) - DIGIT_GAP * unit - COLON_WIDTH * unit;
+        float dot = THICKNESS * unit;
+        float cx = colonLeft + COLON_WIDTH * unit / 2f;
+        rect(out, 0, cx - dot / 2, unit * 0.3f - dot / 2, cx + dot / 2, unit * 0.3f + dot / 2);
+        rect(out, 1, cx - dot / 2, unit * 0.7f - dot / 2, cx + dot / 2, unit * 0.7f + dot / 2);
+    }
+
+    private static void rect(float[] out, int index, float left, float top, float right, float bottom) {
+        out[index * 4] = left;
+        out[index * 4 + 1] = top;
+        out[index * 4 + 2] = right;
+        out[index * 4 + 3] = bottom;
+    }
+}
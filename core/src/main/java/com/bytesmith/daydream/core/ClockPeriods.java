@@ -0,0 +1,44 @@
+package com.bytesmith.daydream.core;
+
+import java.util.Calendar;
+
+/**
+ * Local minute, hour and day periods: a key that changes when the period rolls over, and the
+ * instant of the next boundary. Periods are identified by the {@link Calendar} field that ends
+ * them ({@code MINUTE}, {@code HOUR_OF_DAY} or {@code DAY_OF_MONTH}). Uses the caller's calendar
+ * (and so its zone) as scratch space.
+ */
+public final class ClockPeriods {
+
+    private ClockPeriods() {
+    }
+
+    /** Key of the period containing {@code nowMillis}; equal keys mean the same period. */
+    public static long periodKey(Calendar calendar, long nowMillis, int field) {
+        calendar.setTimeInMillis(nowMillis);
+        long dayKey = calendar.get(Calendar.YEAR) * 400L + calendar.get(Calendar.DAY_OF_YEAR);
+        if (field == Calendar.DAY_OF_MONTH) return dayKey;
+        long hourKey = dayKey * 24 + calendar.get(Calendar.HOUR_OF_DAY);
+        if (field == Calendar.HOUR_OF_DAY) return hourKey;
+        return hourKey * 60 + calendar.get(Calendar.MINUTE);
+    }
+
+    /** Start of the period after the one containing {@code nowMillis}. */
+    public static long nextBoundary(Calendar calendar, long nowMillis, int field) {
+        calendar.setTimeInMillis(nowMillis);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        if (field == Calendar.MINUTE) {
+            calendar.add(Calendar.MINUTE, 1);
+        } else {
+            calendar.set(Calendar.MINUTE, 0);
+            if (field == Calendar.HOUR_OF_DAY) {
+                calendar.add(Calendar.HOUR_OF_DAY, 1);
+            } else {
+                calendar.set(Calendar.HOUR_OF_DAY, 0);
+                calendar.add(Calendar.DAY_OF_MONTH, 1);
+            }
+        }
+        return calendar.getTimeInMillis();
+    }
+}
@@ -0,0 +1,111 @@
+package com.bytesmith.daydream.core;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hourly budgets for the dream's recurring costs, and the counters checked against them.
+ * <p>
+ * Each counter's allowance is its per-hour limit times the elapsed hours rounded up, at least
+ * one, so the current hour is always allowed in full, plus one for the work done once at dream
+ * start (a limit of zero stays zero). A limit of {@link #UNLIMITED} only counts. Allocations are
+ * counted in bytes. Counters may be bumped from any thread.
+ */
+public final class CostBudget {
+
+    public static final int MAIN_THREAD_MESSAGES = 0;
+    public static final int CLOCK_UPDATES = 1;
+    public static final int VIEW_UPDATES = 2;
+    public static final int LAYOUT_PASSES = 3;
+    public static final int BROADCASTS = 4;
+    public static final int IDLE_ICON_REBUILDS = 5;
+    public static final int ALLOCATIONS = 6;
+    public static final int COUNTER_COUNT = 7;
+
+    public static final long UNLIMITED = -1;
+
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+
+    private static final String[] NAMES = {
+            "mainThreadMessages", "clockUpdates", "viewUpdates", "layoutPasses", "broadcasts",
+            "idleIconRebuilds", "allocations"
+    };
+
+    // Per hour: a minute tick, the burn-in shift every 10 seconds, frames and media callbacks
+    private static final long[] DEFAULT_LIMITS = {1200, 60, 240, 480, 120, 0, UNLIMITED};
+
+    private final long[] limits;
+    private final AtomicLongArray counts = new AtomicLongArray(COUNTER_COUNT);
+
+    private CostBudget(long[] limits) {
+        this.limits = limits;
+    }
+
+    /** Budget with the default per-hour limits. */
+    public static CostBudget withDefaults() {
+        return new CostBudget(DEFAULT_LIMITS.clone());
+    }
+
+    public static String nameOf(int counter) {
+        return NAMES[counter];
+    }
+
+    /** Replaces one counter's per-hour limit, or {@link #UNLIMITED}. */
+    public void setLimit(int counter, long perHour) {
+        limits[counter] = perHour < 0 ? UNLIMITED : perHour;
+    }
+
+    public long getLimit(int counter) {
+        return limits[counter];
+    }
+
+    public void add(int counter, long delta) {
+        counts.addAndGet(counter, delta);
+    }
+
+    public long get(int counter) {
+        return counts.get(counter);
+    }
+
+    public void reset() {
+        for (int i = 0; i < COUNTER_COUNT; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /** Count a counter may reach after {@code elapsedMs}, or {@link #UNLIMITED}. */
+    public long allowance(int counter, long elapsedMs) {
+        if (limits[counter] == UNLIMITED) {
+            return UNLIMITED;
+        }
+        long hours = Math.max(1, (elapsedMs + HOUR_MS - 1) / HOUR_MS);
+        return limits[counter] == 0 ? 0 : limits[counter] * hours + 1;
+    }
+
+    /** Bit {@code 1 << counter} is set for every counter over its allowance. */
+    public int overruns(long elapsedMs) {
+        int mask = 0;
+        for (int i = 0; i < COUNTER_COUNT; i++) {
+            long allowance = allowance(i, elapsedMs);
+            if (allowance != UNLIMITED && counts.get(i) > allowance) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    /** One "name=count/allowance" entry per counter, overruns marked with '!'. */
+    public String describe(long elapsedMs) {
+        StringBuilder sb = new StringBuilder("elapsedMs=").append(elapsedMs);
+        for (int i = 0; i < COUNTER_COUNT; i++) {
+            long allowance = allowance(i, elapsedMs);
+            sb.append(", ").append(NAMES[i]).append('=').append(counts.get(i));
+            if (allowance != UNLIMITED) {
+                sb.append('/').append(allowance);
+                if (counts.get(i) > allowance) {
+                    sb.append('!');
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
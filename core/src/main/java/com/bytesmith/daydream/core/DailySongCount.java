@@ -0,0 +1,29 @@
+package com.bytesmith.daydream.core;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * The "songs today" counter: counts listened tracks and starts over on the first track of a new
+ * local day. Holds no storage of its own; callers load and persist the count and reset time.
+ */
+public final class DailySongCount {
+
+    private DailySongCount() {
+    }
+
+    /** Whether {@code nowMillis} falls on a different local day (in {@code zone}) than the last reset. */
+    public static boolean shouldReset(long lastResetMillis, long nowMillis, TimeZone zone) {
+        Calendar last = Calendar.getInstance(zone);
+        last.setTimeInMillis(lastResetMillis);
+        Calendar now = Calendar.getInstance(zone);
+        now.setTimeInMillis(nowMillis);
+        return last.get(Calendar.DAY_OF_YEAR) != now.get(Calendar.DAY_OF_YEAR)
+                || last.get(Calendar.YEAR) != now.get(Calendar.YEAR);
+    }
+
+    /** The count after one more listened track, starting from zero on a new day. */
+    public static int next(int count, long lastResetMillis, long nowMillis, TimeZone zone) {
+        return (shouldReset(lastResetMillis, nowMillis, zone) ? 0 : count) + 1;
+    }
+}
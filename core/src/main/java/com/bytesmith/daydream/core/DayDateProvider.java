@@ -0,0 +1,70 @@
+package com.bytesmith.daydream.core;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Formats the "Monday, Jan 1" date line once per local day.
+ * <p>
+ * The formatted string is cached together with the start of the current day and the instant of
+ * the next local midnight, so callers can ask for the date as often as they like and only pay for
+ * a comparison. The formatter is owned by the instance (not shared statically) and is rebuilt by
+ * {@link #reset} when the locale or time zone changes. Day bounds come from the zone's calendar,
+ * so days that are 23 or 25 hours long around DST changes are handled. Not thread-safe.
+ */
+public class DayDateProvider {
+
+    public static final String PATTERN = "EEEE, MMM d";
+
+    private SimpleDateFormat format;
+    private Calendar calendar;
+
+    private String dayDate = null;
+    private long dayStartMillis = Long.MAX_VALUE;
+    private long nextMidnightMillis = Long.MIN_VALUE;
+
+    public DayDateProvider(Locale locale, TimeZone timeZone) {
+        reset(locale, timeZone);
+    }
+
+    /** Rebuilds the formatter for a new locale or zone and drops the cached date. */
+    public void reset(Locale locale, TimeZone timeZone) {
+        format = new SimpleDateFormat(PATTERN, locale);
+        format.setTimeZone(timeZone);
+        calendar = Calendar.getInstance(timeZone, locale);
+        dayDate = null;
+        dayStartMillis = Long.MAX_VALUE;
+        nextMidnightMillis = Long.MIN_VALUE;
+    }
+
+    /** The date line for {@code nowMillis}, reformatted only when the local day has changed. */
+    public String getDayDate(long nowMillis) {
+        if (dayDate == null || nowMillis >= nextMidnightMillis || nowMillis < dayStartMillis) {
+            // New day, or the clock was set back past the start of the cached one
+            computeDay(nowMillis);
+        }
+        return dayDate;
+    }
+
+    /** Instant of the local midnight that ends the day cached by the last {@link #getDayDate}. */
+    public long getNextMidnightMillis() {
+        return nextMidnightMillis;
+    }
+
+    private void computeDay(long nowMillis) {
+        calendar.setTimeInMillis(nowMillis);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        dayStartMillis = calendar.getTimeInMillis();
+        // Adding a calendar day (not 24h) keeps DST days at their real length. In zones where
+        // midnight itself is skipped, the lenient calendar lands on the first valid instant.
+        calendar.add(Calendar.DAY_OF_MONTH, 1);
+        nextMidnightMillis = calendar.getTimeInMillis();
+        dayDate = format.format(new Date(nowMillis));
+    }
+}
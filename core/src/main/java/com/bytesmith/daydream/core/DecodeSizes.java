@@ -0,0 +1,58 @@
+package com.bytesmith.daydream.core;
+
+/**
+ * Size arithmetic for subsampled bitmap decodes: the {@code inSampleSize} to ask the decoder for,
+ * the dimensions that produces and the bytes they take, so memory budgets can be checked without
+ * decoding anything.
+ */
+public final class DecodeSizes {
+
+    private DecodeSizes() {
+    }
+
+    /**
+     * Largest power-of-two subsampling that keeps the longer edge at least {@code targetEdge}, for
+     * images that are then scaled to fit a {@code targetEdge} square. The subsampled image keeps
+     * enough pixels for that scale, and neither of its edges exceeds {@code 2 * targetEdge}
+     * (or the original edge, when that is smaller).
+     */
+    public static int fitSampleSize(int width, int height, int targetEdge) {
+        int longer = Math.max(width, height);
+        int sampleSize = 1;
+        while (longer / (sampleSize * 2) >= targetEdge) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * Smallest power-of-two subsampling that brings the decoded image down to at most
+     * {@code maxPixels} pixels, so it fits a bitmap allocated for that many.
+     */
+    public static int capSampleSize(int width, int height, long maxPixels) {
+        int sampleSize = 1;
+        while ((long) sampledEdge(width, sampleSize) * sampledEdge(height, sampleSize) > maxPixels) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /** Edge length the decoder produces for {@code edge} at {@code sampleSize}; it rounds up. */
+    public static int sampledEdge(int edge, int sampleSize) {
+        return (edge + sampleSize - 1) / sampleSize;
+    }
+
+    /** Scale that fits {@code width x height} inside a {@code targetEdge} square; never above 1. */
+    public static float fitScale(int width, int height, int targetEdge) {
+        return Math.min(1f, Math.min(targetEdge / (float) width, targetEdge / (float) height));
+    }
+
+    /** {@code edge} at {@code scale}, at least one pixel. */
+    public static int scaledEdge(int edge, float scale) {
+        return Math.max(1, Math.round(edge * scale));
+    }
+
+    public static long bytes(int width, int height, int bytesPerPixel) {
+        return (long) width * height * bytesPerPixel;
+    }
+}
@@ -0,0 +1,133 @@
+package com.bytesmith.daydream.core;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * English time phrases, e.g. "It's Quarter past Ten, in the morning."
+ * <p>
+ * Minutes 1-30 are counted past the hour and 31-59 to the next one; the closing words come from
+ * the part of the day the minute falls in. The wording (including the "til" phrasing in the small
+ * hours, the casual wording at dusk and the handful of one-off exact-hour phrases) reproduces the
+ * hand-written {@code time_hh_mm_AM/PM} resources this grammar replaced.
+ */
+public class EnglishTimePhraseGrammar implements TimePhraseGrammar {
+
+    private static final String PREFIX = "<b>It's</b> <br/><b>";
+
+    private static final String[] UNITS = {
+            "Zero", "One", "Two", "Three", "Four", "Five", "Six", "Seven", "Eight", "Nine", "Ten",
+            "Eleven", "Twelve", "Thirteen", "Fourteen", "Fifteen", "Sixteen", "Seventeen",
+            "Eighteen", "Nineteen"
+    };
+    private static final String[] TENS = {"", "", "Twenty", "Thirty", "Forty", "Fifty"};
+
+    // Parts of the day, by the minute of the day they start at
+    private static final int MORNING = 0;
+    private static final int NOON = 1;
+    private static final int AFTERNOON = 2;
+    private static final int EVENING = 3;
+    private static final int DUSK = 4;
+    private static final int NIGHT = 5;
+    private static final String[] DAY_PART_WORDS = {"morning", "noon", "afternoon", "evening", "dusk", "night"};
+    private static final int[] DAY_PART_STARTS = {0, 12 * 60 + 31, 13 * 60 + 1, 16 * 60 + 29, 19 * 60 + 31, 20 * 60 + 31, 21 * 60};
+    private static final int[] DAY_PART_AT = {MORNING, NOON, AFTERNOON, EVENING, DUSK, EVENING, NIGHT};
+
+    // Exact-hour and other one-off phrases that don't follow the rules
+    private static final Map<Integer, String> SPECIAL_PHRASES = new HashMap<>();
+    static {
+        SPECIAL_PHRASES.put(0, PREFIX + "midnight</b>/ exactly.");
+        SPECIAL_PHRASES.put(8 * 60, PREFIX + "Eight</b> o'clock in the <b>morning</b>.");
+        SPECIAL_PHRASES.put(12 * 60, PREFIX + "high <b>noon</b>.");
+        SPECIAL_PHRASES.put(13 * 60, PREFIX + "noon</b>.");
+        SPECIAL_PHRASES.put(17 * 60, PREFIX + "Five</b> o'clock/ in the <b>evening</b>.");
+        SPECIAL_PHRASES.put(18 * 60, PREFIX + "Six</b> o'clock/ in the <b>evening</b>.");
+        SPECIAL_PHRASES.put(20 * 60 + 30, "<b>It's</b> <b>Half</b> past <br/><b>Eight</b>, in the <b>dusk</b>.");
+    }
+
+    private final StringBuilder builder = new StringBuilder(96);
+
+    @Override
+    public String phrase(int hourOfDay, int minute) {
+        int minuteOfDay = hourOfDay * 60 + minute;
+        String special = SPECIAL_PHRASES.get(minuteOfDay);
+        if (special != null) {
+            return special;
+        }
+
+        int dayPart = dayPartAt(minuteOfDay);
+        boolean casual = dayPart == DUSK;
+        StringBuilder sb = builder;
+        sb.setLength(0);
+
+        if (minute == 0) {
+            sb.append(PREFIX).append(numberWord(hourOf12(hourOfDay), casual)).append("</b>");
+            if (dayPart == MORNING) {
+                sb.append(", in the <b>morning</b>, precisely.");
+            } else if (dayPart == NIGHT) {
+                sb.append(" o'clock at <b>night</b>.");
+            } else {
+                sb.append(" o'clock in the <b>").append(DAY_PART_WORDS[dayPart]).append("</b>.");
+            }
+            return sb.toString();
+        }
+
+        boolean past = minute <= 30;
+        int count = past ? minute : 60 - minute;
+        int namedHour = past ? hourOfDay : (hourOfDay + 1) % 24;
+
+        if (count == 15) {
+            sb.append(casual ? "<b>It's</b> a <br/><b>quarter</b>" : PREFIX + "Quarter</b>");
+        } else if (count == 30) {
+            sb.append(PREFIX).append("Half</b>");
+        } else {
+            sb.append(PREFIX).append(numberWord(count, casual)).append("</b>");
+        }
+
+        if (past) {
+            sb.append(count == 15 || count == 30 ? "" : count == 1 ? " minute" : " minutes").append(" past");
+        } else if (count > 15 && namedHour >= 1 && namedHour <= 3) {
+            sb.append(" til"); // Small hours: "Twenty til Two"
+        } else {
+            sb.append(count == 15 ? "" : count == 1 ? " minute" : " minutes").append(" to");
+        }
+
+        sb.append(" <br/><b>");
+        if (namedHour == 0) {
+            sb.append("midnight</b>.");
+        } else if (namedHour == 12) {
+            sb.append("high <b>noon</b>.");
+        } else {
+            sb.append(UNITS[hourOf12(namedHour)]).append("</b>");
+            if (dayPart == NIGHT) {
+                sb.append(" at <b>night</b>.");
+            } else {
+                sb.append(", in the <b>").append(DAY_PART_WORDS[dayPart]).append("</b>.");
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int dayPartAt(int minuteOfDay) {
+        int index = 0;
+        while (index + 1 < DAY_PART_STARTS.length && minuteOfDay >= DAY_PART_STARTS[index + 1]) {
+            index++;
+        }
+        return DAY_PART_AT[index];
+    }
+
+    private static int hourOf12(int hourOfDay) {
+        int hour = hourOfDay % 12;
+        return hour == 0 ? 12 : hour;
+    }
+
+    /** Hyphenated title-case words for 1..59; at dusk the words below twenty are lower-case. */
+    static String numberWord(int n, boolean casual) {
+        if (n < 20) {
+            return casual ? UNITS[n].toLowerCase(Locale.ROOT) : UNITS[n];
+        }
+        String tens = TENS[n / 10];
+        return n % 10 == 0 ? tens : tens + "-" + UNITS[n % 10];
+    }
+}
@@ -0,0 +1,76 @@
+package com.bytesmith.daydream.core;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Decodes a flight record written by {@link FlightRecorder#writeTo}. Run from the command line
+ * with {@code FlightRecordReader <file>} to print the events, newest last, with their offset
+ * from the moment the record was written.
+ */
+public final class FlightRecordReader {
+
+    private final long wallTimeMs;
+    private final long nowMs;
+    private final List<FlightRecorder.Entry> entries;
+
+    public FlightRecordReader(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != FlightRecorder.MAGIC) {
+            throw new IOException("Not a flight record");
+        }
+        int version = data.readUnsignedByte();
+        if (version != FlightRecorder.VERSION) {
+            throw new IOException("Unsupported flight record version " + version);
+        }
+        wallTimeMs = data.readLong();
+        nowMs = data.readLong();
+        int count = data.readInt();
+        if (count < 0) {
+            throw new IOException("Bad entry count " + count);
+        }
+        entries = new ArrayList<>(Math.min(count, 1 << 16));
+        for (int i = 0; i < count; i++) {
+            long timeMs = data.readLong();
+            int event = data.readUnsignedShort();
+            entries.add(new FlightRecorder.Entry(timeMs, event, data.readInt(), data.readInt()));
+        }
+    }
+
+    /** Wall clock time the record was written at. */
+    public long getWallTimeMs() {
+        return wallTimeMs;
+    }
+
+    /** Elapsed-realtime the record was written at; entry times are on the same clock. */
+    public long getNowMs() {
+        return nowMs;
+    }
+
+    public List<FlightRecorder.Entry> getEntries() {
+        return entries;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: FlightRecordReader <file>");
+            System.exit(2);
+        }
+        FlightRecordReader reader;
+        try (InputStream in = new FileInputStream(args[0])) {
+            reader = new FlightRecordReader(in);
+        }
+        PrintWriter out = new PrintWriter(System.out);
+        out.println("Flight record " + args[0] + " written at " + new Date(reader.getWallTimeMs())
+                + ", " + reader.getEntries().size() + " events");
+        FlightRecorder.dumpText(out, reader.getEntries(), reader.getNowMs());
+        out.flush();
+    }
+}
@@ -0,0 +1,187 @@
+package com.bytesmith.daydream.core;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size "black box" of the most recent dream events: a timestamp, an event code and two
+ * small int payloads each, kept in preallocated atomic arrays that wrap around. It keeps the last
+ * {@link #getCapacity()} events however long ago they happened.
+ * <p>
+ * {@link #record} allocates nothing and takes no lock, so it can sit on the listener's and the
+ * dream's hot paths. Writers claim slots from an atomic sequence and stamp each slot once it is
+ * written; a snapshot skips any slot that was being written or overwritten while it was copied.
+ * Every slot field is read and written with volatile semantics, so a snapshot that sees the same
+ * stamp before and after copying a slot also saw that write's fields, not a mix of two writes.
+ * Snapshots can be written as a compact binary file that {@link FlightRecordReader} decodes.
+ * Thread-safe.
+ */
+public final class FlightRecorder {
+
+    // Event codes. Payloads are noted per event; "package" is String.hashCode() of the name.
+    public static final int DREAM_ATTACHED = 1;
+    public static final int DREAM_STARTED = 2;
+    public static final int DREAM_STOPPED = 3;
+    public static final int DREAM_DETACHED = 4;
+    /** a: package, b: media (1) or not (0). */
+    public static final int NOTIFICATION_POSTED = 5;
+    /** a: package. */
+    public static final int NOTIFICATION_FILTERED = 6;
+    /** a: package, b: whether the package set changed. */
+    public static final int NOTIFICATION_REMOVED = 7;
+    /** a: package, b: PlaybackState code. */
+    public static final int PLAYBACK_STATE = 8;
+    /** a: song name hash, or 0 when cleared. */
+    public static final int SONG_CHANGED = 9;
+    /** a: count. */
+    public static final int SONG_COUNT = 10;
+    /** a: which broadcast (BROADCAST_* below). */
+    public static final int BROADCAST_SENT = 11;
+    /** a: which broadcast. */
+    public static final int BROADCAST_RECEIVED = 12;
+    /** a: previous, b: new system brightness (0-255). */
+    public static final int BRIGHTNESS_CHANGED = 13;
+    /** a: restored system brightness (0-255). */
+    public static final int BRIGHTNESS_RESTORED = 14;
+    public static final int BRIGHTNESS_DENIED = 15;
+    public static final int LISTENER_CONNECTED = 16;
+    /** a: CostBudget counter, b: its count (saturated to int). */
+    public static final int COST_OVERRUN = 17;
+    /** a: battery percent, b: plugged type. */
+    public static final int BATTERY = 18;
+    public static final int EVENT_COUNT = 19;
+
+    // Payload of the broadcast events
+    public static final int BROADCAST_NOTIFICATIONS = 1;
+    public static final int BROADCAST_SONG_NAME = 2;
+    public static final int BROADCAST_MEDIA_INFO_REQUEST = 3;
+    public static final int BROADCAST_PREWARM = 4;
+    public static final int BROADCAST_CLOCK_CONFIG = 5;
+
+    static final int MAGIC = 0x44444652; // "DDFR"
+    static final int VERSION = 1;
+
+    private static final String[] NAMES = {
+            "?", "dreamAttached", "dreamStarted", "dreamStopped", "dreamDetached",
+            "notificationPosted", "notificationFiltered", "notificationRemoved", "playbackState",
+            "songChanged", "songCount", "broadcastSent", "broadcastReceived", "brightnessChanged",
+            "brightnessRestored", "brightnessDenied", "listenerConnected", "costOverrun", "battery"
+    };
+
+    /** One decoded event. */
+    public static final class Entry {
+        public final long timeMs;
+        public final int event;
+        public final int a;
+        public final int b;
+
+        public Entry(long timeMs, int event, int a, int b) {
+            this.timeMs = timeMs;
+            this.event = event;
+            this.a = a;
+            this.b = b;
+        }
+    }
+
+    private final int mask;
+    private final AtomicLongArray times;
+    private final AtomicIntegerArray events;
+    // a in the high, b in the low 32 bits
+    private final AtomicLongArray payloads;
+    // Sequence number of the write that completed in each slot; -1 while a write is in progress
+    private final AtomicLongArray stamps;
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    /**
+     * @param capacity Events kept, rounded up to a power of two.
+     */
+    public FlightRecorder(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        mask = size - 1;
+        times = new AtomicLongArray(size);
+        events = new AtomicIntegerArray(size);
+        payloads = new AtomicLongArray(size);
+        stamps = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            stamps.set(i, -1);
+        }
+    }
+
+    public static String nameOf(int event) {
+        return event > 0 && event < EVENT_COUNT ? NAMES[event] : "event" + event;
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /** Events recorded since creation, including those already overwritten. */
+    public long getRecordedCount() {
+        return nextSequence.get();
+    }
+
+    public void record(long timeMs, int event, int a, int b) {
+        long sequence = nextSequence.getAndIncrement();
+        int slot = (int) sequence & mask;
+        stamps.set(slot, -1);
+        times.set(slot, timeMs);
+        events.set(slot, event);
+        payloads.set(slot, ((long) a << 32) | (b & 0xffffffffL));
+        stamps.set(slot, sequence);
+    }
+
+    /** The retained events, oldest first. */
+    public List<Entry> snapshot() {
+        long end = nextSequence.get();
+        long start = Math.max(0, end - getCapacity());
+        List<Entry> entries = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            int slot = (int) sequence & mask;
+            if (stamps.get(slot) != sequence) continue;
+            long timeMs = times.get(slot);
+            int event = events.get(slot);
+            long payload = payloads.get(slot);
+            // Overwritten or rewritten while copying
+            if (stamps.get(slot) != sequence) continue;
+            entries.add(new Entry(timeMs, event, (int) (payload >>> 32), (int) payload));
+        }
+        return entries;
+    }
+
+    /**
+     * Writes a snapshot: magic "DDFR", version byte, the wall clock and elapsed-realtime at the
+     * time of writing, the entry count, then per entry its elapsed-realtime, code and payloads.
+     * {@code out} is flushed, not closed.
+     */
+    public void writeTo(OutputStream out, long wallTimeMs, long nowMs) throws IOException {
+        List<Entry> entries = snapshot();
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeLong(wallTimeMs);
+        data.writeLong(nowMs);
+        data.writeInt(entries.size());
+        for (Entry entry : entries) {
+            data.writeLong(entry.timeMs);
+            data.writeShort(entry.event);
+            data.writeInt(entry.a);
+            data.writeInt(entry.b);
+        }
+        data.flush();
+    }
+
+    /** One line per entry: seconds before {@code nowMs}, event name and payloads. */
+    public static void dumpText(PrintWriter out, List<Entry> entries, long nowMs) {
+        for (Entry entry : entries) {
+            out.printf("%10.3fs %-20s %d %d%n", (entry.timeMs - nowMs) / 1000.0,
+                    nameOf(entry.event), entry.a, entry.b);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.bytesmith.daydream.core;
+
+/**
+ * One input to the notification listener: a notification posted or removed, or a media session
+ * playback state or metadata change. Only the fields of the event's type are meaningful.
+ * <p>
+ * Instances are mutable so a trace can be read without allocating per event; use
+ * {@link #copy()} to keep one. Times are {@code SystemClock.elapsedRealtime()} milliseconds.
+ */
+public final class ListenerEvent {
+
+    public static final int TYPE_POSTED = 1;
+    public static final int TYPE_REMOVED = 2;
+    public static final int TYPE_PLAYBACK_STATE = 3;
+    public static final int TYPE_METADATA = 4;
+
+    // PlaybackState values the listener acts on
+    public static final int STATE_STOPPED = 1;
+    public static final int STATE_PAUSED = 2;
+    public static final int STATE_PLAYING = 3;
+
+    private static final String[] NO_ACTIONS = new String[0];
+
+    public int type;
+    public long timeMs;
+    public String packageName;
+
+    // Posted and removed
+    public String key;
+
+    // Posted: the notification fields the filter and the media heuristics read
+    public String category;
+    public String channelId;
+    public int flags;
+    public int importance = NotificationFilterRules.IMPORTANCE_ANY;
+    public boolean hasMediaSession;
+    public int playbackStateExtra = -1;
+    public String[] actionTitles = NO_ACTIONS;
+
+    // Posted (notification title and text) and metadata (track title and artist)
+    public String title;
+    public String text;
+
+    // Playback state
+    public int state;
+    public long positionMs = ListeningTimeTracker.POSITION_UNKNOWN;
+    public float speed = 1f;
+    public long positionUpdateTimeMs;
+
+    // Metadata
+    public long durationMs;
+
+    /** Clears every field, keeping the event reusable. */
+    public void reset(int type, long timeMs, String packageName) {
+        this.type = type;
+        this.timeMs = timeMs;
+        this.packageName = packageName;
+        key = null;
+        category = null;
+        channelId = null;
+        flags = 0;
+        importance = NotificationFilterRules.IMPORTANCE_ANY;
+        hasMediaSession = false;
+        playbackStateExtra = -1;
+        actionTitles = NO_ACTIONS;
+        title = null;
+        text = null;
+        state = 0;
+        positionMs = ListeningTimeTracker.POSITION_UNKNOWN;
+        speed = 1f;
+        positionUpdateTimeMs = 0;
+        durationMs = 0;
+    }
+
+    public ListenerEvent copy() {
+        ListenerEvent copy = new ListenerEvent();
+        copy.type = type;
+        copy.timeMs = timeMs;
+        copy.packageName = packageName;
+        copy.key = key;
+        copy.category = category;
+        copy.channelId = channelId;
+        copy.flags = flags;
+        copy.importance = importance;
+        copy.hasMediaSession = hasMediaSession;
+        copy.playbackStateExtra = playbackStateExtra;
+        copy.actionTitles = actionTitles.length == 0 ? NO_ACTIONS : actionTitles.clone();
+        copy.title = title;
+        copy.text = text;
+        copy.state = state;
+        copy.positionMs = positionMs;
+        copy.speed = speed;
+        copy.positionUpdateTimeMs = positionUpdateTimeMs;
+        copy.durationMs = durationMs;
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case TYPE_POSTED:
+                return timeMs + " posted " + packageName + " " + key + " category=" + category
+                        + " session=" + hasMediaSession + " actions=" + actionTitles.length;
+            case TYPE_REMOVED:
+                return timeMs + " removed " + packageName + " " + key;
+            case TYPE_PLAYBACK_STATE:
+                return timeMs + " state " + packageName + " " + state + " at " + positionMs;
+            case TYPE_METADATA:
+                return timeMs + " metadata " + packageName + " '" + title + "' by '" + text + "'";
+            default:
+                return timeMs + " type " + type;
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.bytesmith.daydream.core;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The notification listener's decisions: which packages show an icon, which one is playing media,
+ * the song name sent to the dream and when a track has been listened to.
+ * <p>
+ * {@code NotificationService} turns what the system hands it into calls on this class and carries
+ * out the {@link Listener} callbacks (broadcasts, dream updates, the stored song count), so its
+ * rules live here only, quirks included: packages are tracked per package rather than per
+ * notification, and an emptied song name never reaches the dream. {@link #apply} drives the same
+ * methods from a recorded {@link ListenerEvent}, which is how {@link TraceReplay} reproduces what
+ * the dream showed. The one stand-in there: where the service asks the system for a playing media
+ * session, a replay uses the last playback state it saw for each package.
+ * <p>
+ * Not thread-safe; call from the listener's thread. {@link #getPlayingPackage} may be read from
+ * any thread, and the package set is the caller's, so it can be a concurrent one.
+ */
+public final class ListenerModel {
+
+    /** What the listener does about a decision. Called synchronously from the input methods. */
+    public interface Listener {
+        /** The package set or the playing package changed; the dream should refresh its icons. */
+        void onPackagesChanged();
+
+        /** Hand the dream this song name right away, or clear it when null. */
+        void onSongInfo(String songName);
+
+        /** Broadcast this song name; empty when playback stopped. */
+        void onSongName(String songName);
+
+        /** Enough of the track has been played to count it. */
+        void onTrackListened(String trackId, long listenedMs);
+    }
+
+    private static final String CATEGORY_TRANSPORT = "transport";
+
+    private final Set<String> packages;
+    private final Listener listener;
+    private final ListeningTimeTracker listeningTracker;
+
+    private volatile String playingPackage = null;
+    // Last name taken from session metadata, and the one the dream shows
+    private String currentSongName = "";
+    private String shownSongName = null;
+    private int songCount = 0;
+    private long version = 0;
+
+    // Replay only: last playback state and metadata per package
+    private final Map<String, Integer> sessionStates = new HashMap<>();
+    private final Map<String, ListenerEvent> sessionMetadata = new HashMap<>();
+
+    /**
+     * @param packages           Set of packages showing an icon, updated in place.
+     * @param listenedFraction   Fraction of a track that must be played to count it.
+     * @param fallbackRequiredMs Time that must be played when the duration is unknown.
+     * @param listener           Carries out the decisions, or null to only keep the state.
+     */
+    public ListenerModel(Set<String> packages, float listenedFraction, long fallbackRequiredMs,
+                         final Listener listener) {
+        this.packages = packages;
+        this.listener = listener;
+        listeningTracker = new ListeningTimeTracker(listenedFraction, fallbackRequiredMs,
+                new ListeningTimeTracker.Listener() {
+                    @Override
+                    public void onTrackListened(String trackId, long listenedMs) {
+                        songCount++;
+                        version++;
+                        if (listener != null) {
+                            listener.onTrackListened(trackId, listenedMs);
+                        }
+                    }
+                });
+    }
+
+    /** A model over its own sorted package set, for replays and tests. */
+    public ListenerModel(float listenedFraction, long fallbackRequiredMs, Listener listener) {
+        this(new TreeSet<String>(), listenedFraction, fallbackRequiredMs, listener);
+    }
+
+    public void setListenedFraction(float listenedFraction) {
+        listeningTracker.setRequiredFraction(listenedFraction);
+    }
+
+    /**
+     * A notification that passed the filter was posted.
+     *
+     * @param media          Whether it belongs to a media player.
+     * @param songName       Song name built from it, if media.
+     * @param playingSession Whether a media session is playing right now, if media.
+     */
+    public void onPosted(String packageName, boolean media, String songName, boolean playingSession) {
+        if (packages.add(packageName)) {
+            version++;
+            packagesChanged();
+        }
+        if (!media) return;
+
+        setPlayingPackage(packageName);
+        if (playingSession && songName != null && !songName.isEmpty()) {
+            showSongName(songName);
+            if (listener != null) {
+                listener.onSongInfo(songName);
+                listener.onSongName(songName);
+            }
+        } else if (!playingSession) {
+            // A media notification with nothing playing: the player stopped
+            showSongName(null);
+            if (listener != null) {
+                listener.onSongInfo(null);
+            }
+            setPlayingPackage(null);
+            packagesChanged();
+        } else {
+            packagesChanged();
+        }
+    }
+
+    /**
+     * A package's notification was removed; the package's icon goes with it.
+     *
+     * @return Whether the package had an icon.
+     */
+    public boolean onRemoved(String packageName) {
+        if (!packages.remove(packageName)) return false;
+        version++;
+        packagesChanged();
+        return true;
+    }
+
+    /**
+     * The active notifications were read again, on connect or after the filter rules changed.
+     *
+     * @param replace Whether the packages replace the set rather than being added to it.
+     */
+    public void onActiveNotifications(Collection<String> activePackages, boolean replace) {
+        boolean changed = replace && packages.retainAll(activePackages);
+        changed |= packages.addAll(activePackages);
+        if (changed) {
+            version++;
+        }
+        // The service refreshes the dream either way
+        packagesChanged();
+    }
+
+    /**
+     * The result of looking for a media session: the playing one, or else the first one.
+     *
+     * @param packageName The session's package, or null when there are no sessions.
+     */
+    public void onSessionChecked(String packageName, boolean playing) {
+        if (packageName == null) {
+            if (playingPackage != null) {
+                clearPlaying();
+            }
+        } else if (playing) {
+            if (!packageName.equals(playingPackage)) {
+                setPlayingPackage(packageName);
+                packagesChanged();
+            }
+        } else if (packageName.equals(playingPackage)) {
+            // Nothing else is playing either, or that session would have been picked
+            clearPlaying();
+        }
+    }
+
+    /**
+     * The watched session's playback state changed, or a session check found it.
+     *
+     * @param title  The session's track title, or null if it has no metadata.
+     * @param artist The session's track artist.
+     */
+    public void onPlaybackState(String packageName, int state, String title, String artist) {
+        switch (state) {
+            case ListenerEvent.STATE_PLAYING:
+                setPlayingPackage(packageName);
+                onMetadata(title, artist);
+                break;
+            case ListenerEvent.STATE_PAUSED:
+            case ListenerEvent.STATE_STOPPED:
+                if (packageName.equals(playingPackage)) {
+                    setPlayingPackage(null);
+                    // The dream drops the empty name and keeps showing the last song
+                    if (listener != null) {
+                        listener.onSongName("");
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /** The watched session's track changed. */
+    public void onMetadata(String title, String artist) {
+        if (title == null || title.isEmpty()) return;
+        String songName = SongTitles.build(title, artist);
+        if (songName != null && !songName.equals(currentSongName)) {
+            currentSongName = songName;
+            if (!songName.isEmpty()) {
+                showSongName(songName);
+            }
+            if (listener != null) {
+                listener.onSongName(songName);
+            }
+        }
+    }
+
+    /** Feeds the listening time accounting a playback snapshot of the watched session. */
+    public void trackPlaybackState(boolean playing, long positionMs, float speed, long positionUpdateTimeMs) {
+        listeningTracker.onPlaybackState(playing, positionMs, speed, positionUpdateTimeMs);
+    }
+
+    /** Feeds the listening time accounting the watched session's track; untitled tracks are skipped. */
+    public void trackMetadata(String title, String artist, long durationMs, long nowMs) {
+        if (title == null || title.isEmpty()) return;
+        String trackId = artist != null ? title + "\n" + artist : title;
+        listeningTracker.onTrackChanged(trackId, durationMs, nowMs);
+    }
+
+    /**
+     * Applies a recorded event the way the service handled it when it happened.
+     *
+     * @return Whether anything the dream shows changed.
+     */
+    public boolean apply(ListenerEvent event) {
+        long before = version;
+        switch (event.type) {
+            case ListenerEvent.TYPE_POSTED:
+                boolean transport = CATEGORY_TRANSPORT.equals(event.category);
+                int verdict = MediaHeuristics.inspect(transport, event.hasMediaSession,
+                        transport ? event.playbackStateExtra : -1, event.actionTitles);
+                boolean media = (verdict & MediaHeuristics.FLAG_MEDIA) != 0;
+                onPosted(event.packageName, media, media ? SongTitles.build(event.title, event.text) : null,
+                        media && sessionStates.containsValue(ListenerEvent.STATE_PLAYING));
+                break;
+            case ListenerEvent.TYPE_REMOVED:
+                onRemoved(event.packageName);
+                break;
+            case ListenerEvent.TYPE_PLAYBACK_STATE:
+                sessionStates.put(event.packageName, event.state);
+                trackPlaybackState(event.state == ListenerEvent.STATE_PLAYING, event.positionMs, event.speed,
+                        event.positionUpdateTimeMs > 0 ? event.positionUpdateTimeMs : event.timeMs);
+                ListenerEvent metadata = sessionMetadata.get(event.packageName);
+                onPlaybackState(event.packageName, event.state,
+                        metadata != null ? metadata.title : null, metadata != null ? metadata.text : null);
+                break;
+            case ListenerEvent.TYPE_METADATA:
+                sessionMetadata.put(event.packageName, event.copy());
+                trackMetadata(event.title, event.text, event.durationMs, event.timeMs);
+                onMetadata(event.title, event.text);
+                break;
+            default:
+                break;
+        }
+        return version != before;
+    }
+
+    public Set<String> getPackages() {
+        return Collections.unmodifiableSet(packages);
+    }
+
+    public String getPlayingPackage() {
+        return playingPackage;
+    }
+
+    /** Song name on the dream, or null when none is shown. */
+    public String getSongName() {
+        return shownSongName;
+    }
+
+    /** Tracks listened to since the model was created. */
+    public int getSongCount() {
+        return songCount;
+    }
+
+    /** Incremented whenever something the dream shows changes. */
+    public long getVersion() {
+        return version;
+    }
+
+    /** The dream's view of the state: icons (minus the playing app), song and count. */
+    public String describeState() {
+        StringBuilder sb = new StringBuilder("icons=[");
+        boolean first = true;
+        for (String packageName : packages) {
+            if (packageName.equals(playingPackage)) continue;
+            if (!first) sb.append(", ");
+            sb.append(packageName);
+            first = false;
+        }
+        return sb.append("] playing=").append(playingPackage)
+                .append(" song=").append(shownSongName == null ? "-" : "'" + shownSongName.replace('\n', '/') + "'")
+                .append(" count=").append(songCount)
+                .toString();
+    }
+
+    private void clearPlaying() {
+        setPlayingPackage(null);
+        showSongName(null);
+        if (listener != null) {
+            listener.onSongInfo(null);
+        }
+        packagesChanged();
+    }
+
+    private void packagesChanged() {
+        if (listener != null) {
+            listener.onPackagesChanged();
+        }
+    }
+
+    private void showSongName(String songName) {
+        boolean same = songName == null ? shownSongName == null : songName.equals(shownSongName);
+        if (!same) {
+            shownSongName = songName;
+            version++;
+        }
+    }
+
+    private void setPlayingPackage(String packageName) {
+        boolean same = packageName == null ? playingPackage == null : packageName.equals(playingPackage);
+        if (!same) {
+            playingPackage = packageName;
+            version++;
+        }
+    }
+}
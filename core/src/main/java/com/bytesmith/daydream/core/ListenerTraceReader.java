@@ -0,0 +1,156 @@
+package com.bytesmith.daydream.core;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a trace written by {@link ListenerTraceWriter}, one event at a time into a reused
+ * {@link ListenerEvent}. A trace cut off mid-record (the recorder was killed) ends at the last
+ * complete event. Not thread-safe.
+ */
+public final class ListenerTraceReader implements Closeable {
+
+    private final DataInputStream in;
+    private final List<String> table = new ArrayList<>();
+    private final long wallTimeMs;
+    private final long startTimeMs;
+    private long lastTimeMs;
+
+    public ListenerTraceReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        if (this.in.readInt() != ListenerTraceWriter.MAGIC) {
+            throw new IOException("Not a listener trace");
+        }
+        int version = this.in.readUnsignedByte();
+        if (version != ListenerTraceWriter.VERSION) {
+            throw new IOException("Unsupported trace version " + version);
+        }
+        wallTimeMs = this.in.readLong();
+        startTimeMs = this.in.readLong();
+        lastTimeMs = startTimeMs;
+    }
+
+    /** Wall clock time the trace was started at. */
+    public long getWallTimeMs() {
+        return wallTimeMs;
+    }
+
+    /** Elapsed-realtime the trace was started at. */
+    public long getStartTimeMs() {
+        return startTimeMs;
+    }
+
+    /**
+     * Reads the next event into {@code event}.
+     *
+     * @return false at the end of the trace, leaving {@code event} undefined.
+     */
+    public boolean next(ListenerEvent event) throws IOException {
+        int type = in.read();
+        if (type < 0) {
+            return false;
+        }
+        try {
+            lastTimeMs += readVarLong();
+            event.reset(type, lastTimeMs, readString());
+
+            switch (type) {
+                case ListenerEvent.TYPE_POSTED:
+                    event.key = readString();
+                    event.category = readString();
+                    event.channelId = readString();
+                    event.flags = (int) readVarLong();
+                    event.importance = (int) readSignedVarLong();
+                    event.hasMediaSession = in.readBoolean();
+                    event.playbackStateExtra = (int) readSignedVarLong();
+                    int actionCount = (int) readVarLong();
+                    if (actionCount > 0) {
+                        event.actionTitles = new String[actionCount];
+                        for (int i = 0; i < actionCount; i++) {
+                            event.actionTitles[i] = readString();
+                        }
+                    }
+                    event.title = readString();
+                    event.text = readString();
+                    break;
+                case ListenerEvent.TYPE_REMOVED:
+                    event.key = readString();
+                    break;
+                case ListenerEvent.TYPE_PLAYBACK_STATE:
+                    event.state = (int) readSignedVarLong();
+                    event.positionMs = readSignedVarLong();
+                    event.speed = in.readFloat();
+                    event.positionUpdateTimeMs = event.timeMs + readSignedVarLong();
+                    break;
+                case ListenerEvent.TYPE_METADATA:
+                    event.title = readString();
+                    event.text = readString();
+                    event.durationMs = readSignedVarLong();
+                    break;
+                default:
+                    throw new IOException("Unknown event type " + type);
+            }
+            return true;
+        } catch (EOFException e) {
+            return false; // Truncated last record
+        }
+    }
+
+    /** Reads every remaining event. */
+    public List<ListenerEvent> readAll() throws IOException {
+        List<ListenerEvent> events = new ArrayList<>();
+        ListenerEvent event = new ListenerEvent();
+        while (next(event)) {
+            events.add(event.copy());
+        }
+        return events;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private String readString() throws IOException {
+        long ref = readVarLong();
+        if (ref == ListenerTraceWriter.REF_NULL) {
+            return null;
+        }
+        if (ref == ListenerTraceWriter.REF_INLINE) {
+            return in.readUTF();
+        }
+        long index = ref - ListenerTraceWriter.FIRST_INDEX;
+        if (index < table.size()) {
+            return table.get((int) index);
+        }
+        if (index == table.size() && index < ListenerTraceWriter.MAX_TABLE_SIZE) {
+            String value = in.readUTF();
+            table.add(value);
+            return value;
+        }
+        throw new IOException("Bad string reference " + ref);
+    }
+
+    private long readSignedVarLong() throws IOException {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,139 @@
+package com.bytesmith.daydream.core;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes {@link ListenerEvent}s in the compact binary trace format read by
+ * {@link ListenerTraceReader}.
+ * <p>
+ * A trace is a header (magic "DDTR", a version byte, and the wall clock and elapsed-realtime
+ * times it starts at) followed by one record per event: the type byte, the time since the
+ * previous event as a varint, then the type's fields. Integers are varints (zigzag encoded where they can be
+ * negative). Strings go through a table built as the trace is written: the first occurrence is
+ * written in full and later ones as a varint index, so the package names, keys and action titles
+ * that repeat in every notification cost a byte or two after the first time. Not thread-safe.
+ */
+public final class ListenerTraceWriter implements Closeable {
+
+    static final int MAGIC = 0x44445452; // "DDTR"
+    static final int VERSION = 1;
+
+    // String references: 0 is null, 1 an inline string not added to the table,
+    // FIRST_INDEX + i the table entry i; the next free index is followed by the new entry
+    static final int REF_NULL = 0;
+    static final int REF_INLINE = 1;
+    static final int FIRST_INDEX = 2;
+    static final int MAX_TABLE_SIZE = 8192;
+    // Longer notification texts are cut; the listener only reads the first line or so
+    private static final int MAX_STRING_LENGTH = 1024;
+
+    private final DataOutputStream out;
+    private final Map<String, Integer> table = new HashMap<>();
+    private long lastTimeMs;
+
+    /**
+     * @param wallTimeMs   Wall clock time of {@code startTimeMs}, kept in the header for reports.
+     * @param startTimeMs  Elapsed-realtime the first event's delta is taken from.
+     */
+    public ListenerTraceWriter(OutputStream out, long wallTimeMs, long startTimeMs) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+        this.out.writeLong(wallTimeMs);
+        this.out.writeLong(startTimeMs);
+        lastTimeMs = startTimeMs;
+    }
+
+    public void write(ListenerEvent event) throws IOException {
+        out.writeByte(event.type);
+        writeVarLong(Math.max(0, event.timeMs - lastTimeMs));
+        lastTimeMs = Math.max(lastTimeMs, event.timeMs);
+        writeString(event.packageName);
+
+        switch (event.type) {
+            case ListenerEvent.TYPE_POSTED:
+                writeString(event.key);
+                writeString(event.category);
+                writeString(event.channelId);
+                writeVarLong(event.flags & 0xFFFFFFFFL);
+                writeSignedVarLong(event.importance);
+                out.writeBoolean(event.hasMediaSession);
+                writeSignedVarLong(event.playbackStateExtra);
+                writeVarLong(event.actionTitles.length);
+                for (String actionTitle : event.actionTitles) {
+                    writeString(actionTitle);
+                }
+                writeString(event.title);
+                writeString(event.text);
+                break;
+            case ListenerEvent.TYPE_REMOVED:
+                writeString(event.key);
+                break;
+            case ListenerEvent.TYPE_PLAYBACK_STATE:
+                writeSignedVarLong(event.state);
+                writeSignedVarLong(event.positionMs);
+                out.writeFloat(event.speed);
+                writeSignedVarLong(event.positionUpdateTimeMs - event.timeMs);
+                break;
+            case ListenerEvent.TYPE_METADATA:
+                writeString(event.title);
+                writeString(event.text);
+                writeSignedVarLong(event.durationMs);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown event type " + event.type);
+        }
+    }
+
+    /** Bytes written so far, header included. */
+    public int size() {
+        return out.size();
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarLong(REF_NULL);
+            return;
+        }
+        if (value.length() > MAX_STRING_LENGTH) {
+            value = value.substring(0, MAX_STRING_LENGTH);
+        }
+        Integer index = table.get(value);
+        if (index != null) {
+            writeVarLong(FIRST_INDEX + index);
+        } else if (table.size() < MAX_TABLE_SIZE) {
+            writeVarLong(FIRST_INDEX + table.size());
+            table.put(value, table.size());
+            out.writeUTF(value);
+        } else {
+            writeVarLong(REF_INLINE);
+            out.writeUTF(value);
+        }
+    }
+
+    private void writeSignedVarLong(long value) throws IOException {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}
@@ -0,0 +1,150 @@
+package com.bytesmith.daydream.core;
+
+/**
+ * Event-driven accounting of how long the current track has actually been played.
+ * <p>
+ * Listening time is integrated from playback state snapshots (position, speed and the time the
+ * position was last updated) whenever the state or the track changes. Nothing is polled: while
+ * playback is steady no work is done, and the time played since the last snapshot is credited
+ * on the next transition (pause, seek, track change, stop).
+ * <p>
+ * A track counts as listened once the credited time reaches the configured fraction of its
+ * duration, or a fixed minimum when the duration is unknown. Each track is counted at most once
+ * per play-through. All times are on the {@code SystemClock.elapsedRealtime()} time base used by
+ * {@code PlaybackState}. Not thread-safe; feed it from a single thread.
+ */
+public class ListeningTimeTracker {
+
+    public static final long POSITION_UNKNOWN = -1;
+
+    public interface Listener {
+        /**
+         * Called once per track, when enough of it has been played.
+         *
+         * @param trackId    Identifier passed to {@link #onTrackChanged}.
+         * @param listenedMs Time played so far, scaled by playback speed.
+         */
+        void onTrackListened(String trackId, long listenedMs);
+    }
+
+    private final Listener listener;
+    private float requiredFraction;
+    private final long fallbackRequiredMs;
+
+    // Current track
+    private String trackId = null;
+    private long durationMs = 0;
+    private long listenedMs = 0;
+    private boolean counted = false;
+
+    // Last playback snapshot
+    private boolean playing = false;
+    private long lastPositionMs = POSITION_UNKNOWN;
+    private float lastSpeed = 1f;
+    private long lastUpdateTimeMs = 0;
+
+    /**
+     * @param requiredFraction   Fraction (0..1] of the track that must be played to count it.
+     * @param fallbackRequiredMs Time that must be played when the track duration is unknown.
+     */
+    public ListeningTimeTracker(float requiredFraction, long fallbackRequiredMs, Listener listener) {
+        this.listener = listener;
+        this.fallbackRequiredMs = fallbackRequiredMs;
+        setRequiredFraction(requiredFraction);
+    }
+
+    public void setRequiredFraction(float requiredFraction) {
+        this.requiredFraction = Math.max(0.01f, Math.min(1f, requiredFraction));
+    }
+
+    /**
+     * Credits the time played so far to the previous track and starts accounting for a new one.
+     * Reporting the same track again is a no-op.
+     *
+     * @param durationMs Track duration, or 0 if unknown.
+     * @param nowMs      Current elapsed-realtime timestamp.
+     */
+    public void onTrackChanged(String newTrackId, long durationMs, long nowMs) {
+        if (newTrackId == null || newTrackId.equals(trackId)) {
+            if (newTrackId != null && durationMs > 0) {
+                this.durationMs = durationMs; // Duration sometimes arrives in a later metadata update
+                checkListened();
+            }
+            return;
+        }
+
+        creditUntil(nowMs, POSITION_UNKNOWN);
+        trackId = newTrackId;
+        this.durationMs = Math.max(0, durationMs);
+        listenedMs = 0;
+        counted = false;
+        // Keep the play state, but the new track starts from its own position
+        lastPositionMs = POSITION_UNKNOWN;
+        lastUpdateTimeMs = nowMs;
+    }
+
+    /**
+     * Feeds a new playback snapshot.
+     *
+     * @param isPlaying          Whether the player reports STATE_PLAYING.
+     * @param positionMs         Reported position, or {@link #POSITION_UNKNOWN}.
+     * @param speed              Playback speed (1.0 for normal playback).
+     * @param positionUpdateTime Elapsed-realtime timestamp the position was captured at.
+     */
+    public void onPlaybackState(boolean isPlaying, long positionMs, float speed, long positionUpdateTime) {
+        creditUntil(positionUpdateTime, positionMs);
+
+        // A restart from the beginning after the track was counted is a new play-through
+        if (counted && positionMs != POSITION_UNKNOWN && lastPositionMs != POSITION_UNKNOWN
+                && positionMs < lastPositionMs && positionMs < 1000) {
+            listenedMs = 0;
+            counted = false;
+        }
+
+        playing = isPlaying;
+        lastPositionMs = positionMs;
+        lastSpeed = speed > 0 ? speed : 1f;
+        lastUpdateTimeMs = positionUpdateTime;
+    }
+
+    /**
+     * Adds the time played between the last snapshot and {@code timeMs}. When the new position is
+     * known, the credit is bounded by how far the position actually advanced, so buffering stalls
+     * and forward seeks do not count as listening.
+     */
+    private void creditUntil(long timeMs, long newPositionMs) {
+        if (!playing || trackId == null || timeMs <= lastUpdateTimeMs) {
+            return;
+        }
+
+        long credit = (long) ((timeMs - lastUpdateTimeMs) * lastSpeed);
+        if (newPositionMs != POSITION_UNKNOWN && lastPositionMs != POSITION_UNKNOWN
+                && newPositionMs >= lastPositionMs) {
+            credit = Math.min(credit, newPositionMs - lastPositionMs);
+        }
+        if (credit > 0) {
+            listenedMs += credit;
+            checkListened();
+        }
+        lastUpdateTimeMs = timeMs;
+    }
+
+    private void checkListened() {
+        if (counted || trackId == null) return;
+        long required = durationMs > 0 ? (long) (durationMs * requiredFraction) : fallbackRequiredMs;
+        if (listenedMs >= required) {
+            counted = true;
+            if (listener != null) {
+                listener.onTrackListened(trackId, listenedMs);
+            }
+        }
+    }
+
+    public long getListenedMs() {
+        return listenedMs;
+    }
+
+    public String getTrackId() {
+        return trackId;
+    }
+}
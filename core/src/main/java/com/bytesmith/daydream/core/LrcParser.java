@@ -0,0 +1,243 @@
+package com.bytesmith.daydream.core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Parses .lrc files into {@link Lyrics}.
+ * <p>
+ * Understands {@code [mm:ss]}, {@code [mm:ss.xx]} and {@code [mm:ss.xxx]} time tags (several per
+ * line are allowed) and the {@code [offset:+/-ms]} tag. Other ID tags are skipped. Lines are sorted
+ * by time once here, stably, so lookups during playback are a plain binary search.
+ * <p>
+ * {@link #load} scans the file's UTF-8 bytes directly, memory-mapped above
+ * {@link #MAP_THRESHOLD_BYTES}. Tags, brackets and line breaks are single bytes in UTF-8 that never
+ * occur inside a multi-byte character, so the file is never decoded as a whole: only the text of
+ * each timed line is.
+ */
+public final class LrcParser {
+
+    // Files above this size are memory-mapped instead of read into a heap buffer
+    public static final long MAP_THRESHOLD_BYTES = 64 * 1024;
+    private static final long MAX_FILE_BYTES = 8 * 1024 * 1024;
+    // Ordinal bits packed under the time when sorting, keeping equal times in file order
+    private static final int ORDINAL_BITS = 20;
+
+    private LrcParser() {
+    }
+
+    /** Reads and parses {@code file}. Returns {@link Lyrics#EMPTY} for files without timed lines. */
+    public static Lyrics load(File file) throws IOException {
+        try (FileInputStream in = new FileInputStream(file);
+             FileChannel channel = in.getChannel()) {
+            long size = channel.size();
+            if (size > MAX_FILE_BYTES) {
+                throw new IOException("Lyrics file too large: " + size + " bytes");
+            }
+            ByteBuffer bytes;
+            if (size > MAP_THRESHOLD_BYTES) {
+                bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                bytes = ByteBuffer.allocate((int) size);
+                while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                    // Keep reading
+                }
+                bytes.flip();
+            }
+            return parse(new Utf8Chars(bytes));
+        }
+    }
+
+    /** Parses .lrc text. */
+    public static Lyrics parse(CharSequence text) {
+        long[] times = new long[64];
+        String[] lines = new String[64];
+        int count = 0;
+        long offsetMs = 0;
+
+        long[] lineTimes = new long[4];
+        int length = text.length();
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && text.charAt(lineEnd) != '\n' && text.charAt(lineEnd) != '\r') {
+                lineEnd++;
+            }
+
+            // Leading tags: any number of time tags, or a single ID tag
+            int pos = lineStart;
+            int tagCount = 0;
+            while (pos < lineEnd && text.charAt(pos) == '[') {
+                int close = indexOf(text, ']', pos + 1, lineEnd);
+                if (close < 0) break;
+                long time = parseTime(text, pos + 1, close);
+                if (time >= 0) {
+                    if (tagCount == lineTimes.length) {
+                        lineTimes = Arrays.copyOf(lineTimes, tagCount * 2);
+                    }
+                    lineTimes[tagCount++] = time;
+                } else if (tagCount == 0 && startsWith(text, pos + 1, close, "offset:")) {
+                    offsetMs = parseSignedLong(text, pos + 1 + "offset:".length(), close, offsetMs);
+                }
+                pos = close + 1;
+            }
+
+            if (tagCount > 0) {
+                String line = text.subSequence(pos, lineEnd).toString().trim();
+                for (int i = 0; i < tagCount; i++) {
+                    if (count == times.length) {
+                        times = Arrays.copyOf(times, count * 2);
+                        lines = Arrays.copyOf(lines, count * 2);
+                    }
+                    times[count] = lineTimes[i];
+                    lines[count] = line;
+                    count++;
+                }
+            }
+
+            lineStart = lineEnd + 1;
+        }
+        return build(times, lines, count, offsetMs);
+    }
+
+    // Sorts by time, keeping file order for equal times, and applies the offset
+    private static Lyrics build(long[] times, String[] lines, int count, long offsetMs) {
+        if (count == 0) {
+            return Lyrics.EMPTY;
+        }
+        count = Math.min(count, 1 << ORDINAL_BITS);
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = (times[i] << ORDINAL_BITS) | i;
+        }
+        Arrays.sort(keys);
+
+        long[] sortedTimes = new long[count];
+        String[] sortedLines = new String[count];
+        long mask = (1L << ORDINAL_BITS) - 1;
+        for (int i = 0; i < count; i++) {
+            int ordinal = (int) (keys[i] & mask);
+            // A positive offset shows lyrics earlier
+            sortedTimes[i] = Math.max(0, times[ordinal] - offsetMs);
+            sortedLines[i] = lines[ordinal];
+        }
+        return new Lyrics(sortedTimes, sortedLines);
+    }
+
+    /** Milliseconds for {@code mm:ss[.xx[x]]} in {@code text[start, end)}, or -1 if not a time tag. */
+    public static long parseTime(CharSequence text, int start, int end) {
+        int pos = start;
+        long minutes = 0;
+        int digits = 0;
+        while (pos < end && isDigit(text.charAt(pos))) {
+            minutes = minutes * 10 + (text.charAt(pos++) - '0');
+            digits++;
+        }
+        if (digits == 0 || digits > 4 || pos >= end || text.charAt(pos) != ':') return -1;
+        pos++;
+
+        long seconds = 0;
+        digits = 0;
+        while (pos < end && isDigit(text.charAt(pos))) {
+            seconds = seconds * 10 + (text.charAt(pos++) - '0');
+            digits++;
+        }
+        if (digits == 0 || digits > 2 || seconds >= 60) return -1;
+
+        long millis = 0;
+        if (pos < end) {
+            char separator = text.charAt(pos++);
+            if (separator != '.' && separator != ':') return -1;
+            // Fraction digits: tenths, hundredths or thousandths
+            long scale = 100;
+            digits = 0;
+            while (pos < end && isDigit(text.charAt(pos))) {
+                if (scale > 0) {
+                    millis += (text.charAt(pos) - '0') * scale;
+                    scale /= 10;
+                }
+                pos++;
+                digits++;
+            }
+            if (digits == 0 || pos != end) return -1;
+        }
+        return (minutes * 60 + seconds) * 1000 + millis;
+    }
+
+    private static long parseSignedLong(CharSequence text, int start, int end, long fallback) {
+        int pos = start;
+        while (pos < end && text.charAt(pos) == ' ') pos++;
+        boolean negative = false;
+        if (pos < end && (text.charAt(pos) == '+' || text.charAt(pos) == '-')) {
+            negative = text.charAt(pos++) == '-';
+        }
+        long value = 0;
+        int digits = 0;
+        while (pos < end && isDigit(text.charAt(pos)) && digits < 9) {
+            value = value * 10 + (text.charAt(pos++) - '0');
+            digits++;
+        }
+        if (digits == 0) return fallback;
+        return negative ? -value : value;
+    }
+
+    private static int indexOf(CharSequence text, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(CharSequence text, int start, int end, String prefix) {
+        if (end - start < prefix.length()) return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (Character.toLowerCase(text.charAt(start + i)) != prefix.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * UTF-8 bytes seen one byte per char, for the tag scanner: ASCII reads as itself and every
+     * byte of a multi-byte character as a char above 0x7F, which the scanner treats as line text.
+     */
+    private static final class Utf8Chars implements CharSequence {
+
+        private final ByteBuffer bytes;
+        private final int start;
+
+        Utf8Chars(ByteBuffer bytes) {
+            this.bytes = bytes;
+            // Skip a byte order mark
+            boolean bom = bytes.limit() >= 3 && (bytes.get(0) & 0xFF) == 0xEF
+                    && (bytes.get(1) & 0xFF) == 0xBB && (bytes.get(2) & 0xFF) == 0xBF;
+            start = bom ? 3 : 0;
+        }
+
+        @Override
+        public int length() {
+            return bytes.limit() - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes.get(start + index) & 0xFF);
+        }
+
+        /** Decodes {@code [from, to)}, replacing malformed input. */
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            ByteBuffer slice = bytes.duplicate();
+            slice.limit(start + to).position(start + from);
+            return StandardCharsets.UTF_8.decode(slice);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.bytesmith.daydream.core;
+
+import java.util.Arrays;
+
+/**
+ * Timed lyrics lines, sorted by start time.
+ * <p>
+ * Start times are kept in a primitive array so the line for a playback position is a binary
+ * search with no allocation. Immutable.
+ */
+public final class Lyrics {
+
+    public static final Lyrics EMPTY = new Lyrics(new long[0], new String[0]);
+
+    private final long[] timesMs;
+    private final String[] lines;
+
+    /** Arrays are used as is; {@code timesMs} must be sorted ascending. */
+    public Lyrics(long[] timesMs, String[] lines) {
+        if (timesMs.length != lines.length) {
+            throw new IllegalArgumentException("Times and lines differ in length");
+        }
+        this.timesMs = timesMs;
+        this.lines = lines;
+    }
+
+    public int size() {
+        return timesMs.length;
+    }
+
+    public long timeAt(int index) {
+        return timesMs[index];
+    }
+
+    public String lineAt(int index) {
+        return lines[index];
+    }
+
+    /** Index of the line playing at {@code positionMs}, or -1 before the first line. */
+    public int indexAt(long positionMs) {
+        int index = Arrays.binarySearch(timesMs, positionMs);
+        if (index < 0) {
+            return -index - 2; // Insertion point minus one
+        }
+        // Several lines can share a timestamp; the last one wins
+        while (index + 1 < timesMs.length && timesMs[index + 1] == positionMs) {
+            index++;
+        }
+        return index;
+    }
+}
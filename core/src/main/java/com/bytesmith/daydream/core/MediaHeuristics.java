@@ -0,0 +1,70 @@
+package com.bytesmith.daydream.core;
+
+import java.util.Locale;
+
+/**
+ * Verdict rules for whether a notification belongs to a media player, on plain values the Android
+ * adapter reads out of the notification once.
+ */
+public final class MediaHeuristics {
+
+    // Verdict bits
+    public static final int FLAG_MEDIA = 1;
+    public static final int FLAG_TRANSPORT_CATEGORY = 1 << 1;
+    public static final int FLAG_MEDIA_SESSION = 1 << 2;
+    public static final int FLAG_MEDIA_ACTIONS = 1 << 3;
+    public static final int FLAG_PLAYING = 1 << 4;
+
+    /** {@code PlaybackState.STATE_PLAYING}. */
+    public static final int PLAYBACK_STATE_PLAYING = 3;
+    private static final String[] MEDIA_ACTION_KEYWORDS = {"play", "pause", "stop", "previous", "next"};
+
+    private MediaHeuristics() {
+    }
+
+    /**
+     * @param transportCategory Whether the category is {@code Notification.CATEGORY_TRANSPORT}.
+     * @param hasMediaSession   Whether the extras carry a media session token.
+     * @param playbackState     Playback state from the extras, or -1.
+     * @param actionTitles      Action titles; null entries are skipped. May be null.
+     * @return Verdict bits.
+     */
+    public static int inspect(boolean transportCategory, boolean hasMediaSession, int playbackState,
+                              CharSequence[] actionTitles) {
+        int flags = 0;
+        if (transportCategory) {
+            flags |= FLAG_TRANSPORT_CATEGORY;
+        }
+        if (hasMediaSession) {
+            flags |= FLAG_MEDIA_SESSION;
+        }
+
+        boolean hasActions = actionTitles != null && actionTitles.length > 0;
+        if (hasActions) {
+            for (CharSequence title : actionTitles) {
+                if (title == null) continue;
+                if (containsMediaKeyword(title.toString().toLowerCase(Locale.ROOT))) {
+                    flags |= FLAG_MEDIA_ACTIONS;
+                    break;
+                }
+            }
+        }
+
+        if ((flags & (FLAG_TRANSPORT_CATEGORY | FLAG_MEDIA_SESSION | FLAG_MEDIA_ACTIONS)) != 0) {
+            flags |= FLAG_MEDIA;
+        }
+        if (transportCategory && (playbackState == PLAYBACK_STATE_PLAYING || hasActions)) {
+            flags |= FLAG_PLAYING;
+        }
+        return flags;
+    }
+
+    private static boolean containsMediaKeyword(String lowerCaseTitle) {
+        for (String keyword : MEDIA_ACTION_KEYWORDS) {
+            if (lowerCaseTitle.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,208 @@
+package com.bytesmith.daydream.core;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Named counters and fixed-bucket latency histograms, cheap enough to leave on in release builds.
+ * <p>
+ * Recording is a lock-free atomic add; nothing is formatted until the registry is dumped, as
+ * plain text for people or JSON for scripts. Metrics are registered once, normally into static
+ * fields, and live as long as the registry. Thread-safe.
+ */
+public final class MetricsRegistry {
+
+    /** A monotonically increasing count. */
+    public static final class Counter {
+        private final String name;
+        private final AtomicLong value = new AtomicLong();
+
+        Counter(String name) {
+            this.name = name;
+        }
+
+        public void increment() {
+            value.incrementAndGet();
+        }
+
+        public void add(long delta) {
+            value.addAndGet(delta);
+        }
+
+        public long get() {
+            return value.get();
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * Latency distribution over fixed bucket upper bounds, in microseconds. Values above the last
+     * bound land in an overflow bucket; the exact maximum and sum are kept alongside.
+     */
+    public static final class Histogram {
+        private final String name;
+        private final long[] boundsMicros;
+        private final AtomicLongArray buckets;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sumMicros = new AtomicLong();
+        private final AtomicLong maxMicros = new AtomicLong();
+
+        Histogram(String name, long[] boundsMicros) {
+            this.name = name;
+            this.boundsMicros = boundsMicros;
+            buckets = new AtomicLongArray(boundsMicros.length + 1);
+        }
+
+        public void record(long micros) {
+            int bucket = 0;
+            while (bucket < boundsMicros.length && micros > boundsMicros[bucket]) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+            count.incrementAndGet();
+            sumMicros.addAndGet(micros);
+            long max = maxMicros.get();
+            while (micros > max && !maxMicros.compareAndSet(max, micros)) {
+                max = maxMicros.get();
+            }
+        }
+
+        /** Records the time since {@code startNanos}, a {@code System.nanoTime()} reading. */
+        public void recordSince(long startNanos) {
+            record((System.nanoTime() - startNanos) / 1000);
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        /** Smallest bucket bound covering the given percentile (0-100), or the maximum if above all. */
+        public long getPercentileMicros(double percentile) {
+            long total = count.get();
+            if (total == 0) return 0;
+            long target = (long) Math.ceil(percentile / 100 * total);
+            long seen = 0;
+            for (int i = 0; i < boundsMicros.length; i++) {
+                seen += buckets.get(i);
+                if (seen >= target) {
+                    return boundsMicros[i];
+                }
+            }
+            return maxMicros.get();
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private final List<Counter> counters = new ArrayList<>();
+    private final List<Histogram> histograms = new ArrayList<>();
+
+    /** Registers a counter, or returns the one already registered under {@code name}. */
+    public synchronized Counter counter(String name) {
+        for (Counter counter : counters) {
+            if (counter.name.equals(name)) return counter;
+        }
+        Counter counter = new Counter(name);
+        counters.add(counter);
+        return counter;
+    }
+
+    /**
+     * Registers a histogram with ascending bucket bounds, or returns the one already registered
+     * under {@code name}.
+     */
+    public synchronized Histogram histogram(String name, long... boundsMicros) {
+        for (Histogram histogram : histograms) {
+            if (histogram.name.equals(name)) return histogram;
+        }
+        Histogram histogram = new Histogram(name, boundsMicros.clone());
+        histograms.add(histogram);
+        return histogram;
+    }
+
+    /** One line per metric: counters as "name: value", histograms with count, mean, p50/p90/p99 and max. */
+    public synchronized void dumpText(PrintWriter out) {
+        for (Counter counter : counters) {
+            out.print(counter.name);
+            out.print(": ");
+            out.println(counter.get());
+        }
+        for (Histogram histogram : histograms) {
+            long count = histogram.count.get();
+            out.print(histogram.name);
+            out.print(": count=");
+            out.print(count);
+            out.print(" meanUs=");
+            out.print(count > 0 ? histogram.sumMicros.get() / count : 0);
+            out.print(" p50Us<=");
+            out.print(histogram.getPercentileMicros(50));
+            out.print(" p90Us<=");
+            out.print(histogram.getPercentileMicros(90));
+            out.print(" p99Us<=");
+            out.print(histogram.getPercentileMicros(99));
+            out.print(" maxUs=");
+            out.println(histogram.maxMicros.get());
+        }
+    }
+
+    /**
+     * A single JSON object: {@code {"counters":{name:value,...},"histograms":{name:{"bounds":[...],
+     * "buckets":[...],"count":n,"sumUs":n,"maxUs":n},...}}}. The buckets array has one more entry
+     * than the bounds, for values above the last bound.
+     */
+    public synchronized void dumpJson(PrintWriter out) {
+        out.print("{\"counters\":{");
+        for (int i = 0; i < counters.size(); i++) {
+            Counter counter = counters.get(i);
+            if (i > 0) out.print(',');
+            printJsonString(out, counter.name);
+            out.print(':');
+            out.print(counter.get());
+        }
+        out.print("},\"histograms\":{");
+        for (int i = 0; i < histograms.size(); i++) {
+            Histogram histogram = histograms.get(i);
+            if (i > 0) out.print(',');
+            printJsonString(out, histogram.name);
+            out.print(":{\"bounds\":[");
+            for (int b = 0; b < histogram.boundsMicros.length; b++) {
+                if (b > 0) out.print(',');
+                out.print(histogram.boundsMicros[b]);
+            }
+            out.print("],\"buckets\":[");
+            for (int b = 0; b < histogram.buckets.length(); b++) {
+                if (b > 0) out.print(',');
+                out.print(histogram.buckets.get(b));
+            }
+            out.print("],\"count\":");
+            out.print(histogram.count.get());
+            out.print(",\"sumUs\":");
+            out.print(histogram.sumMicros.get());
+            out.print(",\"maxUs\":");
+            out.print(histogram.maxMicros.get());
+            out.print('}');
+        }
+        out.println("}}");
+    }
+
+    // Metric names are plain identifiers; quotes and backslashes are escaped all the same
+    private static void printJsonString(PrintWriter out, String value) {
+        out.print('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.print('\\');
+            }
+            out.print(c);
+        }
+        out.print('"');
+    }
+}
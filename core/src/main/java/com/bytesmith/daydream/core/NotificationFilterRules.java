@@ -0,0 +1,93 @@
+package com.bytesmith.daydream.core;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Immutable, compiled form of the notification filter configuration.
+ * <p>
+ * Package, channel and category rules are compiled into hash sets and the flag rules into a
+ * single bitmask, so evaluating a notification is a handful of O(1) checks no matter how many
+ * rules are configured. A new instance is compiled whenever the configuration changes.
+ */
+public final class NotificationFilterRules {
+
+    /** Importance threshold that disables the importance rule. */
+    public static final int IMPORTANCE_ANY = Integer.MIN_VALUE;
+
+    public static final NotificationFilterRules EMPTY = new NotificationFilterRules(
+            Collections.<String>emptySet(), Collections.<String>emptySet(),
+            Collections.<String>emptySet(), 0, IMPORTANCE_ANY);
+
+    private final Set<String> packages;
+    private final Set<String> channelIds;
+    private final Set<String> categories;
+    private final int flagMask;
+    private final int minImportance;
+
+    private NotificationFilterRules(Set<String> packages, Set<String> channelIds, Set<String> categories,
+                                    int flagMask, int minImportance) {
+        this.packages = packages;
+        this.channelIds = channelIds;
+        this.categories = categories;
+        this.flagMask = flagMask;
+        this.minImportance = minImportance;
+    }
+
+    /**
+     * Compiles a rule set.
+     *
+     * @param packages      Package names whose notifications are hidden.
+     * @param channelIds    Notification channel ids that are hidden.
+     * @param categories    Notification categories that are hidden.
+     * @param flagMask      Notification flags (e.g. ongoing, foreground service); any match hides.
+     * @param minImportance Notifications ranked below this importance are hidden, or
+     *                      {@link #IMPORTANCE_ANY} to disable the rule.
+     */
+    public static NotificationFilterRules compile(Collection<String> packages, Collection<String> channelIds,
+                                           Collection<String> categories, int flagMask, int minImportance) {
+        return new NotificationFilterRules(toSet(packages), toSet(channelIds), toSet(categories),
+                flagMask, minImportance);
+    }
+
+    private static Set<String> toSet(Collection<String> values) {
+        if (values == null || values.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> set = new HashSet<>(values.size() * 2);
+        for (String value : values) {
+            if (value != null && !value.isEmpty()) {
+                set.add(value);
+            }
+        }
+        return set.isEmpty() ? Collections.<String>emptySet() : set;
+    }
+
+    public boolean excludesPackage(String packageName) {
+        return packageName != null && packages.contains(packageName);
+    }
+
+    /** Whether the importance rule is active, i.e. callers need to look up the ranking. */
+    public boolean needsImportance() {
+        return minImportance != IMPORTANCE_ANY;
+    }
+
+    /**
+     * Returns true if a notification with the given attributes must be hidden.
+     * Null channel / category values never match.
+     */
+    public boolean matches(String packageName, String channelId, String category, int flags, int importance) {
+        if (excludesPackage(packageName)) return true;
+        if ((flags & flagMask) != 0) return true;
+        if (channelId != null && channelIds.contains(channelId)) return true;
+        if (category != null && categories.contains(category)) return true;
+        return minImportance != IMPORTANCE_ANY && importance < minImportance;
+    }
+
+    public int size() {
+        return packages.size() + channelIds.size() + categories.size()
+                + Integer.bitCount(flagMask) + (needsImportance() ? 1 : 0);
+    }
+}
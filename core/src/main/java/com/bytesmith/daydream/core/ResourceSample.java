@@ -0,0 +1,38 @@
+package com.bytesmith.daydream.core;
+
+/**
+ * A point-in-time reading of what the dream has consumed so far: battery charge and current,
+ * process CPU time, main thread messages and rendered frames. Any reading the device or the
+ * current configuration can't provide is {@link #UNAVAILABLE}.
+ */
+public final class ResourceSample {
+
+    public static final long UNAVAILABLE = Long.MIN_VALUE;
+
+    /** Elapsed-realtime of the reading. */
+    public final long timeMs;
+    /** Remaining battery charge in microampere-hours. */
+    public final long chargeUah;
+    /** Instantaneous battery current in microamperes; the sign convention varies by vendor. */
+    public final long currentUa;
+    public final int batteryPercent;
+    public final boolean plugged;
+    /** CPU time used by the process since it started. */
+    public final long cpuTimeMs;
+    /** Main looper messages dispatched since the dream started counting them. */
+    public final long mainThreadMessages;
+    /** Frames the dream has rendered since the process started. */
+    public final long frames;
+
+    public ResourceSample(long timeMs, long chargeUah, long currentUa, int batteryPercent, boolean plugged,
+                          long cpuTimeMs, long mainThreadMessages, long frames) {
+        this.timeMs = timeMs;
+        this.chargeUah = chargeUah;
+        this.currentUa = currentUa;
+        this.batteryPercent = batteryPercent;
+        this.plugged = plugged;
+        this.cpuTimeMs = cpuTimeMs;
+        this.mainThreadMessages = mainThreadMessages;
+        this.frames = frames;
+    }
+}
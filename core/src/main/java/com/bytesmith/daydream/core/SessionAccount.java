@@ -0,0 +1,160 @@
+package com.bytesmith.daydream.core;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * What one dream session cost, from {@link ResourceSample}s taken when it starts, at coarse
+ * intervals while it runs and when it stops: battery charge used, mean battery current, CPU time,
+ * main thread messages and frames, each as a total and a per-hour rate.
+ * <p>
+ * Sessions are logged as one line of space-separated {@code key=value} pairs, with "na" for
+ * readings the device didn't provide. Charge figures are only meaningful when {@code plugged=0};
+ * a docked dream is usually charging. Not thread-safe.
+ */
+public final class SessionAccount {
+
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+    private static final String NA = "na";
+
+    private final ResourceSample start;
+    private ResourceSample last;
+    private boolean everPlugged;
+    private int currentSamples = 0;
+    private long currentSumUa = 0;
+
+    public SessionAccount(ResourceSample start) {
+        this.start = start;
+        last = start;
+        everPlugged = start.plugged;
+        addCurrent(start);
+    }
+
+    /** Adds an interval or final sample; the latest one ends the session. */
+    public void sample(ResourceSample sample) {
+        last = sample;
+        everPlugged |= sample.plugged;
+        addCurrent(sample);
+    }
+
+    public long getDurationMs() {
+        return last.timeMs - start.timeMs;
+    }
+
+    /** Charge drawn from the battery, in microampere-hours, or {@link ResourceSample#UNAVAILABLE}. */
+    public long getChargeUsedUah() {
+        return delta(last.chargeUah, start.chargeUah);
+    }
+
+    public long getCpuTimeMs() {
+        return delta(start.cpuTimeMs, last.cpuTimeMs);
+    }
+
+    public long getMainThreadMessages() {
+        return delta(start.mainThreadMessages, last.mainThreadMessages);
+    }
+
+    public long getFrames() {
+        return delta(start.frames, last.frames);
+    }
+
+    /** Mean of the sampled battery currents, or {@link ResourceSample#UNAVAILABLE}. */
+    public long getMeanCurrentUa() {
+        return currentSamples > 0 ? currentSumUa / currentSamples : ResourceSample.UNAVAILABLE;
+    }
+
+    /** Whether the device was on a charger at any sample. */
+    public boolean wasPlugged() {
+        return everPlugged;
+    }
+
+    /** {@code value} scaled to an hour of this session, or {@link ResourceSample#UNAVAILABLE}. */
+    public long perHour(long value) {
+        long durationMs = getDurationMs();
+        if (value == ResourceSample.UNAVAILABLE || durationMs <= 0) {
+            return ResourceSample.UNAVAILABLE;
+        }
+        return value * HOUR_MS / durationMs;
+    }
+
+    /** The session as one log line; {@code model} has its spaces replaced. */
+    public String toLogLine(long wallStartMs, String model, int sdk) {
+        StringBuilder sb = new StringBuilder(320);
+        sb.append("start=").append(wallStartMs);
+        sb.append(" model=").append(model == null ? NA : model.replace(' ', '_'));
+        sb.append(" sdk=").append(sdk);
+        sb.append(" minutes=").append(String.format(Locale.US, "%.1f", getDurationMs() / 60000.0));
+        sb.append(" plugged=").append(everPlugged ? 1 : 0);
+        sb.append(" batteryPct=").append(start.batteryPercent).append('-').append(last.batteryPercent);
+        append(sb, "chargeUah", getChargeUsedUah());
+        append(sb, "chargeUahPerHour", perHour(getChargeUsedUah()));
+        append(sb, "meanCurrentUa", getMeanCurrentUa());
+        sb.append(" currentSamples=").append(currentSamples);
+        append(sb, "cpuMs", getCpuTimeMs());
+        append(sb, "cpuMsPerHour", perHour(getCpuTimeMs()));
+        append(sb, "mainMessages", getMainThreadMessages());
+        append(sb, "mainMessagesPerHour", perHour(getMainThreadMessages()));
+        append(sb, "frames", getFrames());
+        append(sb, "framesPerHour", perHour(getFrames()));
+        return sb.toString();
+    }
+
+    /** The key/value pairs of a line written by {@link #toLogLine}. */
+    public static Map<String, String> parseLogLine(String line) {
+        Map<String, String> values = new HashMap<>();
+        for (String pair : line.trim().split(" ")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                values.put(pair.substring(0, eq), pair.substring(eq + 1));
+            }
+        }
+        return values;
+    }
+
+    /** A short human summary of a logged session, e.g. "42.0 min, 12.3 mAh/h, CPU 5.8 s/h". */
+    public static String summarize(String line) {
+        Map<String, String> values = parseLogLine(line);
+        StringBuilder sb = new StringBuilder();
+        sb.append(values.containsKey("minutes") ? values.get("minutes") : NA).append(" min");
+        String charge = values.get("chargeUahPerHour");
+        if ("1".equals(values.get("plugged"))) {
+            sb.append(", charging");
+        } else if (charge != null && !NA.equals(charge)) {
+            sb.append(String.format(Locale.US, ", %.1f mAh/h", Long.parseLong(charge) / 1000.0));
+        }
+        String cpu = values.get("cpuMsPerHour");
+        if (cpu != null && !NA.equals(cpu)) {
+            sb.append(String.format(Locale.US, ", CPU %.1f s/h", Long.parseLong(cpu) / 1000.0));
+        }
+        String frames = values.get("framesPerHour");
+        if (frames != null && !NA.equals(frames)) {
+            sb.append(", ").append(frames).append(" frames/h");
+        }
+        return sb.toString();
+    }
+
+    private void addCurrent(ResourceSample sample) {
+        if (sample.currentUa != ResourceSample.UNAVAILABLE) {
+            currentSamples++;
+            currentSumUa += sample.currentUa;
+        }
+    }
+
+    // to - from, unless either reading is missing
+    private static long delta(long from, long to) {
+        if (from == ResourceSample.UNAVAILABLE || to == ResourceSample.UNAVAILABLE) {
+            return ResourceSample.UNAVAILABLE;
+        }
+        return to - from;
+    }
+
+    private static void append(StringBuilder sb, String key, long value) {
+        sb.append(' ').append(key).append('=');
+        if (value == ResourceSample.UNAVAILABLE) {
+            sb.append(NA);
+        } else {
+            sb.append(value);
+        }
+    }
+}
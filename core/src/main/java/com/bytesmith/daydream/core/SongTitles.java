@@ -0,0 +1,96 @@
+package com.bytesmith.daydream.core;
+
+import java.util.regex.Pattern;
+
+/** Turns raw media titles into the song banner text. */
+public final class SongTitles {
+
+    private static final Pattern PARENTHESES = Pattern.compile("\\(.*?\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern SPACE_RUNS = Pattern.compile("\\s{2,}");
+
+    private SongTitles() {
+    }
+
+    /**
+     * Cleans up the title and combines it with the artist as "title\nartist".
+     * <p>
+     * Everything after " - " or the first '.', parenthesised parts and whole words of the artist
+     * name (case-insensitive) are removed from the title. Returns the artist alone if nothing of
+     * the title is left, and null if there is neither.
+     */
+    public static String build(String rawTitle, String rawArtist) {
+        String processedTitle = null;
+        if (!isEmpty(rawTitle)) {
+            processedTitle = rawTitle;
+
+            int dashIndex = processedTitle.indexOf(" - ");
+            if (dashIndex != -1) {
+                processedTitle = processedTitle.substring(0, dashIndex).trim();
+            }
+
+            int dotIndex = processedTitle.indexOf('.');
+            if (dotIndex != -1) {
+                processedTitle = processedTitle.substring(0, dotIndex).trim();
+            }
+
+            processedTitle = PARENTHESES.matcher(processedTitle).replaceAll("").trim();
+
+            if (!isEmpty(rawArtist)) {
+                for (String word : WHITESPACE.split(rawArtist)) {
+                    if (!isEmpty(word)) {
+                        String regex = "(?i)\\b" + Pattern.quote(word) + "\\b";
+                        processedTitle = processedTitle.replaceAll(regex, "").trim();
+                    }
+                }
+                // Clean up double spaces left after removal
+                processedTitle = SPACE_RUNS.matcher(processedTitle).replaceAll(" ").trim();
+            }
+
+            if (isEmpty(processedTitle)) {
+                processedTitle = null;
+            }
+        }
+
+        boolean hasTitle = !isEmpty(processedTitle);
+        boolean hasArtist = !isEmpty(rawArtist);
+        if (hasTitle && hasArtist) {
+            return processedTitle + "\n" + rawArtist;
+        } else if (hasTitle) {
+            return processedTitle;
+        } else if (hasArtist) {
+            return rawArtist;
+        }
+        return null;
+    }
+
+    /**
+     * Appends {@code source[start, end)} with each word's first letter upper-cased and the rest
+     * lower-cased, collapsing whitespace runs into single spaces and dropping leading and trailing
+     * whitespace. One pass, no intermediate strings.
+     */
+    public static void appendCapitalized(CharSequence source, int start, int end, StringBuilder out) {
+        boolean wordStart = true;
+        boolean pendingSpace = false;
+        boolean wroteAny = false;
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                wordStart = true;
+                pendingSpace = wroteAny;
+                continue;
+            }
+            if (pendingSpace) {
+                out.append(' ');
+                pendingSpace = false;
+            }
+            out.append(wordStart ? Character.toUpperCase(c) : Character.toLowerCase(c));
+            wordStart = false;
+            wroteAny = true;
+        }
+    }
+
+    private static boolean isEmpty(String s) {
+        return s == null || s.isEmpty();
+    }
+}
@@ -0,0 +1,58 @@
+package com.bytesmith.daydream.core;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Produces the time-in-words phrase for a minute of the day from a {@link TimePhraseGrammar},
+ * caching each phrase the first time it is asked for.
+ * <p>
+ * Grammars are looked up by language; languages without a grammar fall back to English. The
+ * cache holds at most one string per minute of the day. Not thread-safe.
+ */
+public class TimePhraseGenerator {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final Map<String, TimePhraseGrammar> GRAMMARS = new HashMap<>();
+    static {
+        GRAMMARS.put("en", new EnglishTimePhraseGrammar());
+    }
+
+    private final TimePhraseGrammar grammar;
+    private final String[] phrases = new String[MINUTES_PER_DAY];
+
+    public TimePhraseGenerator(TimePhraseGrammar grammar) {
+        this.grammar = grammar;
+    }
+
+    /** Generator for the locale's language, or English if there is no grammar for it. */
+    public static TimePhraseGenerator forLocale(Locale locale) {
+        return new TimePhraseGenerator(grammarFor(locale));
+    }
+
+    /** Grammar for the locale's language, or English. Shared; use from the main thread only. */
+    public static TimePhraseGrammar grammarFor(Locale locale) {
+        TimePhraseGrammar grammar = GRAMMARS.get(locale.getLanguage());
+        return grammar != null ? grammar : GRAMMARS.get("en");
+    }
+
+    /**
+     * @param hourOfDay 0..23
+     * @param minute    0..59
+     */
+    public String phrase(int hourOfDay, int minute) {
+        int minuteOfDay = hourOfDay * 60 + minute;
+        String phrase = phrases[minuteOfDay];
+        if (phrase == null) {
+            phrase = grammar.phrase(hourOfDay, minute);
+            phrases[minuteOfDay] = phrase;
+        }
+        return phrase;
+    }
+
+    public TimePhraseGrammar getGrammar() {
+        return grammar;
+    }
+}
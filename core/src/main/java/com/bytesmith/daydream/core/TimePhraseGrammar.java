@@ -0,0 +1,18 @@
+package com.bytesmith.daydream.core;
+
+/**
+ * Language-specific rules for spelling out a time of day.
+ * <p>
+ * Implementations are pure functions of the time and must not depend on Android APIs, so a
+ * grammar can be checked on the JVM. The returned phrase may contain the simple HTML markup
+ * ({@code <b>}, {@code <br/>}) that the dream's time view renders.
+ */
+public interface TimePhraseGrammar {
+
+    /**
+     * @param hourOfDay 0..23
+     * @param minute    0..59
+     * @return The phrase for that minute, never null.
+     */
+    String phrase(int hourOfDay, int minute);
+}
@@ -0,0 +1,145 @@
+package com.bytesmith.daydream.core;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Feeds a recorded listener trace through {@link ListenerModel} at full speed and reports
+ * throughput, per-event latency percentiles and the sequence of states the dream would show.
+ * <p>
+ * Events are read into memory first so only the listener logic is timed. Repeating the trace
+ * replays it into a fresh model each pass, for load tests on a short storm recording; the state
+ * sequence comes from the first pass. Run from the command line with
+ * {@code TraceReplay <trace> [repeat] [--states]}.
+ */
+public final class TraceReplay {
+
+    private static final float LISTENED_FRACTION = 0.5f;
+    private static final long FALLBACK_REQUIRED_MS = 60000;
+
+    public static final class Result {
+        private final int events;
+        private final long totalNanos;
+        private final long[] sortedLatencies;
+        private final List<String> states;
+        private final String finalState;
+
+        Result(int events, long totalNanos, long[] latencies, List<String> states, String finalState) {
+            this.events = events;
+            this.totalNanos = totalNanos;
+            this.sortedLatencies = latencies;
+            Arrays.sort(sortedLatencies);
+            this.states = states;
+            this.finalState = finalState;
+        }
+
+        public int getEvents() {
+            return events;
+        }
+
+        public double getEventsPerSecond() {
+            return totalNanos > 0 ? events * 1e9 / totalNanos : 0;
+        }
+
+        /** Latency at the given percentile (0-100), in nanoseconds. */
+        public long getLatencyNanos(double percentile) {
+            if (sortedLatencies.length == 0) return 0;
+            int index = (int) Math.ceil(percentile / 100 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(sortedLatencies.length - 1, index))];
+        }
+
+        /** One "+elapsed ms state" line per change the dream would have rendered. */
+        public List<String> getStates() {
+            return states;
+        }
+
+        public String getFinalState() {
+            return finalState;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "events=%d, eventsPerSec=%.0f, p50Ns=%d, p90Ns=%d, p99Ns=%d, maxNs=%d, stateChanges=%d",
+                    events, getEventsPerSecond(), getLatencyNanos(50), getLatencyNanos(90),
+                    getLatencyNanos(99), getLatencyNanos(100), states.size());
+        }
+    }
+
+    private TraceReplay() {
+    }
+
+    /**
+     * Replays {@code events} {@code repeat} times with the given filter rules.
+     */
+    public static Result run(List<ListenerEvent> events, NotificationFilterRules rules, int repeat) {
+        int passes = Math.max(1, repeat);
+        long[] latencies = new long[events.size() * passes];
+        List<String> states = new ArrayList<>();
+        long startTimeMs = events.isEmpty() ? 0 : events.get(0).timeMs;
+        String finalState = null;
+
+        int n = 0;
+        long totalNanos = 0;
+        for (int pass = 0; pass < passes; pass++) {
+            ListenerModel model = new ListenerModel(LISTENED_FRACTION, FALLBACK_REQUIRED_MS, null);
+            long passStart = System.nanoTime();
+            for (ListenerEvent event : events) {
+                long start = System.nanoTime();
+                // The service filters before anything else, and before recording
+                boolean changed = !isFiltered(rules, event) && model.apply(event);
+                latencies[n++] = System.nanoTime() - start;
+                if (changed && pass == 0) {
+                    states.add("+" + (event.timeMs - startTimeMs) + "ms " + model.describeState());
+                }
+            }
+            totalNanos += System.nanoTime() - passStart;
+            finalState = model.describeState();
+        }
+        return new Result(n, totalNanos, latencies, states, finalState);
+    }
+
+    private static boolean isFiltered(NotificationFilterRules rules, ListenerEvent event) {
+        return event.type == ListenerEvent.TYPE_POSTED
+                && rules.matches(event.packageName, event.channelId, event.category, event.flags, event.importance);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: TraceReplay <trace> [repeat] [--states]");
+            System.exit(2);
+        }
+        int repeat = 1;
+        boolean printStates = false;
+        for (int i = 1; i < args.length; i++) {
+            if ("--states".equals(args[i])) {
+                printStates = true;
+            } else {
+                repeat = Integer.parseInt(args[i]);
+            }
+        }
+
+        List<ListenerEvent> events;
+        long wallTimeMs;
+        try (ListenerTraceReader reader = new ListenerTraceReader(new FileInputStream(args[0]))) {
+            wallTimeMs = reader.getWallTimeMs();
+            events = reader.readAll();
+        }
+        System.out.println("Trace " + args[0] + " recorded at " + new Date(wallTimeMs)
+                + ", " + events.size() + " events");
+
+        Result result = run(events, NotificationFilterRules.EMPTY, repeat);
+        if (printStates) {
+            for (String state : result.getStates()) {
+                System.out.println(state);
+            }
+        }
+        System.out.println("Final: " + result.getFinalState());
+        System.out.println(result);
+    }
+}
@@ -0,0 +1,88 @@
+package com.bytesmith.daydream.core;
+
+import java.util.Arrays;
+
+/**
+ * Immutable snapshot of the event instances in one query window, sorted by start time so the
+ * next event can be found by binary search.
+ */
+public final class UpcomingEvents {
+
+    public static final UpcomingEvents EMPTY = new UpcomingEvents(0, Long.MIN_VALUE, Long.MIN_VALUE,
+            new long[0], new String[0]);
+
+    private final long version;
+    private final long windowStart;
+    private final long windowEnd;
+    private final long[] begins;
+    private final String[] titles;
+
+    private UpcomingEvents(long version, long windowStart, long windowEnd, long[] begins, String[] titles) {
+        this.version = version;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.begins = begins;
+        this.titles = titles;
+    }
+
+    /** Builds a snapshot from parallel arrays (first {@code count} entries), sorting them by start. */
+    public static UpcomingEvents of(long version, long windowStart, long windowEnd,
+                             long[] begins, String[] titles, int count) {
+        long[] sortedBegins = Arrays.copyOf(begins, count);
+        String[] sortedTitles = Arrays.copyOf(titles, count);
+        // Providers normally return sorted rows; this is a cheap insertion sort when they do
+        for (int i = 1; i < count; i++) {
+            long begin = sortedBegins[i];
+            String title = sortedTitles[i];
+            int j = i - 1;
+            while (j >= 0 && sortedBegins[j] > begin) {
+                sortedBegins[j + 1] = sortedBegins[j];
+                sortedTitles[j + 1] = sortedTitles[j];
+                j--;
+            }
+            sortedBegins[j + 1] = begin;
+            sortedTitles[j + 1] = title;
+        }
+        return new UpcomingEvents(version, windowStart, windowEnd, sortedBegins, sortedTitles);
+    }
+
+    /** Index of the first event starting at or after {@code nowMillis}, or -1 if none is cached. */
+    public int indexOfNext(long nowMillis) {
+        int low = 0;
+        int high = begins.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (begins[mid] < nowMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < begins.length ? low : -1;
+    }
+
+    public long beginAt(int index) {
+        return begins[index];
+    }
+
+    public String titleAt(int index) {
+        return titles[index];
+    }
+
+    public int size() {
+        return begins.length;
+    }
+
+    /** Changes on every refresh. */
+    public long getVersion() {
+        return version;
+    }
+
+    public long getWindowStart() {
+        return windowStart;
+    }
+
+    public long getWindowEnd() {
+        return windowEnd;
+    }
+}
@@ -0,0 +1,36 @@
+package com.bytesmith.daydream.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class BatteryLevelsTest {
+
+    @Test
+    public void percent_scalesLevel() {
+        assertEquals(50, BatteryLevels.percent(50, 100));
+        assertEquals(100, BatteryLevels.percent(255, 255));
+        assertEquals(33, BatteryLevels.percent(1, 3));
+    }
+
+    @Test
+    public void percent_isZeroWhenUnknown() {
+        assertEquals(0, BatteryLevels.percent(-1, 100));
+        assertEquals(0, BatteryLevels.percent(50, -1));
+    }
+
+    @Test
+    public void bucket_roundsDownToFivePercentSteps() {
+        assertEquals(0, BatteryLevels.bucket(100));
+        assertEquals(1, BatteryLevels.bucket(99));
+        assertEquals(1, BatteryLevels.bucket(95));
+        assertEquals(2, BatteryLevels.bucket(94));
+        assertEquals(19, BatteryLevels.bucket(5));
+    }
+
+    @Test
+    public void bucket_lastBucketIsBelowFivePercent() {
+        assertEquals(BatteryLevels.BUCKET_COUNT - 1, BatteryLevels.bucket(4));
+        assertEquals(BatteryLevels.BUCKET_COUNT - 1, BatteryLevels.bucket(0));
+    }
+}
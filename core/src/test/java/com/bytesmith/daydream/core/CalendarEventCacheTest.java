@@ -0,0 +1,147 @@
+package com.bytesmith.daydream.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CalendarEventCacheTest {
+
+    private static final long MINUTE_MS = 60 * 1000L;
+    private static final long HOUR_MS = 60 * MINUTE_MS;
+    private static final long WINDOW_MS = 24 * HOUR_MS;
+    private static final long NOW = 1_700_000_000_000L;
+
+    private FakeCalendarSource source;
+    private CalendarEventCache cache;
+
+    @Before
+    public void setUp() {
+        source = new FakeCalendarSource();
+        cache = new CalendarEventCache(source, WINDOW_MS);
+    }
+
+    @Test
+    public void refresh_queriesOneWindowAhead() {
+        source.add(NOW - HOUR_MS, "Earlier");
+        source.add(NOW + 3 * HOUR_MS, "Lunch");
+        source.add(NOW + HOUR_MS, "Standup");
+        source.add(NOW + WINDOW_MS, "Past the window");
+
+        assertTrue(cache.needsRefresh(NOW));
+        cache.refresh(NOW);
+
+        assertEquals(1, source.queries.size());
+        assertEquals(NOW, source.queries.get(0)[0]);
+        assertEquals(NOW + WINDOW_MS, source.queries.get(0)[1]);
+        UpcomingEvents events = cache.getEvents();
+        assertEquals(2, events.size());
+        assertEquals("Standup", events.titleAt(0)); // Sorted by start
+        assertEquals("Lunch", events.titleAt(1));
+        assertEquals(NOW, events.getWindowStart());
+        assertEquals(NOW + WINDOW_MS, events.getWindowEnd());
+    }
+
+    @Test
+    public void needsRefresh_onlyAfterHalfTheWindow() {
+        cache.refresh(NOW);
+        assertFalse(cache.needsRefresh(NOW));
+        assertFalse(cache.needsRefresh(NOW + WINDOW_MS / 2 - 1));
+        assertTrue(cache.needsRefresh(NOW + WINDOW_MS / 2));
+    }
+
+    @Test
+    public void needsRefresh_whenTheClockGoesBack() {
+        cache.refresh(NOW);
+        assertTrue(cache.needsRefresh(NOW - 1));
+    }
+
+    @Test
+    public void invalidate_picksUpProviderChanges() {
+        cache.refresh(NOW);
+        assertEquals(0, cache.getEvents().size());
+        long version = cache.getEvents().getVersion();
+
+        source.add(NOW + 2 * HOUR_MS, "New meeting");
+        assertFalse(cache.needsRefresh(NOW + MINUTE_MS)); // Not seen until the provider reports it
+        cache.invalidate();
+        assertTrue(cache.needsRefresh(NOW + MINUTE_MS));
+
+        cache.refresh(NOW + MINUTE_MS);
+        assertEquals(1, cache.getEvents().size());
+        assertTrue(cache.getEvents().getVersion() > version);
+        assertEquals(2, cache.getRefreshCount());
+    }
+
+    @Test
+    public void invalidate_duringAQueryKeepsItStale() {
+        source.onQuery = () -> cache.invalidate();
+        cache.refresh(NOW);
+        assertTrue(cache.needsRefresh(NOW));
+    }
+
+    @Test
+    public void indexOfNext_findsTheNextEventByTime() {
+        source.add(NOW + HOUR_MS, "First");
+        source.add(NOW + 2 * HOUR_MS, "Second");
+        cache.refresh(NOW);
+        UpcomingEvents events = cache.getEvents();
+
+        assertEquals(0, events.indexOfNext(NOW));
+        assertEquals(0, events.indexOfNext(NOW + HOUR_MS));
+        assertEquals(1, events.indexOfNext(NOW + HOUR_MS + 1));
+        assertEquals(-1, events.indexOfNext(NOW + 2 * HOUR_MS + 1));
+        assertEquals(NOW + 2 * HOUR_MS, events.beginAt(1));
+    }
+
+    @Test
+    public void refresh_growsPastTheInitialCapacity() {
+        for (int i = 99; i >= 0; i--) {
+            source.add(NOW + i * MINUTE_MS, "Event " + i);
+        }
+        cache.refresh(NOW);
+        UpcomingEvents events = cache.getEvents();
+        assertEquals(100, events.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("Event " + i, events.titleAt(i));
+        }
+    }
+
+    @Test
+    public void empty_hasNoNextEventAndNeedsRefresh() {
+        assertEquals(-1, UpcomingEvents.EMPTY.indexOfNext(NOW));
+        assertTrue(cache.needsRefresh(NOW));
+    }
+
+    /** A fixed list of events that records the windows it was queried for. */
+    private static final class FakeCalendarSource implements CalendarSource {
+        final List<Long> begins = new ArrayList<>();
+        final List<String> titles = new ArrayList<>();
+        final List<long[]> queries = new ArrayList<>();
+        Runnable onQuery = null;
+
+        void add(long begin, String title) {
+            begins.add(begin);
+            titles.add(title);
+        }
+
+        @Override
+        public void query(long beginMillis, long endMillis, Collector out) {
+            queries.add(new long[]{beginMillis, endMillis});
+            if (onQuery != null) {
+                onQuery.run();
+            }
+            for (int i = 0; i < begins.size(); i++) {
+                long begin = begins.get(i);
+                if (begin >= beginMillis && begin < endMillis) {
+                    out.add(begin, begin + 30 * MINUTE_MS, titles.get(i));
+                }
+            }
+        }
+    }
+}
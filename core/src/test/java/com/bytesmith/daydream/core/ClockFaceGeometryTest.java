@@ -0,0 +1,119 @@
+package com.bytesmith.daydream.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ClockFaceGeometryTest {
+
+    private static final float EPSILON = 1e-3f;
+
+    @Test
+    public void ticks_startAtTwelveAndRunClockwise() {
+        float[] ticks = new float[ClockFaceGeometry.TICKS * 4];
+        ClockFaceGeometry.ticks(100, 100, 100, ticks);
+        // Twelve o'clock: straight up, hour tick longer than a minute tick
+        assertEquals(100, ticks[0], EPSILON);
+        assertEquals(12, ticks[1], EPSILON);
+        assertEquals(3, ticks[3], EPSILON);
+        // One minute past: a shorter tick six degrees round
+        assertEquals(100 + 93 * (float) Math.sin(Math.toRadians(6)), ticks[4], EPSILON);
+        assertEquals(100 - 93 * (float) Math.cos(Math.toRadians(6)), ticks[5], EPSILON);
+        // Three o'clock: straight right
+        assertEquals(188, ticks[15 * 4], EPSILON);
+        assertEquals(100, ticks[15 * 4 + 1], EPSILON);
+        assertTrue(ClockFaceGeometry.isHourTick(15));
+        assertFalse(ClockFaceGeometry.isHourTick(16));
+    }
+
+    @Test
+    public void numeralCenters_twelveAtTheTop() {
+        float[] centers = new float[ClockFaceGeometry.NUMERALS * 2];
+        ClockFaceGeometry.numeralCenters(50, 50, 50, centers);
+        assertEquals(50, centers[11 * 2], EPSILON);
+        assertEquals(13, centers[11 * 2 + 1], EPSILON);
+        assertEquals(50, centers[5 * 2], EPSILON); // Six
+        assertEquals(87, centers[5 * 2 + 1], EPSILON);
+    }
+
+    @Test
+    public void hands_followTheTime() {
+        assertEquals(0f, ClockFaceGeometry.hourHandDegrees(0, 0), 0f);
+        assertEquals(0f, ClockFaceGeometry.hourHandDegrees(12, 0), 0f);
+        assertEquals(105f, ClockFaceGeometry.hourHandDegrees(15, 30), 0f);
+        assertEquals(270f, ClockFaceGeometry.minuteHandDegrees(45), 0f);
+
+        float[] hands = new float[8];
+        ClockFaceGeometry.hand(10, 10, 90, 5, hands, 4);
+        assertEquals(10, hands[4], 0f);
+        assertEquals(10, hands[5], 0f);
+        assertEquals(15, hands[6], EPSILON);
+        assertEquals(10, hands[7], EPSILON);
+    }
+
+    @Test
+    public void digits_24And12Hour() {
+        int[] digits = new int[ClockFaceGeometry.DIGITS];
+        ClockFaceGeometry.digits(7, 5, true, digits);
+        assertDigits(digits, 0, 7, 0, 5);
+        ClockFaceGeometry.digits(7, 5, false, digits);
+        assertDigits(digits, ClockFaceGeometry.BLANK, 7, 0, 5);
+        ClockFaceGeometry.digits(0, 0, false, digits);
+        assertDigits(digits, 1, 2, 0, 0);
+        ClockFaceGeometry.digits(23, 59, false, digits);
+        assertDigits(digits, 1, 1, 5, 9);
+        ClockFaceGeometry.digits(-1, 0, true, digits);
+        assertDigits(digits, ClockFaceGeometry.BLANK, ClockFaceGeometry.BLANK,
+                ClockFaceGeometry.BLANK, ClockFaceGeometry.BLANK);
+    }
+
+    @Test
+    public void segmentsOf_litSegmentCounts() {
+        int[] expected = {6, 2, 5, 5, 4, 5, 6, 3, 7, 6};
+        for (int digit = 0; digit <= 9; digit++) {
+            assertEquals(String.valueOf(digit), expected[digit], Integer.bitCount(ClockFaceGeometry.segmentsOf(digit)));
+        }
+        assertEquals(0, ClockFaceGeometry.segmentsOf(ClockFaceGeometry.BLANK));
+    }
+
+    @Test
+    public void segmentRects_stayInsideTheirCell() {
+        float unit = 100;
+        float[] rects = new float[ClockFaceGeometry.SEGMENTS * 4];
+        float previousRight = -1;
+        for (int i = 0; i < ClockFaceGeometry.DIGITS; i++) {
+            float left = ClockFaceGeometry.digitLeft(i, unit);
+            float right = left + ClockFaceGeometry.DIGIT_WIDTH * unit;
+            assertTrue(left > previousRight);
+            ClockFaceGeometry.segmentRects(i, unit, rects);
+            for (int s = 0; s < ClockFaceGeometry.SEGMENTS; s++) {
+                assertTrue(rects[s * 4] >= left && rects[s * 4 + 2] <= right + EPSILON);
+                assertTrue(rects[s * 4 + 1] >= 0 && rects[s * 4 + 3] <= unit);
+                assertTrue(rects[s * 4] < rects[s * 4 + 2] && rects[s * 4 + 1] < rects[s * 4 + 3]);
+            }
+            previousRight = right;
+        }
+        assertEquals(previousRight, ClockFaceGeometry.displayWidth(unit), EPSILON);
+    }
+
+    @Test
+    public void colonRects_sitBetweenHoursAndMinutes() {
+        float unit = 100;
+        float[] rects = new float[8];
+        ClockFaceGeometry.colonRects(unit, rects);
+        float hoursRight = ClockFaceGeometry.digitLeft(1, unit) + ClockFaceGeometry.DIGIT_WIDTH * unit;
+        float minutesLeft = ClockFaceGeometry.digitLeft(2, unit);
+        for (int i = 0; i < 2; i++) {
+            assertTrue(rects[i * 4] > hoursRight && rects[i * 4 + 2] < minutesLeft);
+        }
+        assertTrue(rects[3] < rects[5]); // Upper dot above the lower one
+    }
+
+    private static void assertDigits(int[] actual, int... expected) {
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("digit " + i, expected[i], actual[i]);
+        }
+    }
+}
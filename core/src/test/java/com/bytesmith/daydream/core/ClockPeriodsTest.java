@@ -0,0 +1,64 @@
+package com.bytesmith.daydream.core;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class ClockPeriodsTest {
+
+    private static final TimeZone BERLIN = TimeZone.getTimeZone("Europe/Berlin");
+
+    @Test
+    public void periodKey_changesOnlyAtTheBoundary() {
+        Calendar calendar = Calendar.getInstance(BERLIN);
+        long start = at(calendar, 2024, Calendar.MAY, 1, 10, 59, 59);
+        long next = start + 1000;
+
+        assertNotEquals(ClockPeriods.periodKey(calendar, start, Calendar.MINUTE),
+                ClockPeriods.periodKey(calendar, next, Calendar.MINUTE));
+        assertNotEquals(ClockPeriods.periodKey(calendar, start, Calendar.HOUR_OF_DAY),
+                ClockPeriods.periodKey(calendar, next, Calendar.HOUR_OF_DAY));
+        assertEquals(ClockPeriods.periodKey(calendar, start, Calendar.DAY_OF_MONTH),
+                ClockPeriods.periodKey(calendar, next, Calendar.DAY_OF_MONTH));
+    }
+
+    @Test
+    public void periodKey_daysDifferAcrossYears() {
+        Calendar calendar = Calendar.getInstance(BERLIN);
+        long newYearsEve = at(calendar, 2023, Calendar.DECEMBER, 31, 23, 59, 59);
+        assertNotEquals(ClockPeriods.periodKey(calendar, newYearsEve, Calendar.DAY_OF_MONTH),
+                ClockPeriods.periodKey(calendar, newYearsEve + 1000, Calendar.DAY_OF_MONTH));
+    }
+
+    @Test
+    public void nextBoundary_minuteHourAndDay() {
+        Calendar calendar = Calendar.getInstance(BERLIN);
+        long now = at(calendar, 2024, Calendar.MAY, 1, 10, 20, 30);
+
+        assertEquals(at(calendar, 2024, Calendar.MAY, 1, 10, 21, 0),
+                ClockPeriods.nextBoundary(calendar, now, Calendar.MINUTE));
+        assertEquals(at(calendar, 2024, Calendar.MAY, 1, 11, 0, 0),
+                ClockPeriods.nextBoundary(calendar, now, Calendar.HOUR_OF_DAY));
+        assertEquals(at(calendar, 2024, Calendar.MAY, 2, 0, 0, 0),
+                ClockPeriods.nextBoundary(calendar, now, Calendar.DAY_OF_MONTH));
+    }
+
+    @Test
+    public void nextBoundary_dayIsShortOnDstStart() {
+        Calendar calendar = Calendar.getInstance(BERLIN);
+        // Clocks go from 02:00 to 03:00 on 31 March 2024
+        long now = at(calendar, 2024, Calendar.MARCH, 31, 0, 30, 0);
+        long boundary = ClockPeriods.nextBoundary(calendar, now, Calendar.DAY_OF_MONTH);
+        assertEquals(23 * 60 * 60 * 1000L, boundary - at(calendar, 2024, Calendar.MARCH, 31, 0, 0, 0));
+    }
+
+    private static long at(Calendar calendar, int year, int month, int day, int hour, int minute, int second) {
+        calendar.clear();
+        calendar.set(year, month, day, hour, minute, second);
+        return calendar.getTimeInMillis();
+    }
+}
@@ -0,0 +1,54 @@
+package com.bytesmith.daydream.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CostBudgetTest {
+
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+
+    @Test
+    public void allowance_coversTheStartedHour() {
+        CostBudget budget = CostBudget.withDefaults();
+        budget.setLimit(CostBudget.CLOCK_UPDATES, 60);
+        assertEquals(61, budget.allowance(CostBudget.CLOCK_UPDATES, 0));
+        assertEquals(61, budget.allowance(CostBudget.CLOCK_UPDATES, HOUR_MS / 2));
+        // The hourly check lands at about one hour, and must still hold the first hour to one hour's limit
+        assertEquals(61, budget.allowance(CostBudget.CLOCK_UPDATES, HOUR_MS));
+        assertEquals(121, budget.allowance(CostBudget.CLOCK_UPDATES, HOUR_MS + 1));
+        assertEquals(121, budget.allowance(CostBudget.CLOCK_UPDATES, 2 * HOUR_MS));
+    }
+
+    @Test
+    public void allowance_zeroAndUnlimited() {
+        CostBudget budget = CostBudget.withDefaults();
+        assertEquals(0, budget.allowance(CostBudget.IDLE_ICON_REBUILDS, 3 * HOUR_MS));
+        assertEquals(CostBudget.UNLIMITED, budget.allowance(CostBudget.ALLOCATIONS, HOUR_MS));
+
+        budget.setLimit(CostBudget.BROADCASTS, -5);
+        assertEquals(CostBudget.UNLIMITED, budget.getLimit(CostBudget.BROADCASTS));
+    }
+
+    @Test
+    public void overruns_markOnlyTheCountersOverAllowance() {
+        CostBudget budget = CostBudget.withDefaults();
+        budget.setLimit(CostBudget.ALLOCATIONS, 1000);
+        budget.add(CostBudget.CLOCK_UPDATES, 61);
+        budget.add(CostBudget.BROADCASTS, 122);
+        budget.add(CostBudget.ALLOCATIONS, 1002);
+        budget.add(CostBudget.IDLE_ICON_REBUILDS, 1);
+
+        int overruns = budget.overruns(HOUR_MS);
+        assertEquals((1 << CostBudget.BROADCASTS) | (1 << CostBudget.ALLOCATIONS)
+                | (1 << CostBudget.IDLE_ICON_REBUILDS), overruns);
+        String report = budget.describe(HOUR_MS);
+        assertTrue(report, report.contains("clockUpdates=61/61,"));
+        assertTrue(report, report.contains("broadcasts=122/121!"));
+        assertTrue(report, report.endsWith("allocations=1002/1001!"));
+
+        budget.reset();
+        assertEquals(0, budget.overruns(HOUR_MS));
+    }
+}
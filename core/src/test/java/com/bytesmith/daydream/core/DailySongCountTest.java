@@ -0,0 +1,54 @@
+package com.bytesmith.daydream.core;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DailySongCountTest {
+
+    private static final TimeZone TOKYO = TimeZone.getTimeZone("Asia/Tokyo");
+
+    @Test
+    public void next_countsWithinTheSameDay() {
+        long morning = at(TOKYO, 2024, Calendar.JUNE, 3, 8, 0);
+        long evening = at(TOKYO, 2024, Calendar.JUNE, 3, 23, 59);
+        assertFalse(DailySongCount.shouldReset(morning, evening, TOKYO));
+        assertEquals(6, DailySongCount.next(5, morning, evening, TOKYO));
+    }
+
+    @Test
+    public void next_startsOverOnANewLocalDay() {
+        long evening = at(TOKYO, 2024, Calendar.JUNE, 3, 23, 59);
+        long afterMidnight = at(TOKYO, 2024, Calendar.JUNE, 4, 0, 1);
+        assertTrue(DailySongCount.shouldReset(evening, afterMidnight, TOKYO));
+        assertEquals(1, DailySongCount.next(5, evening, afterMidnight, TOKYO));
+    }
+
+    @Test
+    public void shouldReset_usesTheGivenZone() {
+        // 23:30 and 00:30 in Tokyo are the same day in UTC
+        long before = at(TOKYO, 2024, Calendar.JUNE, 3, 23, 30);
+        long after = at(TOKYO, 2024, Calendar.JUNE, 4, 0, 30);
+        assertTrue(DailySongCount.shouldReset(before, after, TOKYO));
+        assertFalse(DailySongCount.shouldReset(before, after, TimeZone.getTimeZone("UTC")));
+    }
+
+    @Test
+    public void shouldReset_sameDayOfYearInAnotherYear() {
+        long lastYear = at(TOKYO, 2023, Calendar.JUNE, 3, 12, 0);
+        long thisYear = at(TOKYO, 2024, Calendar.JUNE, 2, 12, 0); // Day 154 in both years
+        assertTrue(DailySongCount.shouldReset(lastYear, thisYear, TOKYO));
+    }
+
+    private static long at(TimeZone zone, int year, int month, int day, int hour, int minute) {
+        Calendar calendar = Calendar.getInstance(zone);
+        calendar.clear();
+        calendar.set(year, month, day, hour, minute);
+        return calendar.getTimeInMillis();
+    }
+}
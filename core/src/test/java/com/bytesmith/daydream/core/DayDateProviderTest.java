@@ -0,0 +1,111 @@
+package com.bytesmith.daydream.core;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DayDateProviderTest {
+
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+    private static final TimeZone NEW_YORK = TimeZone.getTimeZone("America/New_York");
+    private static final TimeZone TOKYO = TimeZone.getTimeZone("Asia/Tokyo");
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    // Clocks went from 00:00 to 01:00 on 4 November 2018, so that day had no midnight
+    private static final TimeZone SAO_PAULO = TimeZone.getTimeZone("America/Sao_Paulo");
+
+    @Test
+    public void getDayDate_isCachedForTheDay() {
+        DayDateProvider provider = new DayDateProvider(Locale.US, NEW_YORK);
+        long morning = at(NEW_YORK, 2024, Calendar.JUNE, 3, 8, 0);
+        String date = provider.getDayDate(morning);
+        assertEquals("Monday, Jun 3", date);
+        assertSame(date, provider.getDayDate(morning + 15 * HOUR_MS));
+        assertEquals(at(NEW_YORK, 2024, Calendar.JUNE, 4, 0, 0), provider.getNextMidnightMillis());
+    }
+
+    @Test
+    public void getDayDate_changesAtLocalMidnight() {
+        DayDateProvider provider = new DayDateProvider(Locale.US, NEW_YORK);
+        long midnight = at(NEW_YORK, 2024, Calendar.JUNE, 4, 0, 0);
+        assertEquals("Monday, Jun 3", provider.getDayDate(midnight - 1));
+        assertEquals("Tuesday, Jun 4", provider.getDayDate(midnight));
+    }
+
+    @Test
+    public void dstStart_dayIs23Hours() {
+        DayDateProvider provider = new DayDateProvider(Locale.US, NEW_YORK);
+        long dayStart = at(NEW_YORK, 2024, Calendar.MARCH, 10, 0, 0);
+        assertEquals("Sunday, Mar 10", provider.getDayDate(dayStart + HOUR_MS));
+        assertEquals(23 * HOUR_MS, provider.getNextMidnightMillis() - dayStart);
+        assertEquals("Sunday, Mar 10", provider.getDayDate(dayStart + 23 * HOUR_MS - 1));
+        assertEquals("Monday, Mar 11", provider.getDayDate(dayStart + 23 * HOUR_MS));
+    }
+
+    @Test
+    public void dstEnd_dayIs25Hours() {
+        DayDateProvider provider = new DayDateProvider(Locale.US, NEW_YORK);
+        long dayStart = at(NEW_YORK, 2024, Calendar.NOVEMBER, 3, 0, 0);
+        // 01:30 happens twice; both are still the 3rd
+        assertEquals("Sunday, Nov 3", provider.getDayDate(dayStart + 90 * 60 * 1000L));
+        assertEquals("Sunday, Nov 3", provider.getDayDate(dayStart + 150 * 60 * 1000L));
+        assertEquals(25 * HOUR_MS, provider.getNextMidnightMillis() - dayStart);
+        assertEquals("Sunday, Nov 3", provider.getDayDate(dayStart + 25 * HOUR_MS - 1));
+        assertEquals("Monday, Nov 4", provider.getDayDate(dayStart + 25 * HOUR_MS));
+    }
+
+    @Test
+    public void skippedMidnight_dayStartsAtFirstValidInstant() {
+        DayDateProvider provider = new DayDateProvider(Locale.US, SAO_PAULO);
+        long saturdayNoon = at(SAO_PAULO, 2018, Calendar.NOVEMBER, 3, 12, 0);
+        assertEquals("Saturday, Nov 3", provider.getDayDate(saturdayNoon));
+        long sundayStart = provider.getNextMidnightMillis();
+        assertEquals(at(SAO_PAULO, 2018, Calendar.NOVEMBER, 4, 1, 0), sundayStart);
+        assertEquals("Saturday, Nov 3", provider.getDayDate(sundayStart - 1));
+        assertEquals("Sunday, Nov 4", provider.getDayDate(sundayStart));
+    }
+
+    @Test
+    public void clockSetBack_recomputesTheDay() {
+        DayDateProvider provider = new DayDateProvider(Locale.US, NEW_YORK);
+        long tuesday = at(NEW_YORK, 2024, Calendar.JUNE, 4, 9, 0);
+        assertEquals("Tuesday, Jun 4", provider.getDayDate(tuesday));
+        assertEquals("Monday, Jun 3", provider.getDayDate(tuesday - 12 * HOUR_MS));
+    }
+
+    @Test
+    public void reset_switchesTimeZone() {
+        // 23:30 UTC on Saturday is already Sunday morning in Tokyo
+        long now = at(UTC, 2024, Calendar.JUNE, 1, 23, 30);
+        DayDateProvider provider = new DayDateProvider(Locale.US, UTC);
+        assertEquals("Saturday, Jun 1", provider.getDayDate(now));
+
+        provider.reset(Locale.US, TOKYO);
+        assertEquals("Sunday, Jun 2", provider.getDayDate(now));
+        assertEquals(at(TOKYO, 2024, Calendar.JUNE, 3, 0, 0), provider.getNextMidnightMillis());
+    }
+
+    @Test
+    public void reset_switchesLocale() {
+        long now = at(UTC, 2024, Calendar.JUNE, 1, 12, 0);
+        DayDateProvider provider = new DayDateProvider(Locale.US, UTC);
+        assertEquals("Saturday, Jun 1", provider.getDayDate(now));
+
+        provider.reset(Locale.GERMANY, UTC);
+        assertTrue(provider.getDayDate(now).startsWith("Samstag, "));
+        provider.reset(Locale.FRANCE, UTC);
+        assertTrue(provider.getDayDate(now).startsWith("samedi, "));
+    }
+
+    private static long at(TimeZone zone, int year, int month, int day, int hour, int minute) {
+        Calendar calendar = Calendar.getInstance(zone);
+        calendar.clear();
+        calendar.set(year, month, day, hour, minute);
+        return calendar.getTimeInMillis();
+    }
+}
@@ -0,0 +1,119 @@
+package com.bytesmith.daydream.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DecodeSizesTest {
+
+    private static final int RGB_565 = 2;
+    private static final int[] EDGES = {1, 7, 95, 96, 240, 299, 300, 301, 640, 1000, 1080, 1500, 3000, 4032, 12000};
+    private static final int[] ALBUM_ART_TARGETS = {96, 240, 300, 512};
+    // Portrait phone, tall phone, tablet and TV screens, in pixels
+    private static final int[][] SCREENS = {{1080, 1920}, {1440, 3200}, {2560, 1600}, {3840, 2160}};
+    // The slideshow's screen cap and bitmap count (shown, fading out, prefetched)
+    private static final int SLIDESHOW_MAX_EDGE = 1920;
+    private static final int SLIDESHOW_SLOTS = 3;
+
+    @Test
+    public void fitSampleSize_keepsLongerEdgeAtTarget() {
+        assertEquals(1, DecodeSizes.fitSampleSize(300, 300, 300));
+        assertEquals(1, DecodeSizes.fitSampleSize(599, 599, 300));
+        assertEquals(2, DecodeSizes.fitSampleSize(600, 600, 300));
+        assertEquals(2, DecodeSizes.fitSampleSize(1000, 1000, 300));
+        assertEquals(8, DecodeSizes.fitSampleSize(3000, 2000, 300));
+    }
+
+    @Test
+    public void fitSampleSize_subsamplesPanoramas() {
+        // Sampling on the shorter edge would decode all 12000 x 300 pixels
+        int sampleSize = DecodeSizes.fitSampleSize(12000, 300, 300);
+        assertEquals(32, sampleSize);
+        assertEquals(375, DecodeSizes.sampledEdge(12000, sampleSize));
+        assertEquals(10, DecodeSizes.sampledEdge(300, sampleSize));
+    }
+
+    @Test
+    public void capSampleSize_smallestThatFits() {
+        assertEquals(1, DecodeSizes.capSampleSize(1080, 1920, 1080 * 1920));
+        assertEquals(2, DecodeSizes.capSampleSize(1081, 1920, 1080 * 1920));
+        assertEquals(4, DecodeSizes.capSampleSize(4032, 3024, 1080 * 1920));
+        assertEquals(8, DecodeSizes.capSampleSize(12000, 9000, 1080 * 1920));
+    }
+
+    @Test
+    public void sampledEdge_roundsUp() {
+        assertEquals(500, DecodeSizes.sampledEdge(1000, 2));
+        assertEquals(501, DecodeSizes.sampledEdge(1001, 2));
+        assertEquals(1, DecodeSizes.sampledEdge(1, 8));
+    }
+
+    @Test
+    public void fitScale_neverEnlarges() {
+        assertEquals(1f, DecodeSizes.fitScale(100, 50, 300), 0f);
+        assertEquals(0.5f, DecodeSizes.fitScale(600, 300, 300), 0f);
+        assertEquals(1, DecodeSizes.scaledEdge(1, 0.01f));
+    }
+
+    @Test
+    public void albumArtDecode_staysWithinBudget() {
+        for (int target : ALBUM_ART_TARGETS) {
+            long slotBytes = DecodeSizes.bytes(target, target, RGB_565);
+            for (int width : EDGES) {
+                for (int height : EDGES) {
+                    String size = width + "x" + height + " -> " + target;
+                    int sampleSize = DecodeSizes.fitSampleSize(width, height, target);
+                    int sampledWidth = DecodeSizes.sampledEdge(width, sampleSize);
+                    int sampledHeight = DecodeSizes.sampledEdge(height, sampleSize);
+
+                    // The in-flight decode is at most twice the target on either edge...
+                    assertTrue(size, sampledWidth <= Math.max(2 * target, 1));
+                    assertTrue(size, sampledHeight <= Math.max(2 * target, 1));
+                    assertTrue(size, DecodeSizes.bytes(sampledWidth, sampledHeight, RGB_565) <= 4 * slotBytes);
+                    // ...and still has as many pixels as the fitted result needs
+                    assertTrue(size, Math.max(sampledWidth, sampledHeight) >= Math.min(target, Math.max(width, height)));
+
+                    // What's cached fits one pool slot
+                    float scale = DecodeSizes.fitScale(sampledWidth, sampledHeight, target);
+                    int cachedWidth = DecodeSizes.scaledEdge(sampledWidth, scale);
+                    int cachedHeight = DecodeSizes.scaledEdge(sampledHeight, scale);
+                    assertTrue(size, cachedWidth <= target && cachedHeight <= target);
+                    assertTrue(size, DecodeSizes.bytes(cachedWidth, cachedHeight, RGB_565) <= slotBytes);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void slideshowDecode_staysWithinBudget() {
+        for (int[] screen : SCREENS) {
+            float scale = DecodeSizes.fitScale(screen[0], screen[1], SLIDESHOW_MAX_EDGE);
+            int slotWidth = DecodeSizes.scaledEdge(screen[0], scale);
+            int slotHeight = DecodeSizes.scaledEdge(screen[1], scale);
+            assertTrue(Math.max(slotWidth, slotHeight) <= SLIDESHOW_MAX_EDGE);
+            long slotPixels = (long) slotWidth * slotHeight;
+            long slotBytes = DecodeSizes.bytes(slotWidth, slotHeight, RGB_565);
+            // At most 1920 x 1200 (the 16:10 tablet) here, so three slots stay under 14 MB
+            assertTrue(slotBytes * SLIDESHOW_SLOTS <= 3L * 1920 * 1200 * RGB_565);
+
+            for (int width : EDGES) {
+                for (int height : EDGES) {
+                    String size = width + "x" + height + " -> " + slotWidth + "x" + slotHeight;
+                    int sampleSize = DecodeSizes.capSampleSize(width, height, slotPixels);
+                    long sampledPixels = (long) DecodeSizes.sampledEdge(width, sampleSize)
+                            * DecodeSizes.sampledEdge(height, sampleSize);
+                    // Every decode fits the slot it's decoded into...
+                    assertTrue(size, sampledPixels <= slotPixels);
+                    assertTrue(size, sampledPixels * RGB_565 <= slotBytes);
+                    // ...without throwing away more resolution than needed
+                    if (sampleSize > 1) {
+                        int half = sampleSize / 2;
+                        assertTrue(size, (long) DecodeSizes.sampledEdge(width, half)
+                                * DecodeSizes.sampledEdge(height, half) > slotPixels);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.bytesmith.daydream.core;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the grammar against the hand-written {@code time_hh_mm_AM/PM} string resources it
+ * replaced, kept in {@code legacy_time_strings.xml}.
+ */
+public class EnglishTimePhraseGrammarTest {
+
+    private static final Pattern TIME_STRING =
+            Pattern.compile("<string name=\"time_(\\d\\d)_(\\d\\d)_(AM|PM)\">(.*)</string>");
+
+    // Minutes of the day that had no usable resource and fell back to "Time not available."
+    private static final int BLANK_01_00_AM = 60;
+    private static final int MISSING_01_59_AM = 60 + 59;
+    private static final int MISSING_02_00_AM = 2 * 60;
+    private static final int MISSING_03_01_AM = 3 * 60 + 1;
+
+    private static Map<Integer, String> legacy;
+
+    @BeforeClass
+    public static void loadLegacyStrings() throws IOException {
+        legacy = new HashMap<>();
+        InputStream in = EnglishTimePhraseGrammarTest.class.getResourceAsStream("/legacy_time_strings.xml");
+        assertNotNull(in);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = TIME_STRING.matcher(line.trim());
+                if (!matcher.matches()) continue;
+                int hour = Integer.parseInt(matcher.group(1)) % 12 + ("PM".equals(matcher.group(3)) ? 12 : 0);
+                int minuteOfDay = hour * 60 + Integer.parseInt(matcher.group(2));
+                legacy.put(minuteOfDay, resourceValue(matcher.group(4)));
+            }
+        }
+    }
+
+    @Test
+    public void everyLegacyPhraseIsReproduced() {
+        EnglishTimePhraseGrammar grammar = new EnglishTimePhraseGrammar();
+        int identical = 0;
+        for (Map.Entry<Integer, String> entry : legacy.entrySet()) {
+            int minuteOfDay = entry.getKey();
+            if (minuteOfDay == BLANK_01_00_AM) continue;
+            assertEquals("minute " + minuteOfDay, entry.getValue(), grammar.phrase(minuteOfDay / 60, minuteOfDay % 60));
+            identical++;
+        }
+        assertEquals(1436, identical);
+    }
+
+    @Test
+    public void minutesWithoutALegacyPhraseNowHaveOne() {
+        assertEquals(1437, legacy.size());
+        assertTrue(legacy.get(BLANK_01_00_AM).isEmpty());
+        assertFalse(legacy.containsKey(MISSING_01_59_AM));
+        assertFalse(legacy.containsKey(MISSING_02_00_AM));
+        assertFalse(legacy.containsKey(MISSING_03_01_AM));
+
+        // Worded like the neighbouring hours, e.g. 03:00 and 03:02 AM
+        EnglishTimePhraseGrammar grammar = new EnglishTimePhraseGrammar();
+        assertEquals("<b>It's</b> <br/><b>One</b>, in the <b>morning</b>, precisely.", grammar.phrase(1, 0));
+        assertEquals("<b>It's</b> <br/><b>One</b> minute to <br/><b>Two</b>, in the <b>morning</b>.", grammar.phrase(1, 59));
+        assertEquals("<b>It's</b> <br/><b>Two</b>, in the <b>morning</b>, precisely.", grammar.phrase(2, 0));
+        assertEquals("<b>It's</b> <br/><b>One</b> minute past <br/><b>Three</b>, in the <b>morning</b>.", grammar.phrase(3, 1));
+    }
+
+    @Test
+    public void everyMinuteHasAPhrase() {
+        EnglishTimePhraseGrammar grammar = new EnglishTimePhraseGrammar();
+        for (int minuteOfDay = 0; minuteOfDay < TimePhraseGenerator.MINUTES_PER_DAY; minuteOfDay++) {
+            String phrase = grammar.phrase(minuteOfDay / 60, minuteOfDay % 60);
+            assertTrue("minute " + minuteOfDay, phrase.startsWith("<b>It's</b>"));
+        }
+    }
+
+    @Test
+    public void generatorCachesAndFallsBackToEnglish() {
+        TimePhraseGenerator generator = TimePhraseGenerator.forLocale(Locale.JAPANESE);
+        assertTrue(generator.getGrammar() instanceof EnglishTimePhraseGrammar);
+        assertSame(generator.phrase(10, 15), generator.phrase(10, 15));
+    }
+
+    // The string Resources.getString() returns for a resource value: entities and backslash
+    // escapes resolved, whitespace runs collapsed and trimmed
+    private static String resourceValue(String xml) {
+        String text = xml.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                .replace("&apos;", "'").replace("&amp;", "&");
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                sb.append(next == 'n' ? '\n' : next == 't' ? '\t' : next);
+            } else if (Character.isWhitespace(c)) {
+                if (sb.length() > 0 && sb.charAt(sb.length() - 1) != ' ') sb.append(' ');
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString().trim();
+    }
+}
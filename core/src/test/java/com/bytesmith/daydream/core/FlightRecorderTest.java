@@ -0,0 +1,74 @@
+package com.bytesmith.daydream.core;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class FlightRecorderTest {
+
+    @Test
+    public void capacity_roundsUpToAPowerOfTwo() {
+        assertEquals(4096, new FlightRecorder(4096).getCapacity());
+        assertEquals(8, new FlightRecorder(5).getCapacity());
+        assertEquals(2, new FlightRecorder(0).getCapacity());
+    }
+
+    @Test
+    public void snapshot_keepsPayloadsIntact() {
+        FlightRecorder recorder = new FlightRecorder(8);
+        recorder.record(1000, FlightRecorder.BRIGHTNESS_CHANGED, 10, 255);
+        recorder.record(2000, FlightRecorder.NOTIFICATION_POSTED, "com.example".hashCode(), 1);
+        recorder.record(3000, FlightRecorder.COST_OVERRUN, -1, Integer.MIN_VALUE);
+        recorder.record(4000, FlightRecorder.SONG_CHANGED, Integer.MAX_VALUE, -7);
+
+        List<FlightRecorder.Entry> entries = recorder.snapshot();
+        assertEquals(4, entries.size());
+        assertEntry(entries.get(0), 1000, FlightRecorder.BRIGHTNESS_CHANGED, 10, 255);
+        assertEntry(entries.get(1), 2000, FlightRecorder.NOTIFICATION_POSTED, "com.example".hashCode(), 1);
+        assertEntry(entries.get(2), 3000, FlightRecorder.COST_OVERRUN, -1, Integer.MIN_VALUE);
+        assertEntry(entries.get(3), 4000, FlightRecorder.SONG_CHANGED, Integer.MAX_VALUE, -7);
+    }
+
+    @Test
+    public void snapshot_keepsTheLastCapacityEvents() {
+        FlightRecorder recorder = new FlightRecorder(8);
+        for (int i = 0; i < 20; i++) {
+            recorder.record(i, FlightRecorder.BATTERY, i, -i);
+        }
+        List<FlightRecorder.Entry> entries = recorder.snapshot();
+        assertEquals(20, recorder.getRecordedCount());
+        assertEquals(8, entries.size());
+        for (int i = 0; i < 8; i++) {
+            assertEntry(entries.get(i), 12 + i, FlightRecorder.BATTERY, 12 + i, -(12 + i));
+        }
+    }
+
+    @Test
+    public void snapshot_whileRecordingNeverMixesTwoEvents() throws InterruptedException {
+        final FlightRecorder recorder = new FlightRecorder(16);
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= 2_000_000; i++) {
+                // Every field derives from i, so an entry mixing two writes shows up as a mismatch
+                recorder.record(i, i % FlightRecorder.EVENT_COUNT, i, -i);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            for (FlightRecorder.Entry entry : recorder.snapshot()) {
+                assertEquals(entry.timeMs, entry.a);
+                assertEquals(-entry.a, entry.b);
+                assertEquals(entry.a % FlightRecorder.EVENT_COUNT, entry.event);
+            }
+        }
+        writer.join();
+    }
+
+    private static void assertEntry(FlightRecorder.Entry entry, long timeMs, int event, int a, int b) {
+        assertEquals(timeMs, entry.timeMs);
+        assertEquals(event, entry.event);
+        assertEquals(a, entry.a);
+        assertEquals(b, entry.b);
+    }
+}
@@ -0,0 +1,236 @@
+package com.bytesmith.daydream.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ListenerModelTest {
+
+    private static final String CHAT = "com.example.chat";
+    private static final String PLAYER = "com.example.player";
+    private static final String RADIO = "com.example.radio";
+
+    // Listener callbacks in order, as short strings
+    private final List<String> calls = new ArrayList<>();
+    private ListenerModel model;
+
+    @Before
+    public void setUp() {
+        model = new ListenerModel(0.5f, 30_000, new ListenerModel.Listener() {
+            @Override
+            public void onPackagesChanged() {
+                calls.add("packages");
+            }
+
+            @Override
+            public void onSongInfo(String songName) {
+                calls.add("info " + songName);
+            }
+
+            @Override
+            public void onSongName(String songName) {
+                calls.add("name " + songName);
+            }
+
+            @Override
+            public void onTrackListened(String trackId, long listenedMs) {
+                calls.add("listened " + trackId);
+            }
+        });
+    }
+
+    @Test
+    public void posted_newPackagesOnly() {
+        model.onPosted(CHAT, false, null, false);
+        model.onPosted(CHAT, false, null, false);
+        assertCalls("packages");
+        assertEquals("icons=[com.example.chat] playing=null song=- count=0", model.describeState());
+
+        assertTrue(model.onRemoved(CHAT));
+        assertFalse(model.onRemoved(CHAT));
+        assertCalls("packages");
+        assertEquals("icons=[] playing=null song=- count=0", model.describeState());
+    }
+
+    @Test
+    public void posted_mediaWithAPlayingSession() {
+        model.onPosted(CHAT, false, null, false);
+        calls.clear();
+
+        model.onPosted(PLAYER, true, "Song\nArtist", true);
+        assertCalls("packages", "info Song\nArtist", "name Song\nArtist");
+        assertEquals(PLAYER, model.getPlayingPackage());
+        assertEquals("Song\nArtist", model.getSongName());
+        // The playing app's icon gives way to the song
+        assertEquals("icons=[com.example.chat] playing=com.example.player song='Song/Artist' count=0",
+                model.describeState());
+
+        // An empty name leaves the song as it was
+        model.onPosted(PLAYER, true, "", true);
+        assertCalls("packages");
+        assertEquals("Song\nArtist", model.getSongName());
+    }
+
+    @Test
+    public void posted_mediaWithNothingPlaying() {
+        model.onPosted(PLAYER, true, "Song", true);
+        calls.clear();
+
+        model.onPosted(PLAYER, true, "Song", false);
+        assertCalls("info null", "packages");
+        assertNull(model.getPlayingPackage());
+        assertNull(model.getSongName());
+        assertEquals("icons=[com.example.player] playing=null song=- count=0", model.describeState());
+    }
+
+    @Test
+    public void activeNotifications_addOrReplace() {
+        model.onPosted(CHAT, false, null, false);
+        long version = model.getVersion();
+        calls.clear();
+
+        model.onActiveNotifications(Arrays.asList(PLAYER), false);
+        assertEquals(Arrays.asList(CHAT, PLAYER), new ArrayList<>(model.getPackages()));
+        assertTrue(model.getVersion() > version);
+
+        version = model.getVersion();
+        model.onActiveNotifications(Arrays.asList(PLAYER), false);
+        assertEquals(version, model.getVersion());
+
+        model.onActiveNotifications(Arrays.asList(RADIO), true);
+        assertEquals(Arrays.asList(RADIO), new ArrayList<>(model.getPackages()));
+        // The dream is refreshed every time
+        assertCalls("packages", "packages", "packages");
+    }
+
+    @Test
+    public void sessionChecks_setAndClearThePlayingPackage() {
+        model.onSessionChecked(null, false);
+        assertCalls();
+
+        model.onSessionChecked(PLAYER, true);
+        model.onSessionChecked(PLAYER, true);
+        assertCalls("packages");
+        assertEquals(PLAYER, model.getPlayingPackage());
+
+        // A paused session of another app leaves the playing one alone
+        model.onSessionChecked(RADIO, false);
+        assertCalls();
+        assertEquals(PLAYER, model.getPlayingPackage());
+
+        model.onSessionChecked(PLAYER, false);
+        assertCalls("info null", "packages");
+        assertNull(model.getPlayingPackage());
+
+        model.onSessionChecked(RADIO, true);
+        model.onSessionChecked(null, false);
+        assertCalls("packages", "info null", "packages");
+        assertNull(model.getPlayingPackage());
+    }
+
+    @Test
+    public void playbackState_playingThenPaused() {
+        model.onPlaybackState(PLAYER, ListenerEvent.STATE_PLAYING, "Song (Live)", "Artist");
+        assertCalls("name Song\nArtist");
+        assertEquals(PLAYER, model.getPlayingPackage());
+        assertEquals("Song\nArtist", model.getSongName());
+
+        // Same track again, no new broadcast
+        model.onMetadata("Song (Live)", "Artist");
+        assertCalls();
+
+        // Pausing another app does nothing
+        model.onPlaybackState(RADIO, ListenerEvent.STATE_PAUSED, null, null);
+        assertCalls();
+
+        model.onPlaybackState(PLAYER, ListenerEvent.STATE_PAUSED, null, null);
+        assertCalls("name ");
+        assertNull(model.getPlayingPackage());
+        // The dream keeps showing the last song
+        assertEquals("Song\nArtist", model.getSongName());
+    }
+
+    @Test
+    public void metadata_untitledTracksAreIgnored() {
+        model.onMetadata(null, "Artist");
+        model.onMetadata("", "Artist");
+        assertCalls();
+        assertNull(model.getSongName());
+    }
+
+    @Test
+    public void tracking_countsListenedTracks() {
+        model.trackMetadata("Song", "Artist", 100_000, 0);
+        model.trackPlaybackState(true, 0, 1f, 0);
+        model.trackPlaybackState(false, 60_000, 1f, 60_000);
+        assertCalls("listened Song\nArtist");
+        assertEquals(1, model.getSongCount());
+
+        // Untitled tracks are not tracked, so the listened one isn't counted again
+        model.trackMetadata(null, "Artist", 100_000, 60_000);
+        model.trackPlaybackState(true, 60_000, 1f, 60_000);
+        model.trackPlaybackState(false, 100_000, 1f, 100_000);
+        assertCalls();
+        assertEquals("icons=[] playing=null song=- count=1", model.describeState());
+    }
+
+    @Test
+    public void apply_replaysATrace() {
+        ListenerEvent event = new ListenerEvent();
+        event.reset(ListenerEvent.TYPE_POSTED, 1000, CHAT);
+        assertTrue(model.apply(event));
+        assertFalse(model.apply(event));
+
+        // A media notification before any session played reads as stopped
+        event.reset(ListenerEvent.TYPE_POSTED, 2000, PLAYER);
+        event.category = "transport";
+        event.hasMediaSession = true;
+        event.title = "Song";
+        event.text = "Artist";
+        assertTrue(model.apply(event));
+        assertNull(model.getPlayingPackage());
+
+        event.reset(ListenerEvent.TYPE_METADATA, 3000, PLAYER);
+        event.title = "Song";
+        event.text = "Artist";
+        event.durationMs = 100_000;
+        assertTrue(model.apply(event));
+
+        event.reset(ListenerEvent.TYPE_PLAYBACK_STATE, 3000, PLAYER);
+        event.state = ListenerEvent.STATE_PLAYING;
+        event.positionMs = 0;
+        assertTrue(model.apply(event));
+        assertEquals(PLAYER, model.getPlayingPackage());
+
+        event.reset(ListenerEvent.TYPE_POSTED, 4000, PLAYER);
+        event.category = "transport";
+        event.hasMediaSession = true;
+        event.title = "Song";
+        event.text = "Artist";
+        model.apply(event);
+        assertEquals("icons=[com.example.chat] playing=com.example.player song='Song/Artist' count=0",
+                model.describeState());
+
+        event.reset(ListenerEvent.TYPE_PLAYBACK_STATE, 63_000, PLAYER);
+        event.state = ListenerEvent.STATE_PAUSED;
+        event.positionMs = 60_000;
+        assertTrue(model.apply(event));
+
+        event.reset(ListenerEvent.TYPE_REMOVED, 64_000, CHAT);
+        assertTrue(model.apply(event));
+        assertEquals("icons=[com.example.player] playing=null song='Song/Artist' count=1", model.describeState());
+    }
+
+    private void assertCalls(String... expected) {
+        assertEquals(Arrays.asList(expected), calls);
+        calls.clear();
+    }
+}
@@ -0,0 +1,174 @@
+package com.bytesmith.daydream.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ListenerTraceTest {
+
+    private static final long WALL_MS = 1_700_000_000_000L;
+    private static final long START_MS = 5_000;
+
+    @Test
+    public void roundTrip_everyEventType() throws IOException {
+        ListenerEvent posted = posted(6_000, "com.example.player", "0|player|1", "transport");
+        posted.channelId = "playback";
+        posted.flags = 0x80000022; // High bit set, so flags go through unsigned
+        posted.importance = 2;
+        posted.hasMediaSession = true;
+        posted.playbackStateExtra = ListenerEvent.STATE_PLAYING;
+        posted.actionTitles = new String[]{"Previous", "Pause", null, "Next"};
+        posted.title = "Song";
+        posted.text = "Artist";
+
+        ListenerEvent state = new ListenerEvent();
+        state.reset(ListenerEvent.TYPE_PLAYBACK_STATE, 6_500, "com.example.player");
+        state.state = ListenerEvent.STATE_PAUSED;
+        state.positionMs = 42_000;
+        state.speed = 1.5f;
+        state.positionUpdateTimeMs = 6_400; // Before the event time, so the delta is negative
+
+        ListenerEvent metadata = new ListenerEvent();
+        metadata.reset(ListenerEvent.TYPE_METADATA, 6_500, "com.example.player");
+        metadata.title = "Song";
+        metadata.text = "Artist";
+        metadata.durationMs = 210_000;
+
+        ListenerEvent removed = new ListenerEvent();
+        removed.reset(ListenerEvent.TYPE_REMOVED, 90_000_000, "com.example.player");
+        removed.key = "0|player|1";
+
+        ListenerTraceReader reader = new ListenerTraceReader(new ByteArrayInputStream(
+                write(posted, state, metadata, removed)));
+        assertEquals(WALL_MS, reader.getWallTimeMs());
+        assertEquals(START_MS, reader.getStartTimeMs());
+        List<ListenerEvent> events = reader.readAll();
+        assertEquals(4, events.size());
+
+        ListenerEvent event = events.get(0);
+        assertEquals(ListenerEvent.TYPE_POSTED, event.type);
+        assertEquals(6_000, event.timeMs);
+        assertEquals("com.example.player", event.packageName);
+        assertEquals("0|player|1", event.key);
+        assertEquals("transport", event.category);
+        assertEquals("playback", event.channelId);
+        assertEquals(0x80000022, event.flags);
+        assertEquals(2, event.importance);
+        assertTrue(event.hasMediaSession);
+        assertEquals(ListenerEvent.STATE_PLAYING, event.playbackStateExtra);
+        assertArrayEquals(new String[]{"Previous", "Pause", null, "Next"}, event.actionTitles);
+        assertEquals("Song", event.title);
+        assertEquals("Artist", event.text);
+
+        event = events.get(1);
+        assertEquals(ListenerEvent.TYPE_PLAYBACK_STATE, event.type);
+        assertEquals(6_500, event.timeMs);
+        assertEquals(ListenerEvent.STATE_PAUSED, event.state);
+        assertEquals(42_000, event.positionMs);
+        assertEquals(1.5f, event.speed, 0f);
+        assertEquals(6_400, event.positionUpdateTimeMs);
+
+        event = events.get(2);
+        assertEquals(ListenerEvent.TYPE_METADATA, event.type);
+        assertEquals(6_500, event.timeMs);
+        assertEquals("Song", event.title);
+        assertEquals("Artist", event.text);
+        assertEquals(210_000, event.durationMs);
+
+        event = events.get(3);
+        assertEquals(ListenerEvent.TYPE_REMOVED, event.type);
+        assertEquals(90_000_000, event.timeMs);
+        assertEquals("com.example.player", event.packageName);
+        assertEquals("0|player|1", event.key);
+        assertNull(event.category);
+    }
+
+    @Test
+    public void stringTable_repeatsCostAReference() throws IOException {
+        // Time deltas of a byte each
+        ListenerEvent first = posted(START_MS + 100, "com.example.chat", "0|chat|1", null);
+        ListenerEvent second = posted(START_MS + 100, "com.example.chat", "0|chat|1", null);
+        int header = write().length;
+        int once = write(first).length;
+        int twice = write(first, second).length;
+        // The repeat refers to the package and key instead of writing them again, length prefixes included
+        assertEquals((once - header) - "com.example.chat".length() - "0|chat|1".length() - 4, twice - once);
+
+        List<ListenerEvent> events = read(write(first, second, posted(7_000, "com.example.mail", "0|chat|1", null)));
+        assertEquals(3, events.size());
+        assertEquals("com.example.chat", events.get(1).packageName);
+        assertEquals("0|chat|1", events.get(1).key);
+        assertEquals("com.example.mail", events.get(2).packageName);
+        assertEquals("0|chat|1", events.get(2).key);
+        assertEquals(7_000, events.get(2).timeMs);
+    }
+
+    @Test
+    public void truncatedTrace_endsAtTheLastCompleteEvent() throws IOException {
+        byte[] whole = write(posted(6_000, "com.example.chat", "0|chat|1", null),
+                posted(7_000, "com.example.mail", "0|mail|1", "email"));
+        int headerAndFirst = write(posted(6_000, "com.example.chat", "0|chat|1", null)).length;
+        for (int length = headerAndFirst; length < whole.length; length++) {
+            List<ListenerEvent> events = read(Arrays.copyOf(whole, length));
+            assertEquals("Cut at " + length, 1, events.size());
+            assertEquals("com.example.chat", events.get(0).packageName);
+        }
+        assertEquals(2, read(whole).size());
+    }
+
+    @Test(expected = IOException.class)
+    public void notATrace_isRejected() throws IOException {
+        new ListenerTraceReader(new ByteArrayInputStream(new byte[]{'L', 'R', 'C', '!', 1}));
+    }
+
+    @Test
+    public void reusedEvent_isReset() throws IOException {
+        ListenerEvent posted = posted(6_000, "com.example.player", "0|player|1", "transport");
+        posted.actionTitles = new String[]{"Pause"};
+        ListenerEvent removed = new ListenerEvent();
+        removed.reset(ListenerEvent.TYPE_REMOVED, 7_000, "com.example.player");
+
+        ListenerTraceReader reader = new ListenerTraceReader(new ByteArrayInputStream(write(posted, removed)));
+        ListenerEvent event = new ListenerEvent();
+        assertTrue(reader.next(event));
+        assertEquals(1, event.actionTitles.length);
+        assertTrue(reader.next(event));
+        assertEquals(0, event.actionTitles.length);
+        assertNull(event.category);
+        assertFalse(reader.next(event));
+    }
+
+    private static ListenerEvent posted(long timeMs, String packageName, String key, String category) {
+        ListenerEvent event = new ListenerEvent();
+        event.reset(ListenerEvent.TYPE_POSTED, timeMs, packageName);
+        event.key = key;
+        event.category = category;
+        return event;
+    }
+
+    private static byte[] write(ListenerEvent... events) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ListenerTraceWriter writer = new ListenerTraceWriter(out, WALL_MS, START_MS)) {
+            for (ListenerEvent event : events) {
+                writer.write(event);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static List<ListenerEvent> read(byte[] trace) throws IOException {
+        try (ListenerTraceReader reader = new ListenerTraceReader(new ByteArrayInputStream(trace))) {
+            return reader.readAll();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.bytesmith.daydream.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.bytesmith.daydream.core.ListeningTimeTracker.POSITION_UNKNOWN;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ListeningTimeTrackerTest {
+
+    private final List<String> listened = new ArrayList<>();
+    private ListeningTimeTracker tracker;
+
+    @Before
+    public void setUp() {
+        tracker = new ListeningTimeTracker(0.5f, 30_000, (trackId, listenedMs) -> listened.add(trackId));
+    }
+
+    @Test
+    public void countsTrackOnceHalfIsPlayed() {
+        tracker.onTrackChanged("a", 100_000, 0);
+        tracker.onPlaybackState(true, 0, 1f, 0);
+        tracker.onPlaybackState(true, 40_000, 1f, 40_000);
+        assertTrue(listened.isEmpty());
+
+        tracker.onPlaybackState(false, 50_000, 1f, 50_000);
+        assertEquals(1, listened.size());
+        assertEquals(50_000, tracker.getListenedMs());
+
+        // Playing on doesn't count it again
+        tracker.onPlaybackState(true, 50_000, 1f, 50_000);
+        tracker.onPlaybackState(false, 90_000, 1f, 90_000);
+        assertEquals(1, listened.size());
+    }
+
+    @Test
+    public void pausedTimeIsNotCredited() {
+        tracker.onTrackChanged("a", 100_000, 0);
+        tracker.onPlaybackState(true, 0, 1f, 0);
+        tracker.onPlaybackState(false, 10_000, 1f, 10_000);
+        tracker.onPlaybackState(true, 10_000, 1f, 500_000);
+        assertEquals(10_000, tracker.getListenedMs());
+    }
+
+    @Test
+    public void forwardSeekIsBoundedByElapsedTime() {
+        tracker.onTrackChanged("a", 100_000, 0);
+        tracker.onPlaybackState(true, 0, 1f, 0);
+        tracker.onPlaybackState(true, 90_000, 1f, 5_000);
+        assertEquals(5_000, tracker.getListenedMs());
+        assertTrue(listened.isEmpty());
+    }
+
+    @Test
+    public void speedScalesCredit() {
+        tracker.onTrackChanged("a", 100_000, 0);
+        tracker.onPlaybackState(true, POSITION_UNKNOWN, 2f, 0);
+        tracker.onPlaybackState(false, POSITION_UNKNOWN, 2f, 10_000);
+        assertEquals(20_000, tracker.getListenedMs());
+    }
+
+    @Test
+    public void unknownDurationUsesFallback() {
+        tracker.onTrackChanged("a", 0, 0);
+        tracker.onPlaybackState(true, POSITION_UNKNOWN, 1f, 0);
+        tracker.onPlaybackState(true, POSITION_UNKNOWN, 1f, 29_000);
+        assertTrue(listened.isEmpty());
+        tracker.onPlaybackState(true, POSITION_UNKNOWN, 1f, 30_000);
+        assertEquals(1, listened.size());
+    }
+
+    @Test
+    public void trackChangeCreditsThePreviousTrack() {
+        tracker.onTrackChanged("a", 60_000, 0);
+        tracker.onPlaybackState(true, POSITION_UNKNOWN, 1f, 0);
+        tracker.onTrackChanged("b", 60_000, 30_000);
+        assertEquals(1, listened.size());
+        assertEquals("a", listened.get(0));
+        assertEquals("b", tracker.getTrackId());
+        assertEquals(0, tracker.getListenedMs());
+    }
+
+    @Test
+    public void lateDurationCompletesTheCheck() {
+        tracker.onTrackChanged("a", 0, 0);
+        tracker.onPlaybackState(true, 0, 1f, 0);
+        tracker.onPlaybackState(true, 20_000, 1f, 20_000);
+        assertTrue(listened.isEmpty());
+        tracker.onTrackChanged("a", 40_000, 20_000);
+        assertEquals(1, listened.size());
+    }
+
+    @Test
+    public void restartAfterCountingIsANewPlayThrough() {
+        tracker.onTrackChanged("a", 10_000, 0);
+        tracker.onPlaybackState(true, 0, 1f, 0);
+        tracker.onPlaybackState(true, 9_000, 1f, 9_000);
+        assertEquals(1, listened.size());
+
+        tracker.onPlaybackState(true, 0, 1f, 9_000);
+        tracker.onPlaybackState(true, 6_000, 1f, 15_000);
+        assertEquals(2, listened.size());
+    }
+}
@@ -0,0 +1,138 @@
+package com.bytesmith.daydream.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class LrcParserTest {
+
+    private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    // Two-, three- and four-byte UTF-8
+    private static final String CAFE = "Caf\u00e9";
+    private static final String JAPANESE = "\u65e5\u672c\u8a9e\u306e\u6b4c\u8a5e";
+    private static final String UMLAUTS = "\u00dcn\u00efc\u00f6d\u00e9 \u2713";
+    private static final String MIXED = "\ud83c\udfb5 \u2014 \u6b4c";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void parseTime_fractionsOfEveryLength() {
+        assertEquals(83_000, time("01:23"));
+        assertEquals(83_400, time("01:23.4"));
+        assertEquals(83_450, time("01:23.45"));
+        assertEquals(83_456, time("01:23.456"));
+        assertEquals(83_450, time("01:23:45"));
+        assertEquals(6_000_000, time("100:00"));
+        assertEquals(-1, time("ar:Someone"));
+        assertEquals(-1, time("01:60"));
+        assertEquals(-1, time("01:23."));
+        assertEquals(-1, time("01:23.4x"));
+        assertEquals(-1, time(":23"));
+    }
+
+    @Test
+    public void parse_severalTagsPerLine() {
+        Lyrics lyrics = LrcParser.parse("[00:10.00][00:40.00]Chorus\n[00:20.00]Verse\n");
+        assertLines(lyrics, 10_000, "Chorus", 20_000, "Verse", 40_000, "Chorus");
+    }
+
+    @Test
+    public void parse_offsetAndIdTags() {
+        Lyrics lyrics = LrcParser.parse("[ar:Someone]\n[ti:Song]\n[offset:+500]\n[00:00.20]Early\n[00:01.00]One\n");
+        // A positive offset shows lyrics earlier, never before zero
+        assertLines(lyrics, 0, "Early", 500, "One");
+
+        lyrics = LrcParser.parse("[offset:-250]\n[00:01.00]One\n");
+        assertLines(lyrics, 1250, "One");
+    }
+
+    @Test
+    public void parse_equalTimesKeepFileOrder() {
+        Lyrics lyrics = LrcParser.parse("[00:05.00]First\n[00:02.00]Before\n[00:05.00]Second\n[00:05.00][00:01.00]Third\n");
+        assertLines(lyrics, 1000, "Third", 2000, "Before", 5000, "First", 5000, "Second", 5000, "Third");
+    }
+
+    @Test
+    public void parse_crlfAndUntimedLines() {
+        Lyrics lyrics = LrcParser.parse("[00:01.00] One \r\nNo tag\r\n\r\n[00:02.00]Two\r\n[00:03.00]");
+        assertLines(lyrics, 1000, "One", 2000, "Two", 3000, "");
+        assertSame(Lyrics.EMPTY, LrcParser.parse("[ar:Someone]\nPlain text\n"));
+    }
+
+    @Test
+    public void load_smallFileWithBomAndCrlf() throws IOException {
+        File file = write("small.lrc", BOM, "[00:01.00]" + CAFE + "\r\n[00:02.00][00:04.00]" + JAPANESE
+                + "\r\n[00:03.00]" + UMLAUTS + "\r\n");
+        assertTrue(file.length() <= LrcParser.MAP_THRESHOLD_BYTES);
+        assertLines(LrcParser.load(file), 1000, CAFE, 2000, JAPANESE, 3000, UMLAUTS, 4000, JAPANESE);
+    }
+
+    @Test
+    public void load_mappedFileMatchesParse() throws IOException {
+        StringBuilder text = new StringBuilder("[offset:100]\r\n");
+        int lines = 3000;
+        for (int i = 0; i < lines; i++) {
+            // Out of order, with every time tag used twice
+            int seconds = (i * 7) % (lines / 2);
+            text.append(String.format(Locale.US, "[%02d:%02d.%02d]", seconds / 60, seconds % 60, i % 3))
+                    .append(i).append(' ').append(MIXED).append("\r\n");
+        }
+        File file = write("large.lrc", BOM, text.toString());
+        assertTrue(file.length() > LrcParser.MAP_THRESHOLD_BYTES);
+
+        Lyrics loaded = LrcParser.load(file);
+        Lyrics parsed = LrcParser.parse(text);
+        assertEquals(lines, loaded.size());
+        assertEquals(parsed.size(), loaded.size());
+        for (int i = 0; i < parsed.size(); i++) {
+            assertEquals(parsed.timeAt(i), loaded.timeAt(i));
+            assertEquals(parsed.lineAt(i), loaded.lineAt(i));
+        }
+        assertEquals("0 " + MIXED, loaded.lineAt(0));
+    }
+
+    @Test
+    public void load_malformedUtf8IsReplaced() throws IOException {
+        File file = write("bad.lrc", new byte[0], "[00:01.00]ok\n");
+        try (OutputStream out = new FileOutputStream(file, true)) {
+            out.write("[00:02.00]a".getBytes(StandardCharsets.US_ASCII));
+            out.write(0xC3); // Truncated two-byte character
+            out.write("\n".getBytes(StandardCharsets.US_ASCII));
+        }
+        assertLines(LrcParser.load(file), 1000, "ok", 2000, "a\ufffd");
+    }
+
+    private static long time(String tag) {
+        return LrcParser.parseTime(tag, 0, tag.length());
+    }
+
+    private File write(String name, byte[] prefix, String text) throws IOException {
+        File file = folder.newFile(name);
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(prefix);
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    // Expected (time, line) pairs in order
+    private static void assertLines(Lyrics lyrics, Object... expected) {
+        assertEquals(expected.length / 2, lyrics.size());
+        for (int i = 0; i < lyrics.size(); i++) {
+            assertEquals("time " + i, ((Number) expected[i * 2]).longValue(), lyrics.timeAt(i));
+            assertEquals("line " + i, expected[i * 2 + 1], lyrics.lineAt(i));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.bytesmith.daydream.core;
+
+import org.junit.Test;
+
+import static com.bytesmith.daydream.core.MediaHeuristics.FLAG_MEDIA;
+import static com.bytesmith.daydream.core.MediaHeuristics.FLAG_MEDIA_ACTIONS;
+import static com.bytesmith.daydream.core.MediaHeuristics.FLAG_MEDIA_SESSION;
+import static com.bytesmith.daydream.core.MediaHeuristics.FLAG_PLAYING;
+import static com.bytesmith.daydream.core.MediaHeuristics.FLAG_TRANSPORT_CATEGORY;
+import static com.bytesmith.daydream.core.MediaHeuristics.PLAYBACK_STATE_PLAYING;
+import static org.junit.Assert.assertEquals;
+
+public class MediaHeuristicsTest {
+
+    @Test
+    public void inspect_plainNotificationIsNotMedia() {
+        assertEquals(0, MediaHeuristics.inspect(false, false, -1, null));
+        assertEquals(0, MediaHeuristics.inspect(false, false, -1, new CharSequence[]{"Reply", "Mark as read"}));
+    }
+
+    @Test
+    public void inspect_mediaSessionAlone() {
+        assertEquals(FLAG_MEDIA | FLAG_MEDIA_SESSION, MediaHeuristics.inspect(false, true, -1, null));
+    }
+
+    @Test
+    public void inspect_mediaActionKeywordsIgnoreCaseAndNulls() {
+        assertEquals(FLAG_MEDIA | FLAG_MEDIA_ACTIONS,
+                MediaHeuristics.inspect(false, false, -1, new CharSequence[]{null, "Skip to NEXT"}));
+    }
+
+    @Test
+    public void inspect_transportIsPlayingWhenStateOrActionsSaySo() {
+        assertEquals(FLAG_MEDIA | FLAG_TRANSPORT_CATEGORY,
+                MediaHeuristics.inspect(true, false, -1, null));
+        assertEquals(FLAG_MEDIA | FLAG_TRANSPORT_CATEGORY | FLAG_PLAYING,
+                MediaHeuristics.inspect(true, false, PLAYBACK_STATE_PLAYING, null));
+        assertEquals(FLAG_MEDIA | FLAG_TRANSPORT_CATEGORY | FLAG_PLAYING,
+                MediaHeuristics.inspect(true, false, -1, new CharSequence[]{"Like"}));
+    }
+
+    @Test
+    public void inspect_playingNeedsTransportCategory() {
+        assertEquals(FLAG_MEDIA | FLAG_MEDIA_SESSION,
+                MediaHeuristics.inspect(false, true, PLAYBACK_STATE_PLAYING, new CharSequence[]{"Open"}));
+    }
+}
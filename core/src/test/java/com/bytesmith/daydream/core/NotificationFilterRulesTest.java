@@ -0,0 +1,56 @@
+package com.bytesmith.daydream.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NotificationFilterRulesTest {
+
+    private static final int FLAG_ONGOING = 0x2;
+    private static final int FLAG_FOREGROUND = 0x40;
+
+    @Test
+    public void empty_matchesNothing() {
+        assertFalse(NotificationFilterRules.EMPTY.matches("com.example", "channel", "msg", 0xffff, -1000));
+        assertFalse(NotificationFilterRules.EMPTY.needsImportance());
+        assertEquals(0, NotificationFilterRules.EMPTY.size());
+    }
+
+    @Test
+    public void matches_eachRule() {
+        NotificationFilterRules rules = NotificationFilterRules.compile(
+                Collections.singletonList("com.hidden"), Collections.singletonList("quiet"),
+                Collections.singletonList("promo"), FLAG_ONGOING, NotificationFilterRules.IMPORTANCE_ANY);
+
+        assertTrue(rules.matches("com.hidden", null, null, 0, 0));
+        assertTrue(rules.matches("com.shown", "quiet", null, 0, 0));
+        assertTrue(rules.matches("com.shown", null, "promo", 0, 0));
+        assertTrue(rules.matches("com.shown", null, null, FLAG_ONGOING | FLAG_FOREGROUND, 0));
+        assertFalse(rules.matches("com.shown", "loud", "msg", FLAG_FOREGROUND, 0));
+        assertFalse(rules.matches(null, null, null, 0, 0));
+    }
+
+    @Test
+    public void matches_importanceThreshold() {
+        NotificationFilterRules rules = NotificationFilterRules.compile(null, null, null, 0, 3);
+        assertTrue(rules.needsImportance());
+        assertTrue(rules.matches("com.example", null, null, 0, 2));
+        assertFalse(rules.matches("com.example", null, null, 0, 3));
+    }
+
+    @Test
+    public void compile_skipsNullAndEmptyValues() {
+        NotificationFilterRules rules = NotificationFilterRules.compile(
+                Arrays.asList("com.hidden", "", null), Arrays.asList(null, ""), null,
+                FLAG_ONGOING | FLAG_FOREGROUND, NotificationFilterRules.IMPORTANCE_ANY);
+        assertEquals(3, rules.size());
+        assertTrue(rules.excludesPackage("com.hidden"));
+        assertFalse(rules.excludesPackage(""));
+        assertFalse(rules.excludesPackage(null));
+    }
+}
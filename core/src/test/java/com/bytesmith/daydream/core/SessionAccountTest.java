@@ -0,0 +1,115 @@
+package com.bytesmith.daydream.core;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SessionAccountTest {
+
+    private static final long NA = ResourceSample.UNAVAILABLE;
+    private static final long MINUTE_MS = 60 * 1000L;
+
+    @Test
+    public void deltasAndRates_overTwoHours() {
+        SessionAccount account = new SessionAccount(sample(0, 3_000_000, -200_000, 80, false, 1000, 0, 10));
+        account.sample(sample(30 * MINUTE_MS, 2_950_000, -300_000, 78, false, 4000, 500, 70));
+        account.sample(sample(120 * MINUTE_MS, 2_900_000, NA, 75, false, 10_000, 1200, 250));
+
+        assertEquals(120 * MINUTE_MS, account.getDurationMs());
+        assertEquals(100_000, account.getChargeUsedUah());
+        assertEquals(50_000, account.perHour(account.getChargeUsedUah()));
+        // The final sample had no current reading, so only the first two count
+        assertEquals(-250_000, account.getMeanCurrentUa());
+        assertEquals(9000, account.getCpuTimeMs());
+        assertEquals(4500, account.perHour(account.getCpuTimeMs()));
+        assertEquals(1200, account.getMainThreadMessages());
+        assertEquals(600, account.perHour(account.getMainThreadMessages()));
+        assertEquals(240, account.getFrames());
+        assertEquals(120, account.perHour(account.getFrames()));
+        assertFalse(account.wasPlugged());
+    }
+
+    @Test
+    public void unavailableReadings_propagate() {
+        SessionAccount account = new SessionAccount(sample(0, NA, NA, -1, false, 1000, NA, 0));
+        account.sample(sample(60 * MINUTE_MS, NA, NA, -1, true, 2000, 40, 60));
+
+        assertEquals(NA, account.getChargeUsedUah());
+        assertEquals(NA, account.perHour(account.getChargeUsedUah()));
+        assertEquals(NA, account.getMeanCurrentUa());
+        // Missing at the start is as good as missing throughout
+        assertEquals(NA, account.getMainThreadMessages());
+        assertEquals(NA, account.perHour(account.getMainThreadMessages()));
+        assertEquals(1000, account.getCpuTimeMs());
+        assertTrue(account.wasPlugged());
+
+        Map<String, String> values = SessionAccount.parseLogLine(account.toLogLine(0, "Pixel Tablet", 34));
+        assertEquals("na", values.get("chargeUah"));
+        assertEquals("na", values.get("chargeUahPerHour"));
+        assertEquals("na", values.get("meanCurrentUa"));
+        assertEquals("0", values.get("currentSamples"));
+        assertEquals("na", values.get("mainMessages"));
+        assertEquals("na", values.get("mainMessagesPerHour"));
+        assertEquals("1000", values.get("cpuMsPerHour"));
+    }
+
+    @Test
+    public void perHour_unavailableForAnEmptySession() {
+        SessionAccount account = new SessionAccount(sample(5000, 1000, NA, 50, false, 0, 0, 0));
+        assertEquals(0, account.getDurationMs());
+        assertEquals(NA, account.perHour(0));
+    }
+
+    @Test
+    public void logLine_roundTrips() {
+        SessionAccount account = new SessionAccount(sample(0, 3_000_000, -200_000, 80, false, 1000, 0, 10));
+        account.sample(sample(90 * MINUTE_MS, 2_940_000, -200_000, 76, false, 7000, 900, 100));
+
+        String line = account.toLogLine(1_700_000_000_000L, "Pixel Tablet", 34);
+        assertFalse(line.contains("\n"));
+        Map<String, String> values = SessionAccount.parseLogLine(line);
+        assertEquals("1700000000000", values.get("start"));
+        assertEquals("Pixel_Tablet", values.get("model"));
+        assertEquals("34", values.get("sdk"));
+        assertEquals("90.0", values.get("minutes"));
+        assertEquals("0", values.get("plugged"));
+        assertEquals("80-76", values.get("batteryPct"));
+        assertEquals("60000", values.get("chargeUah"));
+        assertEquals("40000", values.get("chargeUahPerHour"));
+        assertEquals("-200000", values.get("meanCurrentUa"));
+        assertEquals("2", values.get("currentSamples"));
+        assertEquals("6000", values.get("cpuMs"));
+        assertEquals("4000", values.get("cpuMsPerHour"));
+        assertEquals("900", values.get("mainMessages"));
+        assertEquals("600", values.get("mainMessagesPerHour"));
+        assertEquals("90", values.get("frames"));
+        assertEquals("60", values.get("framesPerHour"));
+        assertEquals(16, values.size());
+
+        assertEquals("na", SessionAccount.parseLogLine(account.toLogLine(0, null, 21)).get("model"));
+    }
+
+    @Test
+    public void summarize_onBatteryAndCharging() {
+        SessionAccount account = new SessionAccount(sample(0, 3_000_000, NA, 80, false, 1000, 0, 10));
+        account.sample(sample(120 * MINUTE_MS, 2_900_000, NA, 75, false, 10_000, 1200, 250));
+        assertEquals("120.0 min, 50.0 mAh/h, CPU 4.5 s/h, 120 frames/h",
+                SessionAccount.summarize(account.toLogLine(0, "Pixel", 34)));
+
+        SessionAccount charging = new SessionAccount(sample(0, 3_000_000, NA, 80, true, 0, 0, 0));
+        charging.sample(sample(30 * MINUTE_MS, 3_100_000, NA, 85, true, 600, 100, 30));
+        assertEquals("30.0 min, charging, CPU 1.2 s/h, 60 frames/h",
+                SessionAccount.summarize(charging.toLogLine(0, "Pixel", 34)));
+
+        assertEquals("na min", SessionAccount.summarize("garbage without pairs"));
+    }
+
+    private static ResourceSample sample(long timeMs, long chargeUah, long currentUa, int percent, boolean plugged,
+                                         long cpuTimeMs, long mainThreadMessages, long frames) {
+        return new ResourceSample(timeMs, chargeUah, currentUa, percent, plugged, cpuTimeMs, mainThreadMessages, frames);
+    }
+}
@@ -0,0 +1,57 @@
+package com.bytesmith.daydream.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SongTitlesTest {
+
+    @Test
+    public void build_combinesTitleAndArtist() {
+        assertEquals("Song\nArtist", SongTitles.build("Song", "Artist"));
+    }
+
+    @Test
+    public void build_dropsEverythingAfterDashOrDot() {
+        assertEquals("Song\nArtist", SongTitles.build("Song - Remastered 2011", "Artist"));
+        assertEquals("Song\nArtist", SongTitles.build("Song. Live", "Artist"));
+    }
+
+    @Test
+    public void build_dropsParenthesisedParts() {
+        assertEquals("Song\nArtist", SongTitles.build("Song (Live)", "Artist"));
+        assertEquals("Song Name\nArtist", SongTitles.build("Song (Official Video) Name", "Artist"));
+    }
+
+    @Test
+    public void build_removesArtistWordsCaseInsensitively() {
+        assertEquals("Song\nThe Band", SongTitles.build("the band Song", "The Band"));
+        // Whole words only
+        assertEquals("Bandit\nBand", SongTitles.build("Bandit", "Band"));
+    }
+
+    @Test
+    public void build_fallsBackToArtistOrTitle() {
+        assertEquals("Artist", SongTitles.build("Artist", "Artist"));
+        assertEquals("Artist", SongTitles.build(null, "Artist"));
+        assertEquals("Song", SongTitles.build("Song", null));
+        assertEquals("Song", SongTitles.build("Song", ""));
+        assertNull(SongTitles.build(null, null));
+        assertNull(SongTitles.build("", ""));
+    }
+
+    @Test
+    public void appendCapitalized_capitalizesWordsAndCollapsesWhitespace() {
+        StringBuilder out = new StringBuilder();
+        SongTitles.appendCapitalized("  hELLO   wORLD \n", 0, 17, out);
+        assertEquals("Hello World", out.toString());
+    }
+
+    @Test
+    public void appendCapitalized_usesOnlyTheRange() {
+        StringBuilder out = new StringBuilder("> ");
+        SongTitles.appendCapitalized("song title\nartist", 5, 10, out);
+        assertEquals("> Title", out.toString());
+    }
+}
@@ -15,4 +15,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "Daydream"
 include(":app")
+include(":core")
+include(":benchmarks")
  
\ No newline at end of file